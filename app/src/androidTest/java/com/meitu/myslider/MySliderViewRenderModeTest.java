@@ -0,0 +1,137 @@
+package com.meitu.myslider;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.test.AndroidTestCase;
+import android.view.View;
+
+import com.meitu.myslider.core.SliderColors;
+
+/**
+ * 把真实的控件分别用图层（saveLayer + DST_IN 蒙版）和单次绘制画到软件 Bitmap 上，逐个像素比较。
+ * <p>
+ * 两种方式的抗锯齿边缘覆盖率算法不同（图层里圆和滑竿分别叠加，单次绘制按路径的并集计算），
+ * 只比较周围一圈像素颜色都相同的内部像素。
+ */
+public class MySliderViewRenderModeTest extends AndroidTestCase {
+
+    private static final int WIDTH = 600;
+    private static final int HEIGHT = 100;
+    private static final int RANGE_COUNT = 5;
+
+    /**
+     * 每个通道允许的舍入误差
+     */
+    private static final int TOLERANCE = 2;
+
+    private static final int[] EMPTY_COLORS = {0xFFC3C3C3, 0xDDC3C3C3, 0xA0DDDDDD, 0x01000000};
+    private static final int[] FILLED_COLORS = {0xFFFFA500, 0xFFD4237A, 0x80FFA500};
+    private static final int[] BACKGROUNDS = {0xFFFFFFFF, 0xFF000000, 0xFF3366CC};
+
+    private MySliderView view;
+
+    private Bitmap bitmap;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        view = new MySliderView(getContext());
+        view.setRangeCount(RANGE_COUNT);
+        view.measure(View.MeasureSpec.makeMeasureSpec(WIDTH, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(HEIGHT, View.MeasureSpec.EXACTLY));
+        view.layout(0, 0, WIDTH, HEIGHT);
+        bitmap = Bitmap.createBitmap(WIDTH, HEIGHT, Bitmap.Config.ARGB_8888);
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        bitmap.recycle();
+        super.tearDown();
+    }
+
+    public void testSinglePass_matchesLayerPixels_whenExact() throws Exception {
+        int compared = 0;
+        for (int empty : EMPTY_COLORS) {
+            for (int filled : FILLED_COLORS) {
+                if (!new SliderColors(empty, filled).isSinglePassExact()) {
+                    continue;
+                }
+                view.setEmptyColor(empty);
+                view.setFilledColor(filled);
+                for (int background : BACKGROUNDS) {
+                    for (int index = 0; index < RANGE_COUNT; index++) {
+                        view.setThumbIndex(0, index);
+                        int[] layer = render(MySliderView.RENDER_MODE_LAYER, background);
+                        int[] single = render(MySliderView.RENDER_MODE_SINGLE_PASS, background);
+                        int i = firstDifference(layer, single);
+                        if (i >= 0) {
+                            fail(String.format("pixel (%d, %d) empty=%08X filled=%08X background=%08X index=%d: "
+                                            + "layer %08X, single pass %08X", i % WIDTH, i / WIDTH, empty, filled,
+                                    background, index, layer[i], single[i]));
+                        }
+                        compared++;
+                    }
+                }
+            }
+        }
+        assertTrue(compared > 0);
+    }
+
+    public void testSinglePass_differs_whenBothColorsHaveAlpha() throws Exception {
+        view.setEmptyColor(0xA0DDDDDD);
+        view.setFilledColor(0x80FFA500);
+        view.setThumbIndex(0, RANGE_COUNT / 2);
+        int[] layer = render(MySliderView.RENDER_MODE_LAYER, 0xFFFFFFFF);
+        int[] single = render(MySliderView.RENDER_MODE_SINGLE_PASS, 0xFFFFFFFF);
+        assertTrue(firstDifference(layer, single) >= 0);
+    }
+
+    private int[] render(int renderMode, int background) {
+        view.setRenderMode(renderMode);
+        Canvas canvas = new Canvas(bitmap);
+        canvas.drawColor(background);
+        view.draw(canvas);
+        int[] pixels = new int[WIDTH * HEIGHT];
+        bitmap.getPixels(pixels, 0, WIDTH, 0, 0, WIDTH, HEIGHT);
+        return pixels;
+    }
+
+    /**
+     * @return 第一个超出误差的内部像素，没有时为 -1
+     */
+    private static int firstDifference(int[] expected, int[] actual) {
+        for (int y = 1; y < HEIGHT - 1; y++) {
+            for (int x = 1; x < WIDTH - 1; x++) {
+                int i = y * WIDTH + x;
+                if (!isEdge(expected, x, y) && !isEdge(actual, x, y) && !close(expected[i], actual[i])) {
+                    return i;
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 周围一圈像素里有和自己颜色不同的，说明在图形的边缘上
+     */
+    private static boolean isEdge(int[] pixels, int x, int y) {
+        int color = pixels[y * WIDTH + x];
+        for (int dy = -1; dy <= 1; dy++) {
+            for (int dx = -1; dx <= 1; dx++) {
+                if (pixels[(y + dy) * WIDTH + x + dx] != color) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean close(int a, int b) {
+        for (int shift = 0; shift < 32; shift += 8) {
+            if (Math.abs(((a >>> shift) & 0xFF) - ((b >>> shift) & 0xFF)) > TOLERANCE) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,88 @@
+package com.meitu.myslider;
+
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.BitmapRegionDecoder;
+import android.graphics.Rect;
+import android.util.Log;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * 把一张横向的图片等分成若干帧，按节点取其中一帧，只解码需要的区域
+ */
+public class FilmstripPreviewProvider implements PreviewProvider {
+
+    private static final String TAG = "FilmstripPreview";
+
+    private final Resources resources;
+
+    private final int resId;
+
+    private final int frameCount;
+
+    private BitmapRegionDecoder decoder;
+
+    /**
+     * @param frameCount 帧数，一般等于节点数
+     */
+    public FilmstripPreviewProvider(Resources resources, int resId, int frameCount) {
+        if (frameCount <= 0) {
+            throw new IllegalArgumentException("frameCount must be > 0");
+        }
+        this.resources = resources;
+        this.resId = resId;
+        this.frameCount = frameCount;
+    }
+
+    @Override
+    public synchronized Bitmap loadPreview(int index, int maxWidth, int maxHeight) {
+        if (index < 0 || index >= frameCount) {
+            return null;
+        }
+        BitmapRegionDecoder decoder = decoder();
+        if (decoder == null) {
+            return null;
+        }
+        int width = decoder.getWidth();
+        int height = decoder.getHeight();
+        Rect frame = new Rect(index * width / frameCount, 0, (index + 1) * width / frameCount, height);
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inSampleSize = sampleSize(frame.width(), frame.height(), maxWidth, maxHeight);
+        options.inPreferredConfig = Bitmap.Config.RGB_565;
+        return decoder.decodeRegion(frame, options);
+    }
+
+    /**
+     * 第一次使用时打开，之后一直复用
+     */
+    private BitmapRegionDecoder decoder() {
+        if (decoder == null) {
+            InputStream in = resources.openRawResource(resId);
+            try {
+                decoder = BitmapRegionDecoder.newInstance(in, false);
+            } catch (IOException e) {
+                Log.w(TAG, "Unable to open filmstrip " + resId, e);
+            } finally {
+                try {
+                    in.close();
+                } catch (IOException ignored) {
+                }
+            }
+        }
+        return decoder;
+    }
+
+    /**
+     * 不小于目标尺寸的最大 2 的幂缩放
+     */
+    static int sampleSize(int width, int height, int maxWidth, int maxHeight) {
+        int sampleSize = 1;
+        while (width / (sampleSize * 2) >= maxWidth && height / (sampleSize * 2) >= maxHeight) {
+            sampleSize *= 2;
+        }
+        return sampleSize;
+    }
+}
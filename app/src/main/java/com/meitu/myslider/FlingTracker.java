@@ -0,0 +1,90 @@
+package com.meitu.myslider;
+
+import android.content.Context;
+import android.view.MotionEvent;
+import android.view.VelocityTracker;
+import android.view.ViewConfiguration;
+
+/**
+ * {@link MySliderView} 和 {@link MultiSliderView} 共用的速度记录：手指抬起时算出它沿滑竿方向的初速度，
+ * 判断是否惯性滑动。速度范围第一次按下时从 ViewConfiguration 读取。
+ */
+final class FlingTracker {
+
+    private VelocityTracker velocityTracker;
+
+    private float minFlingVelocity = Float.MAX_VALUE;
+
+    private float maxFlingVelocity = Float.MAX_VALUE;
+
+    /**
+     * 最近抬起的手指沿滑竿方向的速度，像素/秒
+     */
+    private float releaseVelocity;
+
+    /**
+     * 分发事件之前调用
+     *
+     * @param vertical 竖直的滑竿，第一个节点在下方，取向上的速度
+     */
+    void addMovement(Context context, MotionEvent event, boolean vertical) {
+        int action = event.getActionMasked();
+        if (action == MotionEvent.ACTION_DOWN) {
+            if (velocityTracker == null) {
+                velocityTracker = VelocityTracker.obtain();
+            } else {
+                velocityTracker.clear();
+            }
+            if (minFlingVelocity == Float.MAX_VALUE) {
+                ViewConfiguration configuration = ViewConfiguration.get(context);
+                minFlingVelocity = configuration.getScaledMinimumFlingVelocity();
+                maxFlingVelocity = configuration.getScaledMaximumFlingVelocity();
+            }
+        }
+        if (velocityTracker == null) {
+            return;
+        }
+        velocityTracker.addMovement(event);
+        if (action == MotionEvent.ACTION_UP || action == MotionEvent.ACTION_POINTER_UP) {
+            int pointerId = event.getPointerId(event.getActionIndex());
+            velocityTracker.computeCurrentVelocity(1000, maxFlingVelocity);
+            releaseVelocity = vertical
+                    ? -velocityTracker.getYVelocity(pointerId) : velocityTracker.getXVelocity(pointerId);
+        }
+    }
+
+    /**
+     * 分发事件之后调用，手势结束时回收 VelocityTracker
+     */
+    void endEvent(MotionEvent event) {
+        int action = event.getActionMasked();
+        if ((action == MotionEvent.ACTION_UP || action == MotionEvent.ACTION_CANCEL) && velocityTracker != null) {
+            velocityTracker.recycle();
+            velocityTracker = null;
+        }
+    }
+
+    /**
+     * 取出最近抬起的手指的速度并清零
+     */
+    float takeReleaseVelocity() {
+        float velocity = releaseVelocity;
+        releaseVelocity = 0;
+        return velocity;
+    }
+
+    boolean isFling(float velocity) {
+        return Math.abs(velocity) >= minFlingVelocity;
+    }
+
+    /**
+     * 代替 ViewConfiguration 的速度范围，回放触摸轨迹时使用
+     */
+    void setVelocityRange(float min, float max) {
+        if (!(min >= 0 && max >= min)) {
+            throw new IllegalArgumentException("Invalid fling velocity range");
+        }
+        minFlingVelocity = min;
+        maxFlingVelocity = max;
+    }
+}
@@ -0,0 +1,285 @@
+package com.meitu.myslider;
+
+import android.graphics.Path;
+
+import com.meitu.myslider.core.MinMaxDecimator;
+
+import java.util.ArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * 滑竿后面的数据分布图。
+ * <p>
+ * 主线程只复制传入的数据并排队，压缩成每像素一列的最小/最大值和生成路径都在后台线程完成，
+ * 生成后发布一个新的 {@link Path}，再通过回调让控件重绘。连续追加的数据在后台合并成一次处理，
+ * 每列的纵坐标缓存起来，追加时只重新计算改变的列。
+ * 每列从 0 画到最大值，有负值时从最小值画起。
+ */
+final class HistogramRenderer {
+
+    private static ExecutorService sharedExecutor;
+
+    private final Runnable onReady;
+
+    private Executor executor;
+
+    private final Object lock = new Object();
+
+    /**
+     * 以下待处理的状态都由 lock 保护
+     */
+    private boolean pendingClear;
+
+    private final ArrayList<Object> pendingChunks = new ArrayList<>();
+
+    private boolean pendingBounds;
+
+    private float pendingLeft;
+
+    private float pendingTop;
+
+    private float pendingRight;
+
+    private float pendingBottom;
+
+    private boolean scheduled;
+
+    /**
+     * 以下只在后台线程访问
+     */
+    private final MinMaxDecimator decimator = new MinMaxDecimator(2);
+
+    private float left;
+
+    private float top;
+
+    private float right;
+
+    private float bottom;
+
+    private float[] upperYs = new float[0];
+
+    private float[] lowerYs = new float[0];
+
+    private float builtLow = Float.NaN;
+
+    private float builtHigh = Float.NaN;
+
+    private int lastRebuiltFrom;
+
+    private volatile Path path;
+
+    private final Runnable buildTask = new Runnable() {
+        @Override
+        public void run() {
+            drain();
+        }
+    };
+
+    /**
+     * @param onReady 新的路径生成后在后台线程调用，应当让控件重绘
+     */
+    HistogramRenderer(Runnable onReady) {
+        this.onReady = onReady;
+    }
+
+    /**
+     * 所有控件共用一个低优先级的后台线程
+     */
+    private static synchronized Executor sharedExecutor() {
+        if (sharedExecutor == null) {
+            sharedExecutor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable r) {
+                    Thread thread = new Thread(r, "MySlider-histogram");
+                    thread.setDaemon(true);
+                    thread.setPriority(Thread.MIN_PRIORITY);
+                    return thread;
+                }
+            });
+        }
+        return sharedExecutor;
+    }
+
+    /**
+     * @param executor 计算所在的线程，null 表示共用的后台线程
+     */
+    void setExecutor(Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * @return 最近一次生成的路径，还没有数据时返回 null
+     */
+    Path getPath() {
+        return path;
+    }
+
+    /**
+     * @param data 主线程复制好的 float[] 或 int[]，之后不再修改
+     */
+    void set(Object data) {
+        synchronized (lock) {
+            pendingClear = true;
+            pendingChunks.clear();
+            pendingChunks.add(data);
+            schedule();
+        }
+    }
+
+    /**
+     * @param data 主线程复制好的 float[] 或 int[]，之后不再修改
+     */
+    void append(Object data) {
+        synchronized (lock) {
+            pendingChunks.add(data);
+            schedule();
+        }
+    }
+
+    void clear() {
+        synchronized (lock) {
+            pendingClear = true;
+            pendingChunks.clear();
+            schedule();
+        }
+    }
+
+    /**
+     * 分布图占据的区域，bottom 是数值 0 的位置
+     */
+    void setBounds(float left, float top, float right, float bottom) {
+        synchronized (lock) {
+            pendingLeft = left;
+            pendingTop = top;
+            pendingRight = right;
+            pendingBottom = bottom;
+            pendingBounds = true;
+            schedule();
+        }
+    }
+
+    private void schedule() {
+        if (scheduled) {
+            return;
+        }
+        scheduled = true;
+        Executor executor = this.executor != null ? this.executor : sharedExecutor();
+        executor.execute(buildTask);
+    }
+
+    /**
+     * 在后台线程处理排队的数据，处理期间新来的数据在下一轮处理
+     */
+    private void drain() {
+        ArrayList<Object> chunks = new ArrayList<>();
+        for (; ; ) {
+            boolean clear;
+            boolean bounds;
+            synchronized (lock) {
+                clear = pendingClear;
+                bounds = pendingBounds;
+                if (!clear && !bounds && pendingChunks.isEmpty()) {
+                    scheduled = false;
+                    return;
+                }
+                chunks.addAll(pendingChunks);
+                pendingChunks.clear();
+                pendingClear = false;
+                pendingBounds = false;
+                if (bounds) {
+                    left = pendingLeft;
+                    top = pendingTop;
+                    right = pendingRight;
+                    bottom = pendingBottom;
+                }
+            }
+            if (clear) {
+                decimator.clear();
+            }
+            if (bounds) {
+                decimator.setMaxColumns(Math.max(2, (int) (right - left)));
+            }
+            for (int i = 0; i < chunks.size(); i++) {
+                Object chunk = chunks.get(i);
+                if (chunk instanceof float[]) {
+                    float[] data = (float[]) chunk;
+                    decimator.append(data, 0, data.length);
+                } else {
+                    int[] data = (int[]) chunk;
+                    decimator.append(data, 0, data.length);
+                }
+            }
+            chunks.clear();
+            path = buildPath(bounds);
+            onReady.run();
+        }
+    }
+
+    private Path buildPath(boolean boundsChanged) {
+        int columns = decimator.getColumnCount();
+        if (columns == 0 || !(right > left)) {
+            decimator.clearDirty();
+            return null;
+        }
+        float low = Math.min(decimator.getLow(), 0f);
+        float high = Math.max(decimator.getHigh(), 0f);
+        if (!(high > low)) {
+            high = low + 1;
+        }
+        if (upperYs.length < decimator.getMaxColumns()) {
+            upperYs = new float[decimator.getMaxColumns()];
+            lowerYs = new float[decimator.getMaxColumns()];
+            boundsChanged = true;
+        }
+        /** 纵向比例和区域都没变时只重新计算改变的列 */
+        int from = boundsChanged || low != builtLow || high != builtHigh ? 0 : decimator.getDirtyFrom();
+        float scale = (bottom - top) / (high - low);
+        for (int c = from; c < columns; c++) {
+            float min = decimator.getMin(c);
+            float max = decimator.getMax(c);
+            if (Float.isNaN(min)) {
+                min = 0;
+                max = 0;
+            }
+            upperYs[c] = bottom - (Math.max(max, 0f) - low) * scale;
+            lowerYs[c] = bottom - (Math.min(min, 0f) - low) * scale;
+        }
+        builtLow = low;
+        builtHigh = high;
+        lastRebuiltFrom = from;
+        decimator.clearDirty();
+
+        /** 每列是一段水平线，上沿从左到右，下沿从右到左 */
+        float columnWidth = (right - left) * decimator.getSamplesPerColumn() / decimator.getSampleCount();
+        Path result = new Path();
+        result.incReserve(columns * 4 + 1);
+        result.moveTo(left, upperYs[0]);
+        for (int c = 0; c < columns; c++) {
+            float x = Math.min(left + c * columnWidth, right);
+            result.lineTo(x, upperYs[c]);
+            result.lineTo(Math.min(x + columnWidth, right), upperYs[c]);
+        }
+        for (int c = columns - 1; c >= 0; c--) {
+            float x = Math.min(left + c * columnWidth, right);
+            result.lineTo(Math.min(x + columnWidth, right), lowerYs[c]);
+            result.lineTo(x, lowerYs[c]);
+        }
+        result.close();
+        return result;
+    }
+
+    /**
+     * 上次生成路径时重新计算纵坐标的第一列，测试用
+     */
+    int getLastRebuiltFrom() {
+        return lastRebuiltFrom;
+    }
+
+    MinMaxDecimator getDecimator() {
+        return decimator;
+    }
+}
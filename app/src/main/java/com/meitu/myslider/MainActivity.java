@@ -11,5 +11,8 @@ public class MainActivity extends AppCompatActivity {
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_main);
+
+        MySliderView preview = (MySliderView) findViewById(R.id.rsv_preview);
+        preview.setPreviewProvider(new FilmstripPreviewProvider(getResources(), R.drawable.timg, preview.getRangeCount()));
     }
 }
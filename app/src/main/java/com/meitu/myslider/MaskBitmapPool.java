@@ -0,0 +1,103 @@
+package com.meitu.myslider;
+
+import android.content.ComponentCallbacks2;
+import android.content.Context;
+import android.content.res.Configuration;
+import android.graphics.Bitmap;
+
+import com.meitu.myslider.core.KeyedPool;
+
+/**
+ * DST_IN 蒙版Bitmap的共享池。
+ * <p>
+ * 蒙版只是整块相同的alpha，尺寸和alpha相同的控件共用一张 ALPHA_8 Bitmap，
+ * 列表里几百行同样大小的滑竿只占一张。控件detach时释放，内存紧张时销毁空闲的蒙版。
+ * 只在主线程使用。
+ */
+final class MaskBitmapPool {
+
+    /**
+     * 列表滚动时刚detach的蒙版很快又会用到，保留几张空闲的
+     */
+    private static final int MAX_IDLE = 4;
+
+    private static final KeyedPool<Bitmap> POOL = new KeyedPool<Bitmap>(MAX_IDLE) {
+        @Override
+        protected Bitmap create(long key) {
+            Bitmap bitmap = Bitmap.createBitmap(width(key), height(key), Bitmap.Config.ALPHA_8);
+            /** JVM 单元测试里 android.jar 返回 null */
+            if (bitmap != null) {
+                bitmap.eraseColor(alpha(key) << 24);
+            }
+            return bitmap;
+        }
+
+        @Override
+        protected void destroy(Bitmap bitmap) {
+            if (bitmap != null) {
+                bitmap.recycle();
+            }
+        }
+    };
+
+    private static boolean registered;
+
+    private static final ComponentCallbacks2 TRIM_CALLBACKS = new ComponentCallbacks2() {
+        @Override
+        public void onTrimMemory(int level) {
+            POOL.trim();
+        }
+
+        @Override
+        public void onConfigurationChanged(Configuration newConfig) {
+        }
+
+        @Override
+        public void onLowMemory() {
+            POOL.trim();
+        }
+    };
+
+    private MaskBitmapPool() {
+    }
+
+    /**
+     * 第一次使用时注册内存回调，之后直接返回
+     */
+    static void register(Context context) {
+        if (registered || context == null) {
+            return;
+        }
+        Context app = context.getApplicationContext();
+        (app != null ? app : context).registerComponentCallbacks(TRIM_CALLBACKS);
+        registered = true;
+    }
+
+    static long key(int width, int height, int alpha) {
+        return ((long) width << 40) | ((long) (height & 0xFFFFFF) << 16) | (alpha & 0xFF);
+    }
+
+    static int width(long key) {
+        return (int) (key >>> 40);
+    }
+
+    static int height(long key) {
+        return (int) ((key >>> 16) & 0xFFFFFF);
+    }
+
+    static int alpha(long key) {
+        return (int) (key & 0xFF);
+    }
+
+    static Bitmap acquire(long key) {
+        return POOL.acquire(key);
+    }
+
+    static void release(long key) {
+        POOL.release(key);
+    }
+
+    static void trimMemory() {
+        POOL.trim();
+    }
+}
@@ -0,0 +1,678 @@
+package com.meitu.myslider;
+
+import android.content.Context;
+import android.content.res.TypedArray;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Path;
+import android.os.Parcel;
+import android.os.Parcelable;
+import android.util.AttributeSet;
+import android.util.Log;
+import android.view.MotionEvent;
+import android.view.View;
+
+import com.meitu.myslider.core.IntervalModel;
+import com.meitu.myslider.core.SliderColors;
+import com.meitu.myslider.core.SlotLayout;
+import com.meitu.myslider.core.SnapAnimation;
+
+/**
+ * 在一个控件里绘制多条滑竿，用于均衡器、调音台这类几十条滑竿并排的界面。
+ * <p>
+ * 所有滑竿共用节点位置、画笔、轨道路径和帧回调，只有一次触摸分发和一次绘制；
+ * 半径、轨道路径、吸附、绘制和速度记录与 {@link MySliderView} 是同一份代码（{@link SliderTrack}、{@link FlingTracker}），
+ * 默认值也相同。
+ * 带alpha的颜色用一个图层完成，不为每条滑竿创建蒙版Bitmap，内存和绘制时间只和像素有关。
+ * <p>
+ * 计算都在滑竿坐标系里进行：main 沿着滑竿方向，cross 是滑竿排列的方向。
+ * 竖直滑竿的第一个节点在下方。
+ */
+public class MultiSliderView extends View {
+    private static final String TAG = "MultiSlider";
+
+    private static final boolean DEBUG = false;
+
+    /**
+     * 滑竿水平，从上到下排列
+     */
+    public static final int ORIENTATION_HORIZONTAL = 0;
+    /**
+     * 滑竿竖直，从左到右排列
+     */
+    public static final int ORIENTATION_VERTICAL = 1;
+
+    private static final int DEFAULT_TRACK_COUNT = 1;
+
+    /**
+     * 每条滑竿默认占的宽度
+     */
+    private static final int DEFAULT_LANE_IN_DP = 50;
+
+    private int orientation = ORIENTATION_HORIZONTAL;
+
+    private int trackCount;
+
+    private int rangeCount = MySliderView.DEFAULT_RANGE_COUNT;
+
+    private IntervalModel intervalModel;
+
+    private final SlotLayout slotLayout = new SlotLayout();
+
+    /**
+     * 所有滑竿共用一份半径和未选中轨道路径，路径的中心线在 cross = 0，绘制每条滑竿时平移过去
+     */
+    private final SliderTrack sliderTrack = new SliderTrack(slotLayout);
+
+    private float[] slotPositions;
+
+    private SliderColors colors;
+
+    private int filledColor = MySliderView.DEFAULT_FILLED_COLOR;
+
+    private int emptyColor = MySliderView.DEFAULT_EMPTY_COLOR;
+
+    private float barHeightPercent = MySliderView.DEFAULT_BAR_HEIGHT_PERCENT;
+
+    private float slotRadiusPercent = MySliderView.DEFAULT_SLOT_RADIUS_PERCENT;
+
+    private float sliderRadiusPercent = MySliderView.DEFAULT_SLIDER_RADIUS_PERCENT;
+
+    private boolean isAnimate = false;
+
+    /**
+     * 所有滑竿共用的画笔，和 MySliderView 也是同一支
+     */
+    private final Paint paint;
+
+    /**
+     * 滑竿坐标系下的尺寸
+     */
+    private int mainStart;
+
+    private int mainLength;
+
+    private int crossStart;
+
+    private float laneSize;
+
+    /**
+     * 计算位置时的控件高度，竖直滑竿从下往上计算 main
+     */
+    private int viewHeight;
+
+    /**
+     * 每条滑竿的节点、滑块位置、吸附动画和拖动它的手指
+     */
+    private int[] indices = new int[0];
+
+    private float[] positions = new float[0];
+
+    private SnapAnimation[] snapAnimations = new SnapAnimation[0];
+
+    private int[] pointers = new int[0];
+
+    private static final int NO_POINTER = -1;
+
+    private final FlingTracker flingTracker = new FlingTracker();
+
+    private boolean frameScheduled;
+
+    private final Runnable frameCallback = new Runnable() {
+        @Override
+        public void run() {
+            frameScheduled = false;
+            onFrame(System.nanoTime());
+        }
+    };
+
+    private OnTrackSlideListener listener;
+
+    public MultiSliderView(Context context) {
+        this(context, null);
+    }
+
+    public MultiSliderView(Context context, AttributeSet attrs) {
+        this(context, attrs, -1);
+    }
+
+    public MultiSliderView(Context context, AttributeSet attrs, int defStyleAttr) {
+        super(context, attrs, defStyleAttr);
+        int trackCount = DEFAULT_TRACK_COUNT;
+        String rangeInterval = null;
+        if (attrs != null) {
+            TypedArray a = context.obtainStyledAttributes(attrs, R.styleable.RangeSliderView);
+            TypedArray m = context.obtainStyledAttributes(attrs, R.styleable.MultiSliderView);
+            try {
+                rangeCount = a.getInt(
+                        R.styleable.RangeSliderView_rangeCount, MySliderView.DEFAULT_RANGE_COUNT);
+                filledColor = a.getColor(
+                        R.styleable.RangeSliderView_filledColor, MySliderView.DEFAULT_FILLED_COLOR);
+                emptyColor = a.getColor(
+                        R.styleable.RangeSliderView_emptyColor, MySliderView.DEFAULT_EMPTY_COLOR);
+                barHeightPercent = a.getFloat(
+                        R.styleable.RangeSliderView_barHeightPercent, MySliderView.DEFAULT_BAR_HEIGHT_PERCENT);
+                slotRadiusPercent = a.getFloat(
+                        R.styleable.RangeSliderView_slotRadiusPercent, MySliderView.DEFAULT_SLOT_RADIUS_PERCENT);
+                sliderRadiusPercent = a.getFloat(
+                        R.styleable.RangeSliderView_sliderRadiusPercent, MySliderView.DEFAULT_SLIDER_RADIUS_PERCENT);
+                rangeInterval = a.getString(
+                        R.styleable.RangeSliderView_rangeInterval);
+                isAnimate = a.getBoolean(
+                        R.styleable.RangeSliderView_isAnimate, false);
+                trackCount = m.getInt(
+                        R.styleable.MultiSliderView_trackCount, DEFAULT_TRACK_COUNT);
+                orientation = m.getInt(
+                        R.styleable.MultiSliderView_trackOrientation, ORIENTATION_HORIZONTAL);
+            } finally {
+                a.recycle();
+                m.recycle();
+            }
+        }
+
+        paint = SliderStyles.fillPaint();
+        colors = SliderStyles.colors(emptyColor, filledColor);
+
+        setRangeCount(rangeCount);
+        setRangeInterval(rangeInterval);
+        setTrackCount(trackCount);
+        slotPositions = slotLayout.getPositions();
+    }
+
+    public int getTrackCount() {
+        return trackCount;
+    }
+
+    /**
+     * 设置滑竿条数，所有滑块回到第一个节点
+     */
+    public void setTrackCount(int trackCount) {
+        if (trackCount < 1) {
+            throw new IllegalArgumentException("trackCount must be >= 1");
+        }
+        this.trackCount = trackCount;
+        if (indices.length != trackCount) {
+            indices = new int[trackCount];
+            positions = new float[trackCount];
+            pointers = new int[trackCount];
+            snapAnimations = new SnapAnimation[trackCount];
+            for (int i = 0; i < trackCount; i++) {
+                snapAnimations[i] = new SnapAnimation();
+            }
+        }
+        for (int i = 0; i < trackCount; i++) {
+            indices[i] = 0;
+            pointers[i] = NO_POINTER;
+            snapAnimations[i].cancel();
+        }
+        requestLayout();
+        if (getWidth() > 0) {
+            preComputeDrawingPosition(getWidth(), getHeight());
+        }
+        invalidate();
+    }
+
+    public int getOrientation() {
+        return orientation;
+    }
+
+    /**
+     * @param orientation {@link #ORIENTATION_HORIZONTAL} 或 {@link #ORIENTATION_VERTICAL}
+     */
+    public void setOrientation(int orientation) {
+        if (orientation != ORIENTATION_HORIZONTAL && orientation != ORIENTATION_VERTICAL) {
+            throw new IllegalArgumentException("Unknown orientation " + orientation);
+        }
+        if (this.orientation != orientation) {
+            this.orientation = orientation;
+            requestLayout();
+            if (getWidth() > 0) {
+                preComputeDrawingPosition(getWidth(), getHeight());
+            }
+            invalidate();
+        }
+    }
+
+    public int getRangeCount() {
+        return rangeCount;
+    }
+
+    public void setRangeCount(int rangeCount) {
+        if (rangeCount < 2) {
+            throw new IllegalArgumentException("rangeCount must be >= 2");
+        }
+        if (intervalModel != null && intervalModel.getSlotCount() != rangeCount) {
+            throw new IllegalArgumentException("rangeCount " + rangeCount
+                    + " does not match rangeInterval with " + intervalModel.getSlotCount() + " slots");
+        }
+        if (this.rangeCount != rangeCount) {
+            this.rangeCount = rangeCount;
+            requestLayout();
+        }
+    }
+
+    /**
+     * 设置节点间隔，所有滑竿相同
+     *
+     * @param rangeInterval 逗号分隔的间隔比例，如 "0.1,0.2,0.4"，null 表示均匀分布
+     */
+    public void setRangeInterval(String rangeInterval) {
+        IntervalModel model = SliderStyles.intervalModel(rangeInterval);
+        if (model != null && model.getSlotCount() < 2) {
+            throw new IllegalArgumentException("rangeCount must be >= 2");
+        }
+        this.intervalModel = model;
+        if (model != null) {
+            rangeCount = model.getSlotCount();
+        }
+        requestLayout();
+    }
+
+    public int getFilledColor() {
+        return filledColor;
+    }
+
+    public void setFilledColor(int filledColor) {
+        this.filledColor = filledColor;
+        colors = SliderStyles.colors(emptyColor, filledColor);
+        invalidate();
+    }
+
+    public int getEmptyColor() {
+        return emptyColor;
+    }
+
+    public void setEmptyColor(int emptyColor) {
+        this.emptyColor = emptyColor;
+        colors = SliderStyles.colors(emptyColor, filledColor);
+        invalidate();
+    }
+
+    public boolean isAnimate() {
+        return isAnimate;
+    }
+
+    public void setAnimate(boolean animate) {
+        isAnimate = animate;
+    }
+
+    public void setOnTrackSlideListener(OnTrackSlideListener listener) {
+        this.listener = listener;
+    }
+
+    public int getIndex(int track) {
+        return indices[track];
+    }
+
+    public void setIndex(int track, int index) {
+        if (track < 0 || track >= trackCount) {
+            throw new IllegalArgumentException("Attempted to set track=" + track + " out of range [0," + trackCount + ")");
+        }
+        if (index < 0 || index >= rangeCount) {
+            throw new IllegalArgumentException("Attempted to set index=" + index + " out of range [0," + rangeCount + "]");
+        }
+        snapAnimations[track].cancel();
+        indices[track] = index;
+        if (index < slotLayout.getCount()) {
+            positions[track] = slotPositions[index];
+        }
+        invalidateTrack(track);
+    }
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        int lanes = trackCount * MySliderView.dpToPx(getContext(), DEFAULT_LANE_IN_DP);
+        int desiredWidth = orientation == ORIENTATION_VERTICAL ? lanes : getSuggestedMinimumWidth();
+        int desiredHeight = orientation == ORIENTATION_HORIZONTAL ? lanes : getSuggestedMinimumHeight();
+        setMeasuredDimension(resolveSize(desiredWidth + getPaddingLeft() + getPaddingRight(), widthMeasureSpec),
+                resolveSize(desiredHeight + getPaddingTop() + getPaddingBottom(), heightMeasureSpec));
+        preComputeDrawingPosition(getMeasuredWidth(), getMeasuredHeight());
+    }
+
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+        preComputeDrawingPosition(w, h);
+    }
+
+    /**
+     * 计算滑竿坐标系下的尺寸和节点位置，所有滑竿共用一份
+     */
+    private void preComputeDrawingPosition(int width, int height) {
+        int crossLength;
+        viewHeight = height;
+        if (orientation == ORIENTATION_HORIZONTAL) {
+            mainStart = getPaddingLeft();
+            mainLength = width - getPaddingLeft() - getPaddingRight();
+            crossStart = getPaddingTop();
+            crossLength = height - getPaddingTop() - getPaddingBottom();
+        } else {
+            mainStart = getPaddingBottom();
+            mainLength = height - getPaddingTop() - getPaddingBottom();
+            crossStart = getPaddingLeft();
+            crossLength = width - getPaddingLeft() - getPaddingRight();
+        }
+        laneSize = crossLength / (float) trackCount;
+        sliderTrack.setSize(laneSize, sliderRadiusPercent, slotRadiusPercent, barHeightPercent);
+        slotLayout.layout(rangeCount, intervalModel, mainStart, mainLength, sliderTrack.getRadius());
+        slotPositions = slotLayout.getPositions();
+        for (int i = 0; i < trackCount; i++) {
+            if (indices[i] >= rangeCount) {
+                indices[i] = rangeCount - 1;
+            }
+            positions[i] = slotPositions[indices[i]];
+        }
+        sliderTrack.markPathDirty();
+        if (DEBUG) {
+            Log.d(TAG, "preComputeDrawingPosition: lane " + laneSize);
+        }
+    }
+
+    /**
+     * 第 track 条滑竿中心线的 cross 坐标
+     */
+    private float laneCenter(int track) {
+        return crossStart + laneSize * (track + 0.5f);
+    }
+
+    private float toMain(float x, float y) {
+        return orientation == ORIENTATION_HORIZONTAL ? x : viewHeight - y;
+    }
+
+    private float toCross(float x, float y) {
+        return orientation == ORIENTATION_HORIZONTAL ? y : x;
+    }
+
+    @Override
+    public boolean onTouchEvent(MotionEvent event) {
+        final int action = event.getActionMasked();
+        flingTracker.addMovement(getContext(), event, orientation == ORIENTATION_VERTICAL);
+        switch (action) {
+            case MotionEvent.ACTION_DOWN:
+            case MotionEvent.ACTION_POINTER_DOWN: {
+                int index = event.getActionIndex();
+                onPointerDown(event.getPointerId(index), event.getX(index), event.getY(index));
+                break;
+            }
+
+            case MotionEvent.ACTION_MOVE: {
+                int pointerCount = event.getPointerCount();
+                for (int p = 0; p < pointerCount; p++) {
+                    onPointerMove(event.getPointerId(p), event.getX(p), event.getY(p));
+                }
+                break;
+            }
+
+            case MotionEvent.ACTION_UP:
+            case MotionEvent.ACTION_POINTER_UP: {
+                int index = event.getActionIndex();
+                onPointerUp(event.getPointerId(index), event.getX(index), event.getY(index),
+                        flingTracker.takeReleaseVelocity());
+                break;
+            }
+
+            case MotionEvent.ACTION_CANCEL:
+                onCancel();
+                break;
+        }
+        flingTracker.endEvent(event);
+        return true;
+    }
+
+    /**
+     * 手指落在哪条滑竿上直接算出来，已经被别的手指拖动时忽略
+     */
+    void onPointerDown(int pointerId, float x, float y) {
+        float main = toMain(x, y);
+        float cross = toCross(x, y);
+        int track = (int) Math.floor((cross - crossStart) / laneSize);
+        if (track < 0 || track >= trackCount || pointers[track] != NO_POINTER) {
+            return;
+        }
+        if (!sliderTrack.isOnTrack(main)) {
+            return;
+        }
+        snapAnimations[track].cancel();
+        pointers[track] = pointerId;
+        if (DEBUG) {
+            Log.d(TAG, "onPointerDown: track " + track);
+        }
+    }
+
+    void onPointerMove(int pointerId, float x, float y) {
+        int track = trackForPointer(pointerId);
+        if (track < 0) {
+            return;
+        }
+        positions[track] = slotLayout.clamp(toMain(x, y));
+        invalidateTrack(track);
+    }
+
+    void onPointerUp(int pointerId, float x, float y, float velocity) {
+        int track = trackForPointer(pointerId);
+        if (track < 0) {
+            return;
+        }
+        pointers[track] = NO_POINTER;
+        positions[track] = slotLayout.clamp(toMain(x, y));
+        snap(track, velocity);
+    }
+
+    void onCancel() {
+        for (int i = 0; i < trackCount; i++) {
+            if (pointers[i] != NO_POINTER) {
+                pointers[i] = NO_POINTER;
+                snap(i, 0);
+            }
+        }
+        flingTracker.takeReleaseVelocity();
+    }
+
+    private int trackForPointer(int pointerId) {
+        for (int i = 0; i < trackCount; i++) {
+            if (pointers[i] == pointerId) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 吸附到最近的节点，快速抬起时吸附到预测停止位置最近的节点
+     */
+    private void snap(int track, float velocity) {
+        SnapAnimation animation = snapAnimations[track];
+        float x = positions[track];
+        boolean fling = isAnimate && flingTracker.isFling(velocity);
+        int j = sliderTrack.snapIndex(animation, x, velocity, fling);
+        if (j != indices[track] && listener != null) {
+            listener.onSlide(track, j);
+        }
+        indices[track] = j;
+        if (isAnimate) {
+            animation.springTo(x, slotPositions[j], fling ? velocity : 0, System.nanoTime());
+            scheduleFrame();
+        } else {
+            positions[track] = slotPositions[j];
+            invalidateTrack(track);
+        }
+    }
+
+    /**
+     * 每个vsync推进所有正在吸附的滑竿
+     */
+    void onFrame(long frameTimeNanos) {
+        for (int i = 0; i < trackCount; i++) {
+            SnapAnimation animation = snapAnimations[i];
+            if (animation.isRunning()) {
+                if (animation.step(frameTimeNanos)) {
+                    scheduleFrame();
+                }
+                positions[i] = slotLayout.clamp(animation.getPosition());
+                invalidateTrack(i);
+            }
+        }
+    }
+
+    private void scheduleFrame() {
+        if (!frameScheduled) {
+            frameScheduled = true;
+            postOnAnimation(frameCallback);
+        }
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        if (frameScheduled) {
+            removeCallbacks(frameCallback);
+            frameScheduled = false;
+        }
+        for (int i = 0; i < trackCount; i++) {
+            if (snapAnimations[i].isRunning()) {
+                snapAnimations[i].cancel();
+                positions[i] = slotPositions[indices[i]];
+            }
+        }
+    }
+
+    /**
+     * 只刷新一条滑竿所在的区域
+     */
+    private void invalidateTrack(int track) {
+        int from = (int) Math.floor(crossStart + laneSize * track);
+        int to = (int) Math.ceil(crossStart + laneSize * (track + 1));
+        if (orientation == ORIENTATION_HORIZONTAL) {
+            invalidate(0, from, getWidth(), to);
+        } else {
+            invalidate(from, 0, to, getHeight());
+        }
+    }
+
+    @Override
+    public void onDraw(Canvas canvas) {
+        if (slotLayout.getCount() == 0) {
+            return;
+        }
+        int save = canvas.save();
+        if (orientation == ORIENTATION_VERTICAL) {
+            /** 旋转到滑竿坐标系：(main, cross) 对应屏幕上的 (cross, height - main) */
+            canvas.translate(0, viewHeight);
+            canvas.rotate(-90);
+        }
+        float mainEnd = mainStart + mainLength;
+        float crossEnd = crossStart + laneSize * trackCount;
+        if (colors.isSinglePassExact()) {
+            drawTracks(canvas, colors.getSinglePassTrackColor());
+            drawFilled(canvas, colors.getSinglePassFilledColor());
+        } else {
+            /** 两种颜色都带alpha：所有滑竿在一个图层里用不透明颜色绘制，整体乘上未选中颜色的alpha */
+            float radius = sliderTrack.getRadius();
+            int layer = canvas.saveLayerAlpha(mainStart - radius, crossStart, mainEnd + radius, crossEnd,
+                    SliderColors.alpha(emptyColor), Canvas.ALL_SAVE_FLAG);
+            drawTracks(canvas, colors.getOpaqueEmptyColor());
+            drawFilled(canvas, colors.getOpaqueFilledColor());
+            canvas.restoreToCount(layer);
+        }
+        canvas.restoreToCount(save);
+    }
+
+    /**
+     * 每条滑竿平移后画同一条未选中轨道路径
+     */
+    private void drawTracks(Canvas canvas, int color) {
+        paint.setColor(color);
+        Path path = sliderTrack.getPath(0);
+        float previous = 0;
+        for (int i = 0; i < trackCount; i++) {
+            float center = laneCenter(i);
+            canvas.translate(0, center - previous);
+            canvas.drawPath(path, paint);
+            previous = center;
+        }
+        canvas.translate(0, -previous);
+    }
+
+    /**
+     * 所有滑竿的填充狭槽、填充节点和滑块，只设置一次颜色
+     */
+    private void drawFilled(Canvas canvas, int color) {
+        paint.setColor(color);
+        for (int i = 0; i < trackCount; i++) {
+            sliderTrack.drawFilled(canvas, paint, positions[i], laneCenter(i));
+        }
+    }
+
+    @Override
+    public Parcelable onSaveInstanceState() {
+        Parcelable superState = super.onSaveInstanceState();
+        SavedState ss = new SavedState(superState);
+        ss.saveIndices = indices.clone();
+        return ss;
+    }
+
+    @Override
+    public void onRestoreInstanceState(Parcelable state) {
+        if (!(state instanceof SavedState)) {
+            super.onRestoreInstanceState(state);
+            return;
+        }
+        SavedState ss = (SavedState) state;
+        super.onRestoreInstanceState(ss.getSuperState());
+        int[] saved = ss.saveIndices;
+        if (saved == null || saved.length != trackCount) {
+            return;
+        }
+        for (int i = 0; i < trackCount; i++) {
+            indices[i] = Math.min(saved[i], rangeCount - 1);
+            if (indices[i] < slotLayout.getCount()) {
+                positions[i] = slotPositions[indices[i]];
+            }
+        }
+    }
+
+    static class SavedState extends BaseSavedState {
+        /**
+         * 每条滑竿所在的节点
+         */
+        int[] saveIndices;
+
+        SavedState(Parcelable superState) {
+            super(superState);
+        }
+
+        private SavedState(Parcel in) {
+            super(in);
+            this.saveIndices = in.createIntArray();
+        }
+
+        @Override
+        public void writeToParcel(Parcel out, int flags) {
+            super.writeToParcel(out, flags);
+            out.writeIntArray(this.saveIndices);
+        }
+
+        public static final Parcelable.Creator<SavedState> CREATOR =
+                new Parcelable.Creator<SavedState>() {
+                    public SavedState createFromParcel(Parcel in) {
+                        return new SavedState(in);
+                    }
+
+                    public SavedState[] newArray(int size) {
+                        return new SavedState[size];
+                    }
+                };
+    }
+
+    /**
+     * 滑竿吸附结束的监听接口
+     */
+    public interface OnTrackSlideListener {
+
+        /**
+         * @param track 滑竿序号，水平时从上到下，竖直时从左到右
+         * @param index 吸附到的节点
+         */
+        void onSlide(int track, int index);
+    }
+}
@@ -1,6 +1,5 @@
 package com.meitu.myslider;
 
-import android.animation.ValueAnimator;
 import android.content.Context;
 import android.content.res.TypedArray;
 import android.graphics.Bitmap;
@@ -8,17 +7,37 @@ import android.graphics.Canvas;
 import android.graphics.Color;
 import android.graphics.Paint;
 import android.graphics.Path;
-import android.graphics.PorterDuff;
-import android.graphics.PorterDuffXfermode;
-import android.graphics.Xfermode;
+import android.graphics.Picture;
+import android.graphics.Rect;
+import android.graphics.Typeface;
+import android.os.Build;
 import android.os.Parcel;
 import android.os.Parcelable;
+import android.os.Trace;
 import android.util.AttributeSet;
 import android.util.Log;
 import android.view.MotionEvent;
 import android.view.View;
 import android.view.ViewGroup;
 
+import java.util.Arrays;
+import java.util.concurrent.Executor;
+
+import com.meitu.myslider.core.AdaptiveQuality;
+import com.meitu.myslider.core.Detents;
+import com.meitu.myslider.core.ExternalPosition;
+import com.meitu.myslider.core.IntervalModel;
+import com.meitu.myslider.core.MoveCoalescer;
+import com.meitu.myslider.core.SlideDispatcher;
+import com.meitu.myslider.core.SliderColors;
+import com.meitu.myslider.core.SliderMetrics;
+import com.meitu.myslider.core.SlotLayout;
+import com.meitu.myslider.core.SnapAnimation;
+import com.meitu.myslider.core.ThumbSet;
+import com.meitu.myslider.core.TouchTrace;
+import com.meitu.myslider.core.ValueScale;
+import com.meitu.myslider.core.ValueTable;
+
 
 /**
  * Created by meitu on 2017/8/17.
@@ -26,76 +45,222 @@ import android.view.ViewGroup;
 public class MySliderView extends View {
     private static final String TAG = "Slider";
 
+    /**
+     * 调试日志开关。常量为 false 时编译器去掉所有日志代码，绘制和触摸事件里不会拼接字符串
+     */
+    private static final boolean DEBUG = false;
+
     /**
      * 画笔默认宽度
      */
-    private static final int DEFAULT_PAINT_STROKE_WIDTH = 5;
+    static final int DEFAULT_PAINT_STROKE_WIDTH = 5;
     /**
      * 滑竿节点的默认填充颜色
      */
-    private static final int DEFAULT_FILLED_COLOR = Color.parseColor("#FFFFA500");
+    static final int DEFAULT_FILLED_COLOR = Color.parseColor("#FFFFA500");
     /**
      * 滑竿节点的默认颜色
      */
-    private static final int DEFAULT_EMPTY_COLOR = Color.parseColor("#DDC3C3C3");
+    static final int DEFAULT_EMPTY_COLOR = Color.parseColor("#DDC3C3C3");
     /**
      * 滑竿的默认宽度
      */
-    private static final float DEFAULT_BAR_HEIGHT_PERCENT = 0.10f;
+    static final float DEFAULT_BAR_HEIGHT_PERCENT = 0.10f;
     /**
      * 滑竿未选中点的半径
      */
-    private static final float DEFAULT_SLOT_RADIUS_PERCENT = 0.125f;
+    static final float DEFAULT_SLOT_RADIUS_PERCENT = 0.125f;
     /**
      * 滑竿选中点的半径
      */
-    private static final float DEFAULT_SLIDER_RADIUS_PERCENT = 0.25f;
+    static final float DEFAULT_SLIDER_RADIUS_PERCENT = 0.25f;
 
     /**
      * 默认滑竿的节点数
      */
-    private static final int DEFAULT_RANGE_COUNT = 5;
+    static final int DEFAULT_RANGE_COUNT = 5;
+
+    /**
+     * 绘制节点的默认最小间距（像素），更近的节点合并绘制
+     */
+    private static final float DEFAULT_SLOT_MIN_SPACING = 1f;
 
     /**
      * 控件的默认高度
      */
     private static final int DEFAULT_HEIGHT_IN_DP = 50;
 
+    /**
+     * 连续位置回调：每帧最多一次
+     */
+    public static final int SLIDE_DELIVERY_EVERY_FRAME = SlideDispatcher.MODE_EVERY_FRAME;
+    /**
+     * 连续位置回调：不超过设定的频率
+     */
+    public static final int SLIDE_DELIVERY_MAX_RATE = SlideDispatcher.MODE_MAX_RATE;
+    /**
+     * 连续位置回调：最近的节点改变时
+     */
+    public static final int SLIDE_DELIVERY_INDEX_CHANGE = SlideDispatcher.MODE_INDEX_CHANGE;
+
+    /**
+     * 绘制方式：与图层叠加效果一致时单次绘制，否则使用图层
+     */
+    public static final int RENDER_MODE_AUTO = 0;
+    /**
+     * 绘制方式：saveLayer + DST_IN 蒙版
+     */
+    public static final int RENDER_MODE_LAYER = 1;
+    /**
+     * 绘制方式：不使用图层和蒙版，直接按颜色的alpha绘制一次。
+     * 两种颜色都带alpha时选中部分会叠加在未选中轨道上，和图层效果略有不同
+     */
+    public static final int RENDER_MODE_SINGLE_PASS = 2;
+
     /**
      * 是否开启动画
      */
     private boolean isAnimate = false;
 
+    /**
+     * 连续取值：滑块位置不取整，松手不吸附，只在吸附点附近停到节点上
+     */
+    private boolean continuous = false;
+
+    private final Detents detents = new Detents();
+
+    /**
+     * 布局之前查找表的采样数
+     */
+    private static final int MIN_SCALE_SAMPLES = 256;
+
+    /**
+     * 比例到业务值的映射，null 表示没有设置
+     */
+    private ValueScale valueScale;
+
+    /**
+     * 按像素采样的映射表，宽度变化时重建
+     */
+    private final ValueTable valueTable = new ValueTable();
+
+    /**
+     * 滑竿后面的数据分布图，第一次设置数据时创建
+     */
+    private HistogramRenderer histogram;
+
+    private Executor histogramExecutor;
+
+    private int histogramColor = DEFAULT_EMPTY_COLOR;
+
+    /**
+     * 拖动时的预览气泡，设置了图片来源才创建
+     */
+    private ScrubPreview scrubPreview;
+
+    private static final int DEFAULT_PREVIEW_WIDTH_IN_DP = 96;
+
+    private static final int DEFAULT_PREVIEW_HEIGHT_IN_DP = 54;
+
+    private static final int PREVIEW_GAP_IN_DP = 8;
+
+    /**
+     * 耗时统计，开启时才创建。回调可能在其他线程读取
+     */
+    private volatile SliderMetrics metrics;
+
+    private static final long NOT_TRACED = Long.MIN_VALUE;
+
+    /**
+     * 没有固定时间，使用系统时间
+     */
+    private static final long SYSTEM_CLOCK = Long.MIN_VALUE;
+
+    private static final long NO_MASK = -1;
+
+    /**
+     * 拖动和惯性滑动时降低绘制质量
+     */
+    private final AdaptiveQuality quality = new AdaptiveQuality();
+
+    /**
+     * 节点下方的刻度文字，设置了文字才创建
+     */
+    private TickLabels tickLabels;
+
+    /**
+     * 绘制时每个滑块所在的节点
+     */
+    private int[] activeLabelIndices = new int[0];
+
+    private float tickLabelGap;
+
+    private static final int DEFAULT_TICK_LABEL_TEXT_SIZE_IN_DP = 12;
+
+    private static final int TICK_LABEL_GAP_IN_DP = 4;
+
+    private final Runnable histogramReadyCallback = new Runnable() {
+        @Override
+        public void run() {
+            postInvalidateOnAnimation();
+        }
+    };
+
+    /**
+     * 布局之前设置的连续值，布局后生效，NaN 表示没有
+     */
+    private float[] pendingValues = new float[0];
+
+    /**
+     * 共用的填充画笔，按这一帧的质量在两支之间切换，绘制前设置颜色，不要修改其他属性
+     */
     protected Paint paint;
 
+    /**
+     * 共用的蒙版画笔，按这一帧的质量在两支之间切换，不要修改它的属性
+     */
     protected Paint xFermodePaint;
 
     protected float radius;
 
     protected float slotRadius;
 
-    private int currentIndex;
+    /**
+     * 所有滑块的位置、节点索引和拖动它们的手指
+     */
+    private final ThumbSet thumbs = new ThumbSet();
 
-    private float currentSlidingX;
+    /**
+     * 最近移动的滑块，连续位置监听报告它的位置
+     */
+    private int activeThumb;
 
     private float currentSlidingY;
 
-    private float selectedSlotX;
-
     private float selectedSlotY;
 
-    private float animationStartX;
+    private float[] slotPositions;
 
-    private float animationEndX;
+    /**
+     * 上一次计算节点位置时的控件尺寸，配置改变后用它立即重新计算，0 表示还没有测量过
+     */
+    private int lastLayoutWidth;
 
-    private boolean gotSlot = false;
+    private int lastLayoutHeight;
 
-    private float[] slotPositions;
+    /**
+     * {@link #edit()} 返回的事务，每个控件一个，重复使用
+     */
+    private Editor editor;
 
     private int filledColor = DEFAULT_FILLED_COLOR;
 
     private int emptyColor = DEFAULT_EMPTY_COLOR;
 
+    private SliderColors colors;
+
+    private int renderMode = RENDER_MODE_AUTO;
+
     private float barHeightPercent = DEFAULT_BAR_HEIGHT_PERCENT;
 
     private int rangeCount = DEFAULT_RANGE_COUNT;
@@ -105,10 +270,116 @@ public class MySliderView extends View {
      */
     private String rangeInterval = null;
 
+    /**
+     * rangeInterval 解析后的模型，null 表示节点均匀分布
+     */
+    private IntervalModel intervalModel;
+
+    /**
+     * 节点位置，输入不变时不会重新计算
+     */
+    private final SlotLayout slotLayout = new SlotLayout();
+
+    /**
+     * 和 MultiSliderView 共用的半径计算、轨道路径、触摸判断、吸附和绘制
+     */
+    private final SliderTrack track = new SliderTrack(slotLayout);
+
     private int barHeight;
 
     private OnSlideListener listener;
 
+    private OnRangeSlideListener rangeListener;
+
+    private OnFrameInvalidateListener frameInvalidateListener;
+
+    /**
+     * 连续位置的分发，没有设置监听时为 null
+     */
+    private SlideDispatcher slideDispatcher;
+
+    /**
+     * 上一次分发之后滑块位置是否改变
+     */
+    private boolean slideChanged;
+
+    /**
+     * 每个滑块的吸附和惯性滑动动画，滑块数改变时才重新创建，抓住滑块会立即打断它的动画
+     */
+    private SnapAnimation[] snapAnimations = new SnapAnimation[0];
+
+    private long snapMaxDurationNanos = SnapAnimation.DEFAULT_MAX_DURATION_NANOS;
+
+    /**
+     * 是否根据手指抬起时的速度惯性滑动到预测的节点
+     */
+    private boolean flingEnabled = true;
+
+    private final FlingTracker flingTracker = new FlingTracker();
+
+    /**
+     * 是否把一帧内的多个ACTION_MOVE合并，每个vsync只更新一次位置
+     */
+    private boolean coalesceInput = false;
+
+    /**
+     * 每个滑块一个，多指拖动时分别合并
+     */
+    private MoveCoalescer[] moveCoalescers = new MoveCoalescer[0];
+
+    private float inputSmoothing;
+
+    private boolean frameScheduled;
+
+    /**
+     * 录制收到的触摸事件，null 表示不录制
+     */
+    private TouchTrace touchTrace;
+
+    /**
+     * 回放触摸轨迹时的虚拟时间，{@link #SYSTEM_CLOCK} 表示使用系统时间
+     */
+    private long fixedClockNanos = SYSTEM_CLOCK;
+
+    /**
+     * 通过postOnAnimation在下一个vsync的动画阶段执行，控件未attach时会等到attach后执行
+     */
+    private final Runnable frameCallback = new Runnable() {
+        @Override
+        public void run() {
+            frameScheduled = false;
+            onFrame(System.nanoTime());
+        }
+    };
+
+    /**
+     * 其他线程写入的第一个滑块的位置，每个vsync最多读取一次
+     */
+    private final ExternalPosition externalPosition = new ExternalPosition(new Runnable() {
+        @Override
+        public void run() {
+            // 在写入线程上执行，只在从已读取变为未读取时调用一次
+            postOnAnimation(externalFrameCallback);
+        }
+    });
+
+    private final Runnable externalFrameCallback = new Runnable() {
+        @Override
+        public void run() {
+            applyExternalPosition();
+        }
+    };
+
+    /**
+     * 上一帧绘制各个滑块时的位置，局部刷新需要覆盖旧位置
+     */
+    private float[] drawnThumbX = new float[0];
+
+    /**
+     * 下一帧之前局部刷新区域的并集
+     */
+    private final Rect pendingDirty = new Rect();
+
     private float rippleRadius = 0.0f;
 
     private float downX;
@@ -119,6 +390,18 @@ public class MySliderView extends View {
 
     private Path outerPath = new Path();
 
+    /**
+     * 不随滑动变化的未选中轨道，尺寸、位置或颜色改变时重新录制，每帧直接回放
+     */
+    private final Picture staticTrack = new Picture();
+
+    private boolean staticTrackDirty = true;
+
+    /**
+     * staticTrack 录制的是图层绘制（不透明颜色）还是单次绘制的轨道
+     */
+    private boolean staticTrackLayered;
+
     private float slotRadiusPercent = DEFAULT_SLOT_RADIUS_PERCENT;
 
     private float sliderRadiusPercent = DEFAULT_SLIDER_RADIUS_PERCENT;
@@ -128,10 +411,16 @@ public class MySliderView extends View {
      */
     private int layoutHeight;
 
-    private Xfermode xfermode;
-
+    /**
+     * 从 {@link MaskBitmapPool} 借来的 ALPHA_8 蒙版，尺寸和alpha相同的控件共用
+     */
     private Bitmap xfermodeBitmap;
 
+    /**
+     * 借来的蒙版的 key，没有借用时为 {@link #NO_MASK}
+     */
+    private long maskKey = NO_MASK;
+
     public MySliderView(Context context) {
         this(context, null);
     }
@@ -142,6 +431,12 @@ public class MySliderView extends View {
 
     public MySliderView(Context context, AttributeSet attrs, int defStyleAttr) {
         super(context, attrs, defStyleAttr);
+        float slotMinSpacing = DEFAULT_SLOT_MIN_SPACING;
+        float inputSmoothing = 0f;
+        int thumbCount = 1;
+        boolean continuous = false;
+        float detentRadius = 0f;
+        boolean adaptiveQuality = true;
         if (attrs != null) {
             TypedArray a = context.obtainStyledAttributes(attrs, R.styleable.RangeSliderView);
             TypedArray sa = context.obtainStyledAttributes(attrs, new int[]{android.R.attr.layout_height});
@@ -164,6 +459,22 @@ public class MySliderView extends View {
                         R.styleable.RangeSliderView_rangeInterval);
                 isAnimate = a.getBoolean(
                         R.styleable.RangeSliderView_isAnimate, false);
+                renderMode = a.getInt(
+                        R.styleable.RangeSliderView_renderMode, RENDER_MODE_AUTO);
+                coalesceInput = a.getBoolean(
+                        R.styleable.RangeSliderView_coalesceInput, false);
+                inputSmoothing = a.getFloat(
+                        R.styleable.RangeSliderView_inputSmoothing, 0f);
+                slotMinSpacing = a.getDimension(
+                        R.styleable.RangeSliderView_slotMinSpacing, DEFAULT_SLOT_MIN_SPACING);
+                thumbCount = a.getInt(
+                        R.styleable.RangeSliderView_thumbCount, 1);
+                continuous = a.getBoolean(
+                        R.styleable.RangeSliderView_continuous, false);
+                detentRadius = a.getDimension(
+                        R.styleable.RangeSliderView_detentRadius, 0f);
+                adaptiveQuality = a.getBoolean(
+                        R.styleable.RangeSliderView_adaptiveQuality, true);
 
             } finally {
                 a.recycle();
@@ -176,33 +487,32 @@ public class MySliderView extends View {
         setRangeInterval(rangeInterval);
         setSlotRadiusPercent(slotRadiusPercent);
         setSliderRadiusPercent(sliderRadiusPercent);
-
-        slotPositions = new float[rangeCount];
-        paint = new Paint(Paint.ANTI_ALIAS_FLAG);
-        paint.setStrokeWidth(DEFAULT_PAINT_STROKE_WIDTH);
-        paint.setStyle(Paint.Style.FILL_AND_STROKE);
-        paint.setAntiAlias(true);
-        paint.setFilterBitmap(true);
-        paint.setDither(true);
-
-        xFermodePaint = new Paint(Paint.ANTI_ALIAS_FLAG);
-        xFermodePaint.setStrokeWidth(DEFAULT_PAINT_STROKE_WIDTH);
-        xFermodePaint.setStyle(Paint.Style.FILL_AND_STROKE);
-        xFermodePaint.setAntiAlias(true);
-        xFermodePaint.setFilterBitmap(true);
-        xFermodePaint.setDither(true);
-
-        xfermode = new PorterDuffXfermode(PorterDuff.Mode.DST_IN);
-        xFermodePaint.setXfermode(xfermode);
-        currentIndex = 0;
+        slotLayout.setMinDrawSpacing(slotMinSpacing);
+        setInputSmoothing(inputSmoothing);
+        setThumbCount(thumbCount);
+        setContinuous(continuous);
+        detents.setRadius(detentRadius);
+        quality.setEnabled(adaptiveQuality);
+
+        slotPositions = slotLayout.getPositions();
+        paint = SliderStyles.fillPaint();
+        xFermodePaint = SliderStyles.maskPaint();
+        MaskBitmapPool.register(context);
+
+        colors = SliderStyles.colors(emptyColor, filledColor);
     }
 
 
     private void updateRadius(int height) {
-        barHeight = (int) (height * barHeightPercent);
-        radius = height * sliderRadiusPercent;
-        slotRadius = height * slotRadiusPercent;
-        Log.d(TAG, "updateRadius: ");
+        if (track.setSize(height, sliderRadiusPercent, slotRadiusPercent, barHeightPercent)) {
+            markTrackDirty();
+        }
+        barHeight = track.getBarHeight();
+        radius = track.getRadius();
+        slotRadius = track.getSlotRadius();
+        if (DEBUG) {
+            Log.d(TAG, "updateRadius: ");
+        }
     }
 
 
@@ -214,12 +524,38 @@ public class MySliderView extends View {
         if (rangeCount < 2) {
             throw new IllegalArgumentException("rangeCount must be >= 2");
         }
-        this.rangeCount = rangeCount;
+        if (intervalModel != null && intervalModel.getSlotCount() != rangeCount) {
+            throw new IllegalArgumentException("rangeCount " + rangeCount
+                    + " does not match rangeInterval with " + intervalModel.getSlotCount() + " slots");
+        }
+        if (this.rangeCount != rangeCount) {
+            this.rangeCount = rangeCount;
+            relayoutSlots();
+            invalidate();
+        }
     }
 
-    public void setRangeInterval(String rangeInterval) {
+    public String getRangeInterval() {
+        return rangeInterval;
+    }
 
+    /**
+     * 设置节点间隔，只在这里解析一次，节点数随之改变
+     *
+     * @param rangeInterval 逗号分隔的间隔比例，如 "0.1,0.2,0.4"，null 表示均匀分布
+     */
+    public void setRangeInterval(String rangeInterval) {
+        IntervalModel model = SliderStyles.intervalModel(rangeInterval);
+        if (model != null && model.getSlotCount() < 2) {
+            throw new IllegalArgumentException("rangeCount must be >= 2");
+        }
         this.rangeInterval = rangeInterval;
+        this.intervalModel = model;
+        if (model != null) {
+            rangeCount = model.getSlotCount();
+        }
+        relayoutSlots();
+        invalidate();
     }
 
     public float getBarHeightPercent() {
@@ -227,10 +563,12 @@ public class MySliderView extends View {
     }
 
     public void setBarHeightPercent(float percent) {
-        if (percent <= 0.0 || percent > 1.0) {
-            throw new IllegalArgumentException("Bar height percent must be in (0, 1]");
+        checkPercent(percent, "Bar height percent");
+        if (Float.compare(this.barHeightPercent, percent) != 0) {
+            this.barHeightPercent = percent;
+            relayoutSlots();
+            invalidate();
         }
-        this.barHeightPercent = percent;
     }
 
     public float getSlotRadiusPercent() {
@@ -238,10 +576,12 @@ public class MySliderView extends View {
     }
 
     public void setSlotRadiusPercent(float percent) {
-        if (percent <= 0.0 || percent > 1.0) {
-            throw new IllegalArgumentException("Slot radius percent must be in (0, 1]");
+        checkPercent(percent, "Slot radius percent");
+        if (Float.compare(this.slotRadiusPercent, percent) != 0) {
+            this.slotRadiusPercent = percent;
+            relayoutSlots();
+            invalidate();
         }
-        this.slotRadiusPercent = percent;
     }
 
     public float getSliderRadiusPercent() {
@@ -249,113 +589,965 @@ public class MySliderView extends View {
     }
 
     public void setSliderRadiusPercent(float percent) {
-        if (percent <= 0.0 || percent > 1.0) {
-            throw new IllegalArgumentException("Slider radius percent must be in (0, 1]");
+        checkPercent(percent, "Slider radius percent");
+        if (Float.compare(this.sliderRadiusPercent, percent) != 0) {
+            this.sliderRadiusPercent = percent;
+            /** 测量的宽度包含滑块半径 */
+            requestLayout();
+            relayoutSlots();
+            invalidate();
         }
-        this.sliderRadiusPercent = percent;
     }
 
-    public void setOnSlideListener(OnSlideListener listener) {
-        this.listener = listener;
+    private static void checkPercent(float percent, String name) {
+        if (!(percent > 0 && percent <= 1)) {
+            throw new IllegalArgumentException(name + " must be in (0, 1]");
+        }
     }
 
     /**
-     * 在绘制之前计算位置，只计算一次
+     * 节点数、间隔或半径改变后按上一次测量的尺寸立即重新计算节点和滑块位置，
+     * 控件尺寸不受这些属性影响，不需要等下一次测量。还没有测量过时只把滑块限制在节点范围内
      */
-    private void preComputeDrawingPosition() {
-        int w = getWidthWithPadding();
-        int h = getHeightWithPadding();
+    private void relayoutSlots() {
+        thumbs.clampIndices(rangeCount);
+        if (lastLayoutWidth > 0) {
+            updateRadius(lastLayoutHeight);
+            preComputeDrawingPosition(lastLayoutWidth, lastLayoutHeight);
+        }
+    }
 
-        int spacing = w / rangeCount;
+    /**
+     * 开始一次批量设置，{@link Editor#apply()} 时一起检查、一起生效，最多触发一次 requestLayout 和一次 invalidate。
+     * 用于列表复用时重新绑定数据：
+     * <pre>
+     * slider.edit()
+     *         .setRangeCount(count)
+     *         .setFilledColor(color)
+     *         .setThumbIndex(0, index)
+     *         .apply();
+     * </pre>
+     * 返回的 Editor 属于这个控件并被复用，再次调用 edit() 会丢弃还没有 apply 的修改
+     */
+    public Editor edit() {
+        if (editor == null) {
+            editor = new Editor();
+        }
+        editor.clear();
+        return editor;
+    }
 
-        int y = getPaddingTop() + h / 2;
-        currentSlidingY = y;
-        selectedSlotY = y;
-
-        int x;
-
-        /** 判断是否设置点的不同间距*/
-        if (rangeInterval == null) {
-            /** 存储每个点的位置*/
-            x = getPaddingLeft() + (spacing / 2);
-            for (int i = 0; i < rangeCount; ++i) {
-                slotPositions[i] = x;
-                if (i == currentIndex) {
-                    currentSlidingX = x;
-                    selectedSlotX = x;
-                }
-                x += spacing;
+    /**
+     * 先按修改后的值检查所有参数，有一个不合法就抛出异常并且不改变任何状态，全部合法后再赋值。
+     * 节点位置用上一次测量的尺寸立即重新计算，只有测量结果可能改变（滑块半径）时才 requestLayout
+     */
+    private void applyEdit(Editor e) {
+        int newRangeCount = e.has(Editor.RANGE_COUNT) ? e.rangeCount : rangeCount;
+        String newInterval = e.has(Editor.RANGE_INTERVAL) ? e.rangeInterval : rangeInterval;
+        IntervalModel newModel = e.has(Editor.RANGE_INTERVAL) ? SliderStyles.intervalModel(newInterval) : intervalModel;
+        if (newModel != null) {
+            if (e.has(Editor.RANGE_COUNT) && newModel.getSlotCount() != newRangeCount) {
+                throw new IllegalArgumentException("rangeCount " + newRangeCount
+                        + " does not match rangeInterval with " + newModel.getSlotCount() + " slots");
+            }
+            newRangeCount = newModel.getSlotCount();
+        }
+        if (newRangeCount < 2) {
+            throw new IllegalArgumentException("rangeCount must be >= 2");
+        }
+        float newBarHeight = e.has(Editor.BAR_HEIGHT) ? e.barHeightPercent : barHeightPercent;
+        float newSlotRadius = e.has(Editor.SLOT_RADIUS) ? e.slotRadiusPercent : slotRadiusPercent;
+        float newSliderRadius = e.has(Editor.SLIDER_RADIUS) ? e.sliderRadiusPercent : sliderRadiusPercent;
+        checkPercent(newBarHeight, "Bar height percent");
+        checkPercent(newSlotRadius, "Slot radius percent");
+        checkPercent(newSliderRadius, "Slider radius percent");
+        int newRenderMode = e.has(Editor.RENDER_MODE) ? e.renderMode : renderMode;
+        if (newRenderMode < RENDER_MODE_AUTO || newRenderMode > RENDER_MODE_SINGLE_PASS) {
+            throw new IllegalArgumentException("Unknown render mode " + newRenderMode);
+        }
+        if (e.has(Editor.SLOT_MIN_SPACING) && !(e.slotMinSpacing >= 0)) {
+            throw new IllegalArgumentException("Min draw spacing must be >= 0");
+        }
+        int newThumbCount = e.has(Editor.THUMB_COUNT) ? e.thumbCount : thumbs.getCount();
+        boolean resetThumbs = newThumbCount != thumbs.getCount();
+        if (newThumbCount < 1) {
+            throw new IllegalArgumentException("Thumb count must be >= 1");
+        }
+        int previous = 0;
+        for (int i = 0; i < Math.max(newThumbCount, e.thumbIndexCount); i++) {
+            int index = e.getThumbIndex(i);
+            if (index != Editor.UNSET && i >= newThumbCount) {
+                throw new IllegalArgumentException("Attempted to set thumb=" + i + " out of range [0," + newThumbCount + ")");
+            }
+            if (index != Editor.UNSET && (index < 0 || index >= newRangeCount)) {
+                throw new IllegalArgumentException("Attempted to set index=" + index + " out of range [0," + newRangeCount + "]");
+            }
+            if (i >= newThumbCount) {
+                continue;
+            }
+            if (index == Editor.UNSET) {
+                index = resetThumbs ? ThumbSet.defaultIndex(i, newThumbCount, newRangeCount)
+                        : Math.min(thumbs.getIndex(i), newRangeCount - 1);
+            }
+            if (index < previous) {
+                throw new IllegalArgumentException("Thumb " + i + " cannot cross its neighbours at index " + index);
+            }
+            previous = index;
+        }
+
+        /** 检查通过，开始赋值 */
+        boolean measure = Float.compare(newSliderRadius, sliderRadiusPercent) != 0;
+        boolean relayout = measure || newRangeCount != rangeCount || newModel != intervalModel
+                || Float.compare(newBarHeight, barHeightPercent) != 0
+                || Float.compare(newSlotRadius, slotRadiusPercent) != 0;
+        boolean redraw = relayout || resetThumbs || newRenderMode != renderMode;
+        rangeInterval = newInterval;
+        intervalModel = newModel;
+        rangeCount = newRangeCount;
+        barHeightPercent = newBarHeight;
+        slotRadiusPercent = newSlotRadius;
+        sliderRadiusPercent = newSliderRadius;
+        renderMode = newRenderMode;
+
+        int newFilled = e.has(Editor.FILLED_COLOR) ? e.filledColor : filledColor;
+        int newEmpty = e.has(Editor.EMPTY_COLOR) ? e.emptyColor : emptyColor;
+        if (newFilled != filledColor || newEmpty != emptyColor) {
+            if (newEmpty != emptyColor) {
+                /** 蒙版是共享的，alpha改变时换一张 */
+                releaseMaskBitmap();
             }
+            filledColor = newFilled;
+            emptyColor = newEmpty;
+            colors = SliderStyles.colors(emptyColor, filledColor);
+            staticTrackDirty = true;
+            redraw = true;
+        }
+        if (e.has(Editor.SLOT_MIN_SPACING) && Float.compare(e.slotMinSpacing, slotLayout.getMinDrawSpacing()) != 0) {
+            slotLayout.setMinDrawSpacing(e.slotMinSpacing);
+            markTrackDirty();
+            redraw = true;
+        }
+
+        if (resetThumbs) {
+            resetThumbs(newThumbCount);
+        }
+        for (int i = 0; i < e.thumbIndexCount; i++) {
+            int index = e.getThumbIndex(i);
+            if (index != Editor.UNSET) {
+                snapAnimations[i].cancel();
+                redraw |= thumbs.getIndex(i) != index;
+                thumbs.setIndex(i, index);
+            }
+        }
+        if (relayout) {
+            relayoutSlots();
         } else {
-            /** 存储每个点的位置 */
-            String[] intervals = rangeInterval.split(",");
-            setRangeCount(intervals.length + 1);
-            int sumInterval = 0;
-            w = (int) (w - radius * 2);
-            for (int i = 0; i < intervals.length; i++) {
-                sumInterval += Float.parseFloat(intervals[i]) * w;
-                Log.d(TAG, "preComputeDrawingPosition: " + intervals[i] + " intervals " + Float.parseFloat(intervals[i]) * w);
-            }
-            x = (int) (getPaddingLeft() + (w - sumInterval) / 2 + radius);
-            for (int i = 0; i < rangeCount; ++i) {
-                slotPositions[i] = x;
-                if (i == currentIndex) {
-                    currentSlidingX = x;
-                    selectedSlotX = x;
+            thumbs.clampIndices(rangeCount);
+        }
+        if (slotLayout.getCount() == rangeCount) {
+            if (resetThumbs) {
+                thumbs.moveToSlots(slotPositions);
+            }
+            for (int i = 0; i < e.thumbIndexCount; i++) {
+                int index = e.getThumbIndex(i);
+                if (index != Editor.UNSET && thumbs.getPosition(i) != slotPositions[index]) {
+                    thumbs.setPosition(i, slotPositions[index]);
+                    redraw = true;
                 }
-                if (i < rangeCount - 1)
-                    x += Float.parseFloat(intervals[i]) * w;
             }
         }
-    }
-
 
-    public void setInitialIndex(int index) {
-        if (index < 0 || index >= rangeCount) {
-            throw new IllegalArgumentException("Attempted to set index=" + index + " out of range [0," + rangeCount + "]");
+        if (measure) {
+            /** 测量的宽度包含滑块半径 */
+            requestLayout();
+        }
+        if (redraw) {
+            invalidate();
         }
-        currentIndex = index;
-        currentSlidingX = selectedSlotX = slotPositions[currentIndex];
-        invalidate();
     }
 
-    public int getFilledColor() {
-        return filledColor;
+    /**
+     * 设置吸附结束的监听，多个滑块时任何一个滑块改变节点都会回调
+     */
+    public void setOnSlideListener(OnSlideListener listener) {
+        this.listener = listener;
     }
 
-    public void setFilledColor(int filledColor) {
-        this.filledColor = filledColor;
-        invalidate();
+    /**
+     * 设置吸附结束的监听，回调中带有滑块的序号
+     */
+    public void setOnRangeSlideListener(OnRangeSlideListener listener) {
+        this.rangeListener = listener;
     }
 
-    public int getEmptyColor() {
-        return emptyColor;
+    public int getThumbCount() {
+        return thumbs.getCount();
     }
 
-    public void setEmptyColor(int emptyColor) {
-        this.emptyColor = emptyColor;
+    /**
+     * 设置滑块个数，滑块重新均匀分布在节点上。
+     * 一个滑块时填充它左边的滑竿，两个滑块时填充它们之间的滑竿，更多时从右往左每两个滑块之间填充一段
+     */
+    public void setThumbCount(int count) {
+        if (count < 1) {
+            throw new IllegalArgumentException("Thumb count must be >= 1");
+        }
+        resetThumbs(count);
+        if (slotLayout.getCount() == rangeCount) {
+            thumbs.moveToSlots(slotPositions);
+        }
         invalidate();
     }
 
-    public boolean isAnimate() {
-        return isAnimate;
+    /**
+     * 重新分布滑块。每个滑块的动画和输入状态只在滑块变多时扩容，变少时留着多出来的对象
+     */
+    private void resetThumbs(int count) {
+        thumbs.setCount(count, rangeCount);
+        int old = snapAnimations.length;
+        if (old < count) {
+            snapAnimations = Arrays.copyOf(snapAnimations, count);
+            moveCoalescers = Arrays.copyOf(moveCoalescers, count);
+            drawnThumbX = new float[count];
+            pendingValues = new float[count];
+            for (int i = old; i < count; i++) {
+                snapAnimations[i] = new SnapAnimation();
+                snapAnimations[i].setMaxDurationNanos(snapMaxDurationNanos);
+                moveCoalescers[i] = new MoveCoalescer();
+                moveCoalescers[i].setSmoothing(inputSmoothing);
+            }
+        }
+        for (int i = 0; i < old; i++) {
+            snapAnimations[i].cancel();
+        }
+        Arrays.fill(pendingValues, Float.NaN);
+        activeThumb = 0;
     }
 
-    public void setAnimate(boolean animate) {
-        isAnimate = animate;
+    public boolean isContinuous() {
+        return continuous;
+    }
+
+    /**
+     * 设置连续取值模式。开启后节点位置保留小数，滑块停在松手的位置，
+     * 通过 {@link #getValue(int)} 和 {@link OnSlideChangeListener} 得到连续的值；
+     * 关闭后滑块回到各自最近的节点
+     */
+    public void setContinuous(boolean continuous) {
+        if (this.continuous == continuous) {
+            return;
+        }
+        this.continuous = continuous;
+        slotLayout.setSubPixel(continuous);
+        if (!continuous && slotLayout.getCount() == rangeCount) {
+            for (int i = 0; i < thumbs.getCount(); i++) {
+                thumbs.setIndex(i, thumbs.clampIndex(i, slotLayout.nearestIndex(thumbs.getPosition(i))));
+            }
+            thumbs.moveToSlots(slotPositions);
+        }
+        requestLayout();
+        invalidate();
+    }
+
+    /**
+     * 设置连续取值时的吸附点，滑块离这些节点不超过 {@link #setDetentRadius(float)} 时停在节点上
+     *
+     * @param slotIndices 节点索引
+     */
+    public void setDetents(int... slotIndices) {
+        detents.setSlots(slotIndices);
+    }
+
+    public int[] getDetents() {
+        return detents.getSlots();
+    }
+
+    /**
+     * @param radius 吸附半径，像素，0 表示不吸附
+     */
+    public void setDetentRadius(float radius) {
+        detents.setRadius(radius);
+    }
+
+    public float getDetentRadius() {
+        return detents.getRadius();
+    }
+
+    /**
+     * 滑块在第一个和最后一个节点之间的比例，[0, 1]
+     */
+    public float getValue(int thumb) {
+        if (slotLayout.getCount() != rangeCount) {
+            /** 还没有布局（控件 GONE 时保存状态也会走到这里）：setValue 记下的值，否则按所在节点计算 */
+            return Float.isNaN(pendingValues[thumb]) ? indexFraction(thumbs.getIndex(thumb)) : pendingValues[thumb];
+        }
+        return getSlideFraction(thumb);
+    }
+
+    /**
+     * 设置滑块的值。连续模式下停在对应的位置，否则停在最近的节点；不能越过相邻的滑块
+     *
+     * @param value 在第一个和最后一个节点之间的比例，[0, 1]
+     */
+    public void setValue(int thumb, float value) {
+        if (thumb < 0 || thumb >= thumbs.getCount()) {
+            throw new IllegalArgumentException("Attempted to set thumb=" + thumb + " out of range [0," + thumbs.getCount() + ")");
+        }
+        if (!(value >= 0 && value <= 1)) {
+            throw new IllegalArgumentException("Value must be in [0, 1]");
+        }
+        snapAnimations[thumb].cancel();
+        if (slotLayout.getCount() != rangeCount) {
+            /** 还没有布局，布局后生效 */
+            pendingValues[thumb] = value;
+            return;
+        }
+        moveThumbToValue(thumb, value);
+        invalidateThumb(thumb);
+    }
+
+    /**
+     * 设置比例到业务值的映射，之后可以用 {@link #getScaledValue(int)} 和 {@link #setScaledValue(int, float)}
+     *
+     * @param scale 如 {@link ValueScale#log(float, float)}，null 表示取消
+     */
+    public void setValueScale(ValueScale scale) {
+        valueScale = scale;
+        valueTable.invalidate();
+        if (scale != null) {
+            ensureValueTable();
+        }
+    }
+
+    public ValueScale getValueScale() {
+        return valueScale;
+    }
+
+    /**
+     * 滑块位置对应的业务值，查表得到
+     *
+     * @throws IllegalStateException 没有设置映射
+     */
+    public float getScaledValue(int thumb) {
+        return ensureValueTable().toValue(getValue(thumb));
+    }
+
+    /**
+     * 按业务值设置滑块位置，超出映射范围时截断
+     *
+     * @throws IllegalStateException 没有设置映射
+     */
+    public void setScaledValue(int thumb, float value) {
+        setValue(thumb, ensureValueTable().toFraction(value));
+    }
+
+    /**
+     * 每个像素一个采样，宽度没变时直接返回
+     */
+    private ValueTable ensureValueTable() {
+        if (valueScale == null) {
+            throw new IllegalStateException("No ValueScale set");
+        }
+        int samples = MIN_SCALE_SAMPLES;
+        if (slotLayout.getCount() == rangeCount) {
+            samples = Math.max(samples, (int) (slotLayout.getLast() - slotLayout.getFirst()) + 1);
+        }
+        valueTable.build(valueScale, samples);
+        return valueTable;
+    }
+
+    private void moveThumbToValue(int thumb, float value) {
+        float x = thumbs.clampPosition(thumb, slotLayout.getFirst() + value * (slotLayout.getLast() - slotLayout.getFirst()));
+        int index = thumbs.clampIndex(thumb, slotLayout.nearestIndex(x));
+        thumbs.setIndex(thumb, index);
+        thumbs.setPosition(thumb, continuous ? x : slotPositions[index]);
+    }
+
+    public int getThumbIndex(int thumb) {
+        return thumbs.getIndex(thumb);
+    }
+
+    /**
+     * 所有滑块所在的节点，从左到右
+     */
+    public int[] getThumbIndices() {
+        int[] result = new int[thumbs.getCount()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = thumbs.getIndex(i);
+        }
+        return result;
+    }
+
+    /**
+     * 把滑块移动到节点上，不能越过相邻的滑块
+     */
+    public void setThumbIndex(int thumb, int index) {
+        if (thumb < 0 || thumb >= thumbs.getCount()) {
+            throw new IllegalArgumentException("Attempted to set thumb=" + thumb + " out of range [0," + thumbs.getCount() + ")");
+        }
+        if (index < 0 || index >= rangeCount) {
+            throw new IllegalArgumentException("Attempted to set index=" + index + " out of range [0," + rangeCount + "]");
+        }
+        if (thumbs.clampIndex(thumb, index) != index) {
+            throw new IllegalArgumentException("Thumb " + thumb + " cannot cross its neighbours at index " + index);
+        }
+        snapAnimations[thumb].cancel();
+        thumbs.setIndex(thumb, index);
+        if (index < slotLayout.getCount()) {
+            thumbs.setPosition(thumb, slotPositions[index]);
+        }
+        invalidate();
+    }
+
+    /**
+     * 设置拖动过程中的连续位置监听，每帧最多回调一次，在主线程回调
+     */
+    public void setOnSlideChangeListener(OnSlideChangeListener listener) {
+        setOnSlideChangeListener(listener, SLIDE_DELIVERY_EVERY_FRAME, 0, null);
+    }
+
+    /**
+     * 设置拖动过程中的连续位置监听。
+     * 中间值会被合并：监听器处理得慢时只会收到最新的值，不会在线程里排队
+     *
+     * @param listener     监听器，null 表示移除
+     * @param deliveryMode {@link #SLIDE_DELIVERY_EVERY_FRAME}、{@link #SLIDE_DELIVERY_MAX_RATE}
+     *                     或 {@link #SLIDE_DELIVERY_INDEX_CHANGE}
+     * @param maxRateHz    {@link #SLIDE_DELIVERY_MAX_RATE} 时每秒最多回调的次数
+     * @param executor     回调所在的线程，null 表示主线程
+     */
+    public void setOnSlideChangeListener(final OnSlideChangeListener listener, int deliveryMode,
+                                         float maxRateHz, Executor executor) {
+        if (listener == null) {
+            slideDispatcher = null;
+            return;
+        }
+        SlideDispatcher dispatcher = new SlideDispatcher(new SlideDispatcher.Receiver() {
+            @Override
+            public void onValue(float fraction, int index) {
+                long start = beginPhase("MySlider.callback");
+                try {
+                    listener.onSlideChanged(fraction, index);
+                } finally {
+                    endPhase(SliderMetrics.PHASE_CALLBACK, start);
+                }
+            }
+        });
+        dispatcher.setMode(deliveryMode, maxRateHz);
+        dispatcher.setExecutor(executor);
+        slideDispatcher = dispatcher;
+    }
+
+    /**
+     * 滑块在第一个和最后一个节点之间的比例，多个滑块时是最近移动的滑块
+     */
+    public float getSlideFraction() {
+        return getSlideFraction(activeThumb);
+    }
+
+    public float getSlideFraction(int thumb) {
+        if (slotLayout.getCount() != rangeCount) {
+            /** 还没有布局，按滑块所在的节点计算 */
+            return indexFraction(thumbs.getIndex(thumb));
+        }
+        float span = slotLayout.getLast() - slotLayout.getFirst();
+        return span > 0 ? (thumbs.getPosition(thumb) - slotLayout.getFirst()) / span : 0f;
+    }
+
+    /**
+     * 第 index 个节点在第一个和最后一个节点之间的比例，不依赖布局
+     */
+    private float indexFraction(int index) {
+        if (intervalModel != null) {
+            float total = intervalModel.getTotal();
+            return total > 0 ? intervalModel.getPrefixSum(index) / total : 0f;
+        }
+        return index / (float) (rangeCount - 1);
+    }
+
+    /**
+     * 在绘制之前计算位置，宽度、padding、半径和间隔都没有变化时直接返回
+     */
+    private void preComputeDrawingPosition(int width, int height) {
+        long start = beginPhase("MySlider.layout");
+        try {
+            computeDrawingPosition(width, height);
+        } finally {
+            endPhase(SliderMetrics.PHASE_LAYOUT, start);
+        }
+    }
+
+    private void computeDrawingPosition(int width, int height) {
+        lastLayoutWidth = width;
+        lastLayoutHeight = height;
+        int w = width - getPaddingLeft() - getPaddingRight();
+        int h = height - getPaddingTop() - getPaddingBottom();
+
+        int y = getPaddingTop() + h / 2;
+        if (y != selectedSlotY) {
+            currentSlidingY = y;
+            selectedSlotY = y;
+            markTrackDirty();
+            updateHistogramBounds();
+        }
+
+        /** 连续模式下按比例保留滑块位置 */
+        boolean remap = continuous && slotLayout.getCount() == rangeCount;
+        float oldFirst = remap ? slotLayout.getFirst() : 0;
+        float oldSpan = remap ? slotLayout.getLast() - oldFirst : 0;
+        if (!slotLayout.layout(rangeCount, intervalModel, getPaddingLeft(), w, radius)) {
+            return;
+        }
+        slotPositions = slotLayout.getPositions();
+        thumbs.clampIndices(rangeCount);
+        if (remap && oldSpan > 0) {
+            float first = slotLayout.getFirst();
+            float span = slotLayout.getLast() - first;
+            for (int i = 0; i < thumbs.getCount(); i++) {
+                thumbs.setPosition(i, first + (thumbs.getPosition(i) - oldFirst) / oldSpan * span);
+            }
+        } else {
+            thumbs.moveToSlots(slotPositions);
+        }
+        if (valueScale != null) {
+            ensureValueTable();
+        }
+        for (int i = 0; i < thumbs.getCount(); i++) {
+            if (!Float.isNaN(pendingValues[i])) {
+                moveThumbToValue(i, pendingValues[i]);
+                pendingValues[i] = Float.NaN;
+            }
+        }
+        markTrackDirty();
+        updateHistogramBounds();
+        if (tickLabels != null) {
+            tickLabels.layout(slotPositions, rangeCount, tickLabelGap);
+        }
+        applyExternalPosition();
+    }
+
+    /**
+     * 设置滑竿后面的数据分布图，数据在后台压缩成每像素一列的最小/最大值，不会阻塞主线程
+     *
+     * @param samples 按顺序分布在第一个和最后一个节点之间，会被复制，之后可以修改
+     */
+    public void setHistogram(float[] samples) {
+        histogram().set(samples.clone());
+    }
+
+    public void setHistogram(int[] samples) {
+        histogram().set(samples.clone());
+    }
+
+    /**
+     * 在分布图末尾追加数据，只重新计算受影响的列
+     */
+    public void appendHistogram(float[] samples, int offset, int length) {
+        checkHistogramRange(samples.length, offset, length);
+        float[] copy = new float[length];
+        System.arraycopy(samples, offset, copy, 0, length);
+        histogram().append(copy);
+    }
+
+    public void appendHistogram(int[] samples, int offset, int length) {
+        checkHistogramRange(samples.length, offset, length);
+        int[] copy = new int[length];
+        System.arraycopy(samples, offset, copy, 0, length);
+        histogram().append(copy);
+    }
+
+    private static void checkHistogramRange(int arrayLength, int offset, int length) {
+        if (offset < 0 || length < 0 || offset > arrayLength - length) {
+            throw new IllegalArgumentException("Range [" + offset + ", " + offset + "+" + length + ") out of bounds for length " + arrayLength);
+        }
+    }
+
+    public void clearHistogram() {
+        if (histogram != null) {
+            histogram.clear();
+        }
+    }
+
+    public void setHistogramColor(int color) {
+        histogramColor = color;
+        invalidate();
+    }
+
+    public int getHistogramColor() {
+        return histogramColor;
+    }
+
+    /**
+     * @param executor 压缩数据和生成路径所在的线程，null 表示所有控件共用的后台线程
+     */
+    public void setHistogramExecutor(Executor executor) {
+        histogramExecutor = executor;
+        if (histogram != null) {
+            histogram.setExecutor(executor);
+        }
+    }
+
+    /**
+     * 设置拖动时滑块上方预览气泡的图片来源。气泡画在控件内部，控件上方需要留出气泡的高度
+     *
+     * @param provider null 表示不显示预览
+     */
+    public void setPreviewProvider(PreviewProvider provider) {
+        if (scrubPreview != null) {
+            scrubPreview.hide();
+        }
+        scrubPreview = provider == null ? null : new ScrubPreview(this, provider,
+                dpToPx(getContext(), DEFAULT_PREVIEW_WIDTH_IN_DP), dpToPx(getContext(), DEFAULT_PREVIEW_HEIGHT_IN_DP),
+                dpToPx(getContext(), PREVIEW_GAP_IN_DP));
+        invalidate();
+    }
+
+    /**
+     * @param width  气泡的像素宽度
+     * @param height 气泡的像素高度
+     */
+    public void setPreviewSize(int width, int height) {
+        if (width <= 0 || height <= 0) {
+            throw new IllegalArgumentException("Preview size must be positive");
+        }
+        requirePreview().setSize(width, height);
+        invalidate();
+    }
+
+    /**
+     * @param bytes 预览图缓存的字节数上限，默认是最大内存的 1/32
+     */
+    public void setPreviewCacheSize(long bytes) {
+        requirePreview().setCacheSize(bytes);
+    }
+
+    /**
+     * @param count 沿滑动方向预先解码的节点个数，默认 2
+     */
+    public void setPreviewPrefetchCount(int count) {
+        requirePreview().setPrefetchCount(count);
+    }
+
+    /**
+     * @param executor 解码预览图的线程，null 表示所有控件共用的解码线程
+     */
+    public void setPreviewExecutor(Executor executor) {
+        requirePreview().setExecutor(executor);
+    }
+
+    private ScrubPreview requirePreview() {
+        if (scrubPreview == null) {
+            throw new IllegalStateException("Call setPreviewProvider first");
+        }
+        return scrubPreview;
+    }
+
+    /**
+     * 没有手指拖动滑块时收起预览
+     */
+    private void hidePreviewIfIdle() {
+        if (scrubPreview == null || !scrubPreview.isVisible()) {
+            return;
+        }
+        for (int i = 0; i < thumbs.getCount(); i++) {
+            if (thumbs.isGrabbed(i)) {
+                return;
+            }
+        }
+        scrubPreview.hide();
+        invalidate();
+    }
+
+    private float getPreviewBottom() {
+        return selectedSlotY - Math.max(radius, barHeight / 2f) - scrubPreview.getGap();
+    }
+
+    /**
+     * 设置节点下方的刻度文字，文字互相重叠时按层级稀疏。文字画在控件内部，控件下方需要留出文字的高度
+     *
+     * @param labels 从第一个节点开始，多于节点数的文字不显示，null 或空表示不显示
+     */
+    public void setTickLabels(CharSequence... labels) {
+        if (labels == null || labels.length == 0) {
+            tickLabels = null;
+            invalidate();
+            return;
+        }
+        if (tickLabels == null) {
+            tickLabels = new TickLabels(dpToPx(getContext(), DEFAULT_TICK_LABEL_TEXT_SIZE_IN_DP), emptyColor, filledColor);
+            tickLabelGap = dpToPx(getContext(), TICK_LABEL_GAP_IN_DP);
+        }
+        tickLabels.setLabels(labels);
+        layoutTickLabels();
+    }
+
+    public CharSequence[] getTickLabels() {
+        return tickLabels == null ? new CharSequence[0] : tickLabels.getLabels();
+    }
+
+    /**
+     * @param textSize 像素
+     */
+    public void setTickLabelTextSize(float textSize) {
+        requireTickLabels().setTextSize(textSize);
+        layoutTickLabels();
+    }
+
+    public void setTickLabelTypeface(Typeface typeface) {
+        requireTickLabels().setTypeface(typeface);
+        layoutTickLabels();
+    }
+
+    /**
+     * @param color       普通文字的颜色，默认和未选中轨道相同
+     * @param activeColor 滑块所在节点的文字颜色，默认和选中轨道相同
+     */
+    public void setTickLabelColors(int color, int activeColor) {
+        requireTickLabels().setColors(color, activeColor);
+        layoutTickLabels();
+    }
+
+    private TickLabels requireTickLabels() {
+        if (tickLabels == null) {
+            throw new IllegalStateException("Call setTickLabels first");
+        }
+        return tickLabels;
+    }
+
+    /**
+     * 节点位置或文字改变后重新稀疏和录制，绘制时不再测量
+     */
+    private void layoutTickLabels() {
+        if (tickLabels != null && slotLayout.getCount() == rangeCount) {
+            tickLabels.layout(slotPositions, rangeCount, tickLabelGap);
+        }
+        invalidate();
+    }
+
+    private float getTickLabelTop() {
+        return selectedSlotY + Math.max(Math.max(radius, slotRadius), barHeight / 2f) + tickLabelGap;
+    }
+
+    private void drawTickLabels(Canvas canvas) {
+        int count = thumbs.getCount();
+        if (activeLabelIndices.length != count) {
+            activeLabelIndices = new int[count];
+        }
+        for (int i = 0; i < count; i++) {
+            activeLabelIndices[i] = slotLayout.nearestIndex(thumbs.getPosition(i));
+        }
+        tickLabels.draw(canvas, slotPositions, getTickLabelTop(), activeLabelIndices, count, canReplayPicture(canvas));
+    }
+
+    private HistogramRenderer histogram() {
+        if (histogram == null) {
+            histogram = new HistogramRenderer(histogramReadyCallback);
+            histogram.setExecutor(histogramExecutor);
+            updateHistogramBounds();
+        }
+        return histogram;
+    }
+
+    /**
+     * 分布图从顶部画到滑竿中线，横向和轨道对齐
+     */
+    private void updateHistogramBounds() {
+        if (histogram != null && slotLayout.getCount() == rangeCount) {
+            histogram.setBounds(slotLayout.getFirst(), getPaddingTop(), slotLayout.getLast(), selectedSlotY);
+        }
     }
 
-    @Override
-    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
-
-        setMeasuredDimension(measureWidth(widthMeasureSpec), measureHeight(heightMeasureSpec));
+
+    public void setInitialIndex(int index) {
+        setThumbIndex(0, index);
+    }
+
+    /**
+     * 从任何线程设置第一个滑块的连续位置，例如播放进度。
+     * 不加锁、不为每次调用post，控件在下一个vsync读取最新的值并刷新一次；
+     * 用户正在拖动或滑块正在吸附时忽略外部位置。不会回调监听器
+     *
+     * @param fraction 在第一个和最后一个节点之间的比例，[0, 1]
+     */
+    public void setExternalFraction(float fraction) {
+        externalPosition.set(fraction);
+    }
+
+    /**
+     * 在主线程读取外部位置。还没有计算节点位置时保留这个值，布局之后再读取
+     */
+    void applyExternalPosition() {
+        if (slotLayout.getCount() != rangeCount || !externalPosition.hasPending()) {
+            return;
+        }
+        float fraction = externalPosition.poll();
+        if (Float.isNaN(fraction) || thumbs.isGrabbed(0) || snapAnimations[0].isRunning()) {
+            /** 用户的拖动优先 */
+            return;
+        }
+        float x = slotLayout.getFirst() + fraction * (slotLayout.getLast() - slotLayout.getFirst());
+        x = thumbs.clampPosition(0, x);
+        if (x == thumbs.getPosition(0)) {
+            return;
+        }
+        thumbs.setPosition(0, x);
+        thumbs.setIndex(0, thumbs.clampIndex(0, slotLayout.nearestIndex(x)));
+        invalidateThumb(0);
+    }
+
+    public int getFilledColor() {
+        return filledColor;
+    }
+
+    public void setFilledColor(int filledColor) {
+        this.filledColor = filledColor;
+        colors = SliderStyles.colors(emptyColor, filledColor);
+        staticTrackDirty = true;
+        invalidate();
+    }
+
+    public int getEmptyColor() {
+        return emptyColor;
+    }
+
+    public void setEmptyColor(int emptyColor) {
+        this.emptyColor = emptyColor;
+        colors = SliderStyles.colors(emptyColor, filledColor);
+        /** 蒙版是共享的，alpha改变时换一张 */
+        releaseMaskBitmap();
+        staticTrackDirty = true;
+        invalidate();
+    }
+
+    public float getSlotMinSpacing() {
+        return slotLayout.getMinDrawSpacing();
+    }
+
+    /**
+     * 设置绘制节点的最小间距，比它更近的节点不单独绘制，吸附精度不受影响
+     *
+     * @param spacing 像素，0 表示绘制所有节点
+     */
+    public void setSlotMinSpacing(float spacing) {
+        slotLayout.setMinDrawSpacing(spacing);
+        markTrackDirty();
+        invalidate();
+    }
+
+    public int getRenderMode() {
+        return renderMode;
+    }
+
+    /**
+     * 设置绘制方式
+     *
+     * @param renderMode {@link #RENDER_MODE_AUTO}, {@link #RENDER_MODE_LAYER} 或 {@link #RENDER_MODE_SINGLE_PASS}
+     */
+    public void setRenderMode(int renderMode) {
+        if (renderMode < RENDER_MODE_AUTO || renderMode > RENDER_MODE_SINGLE_PASS) {
+            throw new IllegalArgumentException("Unknown render mode " + renderMode);
+        }
+        this.renderMode = renderMode;
+        invalidate();
+    }
+
+    /**
+     * 当前帧是否需要saveLayer + DST_IN 蒙版
+     */
+    private boolean shouldUseLayer() {
+        if (renderMode == RENDER_MODE_AUTO) {
+            return !colors.isSinglePassExact();
+        }
+        return renderMode == RENDER_MODE_LAYER;
+    }
+
+    public boolean isCoalesceInput() {
+        return coalesceInput;
+    }
+
+    /**
+     * 开启后ACTION_MOVE只记录位置（包括历史采样），每个vsync更新一次滑块并刷新一次
+     */
+    public void setCoalesceInput(boolean coalesceInput) {
+        this.coalesceInput = coalesceInput;
+    }
+
+    public float getInputSmoothing() {
+        return inputSmoothing;
+    }
+
+    /**
+     * 合并输入时对采样做指数平滑
+     *
+     * @param smoothing [0, 1)，0 表示直接使用最新的采样
+     */
+    public void setInputSmoothing(float smoothing) {
+        if (!(smoothing >= 0 && smoothing < 1)) {
+            throw new IllegalArgumentException("Smoothing must be in [0, 1)");
+        }
+        inputSmoothing = smoothing;
+        for (MoveCoalescer coalescer : moveCoalescers) {
+            coalescer.setSmoothing(smoothing);
+        }
+    }
+
+    public boolean isFlingEnabled() {
+        return flingEnabled;
+    }
+
+    /**
+     * 开启动画时，手指快速抬起会按速度惯性滑动到预测的节点
+     */
+    public void setFlingEnabled(boolean flingEnabled) {
+        this.flingEnabled = flingEnabled;
+    }
+
+    /**
+     * 设置吸附动画的最长时间，到时直接停在目标节点
+     */
+    public void setSnapMaxDuration(int millis) {
+        if (millis < 0) {
+            throw new IllegalArgumentException("Max duration must be >= 0");
+        }
+        snapMaxDurationNanos = millis * 1000000L;
+        for (SnapAnimation animation : snapAnimations) {
+            animation.setMaxDurationNanos(snapMaxDurationNanos);
+        }
+    }
+
+    public int getSnapMaxDuration() {
+        return (int) (snapMaxDurationNanos / 1000000L);
+    }
+
+    public boolean isAnimate() {
+        return isAnimate;
+    }
+
+    public void setAnimate(boolean animate) {
+        isAnimate = animate;
+    }
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        long start = beginPhase("MySlider.onMeasure");
+        try {
+            measureSlider(widthMeasureSpec, heightMeasureSpec);
+        } finally {
+            endPhase(SliderMetrics.PHASE_MEASURE, start);
+        }
+    }
+
+    private void measureSlider(int widthMeasureSpec, int heightMeasureSpec) {
+        setMeasuredDimension(measureWidth(widthMeasureSpec), measureHeight(heightMeasureSpec));
 
         // 得到高度后更新radius
-        updateRadius(getHeight());
+        updateRadius(getMeasuredHeight());
 
         // 计算点位置
-        preComputeDrawingPosition();
-        Log.d(TAG, "onMeasure: " + getMeasuredHeight());
+        preComputeDrawingPosition(getMeasuredWidth(), getMeasuredHeight());
+        if (DEBUG) {
+            Log.d(TAG, "onMeasure: " + getMeasuredHeight());
+        }
 
     }
 
@@ -410,91 +1602,408 @@ public class MySliderView extends View {
         return result;
     }
 
-    private void updateCurrentIndex() {
-        float min = Float.MAX_VALUE;
-        int j = 0;
-        /** 找到slidingX距离最近的点*/
-        for (int i = 0; i < rangeCount; ++i) {
-            float dx = Math.abs(currentSlidingX - slotPositions[i]);
-            if (dx < min) {
-                min = dx;
-                j = i;
-            }
+    private void dispatchSlide(int thumb, int index) {
+        if (listener == null && rangeListener == null) {
+            return;
         }
-        /** 监听器返回最终点索引*/
-        if (j != currentIndex) {
+        long start = beginPhase("MySlider.callback");
+        try {
             if (listener != null) {
-                listener.onSlide(j);
+                listener.onSlide(index);
+            }
+            if (rangeListener != null) {
+                rangeListener.onSlide(thumb, index);
             }
+        } finally {
+            endPhase(SliderMetrics.PHASE_CALLBACK, start);
+        }
+    }
+
+    private void updateCurrentIndex(int thumb, float velocity) {
+        SnapAnimation animation = snapAnimations[thumb];
+        float x = thumbs.getPosition(thumb);
+        if (continuous) {
+            /** 连续取值：停在松手的位置，只更新最近的节点 */
+            int j = thumbs.clampIndex(thumb, slotLayout.nearestIndex(x));
+            if (j != thumbs.getIndex(thumb)) {
+                dispatchSlide(thumb, j);
+                thumbs.setIndex(thumb, j);
+            }
+            notifySlideChanged();
+            return;
         }
-        currentIndex = j;
-        animationEndX = slotPositions[j];
+        boolean fling = isAnimate && flingEnabled && flingTracker.isFling(velocity);
+        /** 找到slidingX（惯性滑动时是预测停止位置）距离最近的点，不越过相邻的滑块*/
+        int j = thumbs.clampIndex(thumb, track.snapIndex(animation, x, velocity, fling));
+        /** 监听器返回最终点索引*/
+        if (j != thumbs.getIndex(thumb)) {
+            dispatchSlide(thumb, j);
+        }
+        thumbs.setIndex(thumb, j);
         /** 动画效果 */
         if (isAnimate) {
-            ValueAnimator valueAnimator = ValueAnimator.ofFloat(animationStartX, animationEndX);
-            valueAnimator.addUpdateListener(new ValueAnimator.AnimatorUpdateListener() {
-                @Override
-                public void onAnimationUpdate(ValueAnimator valueAnimator) {
-                    currentSlidingX = (float) valueAnimator.getAnimatedValue();
-                    invalidate();
-                }
-            });
-            valueAnimator.setDuration((long) (Math.abs(animationEndX - animationStartX) * 3));
-            valueAnimator.start();
+            animation.springTo(x, slotPositions[j], fling ? velocity : 0, now());
+            scheduleFrame();
         } else {
-            currentSlidingX = slotPositions[j];
+            thumbs.setPosition(thumb, slotPositions[j]);
             //animateRipple();
-            invalidate();
+            invalidateThumb(thumb);
+            notifySlideChanged();
         }
-        selectedSlotX = slotPositions[j];
-        downX = currentSlidingX;
+        downX = thumbs.getPosition(thumb);
         downY = currentSlidingY;
     }
 
     @Override
     public boolean onTouchEvent(MotionEvent event) {
-        float y = event.getY();
-        float x = event.getX();
+        long start = beginPhase("MySlider.onTouchEvent");
+        try {
+            TouchTrace trace = touchTrace;
+            if (trace != null) {
+                recordTouch(trace, event);
+            }
+            return handleTouchEvent(event);
+        } finally {
+            endPhase(SliderMetrics.PHASE_TOUCH, start);
+        }
+    }
+
+    private boolean handleTouchEvent(MotionEvent event) {
         final int action = event.getActionMasked();
+        flingTracker.addMovement(getContext(), event, false);
         switch (action) {
             case MotionEvent.ACTION_DOWN:
-                gotSlot = isInSelectedSlot(x, y);
-                downX = x;
-                downY = y;
-                Log.d(TAG, "onTouchEvent: startPosition " + slotPositions[0] + " end:" + slotPositions[rangeCount - 1]);
+            case MotionEvent.ACTION_POINTER_DOWN: {
+                int index = event.getActionIndex();
+                onPointerDown(event.getPointerId(index), event.getX(index), event.getY(index));
+                break;
+            }
+
+            case MotionEvent.ACTION_MOVE: {
+                /** 一个事件里包含所有手指的位置，分别交给各自拖动的滑块 */
+                int pointerCount = event.getPointerCount();
+                for (int p = 0; p < pointerCount; p++) {
+                    int pointerId = event.getPointerId(p);
+                    if (coalesceInput) {
+                        /** 只记录采样，等到下一个vsync再更新 */
+                        int thumb = routePointer(pointerId, event.getX(p));
+                        if (thumb < 0) {
+                            continue;
+                        }
+                        int history = event.getHistorySize();
+                        for (int i = 0; i < history; i++) {
+                            coalesceMove(thumb, event.getHistoricalX(p, i), event.getHistoricalY(p, i));
+                        }
+                        coalesceMove(thumb, event.getX(p), event.getY(p));
+                    } else {
+                        onPointerMove(pointerId, event.getX(p), event.getY(p));
+                    }
+                }
                 break;
+            }
+
+            case MotionEvent.ACTION_UP:
+            case MotionEvent.ACTION_POINTER_UP: {
+                int index = event.getActionIndex();
+                onPointerUp(event.getPointerId(index), event.getX(index), event.getY(index),
+                        flingTracker.takeReleaseVelocity());
+                break;
+            }
+
+            case MotionEvent.ACTION_CANCEL:
+                onCancel();
+                break;
+        }
+        flingTracker.endEvent(event);
+        return true;
+    }
+
+    /**
+     * 把一个事件追加到录制的轨迹，移动事件包括所有手指的历史采样
+     */
+    private void recordTouch(TouchTrace trace, MotionEvent event) {
+        int action = event.getActionMasked();
+        if (action == MotionEvent.ACTION_DOWN) {
+            trace.setViewSize(getWidth(), getHeight());
+        }
+        trace.beginEvent();
+        long time = event.getEventTime() * 1000000L;
+        if (action == MotionEvent.ACTION_MOVE) {
+            int pointerCount = event.getPointerCount();
+            int history = event.getHistorySize();
+            for (int i = 0; i < history; i++) {
+                long historicalTime = event.getHistoricalEventTime(i) * 1000000L;
+                for (int p = 0; p < pointerCount; p++) {
+                    trace.add(TouchTrace.ACTION_MOVE, event.getPointerId(p), historicalTime,
+                            event.getHistoricalX(p, i), event.getHistoricalY(p, i), true);
+                }
+            }
+            for (int p = 0; p < pointerCount; p++) {
+                trace.add(TouchTrace.ACTION_MOVE, event.getPointerId(p), time, event.getX(p), event.getY(p), false);
+            }
+        } else {
+            int index = event.getActionIndex();
+            trace.add(action, event.getPointerId(index), time, event.getX(index), event.getY(index), false);
+        }
+    }
+
+    /**
+     * 把之后收到的触摸事件追加到 trace，用来收集卡顿的手势，之后可以离线回放。
+     * 录制时会分配内存，只在调试时开启
+     *
+     * @param trace 录制的轨迹，null 表示停止录制
+     */
+    public void setTouchTrace(TouchTrace trace) {
+        this.touchTrace = trace;
+    }
+
+    public TouchTrace getTouchTrace() {
+        return touchTrace;
+    }
+
+    /**
+     * 每个vsync执行一次，推进吸附动画，处理合并后的输入
+     */
+    void onFrame(long frameTimeNanos) {
+        applyExternalPosition();
+        int count = thumbs.getCount();
+        for (int i = 0; i < count; i++) {
+            SnapAnimation animation = snapAnimations[i];
+            if (animation.isRunning()) {
+                if (animation.step(frameTimeNanos)) {
+                    scheduleFrame();
+                }
+                thumbs.setPosition(i, thumbs.clampPosition(i, slotLayout.clamp(animation.getPosition())));
+                invalidateThumb(i);
+                slideChanged = slideDispatcher != null;
+            }
+            MoveCoalescer coalescer = moveCoalescers[i];
+            if (coalescer.hasPending()) {
+                if (thumbs.isGrabbed(i)) {
+                    moveThumb(i, coalescer.getX(), coalescer.getY());
+                    slideChanged = slideDispatcher != null;
+                }
+                coalescer.consume();
+            }
+        }
+        SlideDispatcher dispatcher = slideDispatcher;
+        if (dispatcher != null) {
+            if (slideChanged) {
+                slideChanged = false;
+                dispatcher.publish(getSlideFraction(), slotLayout.nearestIndex(thumbs.getPosition(activeThumb)), frameTimeNanos);
+            }
+            if (dispatcher.flushThrottled(frameTimeNanos)) {
+                scheduleFrame();
+            }
+        }
+    }
+
+    /**
+     * 滑块位置改变，下一帧分发给连续位置监听
+     */
+    private void notifySlideChanged() {
+        if (slideDispatcher != null) {
+            slideChanged = true;
+            scheduleFrame();
+        }
+    }
+
+    private void scheduleFrame() {
+        if (!frameScheduled) {
+            frameScheduled = true;
+            postOnAnimation(frameCallback);
+        }
+    }
+
+    /**
+     * 代替 vsync 执行已经安排的一帧，回放触摸轨迹时使用
+     *
+     * @return 是否有安排的帧
+     */
+    boolean runScheduledFrame(long frameTimeNanos) {
+        if (!frameScheduled) {
+            return false;
+        }
+        removeCallbacks(frameCallback);
+        frameScheduled = false;
+        onFrame(frameTimeNanos);
+        return true;
+    }
+
+    /**
+     * 固定动画和绘制使用的当前时间，回放触摸轨迹时使用
+     *
+     * @param nanos 和帧时间同一基准，{@link Long#MIN_VALUE} 表示恢复使用系统时间
+     */
+    void setFixedClock(long nanos) {
+        fixedClockNanos = nanos;
+    }
+
+    private long now() {
+        return fixedClockNanos != SYSTEM_CLOCK ? fixedClockNanos : System.nanoTime();
+    }
+
+    /**
+     * 设置惯性滑动的速度范围，代替 ViewConfiguration 的值，回放触摸轨迹时使用
+     */
+    void setFlingVelocityRange(float min, float max) {
+        flingTracker.setVelocityRange(min, max);
+    }
+
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        /** detach期间写入的位置可能没有唤醒控件 */
+        applyExternalPosition();
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        removeCallbacks(externalFrameCallback);
+        if (frameScheduled) {
+            removeCallbacks(frameCallback);
+            frameScheduled = false;
+        }
+        releaseMaskBitmap();
+        if (scrubPreview != null) {
+            scrubPreview.hide();
+        }
+        for (int i = 0; i < thumbs.getCount(); i++) {
+            if (snapAnimations[i].isRunning()) {
+                /** 不再显示，直接停在目标节点 */
+                snapAnimations[i].cancel();
+                thumbs.setPosition(i, slotPositions[thumbs.getIndex(i)]);
+            }
+        }
+    }
+
+    /**
+     * 处理单指触摸，不依赖MotionEvent，方便在测试中直接驱动
+     */
+    boolean onTouch(int action, float x, float y) {
+        switch (action) {
+            case MotionEvent.ACTION_DOWN:
+                onPointerDown(0, x, y);
+                break;
+
+            case MotionEvent.ACTION_MOVE:
+                onPointerMove(0, x, y);
+                break;
+
+            case MotionEvent.ACTION_UP:
+                onPointerUp(0, x, y, flingTracker.takeReleaseVelocity());
+                break;
+
+            case MotionEvent.ACTION_CANCEL:
+                onCancel();
+                break;
+
+        }
+        return true;
+    }
+
+    /**
+     * 手指按下时抓住最近的滑块，已经被别的手指抓住时忽略这个手指
+     */
+    void onPointerDown(int pointerId, float x, float y) {
+        downX = x;
+        downY = y;
+        if (!isInSelectedSlot(x, y)) {
+            return;
+        }
+        int thumb = thumbs.nearest(x);
+        if (thumbs.isGrabbed(thumb)) {
+            return;
+        }
+        /** 新的触摸立即打断这个滑块正在进行的动画 */
+        snapAnimations[thumb].cancel();
+        thumbs.grab(thumb, pointerId);
+        moveCoalescers[thumb].reset(x, y);
+        activeThumb = thumb;
+        if (DEBUG) {
+            Log.d(TAG, "onTouchEvent: thumb " + thumb + " startPosition " + slotPositions[0] + " end:" + slotPositions[rangeCount - 1]);
+        }
+    }
+
+    void onPointerMove(int pointerId, float x, float y) {
+        int thumb = routePointer(pointerId, x);
+        if (thumb < 0) {
+            return;
+        }
+        if (DEBUG) {
+            Log.d(TAG, "onTouchEvent: thumb " + thumb + " x:" + thumbs.getPosition(thumb));
+        }
+        moveThumb(thumb, x, y);
+        notifySlideChanged();
+    }
+
+    void onPointerUp(int pointerId, float x, float y, float velocity) {
+        int thumb = thumbs.thumbForPointer(pointerId);
+        if (thumb < 0) {
+            return;
+        }
+        thumbs.release(thumb);
+        moveCoalescers[thumb].consume();
+        moveThumb(thumb, x, y);
+        updateCurrentIndex(thumb, velocity);
+        hidePreviewIfIdle();
+    }
 
-            case MotionEvent.ACTION_MOVE:
-                Log.d(TAG, "onTouchEvent: currentSlidingX:" + currentSlidingX);
-                if (gotSlot) {
-                    if (x < slotPositions[0]) {
-                        currentSlidingX = slotPositions[0];
-                    } else if (x > slotPositions[rangeCount - 1]) {
-                        currentSlidingX = slotPositions[rangeCount - 1];
-                    } else {
-                        currentSlidingX = x;
-                    }
-                    currentSlidingY = y;
-                    invalidate();
-                }
-                break;
+    /**
+     * 手势被父控件拦截，所有被抓住的滑块从当前位置吸附到最近的点
+     */
+    void onCancel() {
+        for (int i = 0; i < thumbs.getCount(); i++) {
+            if (thumbs.isGrabbed(i)) {
+                thumbs.release(i);
+                moveCoalescers[i].consume();
+                updateCurrentIndex(i, 0);
+            }
+        }
+        flingTracker.takeReleaseVelocity();
+        hidePreviewIfIdle();
+    }
 
-            case MotionEvent.ACTION_UP:
-                if (gotSlot) {
-                    gotSlot = false;
-                    currentSlidingX = x;
-                    if (x < slotPositions[0])
-                        currentSlidingX = slotPositions[0];
-                    if (x > slotPositions[rangeCount - 1])
-                        currentSlidingX = slotPositions[rangeCount - 1];
-                    currentSlidingY = y;
-                    animationStartX = currentSlidingX;
-                    updateCurrentIndex();
-                }
-                break;
+    /**
+     * 合并模式下记录一个移动采样，等到下一个vsync再更新
+     */
+    void coalesceMove(int thumb, float x, float y) {
+        moveCoalescers[thumb].add(x, y);
+        scheduleFrame();
+    }
 
+    /**
+     * @return 手指拖动的滑块，没有时返回 -1
+     */
+    int routePointer(int pointerId, float x) {
+        int thumb = thumbs.thumbForPointer(pointerId);
+        if (thumb < 0) {
+            return thumb;
         }
-        return true;
+        int resolved = thumbs.resolve(thumb, x - thumbs.getPosition(thumb));
+        if (resolved != thumb) {
+            moveCoalescers[resolved].reset(moveCoalescers[thumb].getX(), moveCoalescers[thumb].getY());
+            moveCoalescers[thumb].consume();
+        }
+        return resolved;
+    }
+
+    /**
+     * 滑块跟随手指，不超出滑竿，也不越过相邻的滑块
+     */
+    private void moveThumb(int thumb, float x, float y) {
+        x = slotLayout.clamp(x);
+        if (continuous) {
+            x = detents.apply(x, slotPositions, slotLayout.getCount());
+        }
+        thumbs.setPosition(thumb, thumbs.clampPosition(thumb, x));
+        currentSlidingY = y;
+        activeThumb = thumb;
+        if (scrubPreview != null && thumbs.isGrabbed(thumb)) {
+            scrubPreview.update(slotLayout.nearestIndex(thumbs.getPosition(thumb)), rangeCount - 1);
+        }
+        invalidateThumb(thumb);
     }
 
     private boolean isInSelectedSlot(float x, float y) {
@@ -503,17 +2012,20 @@ public class MySliderView extends View {
                 selectedSlotX - radius <= x && x <= selectedSlotX + radius &&
                         selectedSlotY - radius <= y && y <= selectedSlotY + radius;*/
         //在滑竿上生成滑动事件
-        return slotPositions[0] - radius <= x && x <= slotPositions[rangeCount - 1] + radius &&
+        return slotLayout.getCount() == rangeCount && track.isOnTrack(x) &&
                 selectedSlotY - radius <= y && y <= selectedSlotY + radius;
     }
 
     private void drawEmptySlots(Canvas canvas, int color) {
         paint.setColor(color);
-        int h = getHeightWithPadding();
-        int y = getPaddingTop() + (h >> 1);
-        for (int i = 0; i < rangeCount; ++i) {
-            canvas.drawCircle(slotPositions[i], y, slotRadius, paint);
-        }
+        track.drawSlots(canvas, paint, 0, slotLayout.getDrawCount(), getTrackCenter());
+    }
+
+    /**
+     * 滑竿中心线的 y 坐标
+     */
+    private int getTrackCenter() {
+        return getPaddingTop() + (getHeightWithPadding() >> 1);
     }
 
     public int getHeightWithPadding() {
@@ -526,21 +2038,46 @@ public class MySliderView extends View {
 
     private void drawFilledSlots(Canvas canvas, int color) {
         paint.setColor(color);
-        int h = getHeightWithPadding();
-        int y = getPaddingTop() + (h >> 1);
-        for (int i = 0; i < rangeCount; ++i) {
-            if (slotPositions[i] <= currentSlidingX) {
-                canvas.drawCircle(slotPositions[i], y, slotRadius, paint);
-            }
+        int y = getTrackCenter();
+        float[] thumbX = thumbs.getPositions();
+        int count = thumbs.getCount();
+        for (int t = firstFilledSegment(count); t < count; t += 2) {
+            int from = t < 0 ? 0 : slotLayout.drawCountBefore(thumbX[t]);
+            track.drawSlots(canvas, paint, from, slotLayout.drawCountAtOrBefore(thumbX[t + 1]), y);
+        }
+    }
+
+    /**
+     * 填充段是 [t, t + 1] 两个滑块之间，从最后一个滑块往左两两配对，
+     * 滑块数为奇数时第一段从滑竿起点到第一个滑块，用 -1 表示
+     */
+    private static int firstFilledSegment(int thumbCount) {
+        return (thumbCount & 1) == 0 ? 0 : -1;
+    }
+
+    /**
+     * 绘制所有填充段的狭槽、节点和所有滑块，只设置一次颜色
+     */
+    private void drawFilled(Canvas canvas, int color) {
+        float[] thumbX = thumbs.getPositions();
+        int count = thumbs.getCount();
+        int y = getTrackCenter();
+        /** 绘制填充狭槽，第一段从第一个节点开始 */
+        for (int t = firstFilledSegment(count); t < count; t += 2) {
+            drawBar(canvas, t < 0 ? slotLayout.getFirst() : thumbX[t], thumbX[t + 1], color);
+        }
+        /** 绘制填充圆形*/
+        drawFilledSlots(canvas, color);
+        /** 绘制当前的圆形 */
+        paint.setColor(color);
+        for (int t = 0; t < count; t++) {
+            track.drawThumb(canvas, paint, thumbX[t], y);
         }
     }
 
     private void drawBar(Canvas canvas, float from, float to, int color) {
         paint.setColor(color);
-        int h = getHeightWithPadding();
-        int half = (barHeight >> 1);
-        int y = getPaddingTop() + (h >> 1);
-        canvas.drawRect(from, y - half, to, y + half, paint);
+        track.drawBar(canvas, paint, from, to, getTrackCenter());
     }
 
  /*   private void drawRippleEffect(Canvas canvas) {
@@ -560,26 +2097,292 @@ public class MySliderView extends View {
 
     @Override
     public void onDraw(Canvas canvas) {
-        int h = getHeightWithPadding();
-        float border = slotPositions[0];
-        float x0 = getPaddingLeft() + border;
-        int y0 = getPaddingTop() + (h >> 1);
-
-        int save = canvas.saveLayer(0, 0, getWidth(), getHeight(), null, Canvas.ALL_SAVE_FLAG);
-        /** 绘制未选中圆形*/
-        drawEmptySlots(canvas, getNoAlphaColor(emptyColor));
-        /** 绘制空狭槽 */
-        drawBar(canvas, slotPositions[0], slotPositions[rangeCount - 1], getNoAlphaColor(emptyColor));
-        Log.d(TAG, "onDrawAlpha: " + isHasAlpha(filledColor));
+        long trace = beginPhase("MySlider.onDraw");
+        try {
+            drawFrame(canvas);
+        } finally {
+            endPhase(SliderMetrics.PHASE_DRAW, trace);
+        }
+    }
+
+    private void drawFrame(Canvas canvas) {
+        long start = System.nanoTime();
+        boolean reduced = quality.beginFrame(isInteracting(), maxThumbTravel(), now());
+        applyPaintQuality(reduced);
+        Path histogramPath = histogram != null ? histogram.getPath() : null;
+        if (histogramPath != null) {
+            Paint histogramPaint = SliderStyles.histogramPaint();
+            histogramPaint.setColor(histogramColor);
+            canvas.drawPath(histogramPath, histogramPaint);
+        }
+        /** 降低质量时不使用图层和蒙版 */
+        if (!reduced && shouldUseLayer()) {
+            drawWithLayer(canvas);
+        } else {
+            drawSinglePass(canvas);
+        }
+        if (tickLabels != null) {
+            drawTickLabels(canvas);
+        }
+        if (scrubPreview != null) {
+            scrubPreview.draw(canvas, thumbs.getPosition(activeThumb), getPreviewBottom(), getWidth());
+        }
+        System.arraycopy(thumbs.getPositions(), 0, drawnThumbX, 0, thumbs.getCount());
+        reportInvalidatedArea();
+        if (quality.endFrame(System.nanoTime() - start)) {
+            /** 停下后补画一帧完整质量，覆盖拖动时局部刷新过的区域 */
+            invalidate();
+        }
+        if (DEBUG) {
+            Log.d(TAG, "onDraw: " + getWidth() + " " + getHeight());
+        }
+    }
+
+    /**
+     * 开启耗时统计：测量、布局、绘制、触摸和回调的耗时直方图，超预算的帧数和刷新次数，
+     * 同时为每个阶段添加 {@link Trace} 区段。关闭时没有额外开销
+     */
+    public void setMetricsEnabled(boolean enabled) {
+        if (enabled == (metrics != null)) {
+            return;
+        }
+        metrics = enabled ? new SliderMetrics(System.nanoTime()) : null;
+    }
+
+    public boolean isMetricsEnabled() {
+        return metrics != null;
+    }
+
+    /**
+     * @param nanos 一帧的预算，触摸、测量和绘制的耗时之和超过时计为超预算，默认 60Hz 的一帧
+     */
+    public void setMetricsFrameBudget(long nanos) {
+        SliderMetrics metrics = this.metrics;
+        if (metrics == null) {
+            throw new IllegalStateException("Metrics are not enabled");
+        }
+        metrics.setFrameBudgetNanos(nanos);
+    }
+
+    /**
+     * @return 当前的统计结果，没有开启时返回 null
+     */
+    public SliderMetrics.Snapshot getMetricsSnapshot() {
+        SliderMetrics metrics = this.metrics;
+        return metrics == null ? null : metrics.snapshot(System.nanoTime());
+    }
+
+    public void resetMetrics() {
+        SliderMetrics metrics = this.metrics;
+        if (metrics != null) {
+            metrics.reset(System.nanoTime());
+        }
+    }
+
+    /**
+     * @return 开始时间，没有开启统计时返回 {@link #NOT_TRACED}
+     */
+    private long beginPhase(String section) {
+        if (metrics == null) {
+            return NOT_TRACED;
+        }
+        Trace.beginSection(section);
+        return System.nanoTime();
+    }
+
+    /**
+     * 和 {@link #beginPhase(String)} 成对调用，中途关闭统计也会结束 Trace 区段
+     */
+    private void endPhase(int phase, long start) {
+        if (start == NOT_TRACED) {
+            return;
+        }
+        long elapsed = System.nanoTime() - start;
+        Trace.endSection();
+        SliderMetrics metrics = this.metrics;
+        if (metrics != null) {
+            metrics.record(phase, elapsed);
+        }
+    }
+
+    @Override
+    public void invalidate() {
+        SliderMetrics metrics = this.metrics;
+        if (metrics != null) {
+            metrics.countInvalidate();
+        }
+        if (frameInvalidateListener != null) {
+            /** 同一帧里既有整体刷新又有局部刷新时，报告的面积是两者的并集 */
+            pendingDirty.set(0, 0, getWidth(), getHeight());
+        }
+        super.invalidate();
+    }
+
+    @Override
+    public void invalidate(int l, int t, int r, int b) {
+        SliderMetrics metrics = this.metrics;
+        if (metrics != null) {
+            metrics.countInvalidate();
+        }
+        super.invalidate(l, t, r, b);
+    }
+
+    @Override
+    public void requestLayout() {
+        SliderMetrics metrics = this.metrics;
+        if (metrics != null) {
+            metrics.countRequestLayout();
+        }
+        super.requestLayout();
+    }
+
+    /**
+     * 有手指拖动或吸附动画正在进行
+     */
+    private boolean isInteracting() {
+        for (int i = 0; i < thumbs.getCount(); i++) {
+            if (thumbs.isGrabbed(i) || snapAnimations[i].isRunning()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 滑块从上一帧到现在移动的最大距离
+     */
+    private float maxThumbTravel() {
+        float max = 0;
+        for (int i = 0; i < thumbs.getCount(); i++) {
+            max = Math.max(max, Math.abs(thumbs.getPosition(i) - drawnThumbX[i]));
+        }
+        return max;
+    }
+
+    /**
+     * 每帧换成对应质量的共用画笔，不修改画笔本身
+     */
+    private void applyPaintQuality(boolean reduced) {
+        paint = reduced ? SliderStyles.reducedFillPaint() : SliderStyles.fillPaint();
+        xFermodePaint = reduced ? SliderStyles.reducedMaskPaint() : SliderStyles.maskPaint();
+    }
+
+    public boolean isAdaptiveQuality() {
+        return quality.isEnabled();
+    }
+
+    /**
+     * 开启后拖动和惯性滑动时关闭抗锯齿、抖动和位图过滤，也不使用图层蒙版，停下后补画一帧完整质量
+     */
+    public void setAdaptiveQuality(boolean enabled) {
+        quality.setEnabled(enabled);
+        invalidate();
+    }
+
+    /**
+     * @param pxPerSecond 滑块速度低于这个值时保持完整质量，默认 0，即拖动时总是降低
+     */
+    public void setAdaptiveQualityThreshold(float pxPerSecond) {
+        quality.setSpeedThreshold(pxPerSecond);
+    }
+
+    public float getAdaptiveQualityThreshold() {
+        return quality.getSpeedThreshold();
+    }
+
+    /**
+     * @param reduced true 统计降低质量的帧，false 统计完整质量的帧
+     * @return onDraw 的平均耗时，用于比较两种质量的帧耗时
+     */
+    public long getAverageDrawNanos(boolean reduced) {
+        return quality.getAverageDrawNanos(reduced);
+    }
+
+    public long getDrawnFrameCount(boolean reduced) {
+        return quality.getFrameCount(reduced);
+    }
+
+    public void resetDrawStats() {
+        quality.resetStats();
+    }
+
+    /**
+     * 只刷新滑块从上一帧位置到当前位置扫过的区域，包括两处滑块和中间变化的填充滑竿、节点
+     */
+    private void invalidateThumb(int thumb) {
+        float r = Math.max(Math.max(radius, slotRadius), barHeight / 2f) + DEFAULT_PAINT_STROKE_WIDTH;
+        int y = getPaddingTop() + (getHeightWithPadding() >> 1);
+        float x = thumbs.getPosition(thumb);
+        int left = (int) Math.floor(Math.min(drawnThumbX[thumb], x) - r);
+        int right = (int) Math.ceil(Math.max(drawnThumbX[thumb], x) + r);
+        int top = (int) Math.floor(y - r);
+        int bottom = (int) Math.ceil(y + r);
+        if (scrubPreview != null && scrubPreview.isVisible()) {
+            /** 气泡跟着滑块移动，靠边时会被推回控件内，左右各多留一个气泡宽度 */
+            left -= scrubPreview.getWidth();
+            right += scrubPreview.getWidth();
+            top = Math.min(top, (int) Math.floor(getPreviewBottom() - scrubPreview.getHeight()));
+        }
+        if (tickLabels != null) {
+            /** 滑块前后所在节点的文字会换样式 */
+            float half = tickLabels.getMaxWidth() / 2;
+            float from = slotPositions[slotLayout.nearestIndex(Math.min(drawnThumbX[thumb], x))];
+            float to = slotPositions[slotLayout.nearestIndex(Math.max(drawnThumbX[thumb], x))];
+            left = Math.min(left, (int) Math.floor(from - half));
+            right = Math.max(right, (int) Math.ceil(to + half));
+            bottom = Math.max(bottom, (int) Math.ceil(getTickLabelTop() + tickLabels.getHeight()));
+        }
+        if (frameInvalidateListener != null) {
+            pendingDirty.union(left, top, right, bottom);
+        }
+        invalidate(left, top, right, bottom);
+    }
+
+    /**
+     * 把这一帧请求刷新的面积报告给监听器。{@link #invalidate()} 记为整个控件；什么都没有记录时
+     * （例如系统触发的重绘）也按整个控件刷新报告
+     */
+    private void reportInvalidatedArea() {
+        if (frameInvalidateListener == null) {
+            return;
+        }
+        int viewArea = getWidth() * getHeight();
+        int area = viewArea;
+        if (!pendingDirty.isEmpty() && pendingDirty.intersect(0, 0, getWidth(), getHeight())) {
+            area = pendingDirty.width() * pendingDirty.height();
+        }
+        pendingDirty.setEmpty();
+        frameInvalidateListener.onFrameInvalidated(area, viewArea);
+    }
+
+    /**
+     * 设置刷新区域的监听器，用于统计局部刷新节省的面积，传 null 关闭统计
+     */
+    public void setOnFrameInvalidateListener(OnFrameInvalidateListener listener) {
+        this.frameInvalidateListener = listener;
+        pendingDirty.setEmpty();
+    }
+
+    /**
+     * 用saveLayer和DST_IN蒙版实现未选中轨道的透明度
+     */
+    private void drawWithLayer(Canvas canvas) {
+        int y0 = getTrackCenter();
+        ensureMaskBitmap();
+
+        /** 图层只覆盖滑竿所在的横条，离屏缓冲的面积不随控件的其他内容增长 */
+        float reach = Math.max(radius, Math.max(slotRadius, barHeight >> 1)) + DEFAULT_PAINT_STROKE_WIDTH;
+        int save = canvas.saveLayer(slotPositions[0] - reach, y0 - reach,
+                slotPositions[rangeCount - 1] + reach, y0 + reach, null, Canvas.ALL_SAVE_FLAG);
+        /** 绘制未选中圆形和空狭槽 */
+        drawStaticTrack(canvas, true);
+        if (DEBUG) {
+            Log.d(TAG, "onDrawAlpha: " + colors.isFilledHasAlpha());
+        }
         //判断填充小球是否有alpha
-        if (isHasAlpha(filledColor)) {
-            /** 绘制填充狭槽 */
-            drawBar(canvas, x0, currentSlidingX, getNoAlphaColor(filledColor));
-            /** 绘制填充圆形*/
-            drawFilledSlots(canvas, getNoAlphaColor(filledColor));
-            /** 绘制当前的圆形 */
-            paint.setColor(getNoAlphaColor(filledColor));
-            canvas.drawCircle(currentSlidingX, y0, radius, paint);
+        if (colors.isFilledHasAlpha()) {
+            /** 绘制填充部分 */
+            drawFilled(canvas, colors.getOpaqueFilledColor());
             //用Bitmap叠加效果
             canvas.drawBitmap(xfermodeBitmap, 0, 0, xFermodePaint);
             canvas.restoreToCount(save);
@@ -587,58 +2390,114 @@ public class MySliderView extends View {
             //用Bitmap叠加效果
             canvas.drawBitmap(xfermodeBitmap, 0, 0, xFermodePaint);
             canvas.restoreToCount(save);
-            /** 绘制填充狭槽 */
-            drawBar(canvas, x0, currentSlidingX, filledColor);
-            /** 绘制填充圆形*/
-            drawFilledSlots(canvas, filledColor);
-            /** 绘制当前的圆形 */
-            paint.setColor(filledColor);
-            canvas.drawCircle(currentSlidingX, y0, radius, paint);
+            /** 绘制填充部分 */
+            drawFilled(canvas, filledColor);
+        }
+    }
+
+    /**
+     * 不使用图层，未选中轨道作为一条路径按原本的alpha画一次，再画选中部分
+     */
+    private void drawSinglePass(Canvas canvas) {
+        /** 绘制未选中轨道 */
+        drawStaticTrack(canvas, false);
+
+        /** 绘制填充部分 */
+        drawFilled(canvas, colors.getSinglePassFilledColor());
+    }
+
+    /**
+     * 绘制未选中轨道。能回放Picture时只在轨道改变后录制一次，之后每帧回放
+     *
+     * @param layered 是否在图层里绘制，图层里用不透明颜色分别画节点和滑竿
+     */
+    private void drawStaticTrack(Canvas canvas, boolean layered) {
+        if (!canReplayPicture(canvas)) {
+            drawTrack(canvas, layered);
+            return;
+        }
+        if (quality.isReduced() && (staticTrackDirty || staticTrackLayered != layered)) {
+            /** 不把降低质量的画笔录制进去 */
+            drawTrack(canvas, layered);
+            return;
+        }
+        if (staticTrackDirty || staticTrackLayered != layered) {
+            Canvas recording = staticTrack.beginRecording(getWidth(), getHeight());
+            drawTrack(recording, layered);
+            staticTrack.endRecording();
+            staticTrackLayered = layered;
+            staticTrackDirty = false;
+        }
+        canvas.drawPicture(staticTrack);
+    }
+
+    private void drawTrack(Canvas canvas, boolean layered) {
+        if (layered) {
+            drawEmptySlots(canvas, colors.getOpaqueEmptyColor());
+            drawBar(canvas, slotPositions[0], slotPositions[rangeCount - 1], colors.getOpaqueEmptyColor());
+        } else {
+            paint.setColor(colors.getSinglePassTrackColor());
+            canvas.drawPath(track.getPath(getTrackCenter()), paint);
         }
+    }
 
+    /**
+     * 硬件加速的Canvas从 Android 6.0 开始才支持drawPicture，之前的版本每帧直接绘制
+     */
+    private static boolean canReplayPicture(Canvas canvas) {
+        return !canvas.isHardwareAccelerated() || Build.VERSION.SDK_INT >= Build.VERSION_CODES.M;
+    }
 
-        Log.d(TAG, "onDraw: " + getWidth() + " " + getHeight());
+    /**
+     * 轨道的几何形状改变，路径和录制的Picture都需要重新生成
+     */
+    private void markTrackDirty() {
+        track.markPathDirty();
+        staticTrackDirty = true;
     }
 
     @Override
     protected void onSizeChanged(int w, int h, int oldw, int oldh) {
         super.onSizeChanged(w, h, oldw, oldh);
-        Log.d(TAG, "onSizeChanged: " + getHeight());
-        if (xfermodeBitmap == null) {
-            xfermodeBitmap = Bitmap.createBitmap(w, h, Bitmap.Config.ARGB_8888);
-            Canvas canvas = new Canvas(xfermodeBitmap);
-            canvas.drawColor(getOnlyAlphaEmptyColor());
+        if (DEBUG) {
+            Log.d(TAG, "onSizeChanged: " + getHeight());
         }
+        updateRadius(h);
+        preComputeDrawingPosition(w, h);
+        markTrackDirty();
+        /** 尺寸改变后下一次图层绘制时按新尺寸重新获取蒙版 */
+        releaseMaskBitmap();
     }
 
-    private int getOnlyAlphaEmptyColor() {
-        int alpha = Color.alpha(emptyColor);
-        Log.d(TAG, "getOnlyAlphaEmptyColor: " + alpha);
-        return Color.argb(alpha, 0, 0, 0);
-    }
-
-    private int getNoAlphaColor(int color) {
-        int red = Color.red(color);
-        int green = Color.green(color);
-        int blue = Color.blue(color);
-        return Color.argb(255, red, green, blue);
+    /**
+     * 蒙版只在图层绘制时需要，第一次用到时再创建
+     */
+    private void ensureMaskBitmap() {
+        if (maskKey == NO_MASK) {
+            maskKey = MaskBitmapPool.key(getWidth(), getHeight(), SliderColors.alpha(colors.getMaskColor()));
+            xfermodeBitmap = MaskBitmapPool.acquire(maskKey);
+        }
     }
 
-    private boolean isHasAlpha(int color) {
-        int alpha = Color.alpha(color);
-        Log.d(TAG, "isHasAlpha: " + alpha);
-        if (alpha == 255)
-            return false;
-        else
-            return true;
-
+    private void releaseMaskBitmap() {
+        if (maskKey != NO_MASK) {
+            xfermodeBitmap = null;
+            MaskBitmapPool.release(maskKey);
+            maskKey = NO_MASK;
+        }
     }
 
     @Override
     public Parcelable onSaveInstanceState() {
         Parcelable superState = super.onSaveInstanceState();
         SavedState ss = new SavedState(superState);
-        ss.saveIndex = this.currentIndex;
+        ss.saveIndices = getThumbIndices();
+        if (continuous) {
+            ss.saveValues = new float[thumbs.getCount()];
+            for (int i = 0; i < ss.saveValues.length; i++) {
+                ss.saveValues[i] = getValue(i);
+            }
+        }
         return ss;
     }
 
@@ -650,12 +2509,191 @@ public class MySliderView extends View {
         }
         SavedState ss = (SavedState) state;
         super.onRestoreInstanceState(ss.getSuperState());
-        this.currentIndex = ss.saveIndex;
+        int[] indices = ss.saveIndices;
+        if (indices == null || indices.length != thumbs.getCount()) {
+            return;
+        }
+        for (int i = 0; i < indices.length; i++) {
+            thumbs.setIndex(i, Math.min(indices[i], rangeCount - 1));
+        }
+        if (slotLayout.getCount() == rangeCount) {
+            thumbs.moveToSlots(slotPositions);
+        }
+        float[] values = ss.saveValues;
+        if (continuous && values != null && values.length == indices.length) {
+            for (int i = 0; i < values.length; i++) {
+                setValue(i, values[i]);
+            }
+        }
     }
 
+    /**
+     * 一次批量设置，由 {@link #edit()} 得到。setter 只记录新值，{@link #apply()} 时一起检查、一起生效；
+     * 任何一个值不合法时抛出 IllegalArgumentException，控件保持原样。
+     * 没有设置的属性保持当前值，设置成和当前相同的值不会触发刷新
+     */
+    public final class Editor {
+
+        private static final int RANGE_COUNT = 1;
+        private static final int RANGE_INTERVAL = 1 << 1;
+        private static final int BAR_HEIGHT = 1 << 2;
+        private static final int SLOT_RADIUS = 1 << 3;
+        private static final int SLIDER_RADIUS = 1 << 4;
+        private static final int FILLED_COLOR = 1 << 5;
+        private static final int EMPTY_COLOR = 1 << 6;
+        private static final int THUMB_COUNT = 1 << 7;
+        private static final int SLOT_MIN_SPACING = 1 << 8;
+        private static final int RENDER_MODE = 1 << 9;
+
+        private static final int UNSET = -1;
+
+        /**
+         * 设置过的属性
+         */
+        private int changes;
+
+        private int rangeCount;
+        private String rangeInterval;
+        private float barHeightPercent;
+        private float slotRadiusPercent;
+        private float sliderRadiusPercent;
+        private int filledColor;
+        private int emptyColor;
+        private int thumbCount;
+        private float slotMinSpacing;
+        private int renderMode;
+
+        /**
+         * 每个滑块要移动到的节点，{@link #UNSET} 表示不移动，只有前 thumbIndexCount 个有效
+         */
+        private int[] thumbIndices = new int[0];
+
+        private int thumbIndexCount;
+
+        private Editor() {
+        }
+
+        public Editor setRangeCount(int rangeCount) {
+            this.rangeCount = rangeCount;
+            changes |= RANGE_COUNT;
+            return this;
+        }
+
+        /**
+         * @param rangeInterval 逗号分隔的间隔比例，null 表示均匀分布。同时设置节点数时两者必须一致
+         */
+        public Editor setRangeInterval(String rangeInterval) {
+            this.rangeInterval = rangeInterval;
+            changes |= RANGE_INTERVAL;
+            return this;
+        }
+
+        public Editor setBarHeightPercent(float percent) {
+            barHeightPercent = percent;
+            changes |= BAR_HEIGHT;
+            return this;
+        }
+
+        public Editor setSlotRadiusPercent(float percent) {
+            slotRadiusPercent = percent;
+            changes |= SLOT_RADIUS;
+            return this;
+        }
+
+        public Editor setSliderRadiusPercent(float percent) {
+            sliderRadiusPercent = percent;
+            changes |= SLIDER_RADIUS;
+            return this;
+        }
+
+        public Editor setFilledColor(int color) {
+            filledColor = color;
+            changes |= FILLED_COLOR;
+            return this;
+        }
+
+        public Editor setEmptyColor(int color) {
+            emptyColor = color;
+            changes |= EMPTY_COLOR;
+            return this;
+        }
+
+        /**
+         * 滑块数改变时和 {@link MySliderView#setThumbCount(int)} 一样重新均匀分布滑块，再应用 {@link #setThumbIndex(int, int)}；
+         * 和当前相同时滑块留在原来的节点
+         */
+        public Editor setThumbCount(int count) {
+            thumbCount = count;
+            changes |= THUMB_COUNT;
+            return this;
+        }
+
+        /**
+         * 把滑块移动到节点上，按修改后的节点数和滑块数检查，不能越过相邻的滑块
+         */
+        public Editor setThumbIndex(int thumb, int index) {
+            if (thumb < 0 || index < 0) {
+                throw new IllegalArgumentException("Attempted to set thumb=" + thumb + " to index=" + index);
+            }
+            if (thumb >= thumbIndices.length) {
+                thumbIndices = Arrays.copyOf(thumbIndices, Math.max(thumb + 1, thumbIndices.length * 2));
+            }
+            if (thumb >= thumbIndexCount) {
+                Arrays.fill(thumbIndices, thumbIndexCount, thumb + 1, UNSET);
+                thumbIndexCount = thumb + 1;
+            }
+            thumbIndices[thumb] = index;
+            return this;
+        }
+
+        public Editor setSlotMinSpacing(float spacing) {
+            slotMinSpacing = spacing;
+            changes |= SLOT_MIN_SPACING;
+            return this;
+        }
+
+        public Editor setRenderMode(int renderMode) {
+            this.renderMode = renderMode;
+            changes |= RENDER_MODE;
+            return this;
+        }
+
+        /**
+         * 检查并应用所有修改。不论成功与否，之后这个 Editor 都回到没有修改的状态
+         */
+        public void apply() {
+            try {
+                applyEdit(this);
+            } finally {
+                clear();
+            }
+        }
+
+        private boolean has(int flag) {
+            return (changes & flag) != 0;
+        }
+
+        private int getThumbIndex(int thumb) {
+            return thumb < thumbIndexCount ? thumbIndices[thumb] : UNSET;
+        }
+
+        private void clear() {
+            changes = 0;
+            rangeInterval = null;
+            thumbIndexCount = 0;
+        }
+    }
 
     static class SavedState extends BaseSavedState {
-        int saveIndex;
+        /**
+         * 每个滑块所在的节点
+         */
+        int[] saveIndices;
+
+        /**
+         * 连续模式下每个滑块的值，否则为 null
+         */
+        float[] saveValues;
 
         SavedState(Parcelable superState) {
             super(superState);
@@ -663,13 +2701,15 @@ public class MySliderView extends View {
 
         private SavedState(Parcel in) {
             super(in);
-            this.saveIndex = in.readInt();
+            this.saveIndices = in.createIntArray();
+            this.saveValues = in.createFloatArray();
         }
 
         @Override
         public void writeToParcel(Parcel out, int flags) {
             super.writeToParcel(out, flags);
-            out.writeInt(this.saveIndex);
+            out.writeIntArray(this.saveIndices);
+            out.writeFloatArray(this.saveValues);
         }
 
         public static final Parcelable.Creator<SavedState> CREATOR =
@@ -715,5 +2755,41 @@ public class MySliderView extends View {
         void onSlide(int index);
     }
 
+    /**
+     * 多个滑块时吸附结束的监听接口
+     */
+    public interface OnRangeSlideListener {
+
+        /**
+         * @param thumb 滑块序号，从左到右
+         * @param index 滑块吸附到的节点
+         */
+        void onSlide(int thumb, int index);
+    }
+
+    /**
+     * 拖动过程中连续位置的监听接口
+     */
+    public interface OnSlideChangeListener {
+
+        /**
+         * @param fraction     滑块在第一个和最后一个节点之间的比例，[0, 1]
+         * @param nearestIndex 离滑块最近的节点
+         */
+        void onSlideChanged(float fraction, int nearestIndex);
+    }
+
+    /**
+     * 每帧刷新区域的监听接口
+     */
+    public interface OnFrameInvalidateListener {
+
+        /**
+         * @param invalidatedArea 这一帧请求重绘的像素面积
+         * @param viewArea        控件的像素面积
+         */
+        void onFrameInvalidated(int invalidatedArea, int viewArea);
+    }
+
 
 }
@@ -0,0 +1,19 @@
+package com.meitu.myslider;
+
+import android.graphics.Bitmap;
+
+/**
+ * 拖动时滑块上方预览气泡的图片来源，例如视频的关键帧
+ */
+public interface PreviewProvider {
+
+    /**
+     * 在后台线程调用，可以直接解码
+     *
+     * @param index     滑块所在的节点
+     * @param maxWidth  气泡的像素宽度，图片不需要比它大
+     * @param maxHeight 气泡的像素高度
+     * @return 预览图，没有时返回 null
+     */
+    Bitmap loadPreview(int index, int maxWidth, int maxHeight);
+}
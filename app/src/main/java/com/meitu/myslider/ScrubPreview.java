@@ -0,0 +1,192 @@
+package com.meitu.myslider;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.RectF;
+import android.view.View;
+
+import com.meitu.myslider.core.IndexLruCache;
+import com.meitu.myslider.core.PreviewLoader;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * 拖动时滑块上方的预览气泡。
+ * <p>
+ * 图片由 {@link PreviewProvider} 在后台线程解码，主线程只查缓存和绘制。
+ * 当前节点的图片还没加载好时继续显示上一张，加载完成后再替换。
+ */
+final class ScrubPreview {
+
+    private static final int DECODE_THREADS = 2;
+
+    private static ExecutorService sharedExecutor;
+
+    private final View host;
+
+    private final PreviewProvider provider;
+
+    private final IndexLruCache<Bitmap> cache;
+
+    private final PreviewLoader<Bitmap> loader;
+
+    private Executor executor;
+
+    private int width;
+
+    private int height;
+
+    private float cornerRadius;
+
+    /**
+     * 气泡和滑块之间的距离
+     */
+    private final int gap;
+
+    private boolean visible;
+
+    private Bitmap shown;
+
+    private final RectF bubble = new RectF();
+
+    private final Paint framePaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+
+    private final Paint bitmapPaint = new Paint(Paint.FILTER_BITMAP_FLAG);
+
+    ScrubPreview(final View host, PreviewProvider provider, int width, int height, int gap) {
+        this.host = host;
+        this.gap = gap;
+        this.provider = provider;
+        this.width = width;
+        this.height = height;
+        this.cornerRadius = Math.min(width, height) / 12f;
+        framePaint.setColor(Color.WHITE);
+        cache = new IndexLruCache<Bitmap>(Runtime.getRuntime().maxMemory() / 32) {
+            @Override
+            protected int sizeOf(Bitmap value) {
+                return value.getByteCount();
+            }
+        };
+        loader = new PreviewLoader<>(new PreviewLoader.Source<Bitmap>() {
+            @Override
+            public Bitmap load(int index) {
+                return ScrubPreview.this.provider.loadPreview(index, ScrubPreview.this.width, ScrubPreview.this.height);
+            }
+        }, cache, new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                (executor != null ? executor : sharedExecutor()).execute(command);
+            }
+        }, new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                host.post(command);
+            }
+        }, new PreviewLoader.Listener<Bitmap>() {
+            @Override
+            public void onPreviewLoaded(int index, Bitmap value) {
+                if (visible) {
+                    shown = value;
+                    host.invalidate();
+                }
+            }
+        });
+    }
+
+    /**
+     * 所有控件共用的解码线程
+     */
+    private static synchronized Executor sharedExecutor() {
+        if (sharedExecutor == null) {
+            sharedExecutor = Executors.newFixedThreadPool(DECODE_THREADS, new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable r) {
+                    Thread thread = new Thread(r, "MySlider-preview");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+        return sharedExecutor;
+    }
+
+    /**
+     * @param executor 解码所在的线程，null 表示共用的解码线程
+     */
+    void setExecutor(Executor executor) {
+        this.executor = executor;
+    }
+
+    void setSize(int width, int height) {
+        if (width != this.width || height != this.height) {
+            this.width = width;
+            this.height = height;
+            this.cornerRadius = Math.min(width, height) / 12f;
+            /** 缓存的图片是按旧尺寸解码的 */
+            cache.clear();
+        }
+    }
+
+    void setCacheSize(long bytes) {
+        cache.setMaxSize(bytes);
+    }
+
+    void setPrefetchCount(int count) {
+        loader.setPrefetchCount(count);
+    }
+
+    int getWidth() {
+        return width;
+    }
+
+    int getHeight() {
+        return height;
+    }
+
+    int getGap() {
+        return gap;
+    }
+
+    boolean isVisible() {
+        return visible;
+    }
+
+    /**
+     * 手指移动到某个节点，只查缓存，不解码
+     */
+    void update(int index, int maxIndex) {
+        visible = true;
+        Bitmap cached = loader.request(index, maxIndex);
+        if (cached != null) {
+            shown = cached;
+        }
+    }
+
+    void hide() {
+        if (!visible) {
+            return;
+        }
+        visible = false;
+        shown = null;
+        loader.stop();
+    }
+
+    /**
+     * 在 (centerX, bottom) 上方画气泡，水平方向不超出控件
+     */
+    void draw(Canvas canvas, float centerX, float bottom, int viewWidth) {
+        if (!visible || shown == null) {
+            return;
+        }
+        float left = Math.max(0, Math.min(centerX - width / 2f, viewWidth - width));
+        bubble.set(left, bottom - height, left + width, bottom);
+        canvas.drawRoundRect(bubble, cornerRadius, cornerRadius, framePaint);
+        bubble.inset(2, 2);
+        canvas.drawBitmap(shown, null, bubble, bitmapPaint);
+    }
+}
@@ -0,0 +1,149 @@
+package com.meitu.myslider;
+
+import android.graphics.Paint;
+import android.graphics.PorterDuff;
+import android.graphics.PorterDuffXfermode;
+
+import com.meitu.myslider.core.IntervalModel;
+import com.meitu.myslider.core.SliderColors;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 所有滑竿共用的不可变样式对象。
+ * <p>
+ * 属性相同的控件拿到的是同一个 {@link SliderColors} 和 {@link IntervalModel}，
+ * 填充画笔每次绘制前都会设置颜色。填充画笔和蒙版画笔都按质量分成两支，所有控件共用，除颜色外不会被修改。只在主线程使用。
+ */
+final class SliderStyles {
+
+    private static final int MAX_CACHED = 32;
+
+    private static final Map<Long, SliderColors> COLORS = new LruMap<>();
+
+    private static final Map<String, IntervalModel> INTERVALS = new LruMap<>();
+
+    private static Paint fillPaint;
+
+    private static Paint reducedFillPaint;
+
+    private static Paint maskPaint;
+
+    private static Paint reducedMaskPaint;
+
+    private static Paint histogramPaint;
+
+    private SliderStyles() {
+    }
+
+    static SliderColors colors(int emptyColor, int filledColor) {
+        Long key = ((long) emptyColor << 32) | (filledColor & 0xFFFFFFFFL);
+        SliderColors colors = COLORS.get(key);
+        if (colors == null) {
+            colors = new SliderColors(emptyColor, filledColor);
+            COLORS.put(key, colors);
+        }
+        return colors;
+    }
+
+    /**
+     * 解析并缓存节点间隔，格式错误时抛出 IllegalArgumentException
+     */
+    static IntervalModel intervalModel(String rangeInterval) {
+        if (rangeInterval == null) {
+            return null;
+        }
+        IntervalModel model = INTERVALS.get(rangeInterval);
+        if (model == null) {
+            model = IntervalModel.parse(rangeInterval);
+            if (model != null) {
+                INTERVALS.put(rangeInterval, model);
+            }
+        }
+        return model;
+    }
+
+    /**
+     * 填充画笔，颜色由使用者在绘制前设置
+     */
+    static Paint fillPaint() {
+        if (fillPaint == null) {
+            fillPaint = newFillPaint(true);
+        }
+        return fillPaint;
+    }
+
+    /**
+     * 降低质量的帧用的填充画笔，不抗锯齿、不抖动、不做位图过滤，颜色同样在绘制前设置
+     */
+    static Paint reducedFillPaint() {
+        if (reducedFillPaint == null) {
+            reducedFillPaint = newFillPaint(false);
+        }
+        return reducedFillPaint;
+    }
+
+    private static Paint newFillPaint(boolean highQuality) {
+        Paint paint = new Paint();
+        paint.setAntiAlias(highQuality);
+        paint.setStrokeWidth(MySliderView.DEFAULT_PAINT_STROKE_WIDTH);
+        paint.setStyle(Paint.Style.FILL_AND_STROKE);
+        paint.setFilterBitmap(highQuality);
+        paint.setDither(highQuality);
+        return paint;
+    }
+
+    /**
+     * 绘制 DST_IN 蒙版的画笔，不透明，不会被修改
+     */
+    static Paint maskPaint() {
+        if (maskPaint == null) {
+            maskPaint = newMaskPaint(true);
+        }
+        return maskPaint;
+    }
+
+    /**
+     * 降低质量的帧用的蒙版画笔，不做位图过滤，同样不会被修改
+     */
+    static Paint reducedMaskPaint() {
+        if (reducedMaskPaint == null) {
+            reducedMaskPaint = newMaskPaint(false);
+        }
+        return reducedMaskPaint;
+    }
+
+    private static Paint newMaskPaint(boolean filterBitmap) {
+        Paint paint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        paint.setFilterBitmap(filterBitmap);
+        paint.setXfermode(new PorterDuffXfermode(PorterDuff.Mode.DST_IN));
+        return paint;
+    }
+
+    /**
+     * 分布图画笔，只填充不描边，颜色由使用者在绘制前设置
+     */
+    static Paint histogramPaint() {
+        if (histogramPaint == null) {
+            Paint paint = new Paint(Paint.ANTI_ALIAS_FLAG);
+            paint.setStyle(Paint.Style.FILL);
+            histogramPaint = paint;
+        }
+        return histogramPaint;
+    }
+
+    private static final class LruMap<K, V> extends LinkedHashMap<K, V> {
+
+        private static final long serialVersionUID = 1L;
+
+        LruMap() {
+            super(16, 0.75f, true);
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+            return size() > MAX_CACHED;
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.meitu.myslider;
+
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Path;
+
+import com.meitu.myslider.core.SlotLayout;
+import com.meitu.myslider.core.SnapAnimation;
+
+/**
+ * {@link MySliderView} 和 {@link MultiSliderView} 共用的一条滑竿：半径、未选中轨道的路径、
+ * 触摸是否落在滑竿上、松手吸附到哪个节点，以及狭槽、节点和滑块的绘制。
+ * <p>
+ * 坐标在滑竿坐标系里：main 是 {@link SlotLayout} 的节点位置，center 是滑竿中心线的 cross 坐标，由调用者给出。
+ */
+final class SliderTrack {
+
+    private final SlotLayout slotLayout;
+
+    /**
+     * 滑竿和所有未选中节点合成的一条路径，多个子路径方向相同，WINDING 填充得到它们的并集，重叠处不会重复叠加alpha
+     */
+    private final Path path = new Path();
+
+    private boolean pathDirty = true;
+
+    private float pathCenter;
+
+    private float radius;
+
+    private float slotRadius;
+
+    private int barHeight;
+
+    SliderTrack(SlotLayout slotLayout) {
+        this.slotLayout = slotLayout;
+        path.setFillType(Path.FillType.WINDING);
+    }
+
+    /**
+     * 按滑竿占的宽度计算滑块、节点的半径和狭槽的高度
+     *
+     * @param laneSize 一条滑竿在 cross 方向上占的像素
+     * @return 节点半径或狭槽高度改变，未选中轨道需要重画
+     */
+    boolean setSize(float laneSize, float sliderRadiusPercent, float slotRadiusPercent, float barHeightPercent) {
+        int newBarHeight = (int) (laneSize * barHeightPercent);
+        float newSlotRadius = laneSize * slotRadiusPercent;
+        boolean changed = newBarHeight != barHeight || newSlotRadius != slotRadius;
+        barHeight = newBarHeight;
+        slotRadius = newSlotRadius;
+        radius = laneSize * sliderRadiusPercent;
+        if (changed) {
+            pathDirty = true;
+        }
+        return changed;
+    }
+
+    float getRadius() {
+        return radius;
+    }
+
+    float getSlotRadius() {
+        return slotRadius;
+    }
+
+    int getBarHeight() {
+        return barHeight;
+    }
+
+    /**
+     * 节点位置或绘制的节点改变后调用，下次取路径时重新生成
+     */
+    void markPathDirty() {
+        pathDirty = true;
+    }
+
+    /**
+     * main 是否在第一个和最后一个节点之间，两端各留一个滑块半径；还没有布局时为 false
+     */
+    boolean isOnTrack(float main) {
+        return slotLayout.getCount() > 0
+                && slotLayout.getFirst() - radius <= main && main <= slotLayout.getLast() + radius;
+    }
+
+    /**
+     * 松手时吸附到的节点：最近的节点，惯性滑动时是预测停止位置最近的节点
+     */
+    int snapIndex(SnapAnimation animation, float main, float velocity, boolean fling) {
+        return slotLayout.nearestIndex(fling ? slotLayout.clamp(animation.predictFlingEnd(main, velocity)) : main);
+    }
+
+    /**
+     * 未选中轨道的路径，位置、半径或中心线改变后重新生成
+     */
+    Path getPath(float center) {
+        if (pathDirty || center != pathCenter) {
+            int half = barHeight >> 1;
+            path.rewind();
+            path.addRect(slotLayout.getFirst(), center - half, slotLayout.getLast(), center + half, Path.Direction.CW);
+            float[] positions = slotLayout.getPositions();
+            int[] indices = slotLayout.getDrawIndices();
+            int count = slotLayout.getDrawCount();
+            for (int i = 0; i < count; ++i) {
+                path.addCircle(positions[indices[i]], center, slotRadius, Path.Direction.CW);
+            }
+            pathCenter = center;
+            pathDirty = false;
+        }
+        return path;
+    }
+
+    void drawBar(Canvas canvas, Paint paint, float from, float to, float center) {
+        int half = barHeight >> 1;
+        canvas.drawRect(from, center - half, to, center + half, paint);
+    }
+
+    /**
+     * 绘制第 from 到 to - 1 个要绘制的节点，见 {@link SlotLayout#getDrawIndices()}
+     */
+    void drawSlots(Canvas canvas, Paint paint, int from, int to, float center) {
+        float[] positions = slotLayout.getPositions();
+        int[] indices = slotLayout.getDrawIndices();
+        for (int i = from; i < to; ++i) {
+            canvas.drawCircle(positions[indices[i]], center, slotRadius, paint);
+        }
+    }
+
+    void drawThumb(Canvas canvas, Paint paint, float main, float center) {
+        canvas.drawCircle(main, center, radius, paint);
+    }
+
+    /**
+     * 一个滑块时的填充部分：从第一个节点到滑块的狭槽、滑块之前的节点和滑块
+     */
+    void drawFilled(Canvas canvas, Paint paint, float main, float center) {
+        drawBar(canvas, paint, slotLayout.getFirst(), main, center);
+        drawSlots(canvas, paint, 0, slotLayout.drawCountAtOrBefore(main), center);
+        drawThumb(canvas, paint, main, center);
+    }
+}
@@ -0,0 +1,201 @@
+package com.meitu.myslider;
+
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Picture;
+import android.graphics.Typeface;
+
+import com.meitu.myslider.core.TickLabelLayout;
+
+/**
+ * 节点下方的刻度文字。
+ * <p>
+ * 文字宽度在文字、字号或字体改变时测量一次。每个显示的文字按普通和选中两种样式各录制一个 {@link Picture}，
+ * 录制在布局时完成，绘制时只回放，拖动过程中没有测量和排版。滑块所在节点的文字换成选中样式。
+ * 不能回放 Picture 的 Canvas 上直接画文字，位置仍然用缓存的宽度。
+ */
+final class TickLabels {
+
+    private CharSequence[] labels = new CharSequence[0];
+
+    private final Paint paint = new Paint(Paint.ANTI_ALIAS_FLAG);
+
+    private final Paint activePaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+
+    private final TickLabelLayout layout = new TickLabelLayout();
+
+    private float[] widths = new float[0];
+
+    private float[] textWidths = new float[0];
+
+    private float[] activeTextWidths = new float[0];
+
+    private Picture[] pictures = new Picture[0];
+
+    private Picture[] activePictures = new Picture[0];
+
+    private boolean measured;
+
+    private float ascent;
+
+    private float descent;
+
+    private float maxWidth;
+
+    TickLabels(float textSize, int color, int activeColor) {
+        paint.setTextSize(textSize);
+        paint.setColor(color);
+        activePaint.setTextSize(textSize);
+        activePaint.setColor(activeColor);
+        activePaint.setFakeBoldText(true);
+    }
+
+    /**
+     * @param labels 从第一个节点开始的文字，会被复制
+     */
+    void setLabels(CharSequence[] labels) {
+        this.labels = labels.clone();
+        pictures = new Picture[labels.length];
+        activePictures = new Picture[labels.length];
+        measured = false;
+    }
+
+    CharSequence[] getLabels() {
+        return labels.clone();
+    }
+
+    void setTextSize(float textSize) {
+        paint.setTextSize(textSize);
+        activePaint.setTextSize(textSize);
+        measured = false;
+    }
+
+    void setTypeface(Typeface typeface) {
+        paint.setTypeface(typeface);
+        activePaint.setTypeface(typeface);
+        measured = false;
+    }
+
+    void setColors(int color, int activeColor) {
+        paint.setColor(color);
+        activePaint.setColor(activeColor);
+        clearPictures();
+    }
+
+    /**
+     * 文字的高度，用于在节点下方留出空间
+     */
+    float getHeight() {
+        ensureMeasured();
+        return descent - ascent;
+    }
+
+    /**
+     * 最宽的文字，用于计算刷新区域
+     */
+    float getMaxWidth() {
+        ensureMeasured();
+        return maxWidth;
+    }
+
+    /**
+     * 按节点位置选出显示的文字，并为它们录制两种样式
+     */
+    void layout(float[] positions, int count, float minGap) {
+        ensureMeasured();
+        layout.layout(positions, count, minGap);
+        int[] visible = layout.getVisibleIndices();
+        for (int k = 0; k < layout.getVisibleCount(); k++) {
+            int i = visible[k];
+            if (pictures[i] == null) {
+                pictures[i] = record(labels[i], paint, widths[i], textWidths[i]);
+                activePictures[i] = record(labels[i], activePaint, widths[i], activeTextWidths[i]);
+            }
+        }
+    }
+
+    /**
+     * 测量所有文字。选中样式加粗后更宽，按两种样式中较宽的排布，换样式时不用重新稀疏
+     */
+    private void ensureMeasured() {
+        if (measured) {
+            return;
+        }
+        if (widths.length != labels.length) {
+            widths = new float[labels.length];
+            textWidths = new float[labels.length];
+            activeTextWidths = new float[labels.length];
+        }
+        maxWidth = 0;
+        for (int i = 0; i < labels.length; i++) {
+            CharSequence label = labels[i];
+            textWidths[i] = paint.measureText(label, 0, label.length());
+            activeTextWidths[i] = activePaint.measureText(label, 0, label.length());
+            widths[i] = Math.max(textWidths[i], activeTextWidths[i]);
+            maxWidth = Math.max(maxWidth, widths[i]);
+        }
+        ascent = Math.min(paint.ascent(), activePaint.ascent());
+        descent = Math.max(paint.descent(), activePaint.descent());
+        layout.setWidths(widths, widths.length);
+        clearPictures();
+        measured = true;
+    }
+
+    private void clearPictures() {
+        for (int i = 0; i < pictures.length; i++) {
+            pictures[i] = null;
+            activePictures[i] = null;
+        }
+    }
+
+    /**
+     * 文字在 Picture 里水平居中，顶部对齐
+     */
+    private Picture record(CharSequence label, Paint paint, float width, float textWidth) {
+        Picture picture = new Picture();
+        int w = (int) Math.ceil(width);
+        Canvas canvas = picture.beginRecording(w, (int) Math.ceil(descent - ascent));
+        canvas.drawText(label, 0, label.length(), (w - textWidth) / 2, -ascent, paint);
+        picture.endRecording();
+        return picture;
+    }
+
+    /**
+     * @param top           文字顶部的位置
+     * @param activeIndices 滑块所在的节点，这些节点的文字用选中样式
+     * @param activeCount   activeIndices 中有效的个数
+     * @param replay        Canvas 能否回放 Picture
+     */
+    void draw(Canvas canvas, float[] positions, float top, int[] activeIndices, int activeCount, boolean replay) {
+        int[] visible = layout.getVisibleIndices();
+        for (int k = 0; k < layout.getVisibleCount(); k++) {
+            int i = visible[k];
+            boolean active = false;
+            for (int t = 0; t < activeCount; t++) {
+                if (activeIndices[t] == i) {
+                    active = true;
+                    break;
+                }
+            }
+            float left = positions[i] - (float) Math.ceil(widths[i]) / 2;
+            if (replay) {
+                int save = canvas.save();
+                canvas.translate(left, top);
+                canvas.drawPicture(active ? activePictures[i] : pictures[i]);
+                canvas.restoreToCount(save);
+            } else {
+                CharSequence label = labels[i];
+                float textWidth = active ? activeTextWidths[i] : textWidths[i];
+                canvas.drawText(label, 0, label.length(), positions[i] - textWidth / 2, top - ascent, active ? activePaint : paint);
+            }
+        }
+    }
+
+    int getVisibleCount() {
+        return layout.getVisibleCount();
+    }
+
+    int[] getVisibleIndices() {
+        return layout.getVisibleIndices();
+    }
+}
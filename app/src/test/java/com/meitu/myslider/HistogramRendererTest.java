@@ -0,0 +1,92 @@
+package com.meitu.myslider;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static org.junit.Assert.*;
+
+/**
+ * 分布图在执行器上生成，连续追加的数据合并成一次处理
+ */
+public class HistogramRendererTest {
+
+    private final List<Runnable> queued = new ArrayList<>();
+
+    private int readyCount;
+
+    private HistogramRenderer renderer;
+
+    @Before
+    public void setUp() throws Exception {
+        renderer = new HistogramRenderer(new Runnable() {
+            @Override
+            public void run() {
+                readyCount++;
+            }
+        });
+        renderer.setExecutor(new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                queued.add(command);
+            }
+        });
+    }
+
+    private void runQueued() {
+        while (!queued.isEmpty()) {
+            queued.remove(0).run();
+        }
+    }
+
+    @Test
+    public void appends_coalescedIntoOneBuild() throws Exception {
+        renderer.setBounds(0, 0, 200, 100);
+        renderer.set(new float[1000]);
+        renderer.append(new float[]{1, 2, 3});
+        renderer.append(new int[]{4, 5});
+        assertEquals(1, queued.size());
+        assertNull(renderer.getPath());
+        runQueued();
+        assertEquals(1, readyCount);
+        assertNotNull(renderer.getPath());
+        assertEquals(1005, renderer.getDecimator().getSampleCount());
+        assertEquals(200, renderer.getDecimator().getMaxColumns());
+    }
+
+    @Test
+    public void append_rebuildsOnlyTail() throws Exception {
+        renderer.setBounds(0, 0, 300, 50);
+        float[] data = new float[100];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = 10;
+        }
+        renderer.set(data);
+        runQueued();
+        assertEquals(0, renderer.getLastRebuiltFrom());
+
+        // 追加不超过已有最大值的数据，纵向比例不变
+        renderer.append(new float[]{3, 4});
+        runQueued();
+        assertTrue(renderer.getLastRebuiltFrom() > 0);
+
+        // 新的最大值改变纵向比例，所有列重新计算
+        renderer.append(new float[]{50});
+        runQueued();
+        assertEquals(0, renderer.getLastRebuiltFrom());
+    }
+
+    @Test
+    public void clear_dropsPath() throws Exception {
+        renderer.setBounds(0, 0, 100, 50);
+        renderer.set(new int[]{1, 2, 3});
+        runQueued();
+        assertNotNull(renderer.getPath());
+        renderer.clear();
+        runQueued();
+        assertNull(renderer.getPath());
+    }
+}
@@ -0,0 +1,137 @@
+package com.meitu.myslider;
+
+import android.graphics.Canvas;
+
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * 在 JVM 上驱动多条滑竿的触摸分发和绘制
+ */
+public class MultiSliderViewTest {
+
+    private static MultiSliderView create(int orientation, int tracks) {
+        MultiSliderView view = new MultiSliderView(null);
+        view.setRangeCount(11);
+        view.setOrientation(orientation);
+        view.setTrackCount(tracks);
+        return view;
+    }
+
+    @Test
+    public void horizontal_pointersRouteToTheirLanes() throws Exception {
+        MultiSliderView view = create(MultiSliderView.ORIENTATION_HORIZONTAL, 4);
+        // 每条滑竿 100 像素高，节点间隔 90，第一个节点在 45
+        view.onSizeChanged(990, 400, 0, 0);
+        view.onPointerDown(0, 45, 150);
+        view.onPointerDown(1, 45, 350);
+        view.onPointerMove(0, 500, 160);
+        view.onPointerMove(1, 945, 340);
+        view.onPointerUp(0, 500, 160, 0);
+        view.onPointerUp(1, 945, 340, 0);
+        assertEquals(0, view.getIndex(0));
+        assertEquals(5, view.getIndex(1));
+        assertEquals(0, view.getIndex(2));
+        assertEquals(10, view.getIndex(3));
+    }
+
+    @Test
+    public void vertical_firstSlotAtBottom() throws Exception {
+        MultiSliderView view = create(MultiSliderView.ORIENTATION_VERTICAL, 31);
+        view.onSizeChanged(31 * 40, 990, 0, 0);
+        view.onPointerDown(5, 40 * 7 + 20, 990 - 45);
+        view.onPointerMove(5, 40 * 7 + 20, 990 - 45 - 180);
+        view.onPointerUp(5, 40 * 7 + 20, 990 - 45 - 180, 0);
+        assertEquals(2, view.getIndex(7));
+        assertEquals(0, view.getIndex(6));
+    }
+
+    @Test
+    public void secondPointerOnSameLaneIsIgnored() throws Exception {
+        MultiSliderView view = create(MultiSliderView.ORIENTATION_HORIZONTAL, 2);
+        view.onSizeChanged(990, 200, 0, 0);
+        view.onPointerDown(0, 45, 50);
+        view.onPointerDown(1, 400, 60);
+        view.onPointerMove(1, 945, 60);
+        view.onPointerUp(1, 945, 60, 0);
+        view.onCancel();
+        assertEquals(0, view.getIndex(0));
+    }
+
+    @Test
+    public void setRangeInterval_invalidLeavesViewUntouched() throws Exception {
+        MultiSliderView view = create(MultiSliderView.ORIENTATION_HORIZONTAL, 2);
+        view.setRangeInterval("0.1,0.2,0.3");
+        try {
+            view.setRangeInterval("0.1,x");
+            fail();
+        } catch (IllegalArgumentException expected) {
+        }
+        assertEquals(4, view.getRangeCount());
+        view.onSizeChanged(990, 200, 0, 0);
+        view.setIndex(1, 3);
+        assertEquals(3, view.getIndex(1));
+    }
+
+    @Test
+    public void savedState_restoresIndices() throws Exception {
+        MultiSliderView view = create(MultiSliderView.ORIENTATION_HORIZONTAL, 3);
+        view.onSizeChanged(990, 300, 0, 0);
+        view.setIndex(0, 4);
+        view.setIndex(2, 9);
+        MultiSliderView.SavedState state = (MultiSliderView.SavedState) view.onSaveInstanceState();
+
+        MultiSliderView restored = create(MultiSliderView.ORIENTATION_HORIZONTAL, 3);
+        restored.onSizeChanged(990, 300, 0, 0);
+        restored.onRestoreInstanceState(state);
+        assertEquals(4, restored.getIndex(0));
+        assertEquals(0, restored.getIndex(1));
+        assertEquals(9, restored.getIndex(2));
+    }
+
+    @Test
+    public void drawAndSnap_doNotAllocate() throws Exception {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) bean;
+        assumeTrue(threadBean.isThreadAllocatedMemorySupported());
+        threadBean.setThreadAllocatedMemoryEnabled(true);
+
+        MultiSliderView view = create(MultiSliderView.ORIENTATION_VERTICAL, 31);
+        view.setEmptyColor(0xA0DDDDDD);
+        view.setFilledColor(0xA0D4237A);
+        view.setAnimate(true);
+        view.onSizeChanged(31 * 40, 990, 0, 0);
+        Canvas canvas = new Canvas();
+        for (int i = 0; i < 20; i++) {
+            drag(view, canvas);
+        }
+        long id = Thread.currentThread().getId();
+        long before = threadBean.getThreadAllocatedBytes(id);
+        drag(view, canvas);
+        long allocated = threadBean.getThreadAllocatedBytes(id) - before;
+        // 两次读取计数器本身的开销
+        long overhead = threadBean.getThreadAllocatedBytes(id) - threadBean.getThreadAllocatedBytes(id);
+        assertEquals(0, Math.max(0, allocated + overhead));
+    }
+
+    private static void drag(MultiSliderView view, Canvas canvas) {
+        for (int t = 0; t < 31; t++) {
+            float x = 40 * t + 20;
+            view.onPointerDown(t, x, 900);
+            for (int i = 0; i < 20; i++) {
+                view.onPointerMove(t, x, 900 - i * 40);
+            }
+            view.onPointerUp(t, x, 100, 0);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i <= 20; i++) {
+            view.onFrame(start + i * 16000000L);
+            view.onDraw(canvas);
+        }
+    }
+}
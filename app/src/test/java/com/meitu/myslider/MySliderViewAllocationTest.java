@@ -0,0 +1,115 @@
+package com.meitu.myslider;
+
+import android.graphics.Canvas;
+import android.view.MotionEvent;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * 在 JVM 上驱动一次完整的拖动和吸附动画，检查 onTouch、onDraw 和动画帧没有分配内存。
+ * <p>
+ * 依赖 unitTests.returnDefaultValues，android.jar 里的方法都是空实现，测到的只是控件自己的代码。
+ */
+public class MySliderViewAllocationTest {
+
+    private static final int WIDTH = 1080;
+    private static final int HEIGHT = 150;
+    private static final int MOVES = 500;
+
+    private MySliderView view;
+
+    /**
+     * 硬件加速的 Canvas 不回放 Picture，每帧直接绘制轨道，覆盖所有绘制代码
+     */
+    private final Canvas canvas = new Canvas() {
+        @Override
+        public boolean isHardwareAccelerated() {
+            return true;
+        }
+    };
+
+    private com.sun.management.ThreadMXBean threadBean;
+
+    @Before
+    public void setUp() throws Exception {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+        threadBean = (com.sun.management.ThreadMXBean) bean;
+        assumeTrue(threadBean.isThreadAllocatedMemorySupported());
+        threadBean.setThreadAllocatedMemoryEnabled(true);
+
+        view = new MySliderView(null);
+        view.setRangeCount(50);
+        view.setEmptyColor(0xA0DDDDDD);
+        view.setFilledColor(0xFFD4237A);
+        view.setAnimate(true);
+        view.onSizeChanged(WIDTH, HEIGHT, 0, 0);
+        view.setOnSlideListener(new MySliderView.OnSlideListener() {
+            @Override
+            public void onSlide(int index) {
+            }
+        });
+    }
+
+    @Test
+    public void drag_doesNotAllocate() throws Exception {
+        // 预热，触发类加载和 JIT
+        for (int i = 0; i < 20; i++) {
+            drag();
+        }
+        long before = allocatedBytes();
+        drag();
+        long allocated = allocatedBytes() - before - measurementOverhead();
+        assertEquals("bytes allocated during a scripted drag", 0, Math.max(0, allocated));
+    }
+
+    @Test
+    public void snapAnimation_doesNotAllocate() throws Exception {
+        for (int i = 0; i < 20; i++) {
+            drag();
+            animate();
+        }
+        drag();
+        long before = allocatedBytes();
+        animate();
+        long allocated = allocatedBytes() - before - measurementOverhead();
+        assertEquals("bytes allocated during snap animation frames", 0, Math.max(0, allocated));
+    }
+
+    private void drag() {
+        float y = HEIGHT / 2f;
+        view.onTouch(MotionEvent.ACTION_DOWN, 40, y);
+        view.onDraw(canvas);
+        for (int i = 0; i < MOVES; i++) {
+            float x = 40 + (WIDTH - 80) * i / (float) MOVES;
+            view.onTouch(MotionEvent.ACTION_MOVE, x, y);
+            view.onDraw(canvas);
+        }
+        view.onTouch(MotionEvent.ACTION_UP, WIDTH / 2f + 7, y);
+        view.onDraw(canvas);
+    }
+
+    private void animate() {
+        long start = System.nanoTime();
+        for (int i = 0; i <= 30; i++) {
+            view.onFrame(start + i * 16000000L);
+            view.onDraw(canvas);
+        }
+    }
+
+    private long allocatedBytes() {
+        return threadBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    private long measurementOverhead() {
+        long a = allocatedBytes();
+        long b = allocatedBytes();
+        return b - a;
+    }
+}
@@ -0,0 +1,108 @@
+package com.meitu.myslider;
+
+import android.view.MotionEvent;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * 连续取值：松手不吸附，吸附点附近停到节点上，重新布局后保持比例
+ */
+public class MySliderViewContinuousTest {
+
+    private MySliderView view;
+
+    @Before
+    public void setUp() throws Exception {
+        view = new MySliderView(null);
+        view.setRangeCount(11);
+        view.setContinuous(true);
+        // 节点间隔 90，第一个节点在 45
+        view.onSizeChanged(990, 100, 0, 0);
+    }
+
+    @Test
+    public void release_keepsPosition() throws Exception {
+        view.onTouch(MotionEvent.ACTION_DOWN, 45, 50);
+        view.onTouch(MotionEvent.ACTION_MOVE, 301.5f, 50);
+        view.onTouch(MotionEvent.ACTION_UP, 301.5f, 50);
+        assertEquals((301.5f - 45) / 900, view.getValue(0), 1e-5f);
+        assertEquals(3, view.getThumbIndex(0));
+    }
+
+    @Test
+    public void detent_engagesNearSlot() throws Exception {
+        view.setDetents(5);
+        view.setDetentRadius(8);
+        view.onTouch(MotionEvent.ACTION_DOWN, 45, 50);
+        view.onTouch(MotionEvent.ACTION_MOVE, 490, 50);
+        view.onTouch(MotionEvent.ACTION_UP, 490, 50);
+        assertEquals(0.5f, view.getValue(0), 0);
+
+        view.onTouch(MotionEvent.ACTION_DOWN, 490, 50);
+        view.onTouch(MotionEvent.ACTION_MOVE, 520, 50);
+        view.onTouch(MotionEvent.ACTION_UP, 520, 50);
+        assertEquals((520f - 45) / 900, view.getValue(0), 1e-5f);
+    }
+
+    @Test
+    public void value_survivesRelayout() throws Exception {
+        view.setValue(0, 0.37f);
+        view.onSizeChanged(700, 100, 990, 100);
+        assertEquals(0.37f, view.getValue(0), 1e-5f);
+    }
+
+    @Test
+    public void value_keptUntilLayout() throws Exception {
+        MySliderView fresh = new MySliderView(null);
+        fresh.setRangeCount(11);
+        fresh.setContinuous(true);
+        fresh.setValue(0, 0.25f);
+        assertEquals(0.25f, fresh.getValue(0), 0);
+        fresh.onSizeChanged(990, 100, 0, 0);
+        assertEquals(0.25f, fresh.getValue(0), 1e-5f);
+    }
+
+    @Test
+    public void saveState_beforeLayout() throws Exception {
+        MySliderView fresh = new MySliderView(null);
+        fresh.setRangeCount(11);
+        fresh.setContinuous(true);
+        MySliderView.SavedState state = (MySliderView.SavedState) fresh.onSaveInstanceState();
+        assertArrayEquals(new float[]{0f}, state.saveValues, 0);
+
+        // 没有 setValue 时按滑块所在的节点保存
+        fresh.setThumbIndex(0, 3);
+        state = (MySliderView.SavedState) fresh.onSaveInstanceState();
+        assertArrayEquals(new float[]{0.3f}, state.saveValues, 1e-6f);
+
+        MySliderView restored = new MySliderView(null);
+        restored.setRangeCount(11);
+        restored.setContinuous(true);
+        restored.onRestoreInstanceState(state);
+        restored.onSizeChanged(990, 100, 0, 0);
+        assertEquals(0.3f, restored.getValue(0), 1e-5f);
+        assertEquals(3, restored.getThumbIndex(0));
+    }
+
+    @Test
+    public void discrete_setValueSnaps() throws Exception {
+        view.setContinuous(false);
+        view.onSizeChanged(990, 100, 0, 0);
+        view.setValue(0, 0.37f);
+        assertEquals(0.4f, view.getValue(0), 1e-5f);
+        assertEquals(4, view.getThumbIndex(0));
+    }
+
+    @Test
+    public void scaledValue_logRoundTrip() throws Exception {
+        view.setValueScale(com.meitu.myslider.core.ValueScale.log(20, 20000));
+        view.setScaledValue(0, 632.5f);
+        assertEquals(0.5f, view.getValue(0), 1e-4f);
+        assertEquals(632.5f, view.getScaledValue(0), 0.1f);
+        view.setScaledValue(0, 1e6f);
+        assertEquals(20000f, view.getScaledValue(0), 0.5f);
+    }
+}
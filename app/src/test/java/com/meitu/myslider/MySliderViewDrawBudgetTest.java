@@ -0,0 +1,163 @@
+package com.meitu.myslider;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * 用 {@link RecordingCanvas} 限制典型配置下每帧的绘制操作数和离屏图层。
+ * 改动让每帧多画了东西时这里会失败，确实需要时同时调整预算。
+ */
+public class MySliderViewDrawBudgetTest {
+
+    private static final int WIDTH = 1000;
+    private static final int HEIGHT = 100;
+
+    private static final int OPAQUE_FILLED = 0xFFD4237A;
+    private static final int TRANSLUCENT_FILLED = 0x80D4237A;
+    private static final int TRANSLUCENT_EMPTY = 0xA0DDDDDD;
+
+    private final RecordingCanvas canvas = new RecordingCanvas(WIDTH, HEIGHT);
+
+    @Test
+    public void opaqueFill_singlePassWithoutLayer() throws Exception {
+        MySliderView view = newView(5, OPAQUE_FILLED);
+        view.setThumbIndex(0, 2);
+        draw(view);
+        // 轨道一条路径，填充段一个矩形，3 个填充节点加 1 个滑块
+        assertEquals(1, canvas.count(RecordingCanvas.Op.PATH));
+        assertEquals(1, canvas.count(RecordingCanvas.Op.RECT));
+        assertEquals(4, canvas.count(RecordingCanvas.Op.CIRCLE));
+        assertEquals(6, canvas.getDrawCount());
+        assertEquals(0, canvas.getLayerCount());
+        assertEquals(0, canvas.count(RecordingCanvas.Op.BITMAP));
+    }
+
+    @Test
+    public void translucentFill_oneLayerBoundedToTrack() throws Exception {
+        MySliderView view = newView(5, TRANSLUCENT_FILLED);
+        view.setThumbIndex(0, 2);
+        draw(view);
+        assertEquals(1, canvas.getLayerCount());
+        assertEquals(1, canvas.getMaxLayerDepth());
+        assertEquals(1, canvas.count(RecordingCanvas.Op.BITMAP));
+        // 5 个空节点、3 个填充节点和滑块，空轨道和填充段各一个矩形，蒙版一张位图
+        assertEquals(9, canvas.count(RecordingCanvas.Op.CIRCLE));
+        assertEquals(2, canvas.count(RecordingCanvas.Op.RECT));
+        assertEquals(12, canvas.getDrawCount());
+        assertTrue("layer covers " + canvas.getLayerArea() + "px",
+                canvas.getLayerArea() < WIDTH * HEIGHT / 2);
+    }
+
+    @Test
+    public void singlePassMode_neverUsesLayer() throws Exception {
+        MySliderView view = newView(5, TRANSLUCENT_FILLED);
+        view.setRenderMode(MySliderView.RENDER_MODE_SINGLE_PASS);
+        view.setThumbIndex(0, 2);
+        draw(view);
+        assertEquals(0, canvas.getLayerCount());
+        assertEquals(6, canvas.getDrawCount());
+    }
+
+    @Test
+    public void rangeThumbs_fillOnlyBetweenThumbs() throws Exception {
+        MySliderView view = newView(11, OPAQUE_FILLED);
+        view.setThumbCount(2);
+        view.setThumbIndex(0, 3);
+        view.setThumbIndex(1, 6);
+        draw(view);
+        // 节点 3..6 加 2 个滑块
+        assertEquals(6, canvas.count(RecordingCanvas.Op.CIRCLE));
+        assertEquals(1, canvas.count(RecordingCanvas.Op.RECT));
+        assertEquals(0, canvas.getLayerCount());
+    }
+
+    @Test
+    public void manySlots_costBoundedByWidth() throws Exception {
+        // 节点间距 2px 和 0.01px 两种情况，都按最小间距 8px 挑出大约 WIDTH / 8 个节点来画
+        for (int count : new int[]{500, 100000}) {
+            MySliderView view = newView(count, OPAQUE_FILLED);
+            view.setSlotMinSpacing(8);
+            view.setThumbIndex(0, count - 1);
+            draw(view);
+            // 所有画出来的节点都被填充，再加 1 个滑块
+            assertDrawnSlotsAboutWidthOverSpacing(canvas.count(RecordingCanvas.Op.CIRCLE) - 1);
+            assertEquals(canvas.toString(), canvas.count(RecordingCanvas.Op.CIRCLE) + 2, canvas.getDrawCount());
+
+            MySliderView translucent = newView(count, TRANSLUCENT_FILLED);
+            translucent.setSlotMinSpacing(8);
+            translucent.setThumbIndex(0, count - 1);
+            draw(translucent);
+            // 空节点和填充节点各画一遍
+            assertDrawnSlotsAboutWidthOverSpacing((canvas.count(RecordingCanvas.Op.CIRCLE) - 1) / 2);
+            assertEquals(1, canvas.getLayerCount());
+        }
+    }
+
+    /**
+     * 节点分布在去掉两端留白的宽度上，画出来的个数略少于 WIDTH / 8
+     */
+    private void assertDrawnSlotsAboutWidthOverSpacing(int drawn) {
+        assertTrue(canvas + " drew " + drawn + " slots", drawn >= WIDTH / 8 * 3 / 4 && drawn <= WIDTH / 8 + 1);
+    }
+
+    @Test
+    public void dragFrames_costDoesNotGrow() throws Exception {
+        MySliderView view = newView(11, TRANSLUCENT_FILLED);
+        // 完整质量下拖动，每帧都走图层
+        view.setAdaptiveQuality(false);
+        float y = HEIGHT / 2f;
+        draw(view);
+        int idle = canvas.getDrawCount();
+        view.onPointerDown(0, WIDTH / 2f, y);
+        for (int x = 0; x <= WIDTH; x += 50) {
+            view.onPointerMove(0, x, y);
+            draw(view);
+            // 最多 11 个空节点、11 个填充节点、滑块、两个矩形和蒙版
+            assertTrue(canvas.toString(), canvas.getDrawCount() <= 26);
+            assertEquals(1, canvas.getLayerCount());
+        }
+        view.onPointerMove(0, 0, y);
+        draw(view);
+        assertEquals(idle, canvas.getDrawCount());
+    }
+
+    @Test
+    public void adaptiveQuality_reducedFramesSkipLayer() throws Exception {
+        MySliderView view = newView(11, TRANSLUCENT_FILLED);
+        view.setAdaptiveQuality(true);
+        float y = HEIGHT / 2f;
+        draw(view);
+        assertEquals(1, canvas.getLayerCount());
+
+        view.onPointerDown(0, WIDTH / 2f, y);
+        view.onPointerMove(0, 600, y);
+        draw(view);
+        assertEquals(0, canvas.getLayerCount());
+        assertEquals(0, canvas.count(RecordingCanvas.Op.BITMAP));
+        // 换成降低质量的那支共用画笔，不去修改别的控件也在用的完整质量画笔
+        assertSame(SliderStyles.reducedFillPaint(), view.paint);
+        assertSame(SliderStyles.reducedMaskPaint(), view.xFermodePaint);
+
+        view.onPointerUp(0, 600, y, 0);
+        draw(view);
+        assertEquals(1, canvas.getLayerCount());
+        assertSame(SliderStyles.fillPaint(), view.paint);
+        assertSame(SliderStyles.maskPaint(), view.xFermodePaint);
+    }
+
+    private static MySliderView newView(int rangeCount, int filledColor) {
+        MySliderView view = new MySliderView(null);
+        view.setRangeCount(rangeCount);
+        view.setEmptyColor(TRANSLUCENT_EMPTY);
+        view.setFilledColor(filledColor);
+        view.onSizeChanged(WIDTH, HEIGHT, 0, 0);
+        return view;
+    }
+
+    private void draw(MySliderView view) {
+        canvas.reset();
+        view.onDraw(canvas);
+        assertTrue("unbalanced save/restore: " + canvas, canvas.isBalanced());
+    }
+}
@@ -0,0 +1,188 @@
+package com.meitu.myslider;
+
+import com.meitu.myslider.core.SliderMetrics;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * {@link MySliderView#edit()} 的批量设置：一起检查、一起生效，最多一次 requestLayout 和一次 invalidate
+ */
+public class MySliderViewEditorTest {
+
+    private static final int WIDTH = 1000;
+    private static final int HEIGHT = 100;
+
+    private final RecordingCanvas canvas = new RecordingCanvas(WIDTH, HEIGHT);
+
+    private MySliderView view;
+
+    @Before
+    public void setUp() throws Exception {
+        view = new MySliderView(null);
+        view.setRangeCount(11);
+        view.setEmptyColor(0xA0DDDDDD);
+        view.setFilledColor(0xFFD4237A);
+        view.onSizeChanged(WIDTH, HEIGHT, 0, 0);
+        view.setThumbIndex(0, 10);
+        view.setMetricsEnabled(true);
+    }
+
+    @Test
+    public void apply_oneInvalidateWithoutLayout() throws Exception {
+        view.edit()
+                .setRangeCount(5)
+                .setBarHeightPercent(0.2f)
+                .setSlotRadiusPercent(0.15f)
+                .setFilledColor(0xFF00FF00)
+                .setEmptyColor(0x80DDDDDD)
+                .setThumbIndex(0, 2)
+                .apply();
+        SliderMetrics.Snapshot snapshot = view.getMetricsSnapshot();
+        assertEquals(1, snapshot.getInvalidates());
+        assertEquals(0, snapshot.getRequestLayouts());
+        assertEquals(5, view.getRangeCount());
+        assertEquals(0.2f, view.getBarHeightPercent(), 0f);
+        assertEquals(0xFF00FF00, view.getFilledColor());
+        assertEquals(0x80DDDDDD, view.getEmptyColor());
+        assertEquals(2, view.getThumbIndex(0));
+        // 节点位置已经按新的节点数重新计算，不用等下一次测量
+        assertEquals(0.5f, view.getSlideFraction(), 1e-6f);
+        draw();
+        // 3 个填充节点加 1 个滑块
+        assertEquals(4, canvas.count(RecordingCanvas.Op.CIRCLE));
+    }
+
+    @Test
+    public void rebind_editorInvalidatesOnceWhereSettersDoMore() throws Exception {
+        view.setRangeCount(5);
+        view.setBarHeightPercent(0.2f);
+        view.setFilledColor(0xFF00FF00);
+        view.setEmptyColor(0x80DDDDDD);
+        view.setThumbIndex(0, 2);
+        SliderMetrics.Snapshot setters = view.getMetricsSnapshot();
+        assertTrue(setters.getInvalidates() > 1);
+
+        view.setMetricsEnabled(false);
+        view.setMetricsEnabled(true);
+        view.edit()
+                .setRangeCount(11)
+                .setBarHeightPercent(0.1f)
+                .setFilledColor(0xFFD4237A)
+                .setEmptyColor(0xA0DDDDDD)
+                .setThumbIndex(0, 10)
+                .apply();
+        SliderMetrics.Snapshot editor = view.getMetricsSnapshot();
+        assertEquals(1, editor.getInvalidates());
+        assertEquals(0, editor.getRequestLayouts());
+        assertEquals(0, setters.getRequestLayouts());
+    }
+
+    @Test
+    public void apply_sliderRadiusRequestsOneLayout() throws Exception {
+        view.edit()
+                .setSliderRadiusPercent(0.4f)
+                .setSlotRadiusPercent(0.2f)
+                .apply();
+        SliderMetrics.Snapshot snapshot = view.getMetricsSnapshot();
+        assertEquals(1, snapshot.getRequestLayouts());
+        assertEquals(1, snapshot.getInvalidates());
+    }
+
+    @Test
+    public void apply_unchangedValuesDoNothing() throws Exception {
+        view.edit()
+                .setRangeCount(11)
+                .setFilledColor(view.getFilledColor())
+                .setThumbCount(1)
+                .setThumbIndex(0, 10)
+                .apply();
+        view.edit().apply();
+        SliderMetrics.Snapshot snapshot = view.getMetricsSnapshot();
+        assertEquals(0, snapshot.getInvalidates());
+        assertEquals(0, snapshot.getRequestLayouts());
+    }
+
+    @Test
+    public void apply_invalidValueLeavesViewUntouched() throws Exception {
+        try {
+            view.edit()
+                    .setRangeCount(5)
+                    .setFilledColor(0xFF00FF00)
+                    .setBarHeightPercent(1.5f)
+                    .apply();
+            fail();
+        } catch (IllegalArgumentException expected) {
+        }
+        assertEquals(11, view.getRangeCount());
+        assertEquals(0xFFD4237A, view.getFilledColor());
+        assertEquals(10, view.getThumbIndex(0));
+        assertEquals(0, view.getMetricsSnapshot().getInvalidates());
+
+        // 失败后 Editor 回到没有修改的状态
+        view.edit().apply();
+        assertEquals(11, view.getRangeCount());
+    }
+
+    @Test
+    public void apply_checksThumbsAgainstNewValues() throws Exception {
+        try {
+            view.edit().setRangeCount(5).setThumbIndex(0, 7).apply();
+            fail();
+        } catch (IllegalArgumentException expected) {
+        }
+        try {
+            view.edit().setThumbCount(2).setThumbIndex(0, 8).setThumbIndex(1, 3).apply();
+            fail();
+        } catch (IllegalArgumentException expected) {
+        }
+        try {
+            view.edit().setThumbIndex(1, 3).apply();
+            fail();
+        } catch (IllegalArgumentException expected) {
+        }
+        assertEquals(1, view.getThumbCount());
+
+        view.edit().setRangeCount(21).setThumbCount(3).setThumbIndex(2, 15).apply();
+        // 没有指定的滑块均匀分布在新的节点上
+        assertArrayEquals(new int[]{0, 10, 15}, view.getThumbIndices());
+        assertEquals(1, view.getMetricsSnapshot().getInvalidates());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void apply_rejectsCountNotMatchingInterval() throws Exception {
+        view.edit().setRangeInterval("0.2,0.3,0.5").setRangeCount(5).apply();
+    }
+
+    @Test
+    public void apply_intervalSetsRangeCount() throws Exception {
+        view.edit().setRangeInterval("0.2,0.3,0.5").setThumbIndex(0, 3).apply();
+        assertEquals(4, view.getRangeCount());
+        assertEquals(3, view.getThumbIndex(0));
+        assertEquals(1f, view.getSlideFraction(), 1e-6f);
+
+        view.edit().setRangeInterval(null).setRangeCount(6).apply();
+        assertEquals(6, view.getRangeCount());
+        assertNull(view.getRangeInterval());
+        // 滑块留在原来的节点
+        assertEquals(3, view.getThumbIndex(0));
+    }
+
+    @Test
+    public void setRangeCount_keepsPositionsConsistent() throws Exception {
+        view.setRangeCount(5);
+        assertEquals(4, view.getThumbIndex(0));
+        assertEquals(1f, view.getSlideFraction(), 1e-6f);
+        assertEquals(0, view.getMetricsSnapshot().getRequestLayouts());
+        draw();
+        assertEquals(6, canvas.count(RecordingCanvas.Op.CIRCLE));
+    }
+
+    private void draw() {
+        canvas.reset();
+        view.onDraw(canvas);
+        assertTrue(canvas.isBalanced());
+    }
+}
@@ -0,0 +1,77 @@
+package com.meitu.myslider;
+
+import com.meitu.myslider.core.ValueScale;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * 外部位置在帧回调里生效，用户拖动时被忽略
+ */
+public class MySliderViewExternalPositionTest {
+
+    private MySliderView view;
+
+    @Before
+    public void setUp() throws Exception {
+        view = new MySliderView(null);
+        view.setRangeCount(11);
+        // 节点间隔 90，第一个节点在 45
+        view.onSizeChanged(990, 100, 0, 0);
+    }
+
+    @Test
+    public void externalFraction_appliedOnNextFrame() throws Exception {
+        view.setExternalFraction(0.42f);
+        assertEquals(0f, view.getSlideFraction(), 0);
+        view.onFrame(0);
+        assertEquals(0.42f, view.getSlideFraction(), 1e-4f);
+        assertEquals(4, view.getThumbIndex(0));
+    }
+
+    @Test
+    public void externalFraction_keptUntilLayout() throws Exception {
+        MySliderView fresh = new MySliderView(null);
+        fresh.setRangeCount(11);
+        fresh.setExternalFraction(1f);
+        fresh.onFrame(0);
+        fresh.onSizeChanged(990, 100, 0, 0);
+        assertEquals(10, fresh.getThumbIndex(0));
+    }
+
+    @Test
+    public void slideFraction_beforeLayout_followsIndex() throws Exception {
+        MySliderView fresh = new MySliderView(null);
+        fresh.setRangeCount(11);
+        fresh.setThumbIndex(0, 4);
+        assertEquals(0.4f, fresh.getSlideFraction(), 1e-6f);
+        fresh.setValueScale(ValueScale.linear(0, 100));
+        assertEquals(40f, fresh.getScaledValue(0), 0.5f);
+        // 还没有布局时触摸不在滑竿上，不会抓住滑块
+        fresh.onTouch(android.view.MotionEvent.ACTION_DOWN, 45, 50);
+        fresh.onTouch(android.view.MotionEvent.ACTION_UP, 45, 50);
+        assertEquals(4, fresh.getThumbIndex(0));
+
+        MySliderView intervals = new MySliderView(null);
+        intervals.setRangeInterval("0.1,0.3");
+        intervals.setThumbIndex(0, 1);
+        assertEquals(0.25f, intervals.getSlideFraction(), 1e-6f);
+    }
+
+    @Test
+    public void drag_winsOverExternalFraction() throws Exception {
+        view.onTouch(android.view.MotionEvent.ACTION_DOWN, 45, 50);
+        view.onTouch(android.view.MotionEvent.ACTION_MOVE, 500, 50);
+        view.setExternalFraction(0.9f);
+        view.onFrame(0);
+        assertEquals((500f - 45) / 900, view.getSlideFraction(), 1e-4f);
+        view.onTouch(android.view.MotionEvent.ACTION_UP, 500, 50);
+        assertEquals(5, view.getThumbIndex(0));
+
+        view.setExternalFraction(0.9f);
+        view.onFrame(0);
+        assertEquals(0.9f, view.getSlideFraction(), 1e-4f);
+    }
+}
@@ -0,0 +1,53 @@
+package com.meitu.myslider;
+
+import android.graphics.Canvas;
+
+import com.meitu.myslider.core.SliderMetrics;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * 统计默认关闭，开启后记录各阶段的耗时和刷新次数
+ */
+public class MySliderViewMetricsTest {
+
+    /**
+     * 硬件加速的 Canvas 不回放 Picture，每帧直接绘制
+     */
+    private final Canvas canvas = new Canvas() {
+        @Override
+        public boolean isHardwareAccelerated() {
+            return true;
+        }
+    };
+
+    @Test
+    public void disabledByDefault() throws Exception {
+        MySliderView view = new MySliderView(null);
+        assertFalse(view.isMetricsEnabled());
+        assertNull(view.getMetricsSnapshot());
+    }
+
+    @Test
+    public void recordsPhasesAndInvalidates() throws Exception {
+        MySliderView view = new MySliderView(null);
+        view.setMetricsEnabled(true);
+        view.setFilledColor(0xFFD4237A);
+        view.onSizeChanged(990, 100, 0, 0);
+        view.onDraw(canvas);
+        view.onDraw(canvas);
+        view.invalidate();
+        SliderMetrics.Snapshot snapshot = view.getMetricsSnapshot();
+        assertEquals(2, snapshot.getCount(SliderMetrics.PHASE_DRAW));
+        assertEquals(2, snapshot.getFrames());
+        assertTrue(snapshot.getCount(SliderMetrics.PHASE_LAYOUT) >= 1);
+        assertTrue(snapshot.getInvalidates() >= 1);
+
+        view.resetMetrics();
+        assertEquals(0, view.getMetricsSnapshot().getFrames());
+        view.setMetricsEnabled(false);
+        assertNull(view.getMetricsSnapshot());
+    }
+}
@@ -0,0 +1,153 @@
+package com.meitu.myslider;
+
+import com.meitu.myslider.core.SliderColors;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.reflect.Field;
+
+import static org.junit.Assert.*;
+
+/**
+ * 把真实的控件分别用图层（saveLayer + DST_IN 蒙版）和单次绘制画到 {@link PixelCanvas} 上，逐个像素比较。
+ * <p>
+ * android.jar 里的 Paint 和 Path 不保存颜色和几何形状，测试开始前把共用的填充画笔和滑竿的轨道路径
+ * 换成能读回内容的 {@link PixelCanvas.ColorPaint} 和 {@link PixelCanvas.ShapePath}，结束后恢复。
+ * 抗锯齿边缘的比较见 androidTest 里的 MySliderViewRenderModeTest。
+ */
+public class MySliderViewPixelTest {
+
+    private static final int WIDTH = 600;
+    private static final int HEIGHT = 100;
+    private static final int RANGE_COUNT = 5;
+
+    /**
+     * 每个通道允许的舍入误差
+     */
+    private static final int TOLERANCE = 2;
+
+    private static final int[] EMPTY_COLORS = {0xFFC3C3C3, 0xDDC3C3C3, 0xA0DDDDDD, 0x01000000};
+    private static final int[] FILLED_COLORS = {0xFFFFA500, 0xFFD4237A, 0x80FFA500};
+    private static final int[] BACKGROUNDS = {0xFFFFFFFF, 0xFF000000, 0xFF3366CC};
+
+    private MySliderView view;
+
+    @Before
+    public void setUp() throws Exception {
+        setStatic("fillPaint", new PixelCanvas.ColorPaint());
+        setStatic("reducedFillPaint", new PixelCanvas.ColorPaint());
+        view = new MySliderView(null);
+        Object track = field(MySliderView.class, "track").get(view);
+        field(SliderTrack.class, "path").set(track, new PixelCanvas.ShapePath());
+        view.setRangeCount(RANGE_COUNT);
+        view.setAdaptiveQuality(false);
+        view.onSizeChanged(WIDTH, HEIGHT, 0, 0);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        setStatic("fillPaint", null);
+        setStatic("reducedFillPaint", null);
+    }
+
+    @Test
+    public void singlePass_matchesLayerPixels_whenExact() throws Exception {
+        int compared = 0;
+        for (int empty : EMPTY_COLORS) {
+            for (int filled : FILLED_COLORS) {
+                if (!new SliderColors(empty, filled).isSinglePassExact()) {
+                    continue;
+                }
+                view.setEmptyColor(empty);
+                view.setFilledColor(filled);
+                for (int background : BACKGROUNDS) {
+                    for (int index = 0; index < RANGE_COUNT; index++) {
+                        view.setThumbIndex(0, index);
+                        int[] layer = render(MySliderView.RENDER_MODE_LAYER, background);
+                        int[] single = render(MySliderView.RENDER_MODE_SINGLE_PASS, background);
+                        int i = firstDifference(layer, single);
+                        if (i >= 0) {
+                            fail(String.format("pixel (%d, %d) empty=%08X filled=%08X background=%08X index=%d: "
+                                            + "layer %08X, single pass %08X", i % WIDTH, i / WIDTH - HEIGHT,
+                                    empty, filled, background, index, layer[i], single[i]));
+                        }
+                        compared++;
+                    }
+                }
+            }
+        }
+        assertTrue(compared > 0);
+    }
+
+    @Test
+    public void singlePass_differs_whenBothColorsHaveAlpha() throws Exception {
+        view.setEmptyColor(0xA0DDDDDD);
+        view.setFilledColor(0x80FFA500);
+        view.setThumbIndex(0, RANGE_COUNT / 2);
+        int[] layer = render(MySliderView.RENDER_MODE_LAYER, 0xFFFFFFFF);
+        int[] single = render(MySliderView.RENDER_MODE_SINGLE_PASS, 0xFFFFFFFF);
+        assertTrue(firstDifference(layer, single) >= 0);
+    }
+
+    @Test
+    public void track_isDrawn() throws Exception {
+        view.setEmptyColor(0xFFC3C3C3);
+        view.setFilledColor(0xFFFFA500);
+        view.setThumbIndex(0, RANGE_COUNT / 2);
+        int[] pixels = render(MySliderView.RENDER_MODE_LAYER, 0xFFFFFFFF);
+        int empty = 0;
+        int filled = 0;
+        for (int pixel : pixels) {
+            empty += pixel == 0xFFC3C3C3 ? 1 : 0;
+            filled += pixel == 0xFFFFA500 ? 1 : 0;
+        }
+        // 比较的图像里确实有两种颜色的轨道，不是空白的画布
+        assertTrue(empty > 0 && filled > 0);
+    }
+
+    /**
+     * android.jar 里 getHeight() 是 0，滑竿中心线在 y = 0，画布上下各覆盖一个控件高度
+     */
+    private int[] render(int renderMode, int background) {
+        view.setRenderMode(renderMode);
+        PixelCanvas canvas = new PixelCanvas(0, -HEIGHT, WIDTH, HEIGHT * 2);
+        canvas.setMaskAlpha(SliderColors.alpha(SliderStyles.colors(view.getEmptyColor(),
+                view.getFilledColor()).getMaskColor()));
+        canvas.drawColor(background);
+        view.onDraw(canvas);
+        return canvas.getPixels();
+    }
+
+    /**
+     * @return 第一个超出误差的像素，没有时为 -1
+     */
+    private static int firstDifference(int[] expected, int[] actual) {
+        for (int i = 0; i < expected.length; i++) {
+            if (!close(expected[i], actual[i])) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean close(int a, int b) {
+        for (int shift = 0; shift < 32; shift += 8) {
+            if (Math.abs(((a >>> shift) & 0xFF) - ((b >>> shift) & 0xFF)) > TOLERANCE) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void setStatic(String name, Object value) throws Exception {
+        field(SliderStyles.class, name).set(null, value);
+    }
+
+    private static Field field(Class<?> type, String name) throws Exception {
+        Field field = type.getDeclaredField(name);
+        field.setAccessible(true);
+        return field;
+    }
+}
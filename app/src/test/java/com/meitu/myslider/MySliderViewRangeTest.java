@@ -0,0 +1,70 @@
+package com.meitu.myslider;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * 在 JVM 上用两个手指同时拖动两个滑块
+ */
+public class MySliderViewRangeTest {
+
+    private static final int WIDTH = 1000;
+    private static final int HEIGHT = 100;
+
+    private MySliderView view;
+
+    @Before
+    public void setUp() throws Exception {
+        view = new MySliderView(null);
+        view.setRangeCount(11);
+        view.setThumbCount(2);
+        view.onSizeChanged(WIDTH, HEIGHT, 0, 0);
+    }
+
+    @Test
+    public void twoPointers_dragTwoThumbs() throws Exception {
+        assertArrayEquals(new int[]{0, 10}, view.getThumbIndices());
+        float y = HEIGHT / 2f;
+        view.onPointerDown(0, 40, y);
+        view.onPointerDown(1, 960, y);
+        view.onPointerMove(0, 340, y);
+        view.onPointerMove(1, 600, y);
+        view.onPointerUp(1, 600, y, 0);
+        view.onPointerUp(0, 340, y, 0);
+        assertArrayEquals(new int[]{3, 6}, view.getThumbIndices());
+    }
+
+    @Test
+    public void thumbsDoNotCross() throws Exception {
+        float y = HEIGHT / 2f;
+        view.onPointerDown(0, 40, y);
+        view.onPointerMove(0, 990, y);
+        view.onPointerUp(0, 990, y, 0);
+        assertArrayEquals(new int[]{10, 10}, view.getThumbIndices());
+
+        // 重合时向左拖动的是左边的滑块
+        view.onPointerDown(3, 950, y);
+        view.onPointerMove(3, 500, y);
+        view.onPointerUp(3, 500, y, 0);
+        assertArrayEquals(new int[]{5, 10}, view.getThumbIndices());
+    }
+
+    @Test
+    public void secondPointerOnGrabbedThumbIsIgnored() throws Exception {
+        float y = HEIGHT / 2f;
+        view.onPointerDown(0, 40, y);
+        view.onPointerDown(1, 60, y);
+        view.onPointerMove(1, 400, y);
+        view.onPointerUp(1, 400, y, 0);
+        view.onCancel();
+        assertArrayEquals(new int[]{0, 10}, view.getThumbIndices());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void setThumbIndex_rejectsCrossing() throws Exception {
+        view.setThumbIndex(1, 4);
+        view.setThumbIndex(0, 5);
+    }
+}
@@ -0,0 +1,182 @@
+package com.meitu.myslider;
+
+import com.meitu.myslider.core.SliderMetrics;
+
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * 模拟列表复用：同一个控件依次绑定不同行的配置，比较逐个调用 setter 和 {@link MySliderView#edit()} 每行的耗时、
+ * 刷新次数和分配的内存。结果打印到标准输出，耗时断言只留了很宽的余量，避免在繁忙的机器上误报。
+ * 刷新次数的确定性检查在 {@link MySliderViewEditorTest} 里。
+ * <p>
+ * 只在 {@code ./gradlew :app:testDebugUnitTest -Pbenchmark} 时运行。
+ */
+public class MySliderViewRebindBenchmark {
+
+    private static final int WIDTH = 1080;
+    private static final int HEIGHT = 150;
+    private static final int ROWS = 64;
+    private static final int WARMUP = 2000;
+    private static final int ROUNDS = 200;
+
+    /**
+     * 两种方式交替测量几遍，各取最快的一遍
+     */
+    private static final int PASSES = 10;
+
+    private static final int[] COUNTS = {5, 11, 21, 101};
+    private static final String[] INTERVALS = {"0.1,0.2,0.3,0.4", "0.5,0.25,0.125,0.125"};
+    private static final int[] FILLED = {0xFFD4237A, 0xFF2196F3, 0x80D4237A, 0xC04CAF50};
+    private static final int[] EMPTY = {0xA0DDDDDD, 0xFFDDDDDD};
+
+    private final Row[] rows = rows();
+
+    @Test
+    public void rebind_editorBatchesWork() throws Exception {
+        MySliderView setters = newView();
+        MySliderView editor = newView();
+        // 预热，触发类加载和 JIT
+        for (int i = 0; i < WARMUP; i++) {
+            bindAll(setters, false);
+            bindAll(editor, true);
+        }
+
+        double settersNs = Double.MAX_VALUE;
+        double editorNs = Double.MAX_VALUE;
+        for (int i = 0; i < PASSES; i++) {
+            settersNs = Math.min(settersNs, measure(setters, false));
+            editorNs = Math.min(editorNs, measure(editor, true));
+        }
+        double[] settersCounts = countPerRow(setters, false);
+        double[] editorCounts = countPerRow(editor, true);
+        long settersBytes = allocatedPerRound(setters, false);
+        long editorBytes = allocatedPerRound(editor, true);
+
+        System.out.println(String.format("setters %7.1f ns/row  invalidates %.2f/row  requestLayouts %.2f/row  %s",
+                settersNs, settersCounts[0], settersCounts[1], bytes(settersBytes)));
+        System.out.println(String.format("edit()  %7.1f ns/row  invalidates %.2f/row  requestLayouts %.2f/row  %s",
+                editorNs, editorCounts[0], editorCounts[1], bytes(editorBytes)));
+
+        assertTrue("editor " + editorNs + "ns/row vs setters " + settersNs + "ns/row", editorNs < settersNs * 3);
+    }
+
+    private double measure(MySliderView view, boolean editor) {
+        long start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            bindAll(view, editor);
+        }
+        return (System.nanoTime() - start) / (double) (ROUNDS * ROWS);
+    }
+
+    /**
+     * @return 每行平均的 invalidate 和 requestLayout 次数
+     */
+    private double[] countPerRow(MySliderView view, boolean editor) {
+        view.setMetricsEnabled(true);
+        bindAll(view, editor);
+        SliderMetrics.Snapshot snapshot = view.getMetricsSnapshot();
+        view.setMetricsEnabled(false);
+        return new double[]{snapshot.getInvalidates() / (double) ROWS, snapshot.getRequestLayouts() / (double) ROWS};
+    }
+
+    /**
+     * 颜色缓存的 key 装箱后是否被逃逸分析去掉取决于 JIT，只打印不断言
+     *
+     * @return 绑定一遍所有行分配的字节数，不支持统计时为 -1
+     */
+    private long allocatedPerRound(MySliderView view, boolean editor) {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (!(bean instanceof com.sun.management.ThreadMXBean)) {
+            return -1;
+        }
+        com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) bean;
+        if (!threadBean.isThreadAllocatedMemorySupported()) {
+            return -1;
+        }
+        threadBean.setThreadAllocatedMemoryEnabled(true);
+        long id = Thread.currentThread().getId();
+        long before = threadBean.getThreadAllocatedBytes(id);
+        long overhead = threadBean.getThreadAllocatedBytes(id) - before;
+        before = threadBean.getThreadAllocatedBytes(id);
+        bindAll(view, editor);
+        return Math.max(0, threadBean.getThreadAllocatedBytes(id) - before - overhead);
+    }
+
+    private void bindAll(MySliderView view, boolean editor) {
+        for (Row row : rows) {
+            if (editor) {
+                bindWithEditor(view, row);
+            } else {
+                bindWithSetters(view, row);
+            }
+        }
+    }
+
+    private static void bindWithSetters(MySliderView view, Row row) {
+        view.setRangeInterval(row.interval);
+        view.setRangeCount(row.count);
+        view.setBarHeightPercent(row.barHeightPercent);
+        view.setSlotRadiusPercent(row.slotRadiusPercent);
+        view.setFilledColor(row.filledColor);
+        view.setEmptyColor(row.emptyColor);
+        view.setThumbIndex(0, row.index);
+    }
+
+    private static void bindWithEditor(MySliderView view, Row row) {
+        view.edit()
+                .setRangeInterval(row.interval)
+                .setRangeCount(row.count)
+                .setBarHeightPercent(row.barHeightPercent)
+                .setSlotRadiusPercent(row.slotRadiusPercent)
+                .setFilledColor(row.filledColor)
+                .setEmptyColor(row.emptyColor)
+                .setThumbIndex(0, row.index)
+                .apply();
+    }
+
+    private static MySliderView newView() {
+        MySliderView view = new MySliderView(null);
+        view.onSizeChanged(WIDTH, HEIGHT, 0, 0);
+        return view;
+    }
+
+    private static Row[] rows() {
+        Random random = new Random(25);
+        Row[] rows = new Row[ROWS];
+        for (int i = 0; i < ROWS; i++) {
+            Row row = new Row();
+            if (random.nextInt(4) == 0) {
+                row.interval = INTERVALS[random.nextInt(INTERVALS.length)];
+                row.count = 5;
+            } else {
+                row.count = COUNTS[random.nextInt(COUNTS.length)];
+            }
+            row.barHeightPercent = random.nextBoolean() ? 0.1f : 0.15f;
+            row.slotRadiusPercent = random.nextBoolean() ? 0.125f : 0.1f;
+            row.filledColor = FILLED[random.nextInt(FILLED.length)];
+            row.emptyColor = EMPTY[random.nextInt(EMPTY.length)];
+            row.index = random.nextInt(row.count);
+            rows[i] = row;
+        }
+        return rows;
+    }
+
+    private static String bytes(long bytes) {
+        return bytes < 0 ? "allocation n/a" : String.format("%.1f bytes/row", bytes / (double) ROWS);
+    }
+
+    private static final class Row {
+        String interval;
+        int count;
+        float barHeightPercent;
+        float slotRadiusPercent;
+        int filledColor;
+        int emptyColor;
+        int index;
+    }
+}
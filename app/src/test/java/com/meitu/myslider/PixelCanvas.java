@@ -0,0 +1,376 @@
+package com.meitu.myslider;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Path;
+import android.graphics.Picture;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 在 JVM 里把 onDraw 发出的绘制操作光栅化成像素的 Canvas，用来比较两种绘制方式的结果。
+ * <p>
+ * android.jar 里的 Paint、Path 和 Bitmap 都不保存内容，所以颜色从 {@link ColorPaint} 读取，
+ * 路径要是 {@link ShapePath}，DST_IN 蒙版的 alpha 由 {@link #setMaskAlpha(int)} 给出
+ * （蒙版整块是同一个 alpha，见 {@link MaskBitmapPool}）。
+ * <p>
+ * 像素按 ARGB_8888 保存预乘颜色，每次混合后取整到 8 位，和软件渲染一样。
+ * 按像素中心采样，不模拟抗锯齿和描边，图形边缘的差别由 androidTest 里的 MySliderViewRenderModeTest 在设备上比较。
+ * 图层从 saveLayer 开始是透明的，restore 时按 SRC_OVER 合成到下一层，只合成图层范围内的像素。
+ */
+class PixelCanvas extends Canvas {
+
+    private final int left;
+
+    private final int top;
+
+    private final int width;
+
+    private final int height;
+
+    /**
+     * save 栈，没有图层的 save 是 null
+     */
+    private final List<Layer> stack = new ArrayList<>();
+
+    private int maskAlpha = 0xFF;
+
+    /**
+     * @param left 画布左上角在控件坐标系里的位置
+     */
+    PixelCanvas(int left, int top, int width, int height) {
+        this.left = left;
+        this.top = top;
+        this.width = width;
+        this.height = height;
+        stack.add(new Layer(left, top, left + width, top + height));
+    }
+
+    /**
+     * 蒙版Bitmap的alpha
+     */
+    void setMaskAlpha(int alpha) {
+        maskAlpha = alpha;
+    }
+
+    @Override
+    public boolean isHardwareAccelerated() {
+        return true;
+    }
+
+    /**
+     * @return 画布的像素，预乘的 ARGB，从左上角逐行排列
+     */
+    int[] getPixels() {
+        if (stack.size() != 1) {
+            throw new AssertionError("unbalanced save/restore: " + stack.size());
+        }
+        Layer base = stack.get(0);
+        int[] pixels = new int[width * height];
+        for (int i = 0; i < pixels.length; i++) {
+            pixels[i] = base.get(i);
+        }
+        return pixels;
+    }
+
+    @Override
+    public int save() {
+        stack.add(null);
+        return stack.size() - 1;
+    }
+
+    @Override
+    public int saveLayer(float l, float t, float r, float b, Paint paint, int saveFlags) {
+        if (paint != null) {
+            throw new AssertionError("layer paint is not supported");
+        }
+        stack.add(new Layer((int) Math.floor(l), (int) Math.floor(t), (int) Math.ceil(r), (int) Math.ceil(b)));
+        return stack.size() - 1;
+    }
+
+    @Override
+    public void restore() {
+        if (stack.size() <= 1) {
+            throw new AssertionError("restore without save");
+        }
+        Layer layer = stack.remove(stack.size() - 1);
+        if (layer != null) {
+            current().composite(layer);
+        }
+    }
+
+    @Override
+    public void restoreToCount(int saveCount) {
+        if (saveCount < 1 || saveCount >= stack.size()) {
+            throw new AssertionError("restoreToCount(" + saveCount + ") with " + stack.size() + " saves");
+        }
+        while (stack.size() > saveCount) {
+            restore();
+        }
+    }
+
+    @Override
+    public int getSaveCount() {
+        return stack.size();
+    }
+
+    @Override
+    public void drawColor(int color) {
+        Layer layer = current();
+        for (int y = layer.top; y < layer.bottom; y++) {
+            for (int x = layer.left; x < layer.right; x++) {
+                layer.blend(x, y, color);
+            }
+        }
+    }
+
+    @Override
+    public void drawCircle(float cx, float cy, float radius, Paint paint) {
+        fill(new Circle(cx, cy, radius), paint);
+    }
+
+    @Override
+    public void drawRect(float l, float t, float r, float b, Paint paint) {
+        fill(new Rectangle(l, t, r, b), paint);
+    }
+
+    @Override
+    public void drawPath(Path path, Paint paint) {
+        if (!(path instanceof ShapePath)) {
+            throw new AssertionError("path geometry is not recorded: " + path);
+        }
+        fill((ShapePath) path, paint);
+    }
+
+    /**
+     * 只支持覆盖整个控件的 DST_IN 蒙版
+     */
+    @Override
+    public void drawBitmap(Bitmap bitmap, float l, float t, Paint paint) {
+        if (paint != SliderStyles.maskPaint() && paint != SliderStyles.reducedMaskPaint()) {
+            throw new AssertionError("only the DST_IN mask is supported");
+        }
+        Layer layer = current();
+        for (int y = layer.top; y < layer.bottom; y++) {
+            for (int x = layer.left; x < layer.right; x++) {
+                layer.multiply(x, y, maskAlpha);
+            }
+        }
+    }
+
+    @Override
+    public void drawPicture(Picture picture) {
+        throw new AssertionError("pictures cannot be replayed on the JVM");
+    }
+
+    private void fill(Shape shape, Paint paint) {
+        if (!(paint instanceof ColorPaint)) {
+            throw new AssertionError("paint color is not recorded: " + paint);
+        }
+        int color = paint.getColor();
+        Layer layer = current();
+        for (int y = layer.top; y < layer.bottom; y++) {
+            for (int x = layer.left; x < layer.right; x++) {
+                if (shape.contains(x + 0.5f, y + 0.5f)) {
+                    layer.blend(x, y, color);
+                }
+            }
+        }
+    }
+
+    /**
+     * 最上面的图层，没有图层的 save 画到下面的图层里
+     */
+    private Layer current() {
+        for (int i = stack.size() - 1; ; i--) {
+            if (stack.get(i) != null) {
+                return stack.get(i);
+            }
+        }
+    }
+
+    /**
+     * 一块预乘颜色的像素，范围截断到画布内
+     */
+    private final class Layer {
+
+        final int left;
+        final int top;
+        final int right;
+        final int bottom;
+
+        /**
+         * 每个像素 a、r、g、b 四个 0..255 的预乘分量
+         */
+        private final int[] argb;
+
+        Layer(int l, int t, int r, int b) {
+            left = Math.max(l, PixelCanvas.this.left);
+            top = Math.max(t, PixelCanvas.this.top);
+            right = Math.max(left, Math.min(r, PixelCanvas.this.left + width));
+            bottom = Math.max(top, Math.min(b, PixelCanvas.this.top + height));
+            argb = new int[width * height * 4];
+        }
+
+        private int offset(int x, int y) {
+            return ((y - PixelCanvas.this.top) * width + x - PixelCanvas.this.left) * 4;
+        }
+
+        int get(int i) {
+            int o = i * 4;
+            return argb[o] << 24 | argb[o + 1] << 16 | argb[o + 2] << 8 | argb[o + 3];
+        }
+
+        /**
+         * SRC_OVER 画一个非预乘颜色
+         */
+        void blend(int x, int y, int color) {
+            int a = color >>> 24;
+            int o = offset(x, y);
+            argb[o] = over(a, argb[o], a);
+            argb[o + 1] = over(mul((color >> 16) & 0xFF, a), argb[o + 1], a);
+            argb[o + 2] = over(mul((color >> 8) & 0xFF, a), argb[o + 2], a);
+            argb[o + 3] = over(mul(color & 0xFF, a), argb[o + 3], a);
+        }
+
+        /**
+         * DST_IN：所有分量乘上蒙版的alpha
+         */
+        void multiply(int x, int y, int alpha) {
+            int o = offset(x, y);
+            for (int c = 0; c < 4; c++) {
+                argb[o + c] = mul(argb[o + c], alpha);
+            }
+        }
+
+        /**
+         * 把上面的图层按 SRC_OVER 合成进来
+         */
+        void composite(Layer layer) {
+            for (int y = Math.max(top, layer.top); y < Math.min(bottom, layer.bottom); y++) {
+                for (int x = Math.max(left, layer.left); x < Math.min(right, layer.right); x++) {
+                    int o = offset(x, y);
+                    int a = layer.argb[o];
+                    for (int c = 0; c < 4; c++) {
+                        argb[o + c] = over(layer.argb[o + c], argb[o + c], a);
+                    }
+                }
+            }
+        }
+
+        private int over(int src, int dst, int srcAlpha) {
+            return Math.min(0xFF, src + mul(dst, 0xFF - srcAlpha));
+        }
+
+        private int mul(int value, int alpha) {
+            return (value * alpha + 127) / 255;
+        }
+    }
+
+    private interface Shape {
+        boolean contains(float x, float y);
+    }
+
+    private static final class Circle implements Shape {
+
+        private final float cx;
+        private final float cy;
+        private final float radius;
+
+        Circle(float cx, float cy, float radius) {
+            this.cx = cx;
+            this.cy = cy;
+            this.radius = radius;
+        }
+
+        @Override
+        public boolean contains(float x, float y) {
+            float dx = x - cx;
+            float dy = y - cy;
+            return dx * dx + dy * dy <= radius * radius;
+        }
+    }
+
+    private static final class Rectangle implements Shape {
+
+        private final float l;
+        private final float t;
+        private final float r;
+        private final float b;
+
+        Rectangle(float l, float t, float r, float b) {
+            this.l = l;
+            this.t = t;
+            this.r = r;
+            this.b = b;
+        }
+
+        @Override
+        public boolean contains(float x, float y) {
+            return l <= x && x < r && t <= y && y < b;
+        }
+    }
+
+    /**
+     * 记住颜色的 Paint
+     */
+    static final class ColorPaint extends Paint {
+
+        private int color;
+
+        @Override
+        public void setColor(int color) {
+            this.color = color;
+        }
+
+        @Override
+        public int getColor() {
+            return color;
+        }
+    }
+
+    /**
+     * 记录矩形和圆形子路径的 Path，子路径方向相同，按 WINDING 填充得到它们的并集
+     */
+    static final class ShapePath extends Path implements Shape {
+
+        private final List<Shape> shapes = new ArrayList<>();
+
+        @Override
+        public void reset() {
+            shapes.clear();
+        }
+
+        @Override
+        public void rewind() {
+            shapes.clear();
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return shapes.isEmpty();
+        }
+
+        @Override
+        public void addRect(float l, float t, float r, float b, Direction dir) {
+            shapes.add(new Rectangle(l, t, r, b));
+        }
+
+        @Override
+        public void addCircle(float x, float y, float radius, Direction dir) {
+            shapes.add(new Circle(x, y, radius));
+        }
+
+        @Override
+        public boolean contains(float x, float y) {
+            for (Shape shape : shapes) {
+                if (shape.contains(x, y)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,344 @@
+package com.meitu.myslider;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Path;
+import android.graphics.Picture;
+import android.graphics.Rect;
+import android.graphics.RectF;
+
+import java.util.Arrays;
+
+/**
+ * 记录 onDraw 发出的每个绘制操作的 Canvas，用来在 JVM 测试里限制每帧的绘制开销。
+ * <p>
+ * 按类型统计绘制次数，记录离屏图层的个数、最大嵌套深度和覆盖的像素面积，并检查 save/restore 是否成对。
+ * 默认是硬件加速的 Canvas：android.jar 里 Picture 无法录制，MySliderView 对硬件加速的 Canvas
+ * （以及 Android 6.0 之前）每帧直接绘制轨道，记录到的就是真实的绘制操作。
+ * <p>
+ * 每帧开始前调用 {@link #reset()}。
+ */
+class RecordingCanvas extends Canvas {
+
+    enum Op {
+        CIRCLE, RECT, ROUND_RECT, PATH, LINE, BITMAP, PICTURE, TEXT, COLOR,
+        SAVE, SAVE_LAYER, RESTORE, CLIP, TRANSFORM
+    }
+
+    private static final Op[] OPS = Op.values();
+
+    private final int width;
+
+    private final int height;
+
+    private boolean hardwareAccelerated = true;
+
+    private final int[] counts = new int[OPS.length];
+
+    /**
+     * save 栈，true 表示这一层是离屏图层
+     */
+    private boolean[] layers = new boolean[16];
+
+    private int depth;
+
+    private int layerDepth;
+
+    private int maxLayerDepth;
+
+    private long layerArea;
+
+    private boolean unbalanced;
+
+    /**
+     * @param width  Canvas 的宽度，图层面积截断到 Canvas 内
+     * @param height Canvas 的高度
+     */
+    RecordingCanvas(int width, int height) {
+        this.width = width;
+        this.height = height;
+    }
+
+    void setHardwareAccelerated(boolean hardwareAccelerated) {
+        this.hardwareAccelerated = hardwareAccelerated;
+    }
+
+    @Override
+    public boolean isHardwareAccelerated() {
+        return hardwareAccelerated;
+    }
+
+    void reset() {
+        Arrays.fill(counts, 0);
+        depth = 0;
+        layerDepth = 0;
+        maxLayerDepth = 0;
+        layerArea = 0;
+        unbalanced = false;
+    }
+
+    int count(Op op) {
+        return counts[op.ordinal()];
+    }
+
+    /**
+     * 真正产生像素的操作数，不含 save/restore、裁剪和变换
+     */
+    int getDrawCount() {
+        int sum = 0;
+        for (Op op : OPS) {
+            if (op.ordinal() < Op.SAVE.ordinal()) {
+                sum += counts[op.ordinal()];
+            }
+        }
+        return sum;
+    }
+
+    int getLayerCount() {
+        return count(Op.SAVE_LAYER);
+    }
+
+    int getMaxLayerDepth() {
+        return maxLayerDepth;
+    }
+
+    /**
+     * 所有离屏图层的像素面积之和
+     */
+    long getLayerArea() {
+        return layerArea;
+    }
+
+    /**
+     * 每个 save 都已经 restore，并且没有 restore 多于 save
+     */
+    boolean isBalanced() {
+        return !unbalanced && depth == 0;
+    }
+
+    private void record(Op op) {
+        counts[op.ordinal()]++;
+    }
+
+    private int push(boolean layer) {
+        int saveCount = getSaveCount();
+        if (depth == layers.length) {
+            layers = Arrays.copyOf(layers, depth * 2);
+        }
+        layers[depth++] = layer;
+        if (layer) {
+            maxLayerDepth = Math.max(maxLayerDepth, ++layerDepth);
+        }
+        return saveCount;
+    }
+
+    private void pop() {
+        if (depth == 0) {
+            unbalanced = true;
+            return;
+        }
+        if (layers[--depth]) {
+            layerDepth--;
+        }
+    }
+
+    private int layer(float l, float t, float r, float b) {
+        record(Op.SAVE_LAYER);
+        float left = Math.max(0, l);
+        float top = Math.max(0, t);
+        float right = width > 0 ? Math.min(width, r) : r;
+        float bottom = height > 0 ? Math.min(height, b) : b;
+        if (right > left && bottom > top) {
+            layerArea += (long) Math.ceil(right - left) * (long) Math.ceil(bottom - top);
+        }
+        return push(true);
+    }
+
+    @Override
+    public int getSaveCount() {
+        return depth + 1;
+    }
+
+    @Override
+    public int save() {
+        record(Op.SAVE);
+        return push(false);
+    }
+
+    @Override
+    public int saveLayer(float l, float t, float r, float b, Paint p, int f) {
+        return layer(l, t, r, b);
+    }
+
+    @Override
+    public int saveLayer(RectF bounds, Paint p, int f) {
+        return bounds == null ? layer(0, 0, width, height) : layer(bounds.left, bounds.top, bounds.right, bounds.bottom);
+    }
+
+    @Override
+    public int saveLayerAlpha(float l, float t, float r, float b, int alpha, int f) {
+        return layer(l, t, r, b);
+    }
+
+    @Override
+    public int saveLayerAlpha(RectF bounds, int alpha, int f) {
+        return bounds == null ? layer(0, 0, width, height) : layer(bounds.left, bounds.top, bounds.right, bounds.bottom);
+    }
+
+    @Override
+    public void restore() {
+        record(Op.RESTORE);
+        pop();
+    }
+
+    @Override
+    public void restoreToCount(int saveCount) {
+        if (saveCount < 1 || saveCount > getSaveCount()) {
+            unbalanced = true;
+            return;
+        }
+        while (getSaveCount() > saveCount) {
+            record(Op.RESTORE);
+            pop();
+        }
+    }
+
+    @Override
+    public void drawCircle(float x, float y, float r, Paint p) {
+        record(Op.CIRCLE);
+    }
+
+    @Override
+    public void drawRect(float l, float t, float r, float b, Paint p) {
+        record(Op.RECT);
+    }
+
+    @Override
+    public void drawRect(RectF r, Paint p) {
+        record(Op.RECT);
+    }
+
+    @Override
+    public void drawRect(Rect r, Paint p) {
+        record(Op.RECT);
+    }
+
+    @Override
+    public void drawRoundRect(RectF r, float rx, float ry, Paint p) {
+        record(Op.ROUND_RECT);
+    }
+
+    @Override
+    public void drawRoundRect(float l, float t, float r, float b, float rx, float ry, Paint p) {
+        record(Op.ROUND_RECT);
+    }
+
+    @Override
+    public void drawPath(Path path, Paint p) {
+        record(Op.PATH);
+    }
+
+    @Override
+    public void drawLine(float x0, float y0, float x1, float y1, Paint p) {
+        record(Op.LINE);
+    }
+
+    @Override
+    public void drawLines(float[] pts, int offset, int count, Paint p) {
+        record(Op.LINE);
+    }
+
+    @Override
+    public void drawLines(float[] pts, Paint p) {
+        record(Op.LINE);
+    }
+
+    @Override
+    public void drawBitmap(Bitmap bitmap, float left, float top, Paint p) {
+        record(Op.BITMAP);
+    }
+
+    @Override
+    public void drawBitmap(Bitmap bitmap, Rect src, RectF dst, Paint p) {
+        record(Op.BITMAP);
+    }
+
+    @Override
+    public void drawBitmap(Bitmap bitmap, Rect src, Rect dst, Paint p) {
+        record(Op.BITMAP);
+    }
+
+    @Override
+    public void drawPicture(Picture picture) {
+        record(Op.PICTURE);
+    }
+
+    @Override
+    public void drawText(String text, float x, float y, Paint p) {
+        record(Op.TEXT);
+    }
+
+    @Override
+    public void drawText(char[] text, int index, int count, float x, float y, Paint p) {
+        record(Op.TEXT);
+    }
+
+    @Override
+    public void drawText(CharSequence text, int start, int end, float x, float y, Paint p) {
+        record(Op.TEXT);
+    }
+
+    @Override
+    public void drawColor(int color) {
+        record(Op.COLOR);
+    }
+
+    @Override
+    public boolean clipRect(float l, float t, float r, float b) {
+        record(Op.CLIP);
+        return true;
+    }
+
+    @Override
+    public boolean clipRect(Rect r) {
+        record(Op.CLIP);
+        return true;
+    }
+
+    @Override
+    public boolean clipPath(Path path) {
+        record(Op.CLIP);
+        return true;
+    }
+
+    @Override
+    public void translate(float dx, float dy) {
+        record(Op.TRANSFORM);
+    }
+
+    @Override
+    public void rotate(float degrees) {
+        record(Op.TRANSFORM);
+    }
+
+    @Override
+    public void scale(float sx, float sy) {
+        record(Op.TRANSFORM);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (Op op : OPS) {
+            if (counts[op.ordinal()] > 0) {
+                sb.append(op.name().toLowerCase()).append('=').append(counts[op.ordinal()]).append(' ');
+            }
+        }
+        return sb.append("| draws=").append(getDrawCount())
+                .append(" layers=").append(getLayerCount())
+                .append(" layerArea=").append(layerArea)
+                .append(" maxLayerDepth=").append(maxLayerDepth)
+                .toString();
+    }
+}
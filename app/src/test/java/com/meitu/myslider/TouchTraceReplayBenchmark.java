@@ -0,0 +1,58 @@
+package com.meitu.myslider;
+
+import android.graphics.Canvas;
+
+import com.meitu.myslider.core.TouchTrace;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * 回放 resources/traces 下录制的手势，打印每个事件的处理耗时、帧数和回调延迟。
+ * 耗时断言只留了很宽的余量，用来发现数量级的退化，细的比较看打印的结果。
+ * <p>
+ * 只在 {@code ./gradlew :app:testDebugUnitTest -Pbenchmark} 时运行。
+ */
+public class TouchTraceReplayBenchmark {
+
+    private static final String[] TRACES = {"slow-drag", "fling", "tap-on-track", "edge-clamp"};
+
+    /**
+     * 预热回放次数，触发类加载和 JIT
+     */
+    private static final int WARMUP = 20;
+
+    /**
+     * 单个事件的处理不应超过一帧
+     */
+    private static final long EVENT_BUDGET_NANOS = TouchTraceReplayer.FRAME_NANOS;
+
+    /**
+     * 硬件加速的 Canvas 不回放 Picture，每帧直接绘制
+     */
+    private final Canvas canvas = new Canvas() {
+        @Override
+        public boolean isHardwareAccelerated() {
+            return true;
+        }
+    };
+
+    @Test
+    public void replay_withinFrameBudget() throws Exception {
+        for (String name : TRACES) {
+            TouchTrace trace = TouchTraceReplayTest.load(name);
+            for (boolean coalesce : new boolean[]{false, true}) {
+                TouchTraceReplayer.Result result = null;
+                for (int i = 0; i <= WARMUP; i++) {
+                    result = new TouchTraceReplayer(TouchTraceReplayTest.newView(coalesce), canvas).replay(trace);
+                }
+                System.out.println(name + (coalesce ? " coalesced: " : ": ") + result);
+                assertTrue(name + " event p99 " + result.eventNanos.getPercentile(99) + "ns",
+                        result.eventNanos.getPercentile(99) < EVENT_BUDGET_NANOS);
+                assertTrue(name + " draw p99 " + result.drawNanos.getPercentile(99) + "ns",
+                        result.drawNanos.getPercentile(99) < TouchTraceReplayer.FRAME_NANOS);
+            }
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.meitu.myslider;
+
+import android.graphics.Canvas;
+
+import com.meitu.myslider.core.TouchTrace;
+
+import org.junit.Test;
+
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+/**
+ * 回放 resources/traces 下录制的手势，检查最终节点、回调和帧数。
+ * 耗时由 {@link TouchTraceReplayBenchmark} 统计，不在这里断言。
+ */
+public class TouchTraceReplayTest {
+
+    /**
+     * 硬件加速的 Canvas 不回放 Picture，每帧直接绘制
+     */
+    private final Canvas canvas = new Canvas() {
+        @Override
+        public boolean isHardwareAccelerated() {
+            return true;
+        }
+    };
+
+    @Test
+    public void slowDrag() throws Exception {
+        TouchTraceReplayer.Result result = replay("slow-drag", false);
+        assertArrayEquals(new int[]{7}, result.finalIndices);
+        assertEquals(Arrays.asList(7), result.slides);
+        assertTrue(result.slideChanges > 0);
+        assertReplayed(result);
+    }
+
+    @Test
+    public void fling() throws Exception {
+        TouchTraceReplayer.Result result = replay("fling", false);
+        assertArrayEquals(new int[]{10}, result.finalIndices);
+        assertEquals(Arrays.asList(10), result.slides);
+        // 惯性滑动的动画要跑若干帧
+        assertTrue(result.frames > 10);
+        assertReplayed(result);
+    }
+
+    @Test
+    public void tapOnTrack() throws Exception {
+        TouchTraceReplayer.Result result = replay("tap-on-track", false);
+        assertArrayEquals(new int[]{5}, result.finalIndices);
+        assertEquals(Arrays.asList(5), result.slides);
+        assertReplayed(result);
+    }
+
+    @Test
+    public void edgeClamp() throws Exception {
+        TouchTraceReplayer.Result result = replay("edge-clamp", false);
+        assertArrayEquals(new int[]{0}, result.finalIndices);
+        // 起点就是 0，回到 0 不回调
+        assertTrue(result.slides.isEmpty());
+        assertReplayed(result);
+    }
+
+    @Test
+    public void coalescedInput_sameResult() throws Exception {
+        for (String name : new String[]{"slow-drag", "fling", "tap-on-track", "edge-clamp"}) {
+            TouchTraceReplayer.Result direct = replay(name, false);
+            TouchTraceReplayer.Result coalesced = replay(name, true);
+            assertArrayEquals(name, direct.finalIndices, coalesced.finalIndices);
+            assertEquals(name, direct.slides, coalesced.slides);
+            assertReplayed(coalesced);
+        }
+    }
+
+    @Test
+    public void replayIsDeterministic() throws Exception {
+        TouchTraceReplayer.Result first = replay("fling", true);
+        TouchTraceReplayer.Result second = replay("fling", true);
+        assertEquals(first.frames, second.frames);
+        assertEquals(first.durationNanos, second.durationNanos);
+        assertEquals(first.slides, second.slides);
+        assertEquals(first.slideChanges, second.slideChanges);
+    }
+
+    private TouchTraceReplayer.Result replay(String name, boolean coalesce) throws Exception {
+        return new TouchTraceReplayer(newView(coalesce), canvas).replay(load(name));
+    }
+
+    static MySliderView newView(boolean coalesce) {
+        MySliderView view = new MySliderView(null);
+        view.setRangeCount(11);
+        view.setFilledColor(0xFFD4237A);
+        view.setAnimate(true);
+        view.setCoalesceInput(coalesce);
+        return view;
+    }
+
+    static TouchTrace load(String name) throws Exception {
+        InputStream in = TouchTraceReplayTest.class.getClassLoader().getResourceAsStream("traces/" + name + ".trace");
+        assertNotNull("missing trace " + name, in);
+        try {
+            return TouchTrace.read(new InputStreamReader(in, "UTF-8"));
+        } finally {
+            in.close();
+        }
+    }
+
+    private static void assertReplayed(TouchTraceReplayer.Result result) {
+        assertTrue(result.eventNanos.getCount() > 0);
+        assertTrue(result.frames > 0);
+    }
+}
@@ -0,0 +1,273 @@
+package com.meitu.myslider;
+
+import android.graphics.Canvas;
+
+import com.meitu.myslider.core.LatencyHistogram;
+import com.meitu.myslider.core.SliderMetrics;
+import com.meitu.myslider.core.TouchTrace;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 在 JVM 上按原始时间回放 {@link MySliderView#setTouchTrace} 录下的触摸轨迹。
+ * <p>
+ * 时间是虚拟的：事件按录制时的间隔送达，两个事件之间按 60Hz 模拟 vsync，
+ * 每个 vsync 先执行控件安排的帧，控件刷新过就绘制一次。动画、惯性速度和帧时间都用虚拟时间，
+ * 同一条轨迹每次回放的结果相同；耗时用真实时间测量。
+ * <p>
+ * 事件不经过 MotionEvent，直接调用 onTouchEvent 分发到的方法，抬起速度由轨迹估算。
+ */
+final class TouchTraceReplayer {
+
+    static final long FRAME_NANOS = 16666667L;
+
+    /**
+     * 轨迹的 0 时刻对应的虚拟时间
+     */
+    private static final long ORIGIN_NANOS = 1000000000L;
+
+    /**
+     * 最后一个事件之后最多再跑多久，等动画停下
+     */
+    private static final long MAX_SETTLE_NANOS = 3000000000L;
+
+    /**
+     * 典型手机（density 3）上 ViewConfiguration 的惯性速度范围，像素/秒
+     */
+    private float minFlingVelocity = 150;
+
+    private float maxFlingVelocity = 24000;
+
+    private final MySliderView view;
+
+    private final Canvas canvas;
+
+    private Result result;
+
+    /**
+     * 当前这一步（一个事件或一个 vsync）的虚拟时间和开始处理的真实时间
+     */
+    private long stepNanos;
+
+    private long stepStartRealNanos;
+
+    /**
+     * 最近送达的事件的虚拟时间
+     */
+    private long lastInputNanos;
+
+    /**
+     * 最近的事件之后还没有收到 OnSlideChangeListener 回调
+     */
+    private boolean inputPending;
+
+    private long drawnInvalidates;
+
+    TouchTraceReplayer(MySliderView view, Canvas canvas) {
+        this.view = view;
+        this.canvas = canvas;
+    }
+
+    void setFlingVelocityRange(float min, float max) {
+        minFlingVelocity = min;
+        maxFlingVelocity = max;
+    }
+
+    /**
+     * 回放整条轨迹，然后继续跑 vsync 直到控件不再刷新。
+     * 轨迹记录了控件尺寸时先把控件设成同样大小
+     */
+    Result replay(TouchTrace trace) {
+        if (trace.getViewWidth() > 0 && trace.getViewHeight() > 0) {
+            view.onSizeChanged(trace.getViewWidth(), trace.getViewHeight(), 0, 0);
+        }
+        view.setFlingVelocityRange(minFlingVelocity, maxFlingVelocity);
+        view.setMetricsEnabled(true);
+        view.setFixedClock(ORIGIN_NANOS);
+        view.onDraw(canvas);
+        view.resetMetrics();
+        drawnInvalidates = 0;
+
+        final Result result = new Result();
+        this.result = result;
+        view.setOnSlideListener(new MySliderView.OnSlideListener() {
+            @Override
+            public void onSlide(int index) {
+                result.slides.add(index);
+                result.slideLatency.record(deliveryLatency());
+            }
+        });
+        view.setOnSlideChangeListener(new MySliderView.OnSlideChangeListener() {
+            @Override
+            public void onSlideChanged(float fraction, int nearestIndex) {
+                result.slideChanges++;
+                if (inputPending) {
+                    inputPending = false;
+                    result.slideChangeLatency.record(deliveryLatency());
+                }
+            }
+        });
+
+        long vsync = ORIGIN_NANOS + FRAME_NANOS;
+        int events = trace.getEventCount();
+        for (int e = 0; e < events; e++) {
+            long time = ORIGIN_NANOS + trace.getEventTimeNanos(e);
+            for (; vsync <= time; vsync += FRAME_NANOS) {
+                frame(vsync);
+            }
+            deliver(trace, e, time);
+        }
+        long end = vsync + MAX_SETTLE_NANOS;
+        for (; vsync <= end; vsync += FRAME_NANOS) {
+            if (!frame(vsync)) {
+                break;
+            }
+        }
+        result.durationNanos = vsync - ORIGIN_NANOS;
+        result.finalIndices = view.getThumbIndices();
+        result.metrics = view.getMetricsSnapshot();
+
+        view.setOnSlideListener(null);
+        view.setOnSlideChangeListener(null);
+        view.setMetricsEnabled(false);
+        view.setFixedClock(Long.MIN_VALUE);
+        this.result = null;
+        return result;
+    }
+
+    private void deliver(TouchTrace trace, int event, long time) {
+        beginStep(time);
+        lastInputNanos = time;
+        inputPending = true;
+        int start = trace.getEventStart(event);
+        int end = trace.getEventEnd(event);
+        for (int i = start; i < end; i++) {
+            if (trace.isHistorical(i)) {
+                continue;
+            }
+            int pointerId = trace.getPointerId(i);
+            float x = trace.getX(i);
+            float y = trace.getY(i);
+            switch (trace.getAction(i)) {
+                case TouchTrace.ACTION_DOWN:
+                case TouchTrace.ACTION_POINTER_DOWN:
+                    view.onPointerDown(pointerId, x, y);
+                    break;
+
+                case TouchTrace.ACTION_MOVE:
+                    if (view.isCoalesceInput()) {
+                        int thumb = view.routePointer(pointerId, x);
+                        if (thumb < 0) {
+                            break;
+                        }
+                        for (int h = start; h < i; h++) {
+                            if (trace.isHistorical(h) && trace.getPointerId(h) == pointerId) {
+                                view.coalesceMove(thumb, trace.getX(h), trace.getY(h));
+                            }
+                        }
+                        view.coalesceMove(thumb, x, y);
+                    } else {
+                        view.onPointerMove(pointerId, x, y);
+                    }
+                    break;
+
+                case TouchTrace.ACTION_UP:
+                case TouchTrace.ACTION_POINTER_UP:
+                    float velocity = trace.estimateVelocityX(i);
+                    velocity = Math.max(-maxFlingVelocity, Math.min(maxFlingVelocity, velocity));
+                    view.onPointerUp(pointerId, x, y, velocity);
+                    break;
+
+                case TouchTrace.ACTION_CANCEL:
+                    view.onCancel();
+                    break;
+            }
+        }
+        result.eventNanos.record(System.nanoTime() - stepStartRealNanos);
+    }
+
+    /**
+     * @return 这一帧是否执行了动画或绘制
+     */
+    private boolean frame(long vsync) {
+        beginStep(vsync);
+        boolean ran = view.runScheduledFrame(vsync);
+        long invalidates = view.getMetricsSnapshot().getInvalidates();
+        if (invalidates == drawnInvalidates) {
+            return ran;
+        }
+        // 绘制中再次刷新（例如停下后补画完整质量）时下一帧还要画
+        drawnInvalidates = invalidates;
+        long start = System.nanoTime();
+        view.onDraw(canvas);
+        result.drawNanos.record(System.nanoTime() - start);
+        result.frames++;
+        return true;
+    }
+
+    private void beginStep(long nanos) {
+        stepNanos = nanos;
+        view.setFixedClock(nanos);
+        stepStartRealNanos = System.nanoTime();
+    }
+
+    /**
+     * 从最近的输入事件到回调的时间：等待 vsync 的虚拟时间加上这一步已经用掉的真实时间
+     */
+    private long deliveryLatency() {
+        return stepNanos - lastInputNanos + System.nanoTime() - stepStartRealNanos;
+    }
+
+    static final class Result {
+
+        /**
+         * 每个事件的处理耗时
+         */
+        final LatencyHistogram eventNanos = new LatencyHistogram();
+
+        /**
+         * 每帧 onDraw 的耗时
+         */
+        final LatencyHistogram drawNanos = new LatencyHistogram();
+
+        /**
+         * OnSlideListener 的送达延迟
+         */
+        final LatencyHistogram slideLatency = new LatencyHistogram();
+
+        /**
+         * 事件到 OnSlideChangeListener 的延迟，只统计每个事件之后的第一次回调，动画帧的回调不算
+         */
+        final LatencyHistogram slideChangeLatency = new LatencyHistogram();
+
+        /**
+         * OnSlideListener 收到的节点，按顺序
+         */
+        final List<Integer> slides = new ArrayList<>();
+
+        int slideChanges;
+
+        int frames;
+
+        /**
+         * 从第一个事件到停下的虚拟时间
+         */
+        long durationNanos;
+
+        int[] finalIndices;
+
+        SliderMetrics.Snapshot metrics;
+
+        @Override
+        public String toString() {
+            return String.format("events=%d p50=%.1fus p99=%.1fus max=%.1fus | frames=%d draw p50=%.1fus p99=%.1fus"
+                            + " | slides=%s latency max=%.2fms | changes=%d latency p99=%.2fms | duration=%.0fms final=%s",
+                    eventNanos.getCount(), eventNanos.getPercentile(50) / 1e3, eventNanos.getPercentile(99) / 1e3,
+                    eventNanos.getMax() / 1e3, frames, drawNanos.getPercentile(50) / 1e3, drawNanos.getPercentile(99) / 1e3,
+                    slides, slideLatency.getMax() / 1e6, slideChanges, slideChangeLatency.getPercentile(99) / 1e6,
+                    durationNanos / 1e6, Arrays.toString(finalIndices));
+        }
+    }
+}
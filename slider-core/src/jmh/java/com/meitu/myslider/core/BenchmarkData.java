@@ -0,0 +1,62 @@
+package com.meitu.myslider.core;
+
+import java.util.Random;
+
+/**
+ * 基准共用的输入数据，固定随机种子，每次运行的输入相同
+ */
+final class BenchmarkData {
+
+    /**
+     * 典型手机横向的宽度，节点数超过宽度时均匀分布的节点保留小数
+     */
+    static final int WIDTH = 1080;
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * @param spacing "uniform"、"subPixel" 或 "interval"
+     */
+    static SlotLayout newLayout(String spacing) {
+        SlotLayout layout = new SlotLayout();
+        layout.setSubPixel("subPixel".equals(spacing));
+        return layout;
+    }
+
+    /**
+     * @return "interval" 时返回随机的间隔模型，其他返回 null
+     */
+    static IntervalModel intervals(String spacing, int slotCount) {
+        if (!"interval".equals(spacing)) {
+            return null;
+        }
+        Random random = new Random(slotCount);
+        float[] weights = new float[slotCount - 1];
+        float sum = 0;
+        for (int i = 0; i < weights.length; i++) {
+            weights[i] = 0.5f + random.nextFloat();
+            sum += weights[i];
+        }
+        for (int i = 0; i < weights.length; i++) {
+            weights[i] /= sum;
+        }
+        return IntervalModel.of(weights);
+    }
+
+    /**
+     * 在第一个和最后一个节点之间均匀随机的位置
+     *
+     * @param size 2 的幂，调用方用 & (size - 1) 循环取
+     */
+    static float[] randomPositions(SlotLayout layout, int size) {
+        Random random = new Random(7);
+        float[] xs = new float[size];
+        float from = layout.getFirst();
+        float span = layout.getLast() - from;
+        for (int i = 0; i < size; i++) {
+            xs[i] = from + random.nextFloat() * span;
+        }
+        return xs;
+    }
+}
@@ -0,0 +1,147 @@
+package com.meitu.myslider.core;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 拖动时每帧的处理吞吐：合并一帧内的移动采样，限制在滑竿和相邻滑块之间，
+ * 连续模式下吸附，查最近节点并分发给接收者；松手后的回弹每帧走一步。
+ * 和 MySliderView 每帧的处理顺序一致，只是没有绘制。
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DragBenchmark {
+
+    private static final int PATH_LENGTH = 1 << 12;
+
+    private static final long FRAME_NANOS = 16666667L;
+
+    private static final int THUMB = 1;
+
+    @Param({"2", "100", "10000", "100000"})
+    public int slotCount;
+
+    /**
+     * 一帧内收到的移动采样数，高采样率触摸屏上大于 1
+     */
+    @Param({"1", "4", "16"})
+    public int samplesPerFrame;
+
+    @Param({"false", "true"})
+    public boolean continuous;
+
+    private SlotLayout layout;
+
+    private final ThumbSet thumbs = new ThumbSet();
+
+    private final MoveCoalescer coalescer = new MoveCoalescer();
+
+    private final SnapAnimation animation = new SnapAnimation();
+
+    private final Detents detents = new Detents();
+
+    private SlideDispatcher dispatcher;
+
+    /**
+     * 来回扫过整个滑竿的手指轨迹
+     */
+    private float[] path;
+
+    private int cursor;
+
+    private long frameTimeNanos;
+
+    @Setup
+    public void setUp(final Blackhole blackhole) {
+        layout = BenchmarkData.newLayout(continuous ? "subPixel" : "uniform");
+        layout.layout(slotCount, null, 0, BenchmarkData.WIDTH, 20);
+        thumbs.setCount(2, slotCount);
+        thumbs.moveToSlots(layout.getPositions());
+        thumbs.grab(THUMB, 0);
+        coalescer.setSmoothing(0.3f);
+        coalescer.reset(layout.getLast(), 0);
+        int[] detentSlots = new int[Math.min(slotCount, 16)];
+        for (int i = 0; i < detentSlots.length; i++) {
+            detentSlots[i] = (int) ((long) i * (slotCount - 1) / Math.max(1, detentSlots.length - 1));
+        }
+        detents.setSlots(detentSlots);
+        detents.setRadius(12);
+        dispatcher = new SlideDispatcher(new SlideDispatcher.Receiver() {
+            @Override
+            public void onValue(float fraction, int index) {
+                blackhole.consume(index);
+            }
+        });
+        dispatcher.setMode(SlideDispatcher.MODE_MAX_RATE, 30);
+
+        path = new float[PATH_LENGTH];
+        float from = layout.getFirst() - 50;
+        float span = layout.getLast() + 50 - from;
+        for (int i = 0; i < PATH_LENGTH; i++) {
+            double phase = 2 * Math.PI * i / PATH_LENGTH;
+            path[i] = from + span * (float) (0.5 - 0.5 * Math.cos(phase));
+        }
+    }
+
+    /**
+     * 拖动中的一帧
+     */
+    @Benchmark
+    public int dragFrame() {
+        for (int i = 0; i < samplesPerFrame; i++) {
+            coalescer.add(path[cursor++ & (PATH_LENGTH - 1)], 0);
+        }
+        frameTimeNanos += FRAME_NANOS;
+        if (coalescer.hasPending()) {
+            float x = layout.clamp(coalescer.getX());
+            if (continuous) {
+                x = detents.apply(x, layout.getPositions(), layout.getCount());
+            }
+            thumbs.setPosition(THUMB, thumbs.clampPosition(THUMB, x));
+            coalescer.consume();
+        }
+        int index = layout.nearestIndex(thumbs.getPosition(THUMB));
+        float first = layout.getFirst();
+        float span = layout.getLast() - first;
+        dispatcher.publish(span > 0 ? (thumbs.getPosition(THUMB) - first) / span : 0, index, frameTimeNanos);
+        dispatcher.flushThrottled(frameTimeNanos);
+        return index;
+    }
+
+    /**
+     * 松手后吸附回弹：预测惯性终点、查最近节点，然后逐帧推进到停下
+     */
+    @Benchmark
+    public int releaseAndSettle() {
+        float x = path[cursor++ & (PATH_LENGTH - 1)];
+        float velocity = (cursor & 1) == 0 ? 1500 : -1500;
+        int index = continuous
+                ? layout.nearestIndex(layout.clamp(x))
+                : layout.nearestIndex(layout.clamp(animation.predictFlingEnd(x, velocity)));
+        long now = frameTimeNanos;
+        animation.springTo(x, layout.getPosition(index), velocity, now);
+        int frames = 0;
+        while (animation.step(now += FRAME_NANOS)) {
+            thumbs.setPosition(THUMB, thumbs.clampPosition(THUMB, layout.clamp(animation.getPosition())));
+            frames++;
+        }
+        frameTimeNanos = now;
+        return frames + index;
+    }
+}
@@ -0,0 +1,72 @@
+package com.meitu.myslider.core;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 最近节点查找和计数，每次调用换一个随机位置，避免分支预测和缓存把结果美化。
+ * 耗时应当不随节点数明显增长（均匀分布且节点不多于像素时是常数，其他是对数）。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class NearestSlotBenchmark {
+
+    private static final int POSITIONS = 1 << 12;
+
+    @Param({"2", "10", "100", "1000", "10000", "100000"})
+    public int slotCount;
+
+    @Param({"uniform", "subPixel", "interval"})
+    public String spacing;
+
+    private SlotLayout layout;
+
+    private float[] xs;
+
+    private int cursor;
+
+    @Setup
+    public void setUp() {
+        layout = BenchmarkData.newLayout(spacing);
+        layout.setMinDrawSpacing(4);
+        layout.layout(slotCount, BenchmarkData.intervals(spacing, slotCount), 0, BenchmarkData.WIDTH, 20);
+        xs = BenchmarkData.randomPositions(layout, POSITIONS);
+    }
+
+    private float nextX() {
+        return xs[cursor++ & (POSITIONS - 1)];
+    }
+
+    @Benchmark
+    public int nearestIndex() {
+        return layout.nearestIndex(nextX());
+    }
+
+    @Benchmark
+    public int countAtOrBefore() {
+        return layout.countAtOrBefore(nextX());
+    }
+
+    /**
+     * 绘制已填充部分时用到的查找
+     */
+    @Benchmark
+    public int drawCountAtOrBefore() {
+        return layout.drawCountAtOrBefore(nextX());
+    }
+}
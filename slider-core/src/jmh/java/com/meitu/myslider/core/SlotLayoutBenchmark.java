@@ -0,0 +1,71 @@
+package com.meitu.myslider.core;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 节点布局的耗时：强制重新计算的全量布局、输入不变时的命中，以及按绘制间距抽稀节点。
+ * 全量布局应当和节点数成线性，命中应当是常数。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SlotLayoutBenchmark {
+
+    @Param({"2", "10", "100", "1000", "10000", "100000"})
+    public int slotCount;
+
+    @Param({"uniform", "subPixel", "interval"})
+    public String spacing;
+
+    private SlotLayout layout;
+
+    private IntervalModel model;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        layout = BenchmarkData.newLayout(spacing);
+        model = BenchmarkData.intervals(spacing, slotCount);
+        layout.setMinDrawSpacing(4);
+        layout.layout(slotCount, model, 0, BenchmarkData.WIDTH, 20);
+    }
+
+    @Benchmark
+    public boolean layout() {
+        layout.invalidate();
+        return layout.layout(slotCount, model, 0, BenchmarkData.WIDTH, 20);
+    }
+
+    /**
+     * 测量被重复调用时走的路径
+     */
+    @Benchmark
+    public boolean layoutUnchanged() {
+        return layout.layout(slotCount, model, 0, BenchmarkData.WIDTH, 20);
+    }
+
+    /**
+     * 重新布局后第一次绘制时计算要画的节点
+     */
+    @Benchmark
+    public int layoutAndDrawIndices() {
+        layout.invalidate();
+        layout.layout(slotCount, model, 0, BenchmarkData.WIDTH, 20);
+        return layout.getDrawCount();
+    }
+}
@@ -0,0 +1,79 @@
+package com.meitu.myslider.core;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 查表的耗时，和直接调用映射函数对比。查表应当不随宽度明显增长。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ValueTableBenchmark {
+
+    private static final int SAMPLES = 1 << 12;
+
+    @Param({"100", "1080", "10000", "100000"})
+    public int width;
+
+    private ValueScale scale;
+
+    private ValueTable table;
+
+    private float[] fractions;
+
+    private float[] values;
+
+    private int cursor;
+
+    @Setup
+    public void setUp() {
+        scale = ValueScale.log(20, 20000);
+        table = new ValueTable();
+        table.build(scale, width);
+        fractions = new float[SAMPLES];
+        values = new float[SAMPLES];
+        Random random = new Random(11);
+        for (int i = 0; i < SAMPLES; i++) {
+            fractions[i] = random.nextFloat();
+            values[i] = scale.toValue(fractions[i]);
+        }
+    }
+
+    private int next() {
+        return cursor++ & (SAMPLES - 1);
+    }
+
+    @Benchmark
+    public float toValue() {
+        return table.toValue(fractions[next()]);
+    }
+
+    @Benchmark
+    public float toFraction() {
+        return table.toFraction(values[next()]);
+    }
+
+    /**
+     * 不查表，每次调用 Math.exp
+     */
+    @Benchmark
+    public float exactToValue() {
+        return scale.toValue(fractions[next()]);
+    }
+}
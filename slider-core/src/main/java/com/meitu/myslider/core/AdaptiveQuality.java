@@ -0,0 +1,121 @@
+package com.meitu.myslider.core;
+
+/**
+ * 拖动和惯性滑动时降低绘制质量，停下后补画一帧完整质量。
+ * <p>
+ * 每帧开始时调用 {@link #beginFrame}，有触摸或动画并且滑块移动速度不低于阈值时返回降低质量；
+ * 从降低质量回到完整质量的那一帧之后 {@link #endFrame} 返回 true，控件需要整体重绘一次，
+ * 把降低质量期间局部刷新过的区域补成完整质量。两种模式的绘制耗时分开统计。
+ */
+public final class AdaptiveQuality {
+
+    private boolean enabled = true;
+
+    private float speedThreshold;
+
+    private long lastFrameNanos = Long.MIN_VALUE;
+
+    private boolean reduced;
+
+    private boolean reducedSinceSettle;
+
+    private final long[] frameCounts = new long[2];
+
+    private final long[] totalNanos = new long[2];
+
+    private final long[] maxNanos = new long[2];
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @param pxPerSecond 滑块速度低于这个值时即使正在拖动也用完整质量，0 表示拖动时总是降低
+     */
+    public void setSpeedThreshold(float pxPerSecond) {
+        if (!(pxPerSecond >= 0)) {
+            throw new IllegalArgumentException("Speed threshold must be >= 0");
+        }
+        speedThreshold = pxPerSecond;
+    }
+
+    public float getSpeedThreshold() {
+        return speedThreshold;
+    }
+
+    /**
+     * @param interacting 有手指拖动或动画正在进行
+     * @param distance    滑块从上一帧到这一帧移动的最大距离，像素
+     * @param nowNanos    当前时间
+     * @return 这一帧是否降低质量
+     */
+    public boolean beginFrame(boolean interacting, float distance, long nowNanos) {
+        boolean fast;
+        if (speedThreshold <= 0) {
+            fast = true;
+        } else if (lastFrameNanos == Long.MIN_VALUE || nowNanos <= lastFrameNanos) {
+            fast = distance > 0;
+        } else {
+            fast = distance * 1e9f / (nowNanos - lastFrameNanos) >= speedThreshold;
+        }
+        lastFrameNanos = nowNanos;
+        reduced = enabled && interacting && fast;
+        if (reduced) {
+            reducedSinceSettle = true;
+        }
+        return reduced;
+    }
+
+    public boolean isReduced() {
+        return reduced;
+    }
+
+    /**
+     * @param drawNanos 这一帧的绘制耗时
+     * @return 是否需要整体重绘一次完整质量的帧
+     */
+    public boolean endFrame(long drawNanos) {
+        int mode = reduced ? 1 : 0;
+        frameCounts[mode]++;
+        totalNanos[mode] += drawNanos;
+        if (drawNanos > maxNanos[mode]) {
+            maxNanos[mode] = drawNanos;
+        }
+        if (!reduced && reducedSinceSettle) {
+            reducedSinceSettle = false;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * @param reduced 统计降低质量的帧还是完整质量的帧
+     */
+    public long getFrameCount(boolean reduced) {
+        return frameCounts[reduced ? 1 : 0];
+    }
+
+    /**
+     * @return 平均绘制耗时，没有帧时返回 0
+     */
+    public long getAverageDrawNanos(boolean reduced) {
+        int mode = reduced ? 1 : 0;
+        return frameCounts[mode] == 0 ? 0 : totalNanos[mode] / frameCounts[mode];
+    }
+
+    public long getMaxDrawNanos(boolean reduced) {
+        return maxNanos[reduced ? 1 : 0];
+    }
+
+    public void resetStats() {
+        for (int i = 0; i < 2; i++) {
+            frameCounts[i] = 0;
+            totalNanos[i] = 0;
+            maxNanos[i] = 0;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.meitu.myslider.core;
+
+import java.util.Arrays;
+
+/**
+ * 连续取值时的吸附点：滑块离某个指定节点不超过半径时停在节点上，其他位置保持连续。
+ * <p>
+ * 吸附点按节点索引排序保存，节点位置随索引递增，查找时二分，不分配内存。
+ */
+public final class Detents {
+
+    private int[] slots = new int[0];
+
+    private float radius;
+
+    /**
+     * @param slotIndices 吸附的节点索引，可以无序和重复
+     */
+    public void setSlots(int... slotIndices) {
+        int[] sorted = slotIndices == null ? new int[0] : slotIndices.clone();
+        Arrays.sort(sorted);
+        for (int index : sorted) {
+            if (index < 0) {
+                throw new IllegalArgumentException("Detent slot must be >= 0: " + index);
+            }
+        }
+        this.slots = sorted;
+    }
+
+    public int[] getSlots() {
+        return slots.clone();
+    }
+
+    /**
+     * @param radius 吸附半径，像素
+     */
+    public void setRadius(float radius) {
+        if (!(radius >= 0)) {
+            throw new IllegalArgumentException("Detent radius must be >= 0");
+        }
+        this.radius = radius;
+    }
+
+    public float getRadius() {
+        return radius;
+    }
+
+    /**
+     * @param slotPositions 节点位置，递增
+     * @param slotCount     有效的节点数，超出的吸附点忽略
+     * @return 在某个吸附点的半径内时返回该节点的位置，否则原样返回 x
+     */
+    public float apply(float x, float[] slotPositions, int slotCount) {
+        if (radius <= 0) {
+            return x;
+        }
+        // 只考虑 < slotCount 的吸附点
+        int n = 0;
+        int hi = slots.length;
+        while (n < hi) {
+            int mid = (n + hi) >>> 1;
+            if (slots[mid] < slotCount) {
+                n = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        if (n == 0) {
+            return x;
+        }
+        // 第一个位置 >= x 的吸附点
+        int lo = 0;
+        hi = n;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (slotPositions[slots[mid]] < x) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        float best = x;
+        float min = radius;
+        if (lo < n) {
+            float d = slotPositions[slots[lo]] - x;
+            if (d <= min) {
+                min = d;
+                best = slotPositions[slots[lo]];
+            }
+        }
+        if (lo > 0) {
+            float d = x - slotPositions[slots[lo - 1]];
+            if (d <= min) {
+                best = slotPositions[slots[lo - 1]];
+            }
+        }
+        return best;
+    }
+}
@@ -0,0 +1,74 @@
+package com.meitu.myslider.core;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 从其他线程写入的滑块位置，例如播放进度。
+ * <p>
+ * 位置和“未读取”标记放在一个 AtomicLong 里，写入和读取都不加锁。
+ * 任何线程都可以 {@link #set(float)}，只保留最新的值；
+ * 只有从“已读取”变为“未读取”时才调用一次唤醒回调，之后的写入直接覆盖，
+ * 所以无论写入多频繁，读取方每帧最多被唤醒一次。
+ */
+public final class ExternalPosition {
+
+    private static final long PENDING = 1L << 32;
+
+    private final AtomicLong state = new AtomicLong();
+
+    private final Runnable wakeUp;
+
+    /**
+     * @param wakeUp 有新值时在写入线程上调用，应当安排读取方在下一帧调用 {@link #poll()}
+     */
+    public ExternalPosition(Runnable wakeUp) {
+        if (wakeUp == null) {
+            throw new IllegalArgumentException("wakeUp == null");
+        }
+        this.wakeUp = wakeUp;
+    }
+
+    /**
+     * 写入新位置，任何线程都可以调用
+     *
+     * @param fraction 在第一个和最后一个节点之间的比例，超出 [0, 1] 时截断
+     */
+    public void set(float fraction) {
+        if (Float.isNaN(fraction)) {
+            throw new IllegalArgumentException("fraction is NaN");
+        }
+        if (!(fraction > 0)) {
+            fraction = 0f;
+        } else if (fraction > 1) {
+            fraction = 1f;
+        }
+        long value = PENDING | (Float.floatToRawIntBits(fraction) & 0xFFFFFFFFL);
+        if ((state.getAndSet(value) & PENDING) == 0) {
+            wakeUp.run();
+        }
+    }
+
+    /**
+     * 是否有还没读取的值
+     */
+    public boolean hasPending() {
+        return (state.get() & PENDING) != 0;
+    }
+
+    /**
+     * 取走最新的值
+     *
+     * @return 位置比例，没有新值时返回 NaN
+     */
+    public float poll() {
+        for (; ; ) {
+            long value = state.get();
+            if ((value & PENDING) == 0) {
+                return Float.NaN;
+            }
+            if (state.compareAndSet(value, value & ~PENDING)) {
+                return Float.intBitsToFloat((int) value);
+            }
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.meitu.myslider.core;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+/**
+ * 按节点索引缓存的 LRU，容量按 {@link #sizeOf(Object)} 的总和限制，例如 Bitmap 的字节数。
+ * 不是线程安全的，只在主线程使用。
+ */
+public abstract class IndexLruCache<T> {
+
+    private final LinkedHashMap<Integer, T> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long maxSize;
+
+    private long size;
+
+    /**
+     * @param maxSize 所有值的 {@link #sizeOf(Object)} 之和的上限
+     */
+    protected IndexLruCache(long maxSize) {
+        setMaxSize(maxSize);
+    }
+
+    protected abstract int sizeOf(T value);
+
+    public void setMaxSize(long maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize must be > 0");
+        }
+        this.maxSize = maxSize;
+        trimTo(maxSize);
+    }
+
+    public long getMaxSize() {
+        return maxSize;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public int getCount() {
+        return entries.size();
+    }
+
+    /**
+     * @return 缓存的值，没有时返回 null。命中的值移到最近使用的位置
+     */
+    public T get(int index) {
+        return entries.get(index);
+    }
+
+    public boolean contains(int index) {
+        return entries.containsKey(index);
+    }
+
+    /**
+     * 比上限还大的值不缓存
+     */
+    public void put(int index, T value) {
+        if (value == null) {
+            throw new IllegalArgumentException("value == null");
+        }
+        int valueSize = sizeOf(value);
+        T previous = entries.remove(index);
+        if (previous != null) {
+            size -= sizeOf(previous);
+        }
+        if (valueSize > maxSize) {
+            return;
+        }
+        entries.put(index, value);
+        size += valueSize;
+        trimTo(maxSize);
+    }
+
+    public void clear() {
+        entries.clear();
+        size = 0;
+    }
+
+    private void trimTo(long limit) {
+        Iterator<T> it = entries.values().iterator();
+        while (size > limit && it.hasNext()) {
+            T value = it.next();
+            it.remove();
+            size -= sizeOf(value);
+        }
+    }
+}
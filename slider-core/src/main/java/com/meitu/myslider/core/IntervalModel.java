@@ -0,0 +1,101 @@
+package com.meitu.myslider.core;
+
+/**
+ * rangeInterval 解析后的不可变模型。
+ * <p>
+ * 每个间隔是可用宽度的比例（如 "0.1,0.2,0.4"），prefixSums[i] 是第 i 个节点到第一个节点的比例距离，
+ * 只在设置间隔时解析一次，之后的测量和布局直接使用。
+ * <p>
+ * 比例按原样保存，不归一化：总和小于 1 时滑竿比可用宽度短，{@link SlotLayout} 用 {@link #getTotal()}
+ * 把它居中，和以前直接解析字符串的布局一致。
+ */
+public final class IntervalModel {
+
+    private final float[] weights;
+
+    private final float[] prefixSums;
+
+    private IntervalModel(float[] weights) {
+        this.weights = weights;
+        this.prefixSums = new float[weights.length + 1];
+        float sum = 0;
+        for (int i = 0; i < weights.length; i++) {
+            sum += weights[i];
+            prefixSums[i + 1] = sum;
+        }
+    }
+
+    /**
+     * 解析逗号分隔的间隔比例
+     *
+     * @param rangeInterval 如 "0.1,0.2,0.4"，null 或空字符串返回 null
+     * @return 间隔模型
+     * @throws IllegalArgumentException 间隔不是非负数
+     */
+    public static IntervalModel parse(String rangeInterval) {
+        if (rangeInterval == null || rangeInterval.trim().length() == 0) {
+            return null;
+        }
+        String[] intervals = rangeInterval.split(",");
+        float[] weights = new float[intervals.length];
+        for (int i = 0; i < intervals.length; i++) {
+            float weight;
+            try {
+                weight = Float.parseFloat(intervals[i].trim());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid rangeInterval \"" + rangeInterval + "\"", e);
+            }
+            if (weight < 0 || Float.isNaN(weight) || Float.isInfinite(weight)) {
+                throw new IllegalArgumentException("Interval must be >= 0: " + intervals[i]);
+            }
+            weights[i] = weight;
+        }
+        return new IntervalModel(weights);
+    }
+
+    /**
+     * 直接用间隔比例创建模型
+     */
+    public static IntervalModel of(float... weights) {
+        if (weights == null || weights.length == 0) {
+            throw new IllegalArgumentException("At least one interval is required");
+        }
+        float[] copy = new float[weights.length];
+        for (int i = 0; i < weights.length; i++) {
+            if (weights[i] < 0 || Float.isNaN(weights[i]) || Float.isInfinite(weights[i])) {
+                throw new IllegalArgumentException("Interval must be >= 0: " + weights[i]);
+            }
+            copy[i] = weights[i];
+        }
+        return new IntervalModel(copy);
+    }
+
+    /**
+     * 节点数，比间隔数多一
+     */
+    public int getSlotCount() {
+        return weights.length + 1;
+    }
+
+    public int getIntervalCount() {
+        return weights.length;
+    }
+
+    public float getWeight(int interval) {
+        return weights[interval];
+    }
+
+    /**
+     * 第 slot 个节点到第一个节点的距离占可用宽度的比例
+     */
+    public float getPrefixSum(int slot) {
+        return prefixSums[slot];
+    }
+
+    /**
+     * 所有间隔的总比例，不一定是 1
+     */
+    public float getTotal() {
+        return prefixSums[weights.length];
+    }
+}
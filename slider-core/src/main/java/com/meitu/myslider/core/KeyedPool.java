@@ -0,0 +1,106 @@
+package com.meitu.myslider.core;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+/**
+ * 按 key 共享的引用计数对象池。
+ * <p>
+ * 同一个 key 只创建一个对象，所有使用者共用；引用数降到 0 后先留着给下一次 acquire，
+ * 空闲对象超过上限时销毁最早空闲的，{@link #trim()} 销毁所有空闲对象。
+ * 不是线程安全的，只在主线程使用。
+ */
+public abstract class KeyedPool<T> {
+
+    private static final class Entry<T> {
+        final T value;
+        int refs;
+
+        Entry(T value) {
+            this.value = value;
+        }
+    }
+
+    private final int maxIdle;
+
+    /**
+     * 按最近一次变为空闲的顺序排列
+     */
+    private final LinkedHashMap<Long, Entry<T>> entries = new LinkedHashMap<>();
+
+    private int idleCount;
+
+    /**
+     * @param maxIdle 最多保留的空闲对象个数
+     */
+    protected KeyedPool(int maxIdle) {
+        if (maxIdle < 0) {
+            throw new IllegalArgumentException("maxIdle must be >= 0");
+        }
+        this.maxIdle = maxIdle;
+    }
+
+    protected abstract T create(long key);
+
+    protected abstract void destroy(T value);
+
+    public T acquire(long key) {
+        Entry<T> entry = entries.get(key);
+        if (entry == null) {
+            entry = new Entry<>(create(key));
+            entries.put(key, entry);
+        } else if (entry.refs == 0) {
+            idleCount--;
+        }
+        entry.refs++;
+        return entry.value;
+    }
+
+    /**
+     * 释放一次 {@link #acquire(long)} 得到的引用
+     */
+    public void release(long key) {
+        Entry<T> entry = entries.get(key);
+        if (entry == null || entry.refs == 0) {
+            throw new IllegalStateException("Releasing a key that is not acquired: " + key);
+        }
+        if (--entry.refs > 0) {
+            return;
+        }
+        // 移到末尾，淘汰时从最早空闲的开始
+        entries.remove(key);
+        entries.put(key, entry);
+        idleCount++;
+        evict(maxIdle);
+    }
+
+    /**
+     * 销毁所有空闲对象，正在使用的不受影响
+     */
+    public void trim() {
+        evict(0);
+    }
+
+    private void evict(int keep) {
+        Iterator<Entry<T>> it = entries.values().iterator();
+        while (idleCount > keep && it.hasNext()) {
+            Entry<T> entry = it.next();
+            if (entry.refs == 0) {
+                it.remove();
+                idleCount--;
+                destroy(entry.value);
+            }
+        }
+    }
+
+    public int getIdleCount() {
+        return idleCount;
+    }
+
+    /**
+     * 正在使用的对象个数
+     */
+    public int getActiveCount() {
+        return entries.size() - idleCount;
+    }
+}
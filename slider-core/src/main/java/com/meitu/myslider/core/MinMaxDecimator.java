@@ -0,0 +1,240 @@
+package com.meitu.myslider.core;
+
+/**
+ * 把很长的数据序列压缩成固定列数的最小/最大值，用于在滑竿后面画分布图。
+ * <p>
+ * 每列覆盖相同个数的连续采样，追加数据时只更新最后几列；列数超过上限时相邻两列合并，
+ * 每列的采样数翻倍，所以列数始终在 (上限/2, 上限] 之间，处理一个采样的均摊代价是常数。
+ * 原始数据保存在内部，列数上限改变（控件宽度改变）时从原始数据重新计算。
+ * 不是线程安全的，通常只在后台线程使用。
+ */
+public final class MinMaxDecimator {
+
+    private float[] samples = new float[0];
+
+    private int sampleCount;
+
+    private int maxColumns;
+
+    private float[] mins = new float[0];
+
+    private float[] maxs = new float[0];
+
+    private int columnCount;
+
+    private int samplesPerColumn = 1;
+
+    private float low = Float.NaN;
+
+    private float high = Float.NaN;
+
+    /**
+     * 上次 {@link #clearDirty()} 之后第一个改变的列，没有改变时等于列数
+     */
+    private int dirtyFrom;
+
+    /**
+     * @param maxColumns 最多的列数，一般是滑竿的像素宽度
+     */
+    public MinMaxDecimator(int maxColumns) {
+        setMaxColumns(maxColumns);
+    }
+
+    /**
+     * 改变列数上限，从原始数据重新计算所有列
+     */
+    public void setMaxColumns(int maxColumns) {
+        if (maxColumns < 2) {
+            throw new IllegalArgumentException("maxColumns must be >= 2, got " + maxColumns);
+        }
+        if (maxColumns == this.maxColumns) {
+            return;
+        }
+        this.maxColumns = maxColumns;
+        mins = new float[maxColumns];
+        maxs = new float[maxColumns];
+        redecimate();
+    }
+
+    public int getMaxColumns() {
+        return maxColumns;
+    }
+
+    /**
+     * 清空数据
+     */
+    public void clear() {
+        sampleCount = 0;
+        columnCount = 0;
+        samplesPerColumn = 1;
+        low = Float.NaN;
+        high = Float.NaN;
+        dirtyFrom = 0;
+    }
+
+    public void append(float[] data, int offset, int length) {
+        checkRange(data.length, offset, length);
+        ensureCapacity(sampleCount + length);
+        System.arraycopy(data, offset, samples, sampleCount, length);
+        int start = sampleCount;
+        sampleCount += length;
+        decimate(start);
+    }
+
+    public void append(int[] data, int offset, int length) {
+        checkRange(data.length, offset, length);
+        ensureCapacity(sampleCount + length);
+        for (int i = 0; i < length; i++) {
+            samples[sampleCount + i] = data[offset + i];
+        }
+        int start = sampleCount;
+        sampleCount += length;
+        decimate(start);
+    }
+
+    private static void checkRange(int arrayLength, int offset, int length) {
+        if (offset < 0 || length < 0 || offset > arrayLength - length) {
+            throw new IllegalArgumentException("Range [" + offset + ", " + offset + "+" + length + ") out of bounds for length " + arrayLength);
+        }
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (samples.length < capacity) {
+            int size = Math.max(capacity, samples.length + (samples.length >> 1));
+            float[] grown = new float[size];
+            System.arraycopy(samples, 0, grown, 0, sampleCount);
+            samples = grown;
+        }
+    }
+
+    private void redecimate() {
+        int count = sampleCount;
+        clear();
+        sampleCount = count;
+        /** 一次算好每列的采样数，不需要逐步合并 */
+        while ((long) samplesPerColumn * maxColumns < count) {
+            samplesPerColumn <<= 1;
+        }
+        decimate(0);
+    }
+
+    /**
+     * 把 [start, sampleCount) 的采样加入各列
+     */
+    private void decimate(int start) {
+        for (int i = start; i < sampleCount; i++) {
+            float value = samples[i];
+            int column = i / samplesPerColumn;
+            if (column >= maxColumns) {
+                mergeColumns();
+                column = i / samplesPerColumn;
+            }
+            if (column >= columnCount) {
+                for (int c = columnCount; c <= column; c++) {
+                    mins[c] = Float.NaN;
+                    maxs[c] = Float.NaN;
+                }
+                /** 新的列即使只有 NaN 也要重画，否则会留着合并之前这一列画的内容 */
+                if (columnCount < dirtyFrom) {
+                    dirtyFrom = columnCount;
+                }
+                columnCount = column + 1;
+            }
+            if (Float.isNaN(value)) {
+                /** 没有数据，只占位置 */
+                continue;
+            }
+            if (!(value >= mins[column])) {
+                mins[column] = value;
+            }
+            if (!(value <= maxs[column])) {
+                maxs[column] = value;
+            }
+            if (!(value >= low)) {
+                low = value;
+            }
+            if (!(value <= high)) {
+                high = value;
+            }
+            if (column < dirtyFrom) {
+                dirtyFrom = column;
+            }
+        }
+    }
+
+    /**
+     * 相邻两列合并，每列的采样数翻倍
+     */
+    private void mergeColumns() {
+        int merged = (columnCount + 1) >> 1;
+        for (int c = 0; c < merged; c++) {
+            int a = c << 1;
+            int b = a + 1;
+            float min = mins[a];
+            float max = maxs[a];
+            if (b < columnCount) {
+                /** NaN 表示整列没有数据 */
+                if (Float.isNaN(min) || mins[b] < min) {
+                    min = mins[b];
+                }
+                if (Float.isNaN(max) || maxs[b] > max) {
+                    max = maxs[b];
+                }
+            }
+            mins[c] = min;
+            maxs[c] = max;
+        }
+        columnCount = merged;
+        samplesPerColumn <<= 1;
+        dirtyFrom = 0;
+    }
+
+    public int getSampleCount() {
+        return sampleCount;
+    }
+
+    public int getColumnCount() {
+        return columnCount;
+    }
+
+    public int getSamplesPerColumn() {
+        return samplesPerColumn;
+    }
+
+    /**
+     * @return 第 column 列的最小值，整列都是 NaN 时返回 NaN
+     */
+    public float getMin(int column) {
+        return mins[column];
+    }
+
+    public float getMax(int column) {
+        return maxs[column];
+    }
+
+    /**
+     * 所有采样的最小值，没有数据时返回 NaN
+     */
+    public float getLow() {
+        return low;
+    }
+
+    public float getHigh() {
+        return high;
+    }
+
+    /**
+     * 上次 {@link #clearDirty()} 之后第一个改变的列，没有改变时等于 {@link #getColumnCount()}
+     */
+    public int getDirtyFrom() {
+        return Math.min(dirtyFrom, columnCount);
+    }
+
+    public boolean isDirty() {
+        return dirtyFrom < columnCount;
+    }
+
+    public void clearDirty() {
+        dirtyFrom = Integer.MAX_VALUE;
+    }
+}
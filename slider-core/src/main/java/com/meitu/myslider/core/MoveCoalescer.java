@@ -0,0 +1,86 @@
+package com.meitu.myslider.core;
+
+/**
+ * 合并一帧内收到的多个移动采样，每帧只取一次结果。
+ * <p>
+ * smoothing 为 0 时结果就是最新的采样；大于 0 时按采样顺序做指数平滑，
+ * 平滑值 = 平滑值 * smoothing + 采样 * (1 - smoothing)，可以减小高采样率触摸屏的抖动。
+ */
+public final class MoveCoalescer {
+
+    private float smoothing;
+
+    private float x;
+
+    private float y;
+
+    private boolean pending;
+
+    private int pendingSamples;
+
+    public float getSmoothing() {
+        return smoothing;
+    }
+
+    /**
+     * @param smoothing 平滑系数，[0, 1)
+     */
+    public void setSmoothing(float smoothing) {
+        if (!(smoothing >= 0 && smoothing < 1)) {
+            throw new IllegalArgumentException("Smoothing must be in [0, 1)");
+        }
+        this.smoothing = smoothing;
+    }
+
+    /**
+     * 手指按下时从当前位置开始，丢掉未处理的采样
+     */
+    public void reset(float x, float y) {
+        this.x = x;
+        this.y = y;
+        pending = false;
+        pendingSamples = 0;
+    }
+
+    public void add(float x, float y) {
+        if (smoothing == 0) {
+            this.x = x;
+            this.y = y;
+        } else {
+            this.x = this.x * smoothing + x * (1 - smoothing);
+            this.y = this.y * smoothing + y * (1 - smoothing);
+        }
+        pending = true;
+        pendingSamples++;
+    }
+
+    /**
+     * 上一次 {@link #consume()} 之后是否有新的采样
+     */
+    public boolean hasPending() {
+        return pending;
+    }
+
+    /**
+     * 上一次 {@link #consume()} 之后合并的采样数
+     */
+    public int getPendingSamples() {
+        return pendingSamples;
+    }
+
+    public float getX() {
+        return x;
+    }
+
+    public float getY() {
+        return y;
+    }
+
+    /**
+     * 取走这一帧的结果，平滑状态保留到下一帧
+     */
+    public void consume() {
+        pending = false;
+        pendingSamples = 0;
+    }
+}
@@ -0,0 +1,209 @@
+package com.meitu.myslider.core;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.concurrent.Executor;
+
+/**
+ * 拖动时按节点加载预览图。
+ * <p>
+ * 加载在后台执行器上进行，结果回到主线程执行器后放进 {@link IndexLruCache}。
+ * 每次请求同时预取滑动方向前面的几个节点；不在 [当前, 当前 + 方向 × 预取个数] 范围内的加载会被取消，
+ * 还没开始的直接跳过，已经开始的结果照常缓存。只有当前节点的结果会通知 {@link Listener}，
+ * 过期的结果不会替换正在显示的图。除了取消标记，所有状态只在主线程访问。
+ */
+public final class PreviewLoader<T> {
+
+    public interface Source<T> {
+
+        /**
+         * 在后台线程调用
+         *
+         * @return 预览图，没有时返回 null
+         */
+        T load(int index);
+    }
+
+    public interface Listener<T> {
+
+        /**
+         * 当前节点的预览图加载完成，在主线程调用
+         */
+        void onPreviewLoaded(int index, T value);
+    }
+
+    private final Source<T> source;
+
+    private final IndexLruCache<T> cache;
+
+    private final Executor background;
+
+    private final Executor main;
+
+    private final Listener<T> listener;
+
+    private final HashMap<Integer, Task> inFlight = new HashMap<>();
+
+    private final ArrayList<Task> cancelScratch = new ArrayList<>();
+
+    private int prefetchCount = 2;
+
+    private int currentIndex = -1;
+
+    private int direction;
+
+    /**
+     * @param background 执行 {@link Source#load(int)} 的线程
+     * @param main       主线程，加载结果在这里写入缓存
+     */
+    public PreviewLoader(Source<T> source, IndexLruCache<T> cache, Executor background, Executor main, Listener<T> listener) {
+        if (source == null || cache == null || background == null || main == null || listener == null) {
+            throw new IllegalArgumentException("Arguments must not be null");
+        }
+        this.source = source;
+        this.cache = cache;
+        this.background = background;
+        this.main = main;
+        this.listener = listener;
+    }
+
+    /**
+     * @param count 沿滑动方向预取的节点个数
+     */
+    public void setPrefetchCount(int count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("Prefetch count must be >= 0");
+        }
+        prefetchCount = count;
+    }
+
+    public int getPrefetchCount() {
+        return prefetchCount;
+    }
+
+    /**
+     * 请求某个节点的预览图，节点没变时直接返回缓存
+     *
+     * @param maxIndex 最大的节点索引，预取不会超出
+     * @return 已经缓存的预览图，没有时返回 null，加载完成后通过 {@link Listener} 通知
+     */
+    public T request(int index, int maxIndex) {
+        if (index != currentIndex) {
+            if (currentIndex >= 0) {
+                direction = index > currentIndex ? 1 : -1;
+            }
+            currentIndex = index;
+            cancelOutside(index, maxIndex);
+            T cached = cache.get(index);
+            if (cached == null) {
+                submit(index);
+            }
+            for (int i = 1; i <= prefetchCount && direction != 0; i++) {
+                int next = index + direction * i;
+                if (next < 0 || next > maxIndex) {
+                    break;
+                }
+                if (!cache.contains(next)) {
+                    submit(next);
+                }
+            }
+            return cached;
+        }
+        return cache.get(index);
+    }
+
+    /**
+     * 停止预览：取消所有还没开始的加载，下一次请求不带方向
+     */
+    public void stop() {
+        for (Task task : inFlight.values()) {
+            task.cancelled = true;
+        }
+        inFlight.clear();
+        currentIndex = -1;
+        direction = 0;
+    }
+
+    public int getCurrentIndex() {
+        return currentIndex;
+    }
+
+    /**
+     * @return 当前滑动方向，1、-1 或 0（还不知道）
+     */
+    public int getDirection() {
+        return direction;
+    }
+
+    public int getInFlightCount() {
+        return inFlight.size();
+    }
+
+    public boolean isInFlight(int index) {
+        return inFlight.containsKey(index);
+    }
+
+    private void submit(int index) {
+        if (inFlight.containsKey(index)) {
+            return;
+        }
+        Task task = new Task(index);
+        inFlight.put(index, task);
+        background.execute(task);
+    }
+
+    private void cancelOutside(int index, int maxIndex) {
+        int end = Math.max(0, Math.min(maxIndex, index + direction * prefetchCount));
+        int lo = Math.min(index, end);
+        int hi = Math.max(index, end);
+        for (Task task : inFlight.values()) {
+            if (task.index < lo || task.index > hi) {
+                cancelScratch.add(task);
+            }
+        }
+        for (int i = 0; i < cancelScratch.size(); i++) {
+            Task task = cancelScratch.get(i);
+            task.cancelled = true;
+            inFlight.remove(task.index);
+        }
+        cancelScratch.clear();
+    }
+
+    private void deliver(Task task, T value) {
+        if (inFlight.get(task.index) == task) {
+            inFlight.remove(task.index);
+        }
+        if (value == null) {
+            return;
+        }
+        cache.put(task.index, value);
+        if (task.index == currentIndex) {
+            listener.onPreviewLoaded(task.index, value);
+        }
+    }
+
+    private final class Task implements Runnable {
+
+        final int index;
+
+        volatile boolean cancelled;
+
+        Task(int index) {
+            this.index = index;
+        }
+
+        @Override
+        public void run() {
+            if (cancelled) {
+                return;
+            }
+            final T value = source.load(index);
+            main.execute(new Runnable() {
+                @Override
+                public void run() {
+                    deliver(Task.this, value);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package com.meitu.myslider.core;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 把滑动过程中的连续位置分发给接收者。
+ * <p>
+ * 只保留最新的一个值：接收者处理得慢时，中间的值会被新值覆盖，不会在线程里排队。
+ * 没有设置 {@link Executor} 时在调用 {@link #publish} 的线程上同步回调；
+ * 设置后回调在 Executor 上执行，同一时间最多只有一个任务在执行或排队。
+ */
+public final class SlideDispatcher {
+
+    /**
+     * 每次发布都回调
+     */
+    public static final int MODE_EVERY_FRAME = 0;
+    /**
+     * 回调频率不超过设定的赫兹数
+     */
+    public static final int MODE_MAX_RATE = 1;
+    /**
+     * 最近节点改变时才回调
+     */
+    public static final int MODE_INDEX_CHANGE = 2;
+
+    /**
+     * 没有待分发的值。对应 fraction = -0.0f、index = 0，发布时 fraction 会被规范成 +0.0f，不会冲突
+     */
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    public interface Receiver {
+
+        /**
+         * @param fraction 滑块在第一个和最后一个节点之间的比例，[0, 1]
+         * @param index    离滑块最近的节点
+         */
+        void onValue(float fraction, int index);
+    }
+
+    private final Receiver receiver;
+
+    private int mode = MODE_EVERY_FRAME;
+
+    private long minIntervalNanos;
+
+    private Executor executor;
+
+    private final AtomicLong mailbox = new AtomicLong(EMPTY);
+
+    private final AtomicBoolean inFlight = new AtomicBoolean();
+
+    private long lastPublishNanos = Long.MIN_VALUE;
+
+    private int lastIndex = -1;
+
+    private float throttledFraction;
+
+    private int throttledIndex;
+
+    private boolean throttled;
+
+    private final Runnable deliverTask = new Runnable() {
+        @Override
+        public void run() {
+            drainMailbox();
+        }
+    };
+
+    public SlideDispatcher(Receiver receiver) {
+        if (receiver == null) {
+            throw new IllegalArgumentException("receiver == null");
+        }
+        this.receiver = receiver;
+    }
+
+    /**
+     * @param mode      {@link #MODE_EVERY_FRAME}、{@link #MODE_MAX_RATE} 或 {@link #MODE_INDEX_CHANGE}
+     * @param maxRateHz {@link #MODE_MAX_RATE} 时每秒最多回调的次数
+     */
+    public void setMode(int mode, float maxRateHz) {
+        if (mode < MODE_EVERY_FRAME || mode > MODE_INDEX_CHANGE) {
+            throw new IllegalArgumentException("Unknown delivery mode " + mode);
+        }
+        if (mode == MODE_MAX_RATE && !(maxRateHz > 0)) {
+            throw new IllegalArgumentException("maxRateHz must be > 0");
+        }
+        this.mode = mode;
+        this.minIntervalNanos = mode == MODE_MAX_RATE ? (long) (1e9 / maxRateHz) : 0;
+        this.throttled = false;
+    }
+
+    public int getMode() {
+        return mode;
+    }
+
+    /**
+     * @param executor 回调执行的线程，null 表示在发布线程上同步回调
+     */
+    public void setExecutor(Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * 发布新的位置，只在发布线程（通常是主线程）上调用
+     *
+     * @param nowNanos 当前时间，和 {@link System#nanoTime()} 同一时间基准
+     */
+    public void publish(float fraction, int index, long nowNanos) {
+        if (mode == MODE_INDEX_CHANGE) {
+            if (index == lastIndex) {
+                return;
+            }
+        } else if (mode == MODE_MAX_RATE && lastPublishNanos != Long.MIN_VALUE
+                && nowNanos - lastPublishNanos < minIntervalNanos) {
+            throttledFraction = fraction;
+            throttledIndex = index;
+            throttled = true;
+            return;
+        }
+        deliver(fraction, index, nowNanos);
+    }
+
+    /**
+     * 是否有被限频挡住、还没分发的值
+     */
+    public boolean hasThrottled() {
+        return throttled;
+    }
+
+    /**
+     * 限频间隔到了之后分发被挡住的最后一个值
+     *
+     * @return 是否还有值在等待
+     */
+    public boolean flushThrottled(long nowNanos) {
+        if (throttled && nowNanos - lastPublishNanos >= minIntervalNanos) {
+            deliver(throttledFraction, throttledIndex, nowNanos);
+        }
+        return throttled;
+    }
+
+    /**
+     * 清空状态，下一次发布一定会分发
+     */
+    public void reset() {
+        lastIndex = -1;
+        lastPublishNanos = Long.MIN_VALUE;
+        throttled = false;
+    }
+
+    private void deliver(float fraction, int index, long nowNanos) {
+        throttled = false;
+        lastPublishNanos = nowNanos;
+        lastIndex = index;
+        if (fraction <= 0) {
+            fraction = 0f;
+        }
+        Executor executor = this.executor;
+        if (executor == null) {
+            receiver.onValue(fraction, index);
+            return;
+        }
+        mailbox.set(pack(fraction, index));
+        if (inFlight.compareAndSet(false, true)) {
+            executor.execute(deliverTask);
+        }
+    }
+
+    private void drainMailbox() {
+        for (; ; ) {
+            long value = mailbox.getAndSet(EMPTY);
+            try {
+                if (value != EMPTY) {
+                    receiver.onValue(unpackFraction(value), unpackIndex(value));
+                }
+            } finally {
+                /** 回调抛出异常时也要放开，否则之后的值都不会再分发 */
+                inFlight.set(false);
+            }
+            // 回调期间又来了新值，并且没有别的任务接手时继续处理
+            if (mailbox.get() == EMPTY || !inFlight.compareAndSet(false, true)) {
+                return;
+            }
+        }
+    }
+
+    static long pack(float fraction, int index) {
+        return ((long) Float.floatToRawIntBits(fraction) << 32) | (index & 0xFFFFFFFFL);
+    }
+
+    static float unpackFraction(long value) {
+        return Float.intBitsToFloat((int) (value >>> 32));
+    }
+
+    static int unpackIndex(long value) {
+        return (int) value;
+    }
+}
@@ -0,0 +1,118 @@
+package com.meitu.myslider.core;
+
+/**
+ * 滑竿颜色的预计算结果，颜色改变时重新创建，绘制时直接取用。
+ * <p>
+ * 只用位运算，不依赖 android.graphics.Color，方便在 JVM 上测试。
+ */
+public final class SliderColors {
+
+    private static final int ALPHA_MASK = 0xFF000000;
+
+    private final int emptyColor;
+
+    private final int filledColor;
+
+    private final int opaqueEmptyColor;
+
+    private final int opaqueFilledColor;
+
+    private final int maskColor;
+
+    private final boolean singlePassExact;
+
+    public SliderColors(int emptyColor, int filledColor) {
+        this.emptyColor = emptyColor;
+        this.filledColor = filledColor;
+        this.opaqueEmptyColor = noAlpha(emptyColor);
+        this.opaqueFilledColor = noAlpha(filledColor);
+        this.maskColor = onlyAlpha(emptyColor);
+        this.singlePassExact = !hasAlpha(emptyColor) || !hasAlpha(filledColor);
+    }
+
+    public int getEmptyColor() {
+        return emptyColor;
+    }
+
+    public int getFilledColor() {
+        return filledColor;
+    }
+
+    /**
+     * 去掉alpha的未选中颜色，saveLayer绘制时使用
+     */
+    public int getOpaqueEmptyColor() {
+        return opaqueEmptyColor;
+    }
+
+    /**
+     * 去掉alpha的选中颜色
+     */
+    public int getOpaqueFilledColor() {
+        return opaqueFilledColor;
+    }
+
+    /**
+     * DST_IN 蒙版的颜色，只保留未选中颜色的alpha
+     */
+    public int getMaskColor() {
+        return maskColor;
+    }
+
+    public boolean isFilledHasAlpha() {
+        return hasAlpha(filledColor);
+    }
+
+    /**
+     * 单次绘制时整条未选中轨道（滑竿 + 节点）的颜色，只绘制一次，不会重复叠加alpha
+     */
+    public int getSinglePassTrackColor() {
+        return emptyColor;
+    }
+
+    /**
+     * 单次绘制时选中部分的颜色。
+     * 未选中颜色不透明时蒙版不改变图层，选中颜色的alpha在图层里本来就被丢掉了；
+     * 选中颜色不透明时它画在图层之外。两种情况都是不透明的选中颜色。
+     */
+    public int getSinglePassFilledColor() {
+        return opaqueFilledColor;
+    }
+
+    /**
+     * 单次绘制是否和 saveLayer + DST_IN 的结果一致。
+     * 两种颜色都带alpha时，选中部分要和未选中部分一起乘上蒙版alpha，只能用图层实现。
+     */
+    public boolean isSinglePassExact() {
+        return singlePassExact;
+    }
+
+    public static int alpha(int color) {
+        return color >>> 24;
+    }
+
+    public static boolean hasAlpha(int color) {
+        return alpha(color) != 0xFF;
+    }
+
+    public static int noAlpha(int color) {
+        return color | ALPHA_MASK;
+    }
+
+    public static int onlyAlpha(int color) {
+        return color & ALPHA_MASK;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof SliderColors)) return false;
+        SliderColors that = (SliderColors) o;
+        return emptyColor == that.emptyColor && filledColor == that.filledColor;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * emptyColor + filledColor;
+    }
+}
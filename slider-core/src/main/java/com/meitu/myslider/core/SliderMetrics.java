@@ -0,0 +1,224 @@
+package com.meitu.myslider.core;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 控件各阶段的耗时统计：每个阶段一个 {@link LatencyHistogram}，另外统计超出预算的帧和每秒刷新次数。
+ * <p>
+ * 一帧的工作量是上一次 onDraw 之后触摸、测量和这次绘制的耗时之和（布局通常嵌套在测量里，不重复计算），
+ * 超过 {@link #setFrameBudgetNanos(long)} 时计为超预算。回调可能在其他线程执行，所有方法都加锁，
+ * 只有开启统计时才会创建，关闭时没有开销。
+ */
+public final class SliderMetrics {
+
+    public static final int PHASE_MEASURE = 0;
+    public static final int PHASE_LAYOUT = 1;
+    public static final int PHASE_DRAW = 2;
+    public static final int PHASE_TOUCH = 3;
+    public static final int PHASE_CALLBACK = 4;
+
+    static final int PHASE_COUNT = 5;
+
+    private static final String[] PHASE_NAMES = {"measure", "layout", "draw", "touch", "callback"};
+
+    /**
+     * 默认预算是 60Hz 的一帧
+     */
+    public static final long DEFAULT_FRAME_BUDGET_NANOS = 16_666_667L;
+
+    private final LatencyHistogram[] histograms = new LatencyHistogram[PHASE_COUNT];
+
+    private long frameBudgetNanos = DEFAULT_FRAME_BUDGET_NANOS;
+
+    private long frameWorkNanos;
+
+    private long frames;
+
+    private long overBudgetFrames;
+
+    private long invalidates;
+
+    private long requestLayouts;
+
+    private long startNanos;
+
+    public SliderMetrics(long nowNanos) {
+        for (int i = 0; i < PHASE_COUNT; i++) {
+            histograms[i] = new LatencyHistogram();
+        }
+        startNanos = nowNanos;
+    }
+
+    public static String phaseName(int phase) {
+        return PHASE_NAMES[phase];
+    }
+
+    public synchronized void setFrameBudgetNanos(long nanos) {
+        if (nanos <= 0) {
+            throw new IllegalArgumentException("Frame budget must be > 0");
+        }
+        frameBudgetNanos = nanos;
+    }
+
+    public synchronized long getFrameBudgetNanos() {
+        return frameBudgetNanos;
+    }
+
+    /**
+     * @param phase {@link #PHASE_MEASURE} 等
+     */
+    public synchronized void record(int phase, long nanos) {
+        histograms[phase].record(nanos);
+        if (phase == PHASE_MEASURE || phase == PHASE_TOUCH) {
+            frameWorkNanos += nanos;
+        } else if (phase == PHASE_DRAW) {
+            frames++;
+            if (frameWorkNanos + nanos > frameBudgetNanos) {
+                overBudgetFrames++;
+            }
+            frameWorkNanos = 0;
+        }
+    }
+
+    public synchronized void countInvalidate() {
+        invalidates++;
+    }
+
+    public synchronized void countRequestLayout() {
+        requestLayouts++;
+    }
+
+    public synchronized void reset(long nowNanos) {
+        for (LatencyHistogram histogram : histograms) {
+            histogram.reset();
+        }
+        frameWorkNanos = 0;
+        frames = 0;
+        overBudgetFrames = 0;
+        invalidates = 0;
+        requestLayouts = 0;
+        startNanos = nowNanos;
+    }
+
+    public synchronized Snapshot snapshot(long nowNanos) {
+        return new Snapshot(this, nowNanos);
+    }
+
+    /**
+     * 某一时刻的统计结果，不可变，可以在任何线程读取
+     */
+    public static final class Snapshot {
+
+        private final long[] counts = new long[PHASE_COUNT];
+        private final long[] means = new long[PHASE_COUNT];
+        private final long[] p50s = new long[PHASE_COUNT];
+        private final long[] p90s = new long[PHASE_COUNT];
+        private final long[] p99s = new long[PHASE_COUNT];
+        private final long[] maxes = new long[PHASE_COUNT];
+        private final long frames;
+        private final long overBudgetFrames;
+        private final long invalidates;
+        private final long requestLayouts;
+        private final long elapsedNanos;
+        private final long frameBudgetNanos;
+
+        private Snapshot(SliderMetrics metrics, long nowNanos) {
+            for (int i = 0; i < PHASE_COUNT; i++) {
+                LatencyHistogram histogram = metrics.histograms[i];
+                counts[i] = histogram.getCount();
+                means[i] = histogram.getMean();
+                p50s[i] = histogram.getPercentile(50);
+                p90s[i] = histogram.getPercentile(90);
+                p99s[i] = histogram.getPercentile(99);
+                maxes[i] = histogram.getMax();
+            }
+            frames = metrics.frames;
+            overBudgetFrames = metrics.overBudgetFrames;
+            invalidates = metrics.invalidates;
+            requestLayouts = metrics.requestLayouts;
+            elapsedNanos = Math.max(0, nowNanos - metrics.startNanos);
+            frameBudgetNanos = metrics.frameBudgetNanos;
+        }
+
+        public long getCount(int phase) {
+            return counts[phase];
+        }
+
+        public long getMeanNanos(int phase) {
+            return means[phase];
+        }
+
+        public long getP50Nanos(int phase) {
+            return p50s[phase];
+        }
+
+        public long getP90Nanos(int phase) {
+            return p90s[phase];
+        }
+
+        public long getP99Nanos(int phase) {
+            return p99s[phase];
+        }
+
+        public long getMaxNanos(int phase) {
+            return maxes[phase];
+        }
+
+        public long getFrames() {
+            return frames;
+        }
+
+        public long getOverBudgetFrames() {
+            return overBudgetFrames;
+        }
+
+        public long getInvalidates() {
+            return invalidates;
+        }
+
+        public long getRequestLayouts() {
+            return requestLayouts;
+        }
+
+        /**
+         * 开始统计（或上次重置）以来的平均每秒刷新次数
+         */
+        public double getInvalidatesPerSecond() {
+            return elapsedNanos == 0 ? 0 : invalidates * 1e9 / elapsedNanos;
+        }
+
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        /**
+         * 扁平的键值，便于上报，如 "draw.p90Nanos"、"frames.overBudget"
+         */
+        public Map<String, Number> toMap() {
+            Map<String, Number> map = new LinkedHashMap<>();
+            for (int i = 0; i < PHASE_COUNT; i++) {
+                String name = PHASE_NAMES[i];
+                map.put(name + ".count", counts[i]);
+                map.put(name + ".meanNanos", means[i]);
+                map.put(name + ".p50Nanos", p50s[i]);
+                map.put(name + ".p90Nanos", p90s[i]);
+                map.put(name + ".p99Nanos", p99s[i]);
+                map.put(name + ".maxNanos", maxes[i]);
+            }
+            map.put("frames.total", frames);
+            map.put("frames.overBudget", overBudgetFrames);
+            map.put("frames.budgetNanos", frameBudgetNanos);
+            map.put("invalidates.total", invalidates);
+            map.put("invalidates.perSecond", getInvalidatesPerSecond());
+            map.put("requestLayouts.total", requestLayouts);
+            map.put("elapsedNanos", elapsedNanos);
+            return map;
+        }
+
+        @Override
+        public String toString() {
+            return "SliderMetrics" + toMap();
+        }
+    }
+}
@@ -0,0 +1,346 @@
+package com.meitu.myslider.core;
+
+/**
+ * 滑竿节点的水平位置。
+ * <p>
+ * 记住上一次布局的输入（节点数、间隔模型、内容区域、滑块半径），输入不变时不重新计算，
+ * 测量可以被多次调用而不产生额外开销。
+ * <p>
+ * 绘制时只画间距不小于 {@link #setMinDrawSpacing(float)} 的节点，
+ * 节点很多时每帧的绘制次数只和宽度有关，吸附仍然使用全部节点。
+ * <p>
+ * 默认节点位置取整到像素；{@link #setSubPixel(boolean)} 后保留小数，用于连续取值。
+ * 均匀分布的节点比像素还多时总是保留小数，否则整数间距为 0。
+ */
+public final class SlotLayout {
+
+    private float[] positions = new float[0];
+
+    private int count;
+
+    private IntervalModel model;
+
+    private int left = Integer.MIN_VALUE;
+
+    private int width = Integer.MIN_VALUE;
+
+    private float radius = Float.NaN;
+
+    private boolean valid;
+
+    /**
+     * 均匀分布时相邻节点的间距，按间隔分布时为 0
+     */
+    private int uniformSpacing;
+
+    private float minDrawSpacing;
+
+    private boolean subPixel;
+
+    private int[] drawIndices = new int[0];
+
+    private int drawCount;
+
+    private boolean drawIndicesValid;
+
+    /**
+     * 按需计算节点位置
+     *
+     * @param count  节点数，有间隔模型时使用模型的节点数
+     * @param model  间隔模型，null 表示均匀分布
+     * @param left   内容区域左边界
+     * @param width  内容区域宽度
+     * @param radius 滑块半径，按间隔分布时两端各留出一个半径
+     * @return 是否重新计算了位置
+     */
+    public boolean layout(int count, IntervalModel model, int left, int width, float radius) {
+        if (model != null) {
+            count = model.getSlotCount();
+        }
+        if (valid && count == this.count && model == this.model && left == this.left
+                && width == this.width && Float.compare(radius, this.radius) == 0) {
+            return false;
+        }
+        this.count = count;
+        this.model = model;
+        this.left = left;
+        this.width = width;
+        this.radius = radius;
+        if (positions.length < count) {
+            positions = new float[count];
+        }
+
+        if (model == null && (subPixel || count > width)) {
+            /** 均匀分布，不取整。节点比像素多时整数间距为 0，所有节点会挤到同一个像素上；间距不是整数，查找时用二分 */
+            float spacing = width / (float) count;
+            uniformSpacing = 0;
+            float first = left + spacing / 2;
+            for (int i = 0; i < count; ++i) {
+                positions[i] = first + i * spacing;
+            }
+        } else if (model == null) {
+            /** 均匀分布，每个节点在自己区间的中间 */
+            int spacing = width / count;
+            uniformSpacing = spacing;
+            int x = left + (spacing / 2);
+            for (int i = 0; i < count; ++i) {
+                positions[i] = x;
+                x += spacing;
+            }
+        } else {
+            /** 按间隔比例分布，整体居中 */
+            uniformSpacing = 0;
+            float w = subPixel ? width - radius * 2 : (int) (width - radius * 2);
+            float origin = left + (w - model.getTotal() * w) / 2 + radius;
+            for (int i = 0; i < count; ++i) {
+                float x = origin + model.getPrefixSum(i) * w;
+                positions[i] = subPixel ? x : Math.round(x);
+            }
+        }
+        valid = true;
+        drawIndicesValid = false;
+        return true;
+    }
+
+    /**
+     * 是否保留节点位置的小数部分，改变后下一次 {@link #layout} 重新计算
+     */
+    public void setSubPixel(boolean subPixel) {
+        if (this.subPixel != subPixel) {
+            this.subPixel = subPixel;
+            valid = false;
+        }
+    }
+
+    public boolean isSubPixel() {
+        return subPixel;
+    }
+
+    /**
+     * 让下一次 {@link #layout} 一定重新计算
+     */
+    public void invalidate() {
+        valid = false;
+    }
+
+    /**
+     * 节点位置数组，长度可能大于 {@link #getCount()}，只有前 count 个有效
+     */
+    public float[] getPositions() {
+        return positions;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public float getPosition(int index) {
+        return positions[index];
+    }
+
+    public float getFirst() {
+        return positions[0];
+    }
+
+    public float getLast() {
+        return positions[count - 1];
+    }
+
+    /**
+     * 设置绘制节点的最小间距，比这个距离更近的节点不单独绘制
+     *
+     * @param spacing 像素，0 表示绘制所有节点
+     */
+    public void setMinDrawSpacing(float spacing) {
+        if (spacing < 0 || Float.isNaN(spacing)) {
+            throw new IllegalArgumentException("Min draw spacing must be >= 0");
+        }
+        if (Float.compare(spacing, minDrawSpacing) != 0) {
+            minDrawSpacing = spacing;
+            drawIndicesValid = false;
+        }
+    }
+
+    public float getMinDrawSpacing() {
+        return minDrawSpacing;
+    }
+
+    /**
+     * 需要绘制的节点个数
+     */
+    public int getDrawCount() {
+        ensureDrawIndices();
+        return drawCount;
+    }
+
+    /**
+     * 需要绘制的节点索引，递增，包含第一个和最后一个节点，只有前 {@link #getDrawCount()} 个有效
+     */
+    public int[] getDrawIndices() {
+        ensureDrawIndices();
+        return drawIndices;
+    }
+
+    /**
+     * 需要绘制的节点中位置 <= x 的个数
+     */
+    public int drawCountAtOrBefore(float x) {
+        ensureDrawIndices();
+        int lo = 0;
+        int hi = drawCount;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (positions[drawIndices[mid]] <= x) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * 需要绘制的节点中位置 < x 的个数
+     */
+    public int drawCountBefore(float x) {
+        ensureDrawIndices();
+        int lo = 0;
+        int hi = drawCount;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (positions[drawIndices[mid]] < x) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * 贪心选出绘制的节点：从第一个节点开始，每次二分找到至少相隔 minDrawSpacing 的下一个节点，
+     * 最后一个节点总会绘制，和前一个太近时替换掉前一个
+     */
+    private void ensureDrawIndices() {
+        if (drawIndicesValid) {
+            return;
+        }
+        int last = count - 1;
+        int capacity = count;
+        if (minDrawSpacing > 0) {
+            capacity = (int) Math.min(count, (positions[last] - positions[0]) / minDrawSpacing + 2);
+        }
+        if (drawIndices.length < capacity) {
+            drawIndices = new int[capacity];
+        }
+        int n = 0;
+        if (minDrawSpacing <= 0) {
+            for (int i = 0; i < count; i++) {
+                drawIndices[n++] = i;
+            }
+        } else {
+            int i = 0;
+            drawIndices[n++] = 0;
+            while (i < last) {
+                float next = positions[i] + minDrawSpacing;
+                if (next > positions[last]) {
+                    break;
+                }
+                /** 间距小于 float 精度时 next 等于当前位置，至少前进一个节点 */
+                i = Math.max(i + 1, lowerBound(next));
+                drawIndices[n++] = i;
+            }
+            if (drawIndices[n - 1] != last) {
+                if (n > 1) {
+                    n--;
+                }
+                drawIndices[n++] = last;
+            }
+        }
+        drawCount = n;
+        drawIndicesValid = true;
+    }
+
+    /**
+     * 把 x 限制在第一个和最后一个节点之间
+     */
+    public float clamp(float x) {
+        if (x < positions[0]) {
+            return positions[0];
+        }
+        if (x > positions[count - 1]) {
+            return positions[count - 1];
+        }
+        return x;
+    }
+
+    /**
+     * 找到离 x 最近的节点。均匀分布时直接计算，否则二分查找，距离相同时取索引小的节点
+     */
+    public int nearestIndex(float x) {
+        if (x <= positions[0]) {
+            return 0;
+        }
+        int last = count - 1;
+        if (x >= positions[last]) {
+            return last;
+        }
+        if (uniformSpacing > 0) {
+            float offset = (x - positions[0]) / uniformSpacing;
+            int i = (int) offset;
+            if (offset - i > 0.5f) {
+                i++;
+            }
+            return i > last ? last : i;
+        }
+        // 第一个位置 >= x 的节点，lo >= 1
+        int lo = lowerBound(x);
+        int j = (x - positions[lo - 1] <= positions[lo] - x) ? lo - 1 : lo;
+        if (j > 0 && positions[j - 1] == positions[j]) {
+            // 多个节点重合时取第一个
+            j = lowerBound(positions[j]);
+        }
+        return j;
+    }
+
+    /**
+     * 位置 <= x 的节点个数
+     */
+    public int countAtOrBefore(float x) {
+        if (x < positions[0]) {
+            return 0;
+        }
+        if (x >= positions[count - 1]) {
+            return count;
+        }
+        if (uniformSpacing > 0) {
+            int n = (int) ((x - positions[0]) / uniformSpacing) + 1;
+            return n > count ? count : n;
+        }
+        int lo = 0;
+        int hi = count;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (positions[mid] <= x) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private int lowerBound(float x) {
+        int lo = 0;
+        int hi = count - 1;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (positions[mid] < x) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+}
@@ -0,0 +1,166 @@
+package com.meitu.myslider.core;
+
+/**
+ * 吸附动画的物理模型，每个控件复用一个实例，由帧回调驱动。
+ * <p>
+ * 使用临界阻尼弹簧：位移 = (x0 + (v0 + ω·x0)·t)·e^(-ωt)，不会来回振荡，
+ * 可以带着手指抬起时的速度继续运动。惯性滑动时按指数衰减的摩擦预测停止位置，
+ * 由调用者选出最近的节点作为弹簧的目标。动画时长有上限，到时直接停在目标上。
+ */
+public final class SnapAnimation {
+
+    /**
+     * 默认弹簧角频率（1/s），越大越快到位
+     */
+    public static final float DEFAULT_STIFFNESS = 30f;
+
+    /**
+     * 默认摩擦系数（1/s），惯性滑动的距离 = 速度 / 摩擦系数
+     */
+    public static final float DEFAULT_FRICTION = 4f;
+
+    /**
+     * 默认最长动画时间
+     */
+    public static final long DEFAULT_MAX_DURATION_NANOS = 300L * 1000000L;
+
+    /**
+     * 离目标小于半个像素并且速度足够小时认为到位
+     */
+    private static final float SETTLE_DISTANCE = 0.5f;
+
+    private static final float SETTLE_VELOCITY = 10f;
+
+    private float stiffness = DEFAULT_STIFFNESS;
+
+    private float friction = DEFAULT_FRICTION;
+
+    private long maxDurationNanos = DEFAULT_MAX_DURATION_NANOS;
+
+    private float startOffset;
+
+    private float startVelocity;
+
+    private float target;
+
+    private long startNanos;
+
+    private float position;
+
+    private float velocity;
+
+    private boolean running;
+
+    public void setStiffness(float stiffness) {
+        if (!(stiffness > 0)) {
+            throw new IllegalArgumentException("Stiffness must be > 0");
+        }
+        this.stiffness = stiffness;
+    }
+
+    public float getStiffness() {
+        return stiffness;
+    }
+
+    public void setFriction(float friction) {
+        if (!(friction > 0)) {
+            throw new IllegalArgumentException("Friction must be > 0");
+        }
+        this.friction = friction;
+    }
+
+    public float getFriction() {
+        return friction;
+    }
+
+    public void setMaxDurationNanos(long maxDurationNanos) {
+        if (maxDurationNanos < 0) {
+            throw new IllegalArgumentException("Max duration must be >= 0");
+        }
+        this.maxDurationNanos = maxDurationNanos;
+    }
+
+    public long getMaxDurationNanos() {
+        return maxDurationNanos;
+    }
+
+    /**
+     * 以 velocity 的初速度从 from 惯性滑动时最终停下的位置
+     *
+     * @param velocity 像素/秒
+     */
+    public float predictFlingEnd(float from, float velocity) {
+        return from + velocity / friction;
+    }
+
+    /**
+     * 开始弹向 target，正在运行的动画直接被替换
+     *
+     * @param velocity 初速度，像素/秒
+     */
+    public void springTo(float from, float target, float velocity, long nowNanos) {
+        this.startOffset = from - target;
+        this.startVelocity = velocity;
+        this.target = target;
+        this.startNanos = nowNanos;
+        this.position = from;
+        this.velocity = velocity;
+        this.running = true;
+    }
+
+    /**
+     * 计算 nowNanos 时的位置
+     *
+     * @return 动画是否还在运行
+     */
+    public boolean step(long nowNanos) {
+        if (!running) {
+            return false;
+        }
+        long elapsed = nowNanos - startNanos;
+        if (elapsed >= maxDurationNanos) {
+            finish();
+            return false;
+        }
+        float t = Math.max(0, elapsed) / 1e9f;
+        float e = (float) Math.exp(-stiffness * t);
+        float b = startVelocity + stiffness * startOffset;
+        float offset = (startOffset + b * t) * e;
+        velocity = (b - stiffness * (startOffset + b * t)) * e;
+        position = target + offset;
+        if (Math.abs(offset) < SETTLE_DISTANCE && Math.abs(velocity) < SETTLE_VELOCITY) {
+            finish();
+        }
+        return running;
+    }
+
+    /**
+     * 停在当前位置
+     */
+    public void cancel() {
+        running = false;
+        velocity = 0;
+    }
+
+    private void finish() {
+        position = target;
+        velocity = 0;
+        running = false;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    public float getPosition() {
+        return position;
+    }
+
+    public float getVelocity() {
+        return velocity;
+    }
+
+    public float getTarget() {
+        return target;
+    }
+}
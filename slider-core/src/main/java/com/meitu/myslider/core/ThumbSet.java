@@ -0,0 +1,220 @@
+package com.meitu.myslider.core;
+
+/**
+ * 同一条滑竿上的多个滑块。
+ * <p>
+ * 滑块按从左到右的顺序排列，位置和节点索引都不会交叉，可以重合。
+ * 每个滑块最多被一个手指抓住，用 pointer id 找到它拖动的滑块。
+ */
+public final class ThumbSet {
+
+    /**
+     * 没有手指抓住滑块
+     */
+    public static final int NO_POINTER = -1;
+
+    private int count;
+
+    private float[] positions = new float[0];
+
+    private int[] indices = new int[0];
+
+    private int[] pointers = new int[0];
+
+    /**
+     * 在重合的滑块上按下时还不知道要拖哪一个，等第一次移动按方向决定
+     */
+    private boolean[] unresolved = new boolean[0];
+
+    /**
+     * 设置滑块个数，滑块均匀分布在节点上：一个滑块在第一个节点，多个时第一个和最后一个在两端
+     */
+    public void setCount(int count, int slotCount) {
+        if (count < 1) {
+            throw new IllegalArgumentException("Thumb count must be >= 1");
+        }
+        if (positions.length < count) {
+            positions = new float[count];
+            indices = new int[count];
+            pointers = new int[count];
+            unresolved = new boolean[count];
+        }
+        this.count = count;
+        for (int i = 0; i < count; i++) {
+            indices[i] = defaultIndex(i, count, slotCount);
+            pointers[i] = NO_POINTER;
+            unresolved[i] = false;
+        }
+    }
+
+    /**
+     * {@link #setCount} 之后第 thumb 个滑块所在的节点
+     */
+    public static int defaultIndex(int thumb, int count, int slotCount) {
+        return count == 1 ? 0 : Math.round(thumb * (slotCount - 1) / (float) (count - 1));
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public int getIndex(int thumb) {
+        return indices[thumb];
+    }
+
+    public void setIndex(int thumb, int index) {
+        indices[thumb] = index;
+    }
+
+    /**
+     * 节点数减少后把超出的索引移到最后一个节点
+     */
+    public void clampIndices(int slotCount) {
+        for (int i = 0; i < count; i++) {
+            if (indices[i] >= slotCount) {
+                indices[i] = slotCount - 1;
+            }
+        }
+    }
+
+    /**
+     * 把 index 限制在相邻滑块的索引之间
+     */
+    public int clampIndex(int thumb, int index) {
+        if (thumb > 0 && index < indices[thumb - 1]) {
+            return indices[thumb - 1];
+        }
+        if (thumb < count - 1 && index > indices[thumb + 1]) {
+            return indices[thumb + 1];
+        }
+        return index;
+    }
+
+    /**
+     * 滑块位置，只有前 {@link #getCount()} 个有效
+     */
+    public float[] getPositions() {
+        return positions;
+    }
+
+    public float getPosition(int thumb) {
+        return positions[thumb];
+    }
+
+    public void setPosition(int thumb, float x) {
+        positions[thumb] = x;
+    }
+
+    /**
+     * 把 x 限制在相邻滑块的位置之间
+     */
+    public float clampPosition(int thumb, float x) {
+        if (thumb > 0 && x < positions[thumb - 1]) {
+            return positions[thumb - 1];
+        }
+        if (thumb < count - 1 && x > positions[thumb + 1]) {
+            return positions[thumb + 1];
+        }
+        return x;
+    }
+
+    /**
+     * 所有滑块停到各自的节点上
+     */
+    public void moveToSlots(float[] slotPositions) {
+        for (int i = 0; i < count; i++) {
+            positions[i] = slotPositions[indices[i]];
+        }
+    }
+
+    /**
+     * 二分查找离 x 最近的滑块。距离相同时取左边的滑块；
+     * 多个滑块重合时，x 在左边取最左的一个，在右边取最右的一个
+     */
+    public int nearest(float x) {
+        int last = count - 1;
+        if (x <= positions[0]) {
+            return 0;
+        }
+        if (x > positions[last]) {
+            return last;
+        }
+        // 第一个位置 >= x 的滑块，lo >= 1
+        int lo = 1;
+        int hi = last;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (positions[mid] < x) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        // lo - 1 是重合滑块中最右的一个，lo 是最左的一个
+        return x - positions[lo - 1] <= positions[lo] - x ? lo - 1 : lo;
+    }
+
+    /**
+     * 是否和相邻的滑块重合
+     */
+    public boolean isOverlapped(int thumb) {
+        return (thumb > 0 && positions[thumb - 1] == positions[thumb])
+                || (thumb < count - 1 && positions[thumb + 1] == positions[thumb]);
+    }
+
+    public int getPointer(int thumb) {
+        return pointers[thumb];
+    }
+
+    public boolean isGrabbed(int thumb) {
+        return pointers[thumb] != NO_POINTER;
+    }
+
+    /**
+     * @return 被 pointerId 抓住的滑块，没有时返回 -1
+     */
+    public int thumbForPointer(int pointerId) {
+        for (int i = 0; i < count; i++) {
+            if (pointers[i] == pointerId) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public void grab(int thumb, int pointerId) {
+        pointers[thumb] = pointerId;
+        unresolved[thumb] = isOverlapped(thumb);
+    }
+
+    public void release(int thumb) {
+        pointers[thumb] = NO_POINTER;
+        unresolved[thumb] = false;
+    }
+
+    /**
+     * 在重合的滑块上按下后第一次移动时，按方向把手指交给重合滑块中最外侧的空闲滑块，
+     * 保证向右拖的是右边的滑块，向左拖的是左边的滑块
+     *
+     * @param dx 手指相对滑块的移动方向
+     * @return 手指现在拖动的滑块
+     */
+    public int resolve(int thumb, float dx) {
+        if (!unresolved[thumb] || dx == 0) {
+            return thumb;
+        }
+        int step = dx > 0 ? 1 : -1;
+        int target = thumb;
+        for (int i = thumb + step; i >= 0 && i < count && positions[i] == positions[thumb]; i += step) {
+            if (pointers[i] == NO_POINTER) {
+                target = i;
+            }
+        }
+        int pointerId = pointers[thumb];
+        pointers[thumb] = NO_POINTER;
+        unresolved[thumb] = false;
+        pointers[target] = pointerId;
+        unresolved[target] = false;
+        return target;
+    }
+}
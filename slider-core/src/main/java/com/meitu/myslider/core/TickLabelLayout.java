@@ -0,0 +1,135 @@
+package com.meitu.myslider.core;
+
+/**
+ * 选出不互相重叠的刻度文字。
+ * <p>
+ * 文字宽度只在文字或字体改变时测量一次，之后只有节点位置改变才重新计算。
+ * 按层级逐步稀疏：先尝试每个节点都显示，放不下就每 2 个显示一个，再每 4 个……，
+ * 取第一个所有相邻文字都不重叠的层级，所以保留下来的刻度总是均匀的。
+ * 最后一个文字总会显示，和前一个重叠时替换掉前一个。
+ */
+public final class TickLabelLayout {
+
+    private float[] widths = new float[0];
+
+    private int labelCount;
+
+    private int[] visibleIndices = new int[0];
+
+    private int visibleCount;
+
+    private int stride;
+
+    /**
+     * @param widths 每个文字的宽度，只读取前 count 个，会被复制
+     */
+    public void setWidths(float[] widths, int count) {
+        if (count < 0 || count > widths.length) {
+            throw new IllegalArgumentException("count " + count + " out of range [0," + widths.length + "]");
+        }
+        if (this.widths.length < count) {
+            this.widths = new float[count];
+        }
+        System.arraycopy(widths, 0, this.widths, 0, count);
+        labelCount = count;
+        visibleCount = 0;
+    }
+
+    public int getLabelCount() {
+        return labelCount;
+    }
+
+    public float getWidth(int index) {
+        return widths[index];
+    }
+
+    /**
+     * 按节点位置选出显示的文字
+     *
+     * @param positions 节点位置，递增
+     * @param count     节点个数，文字多于节点时多出的不显示
+     * @param minGap    相邻文字之间至少留出的像素
+     */
+    public void layout(float[] positions, int count, float minGap) {
+        int n = Math.min(count, labelCount);
+        if (visibleIndices.length < n) {
+            visibleIndices = new int[n];
+        }
+        visibleCount = 0;
+        stride = 1;
+        if (n == 0) {
+            return;
+        }
+        for (int s = 1; ; s <<= 1) {
+            if (fits(positions, n, s, minGap) || s >= n) {
+                stride = s;
+                break;
+            }
+        }
+        int last = n - 1;
+        int k = 0;
+        for (int i = 0; i < last; i += stride) {
+            visibleIndices[k++] = i;
+        }
+        if (k > 0 && visibleIndices[k - 1] != last && overlaps(positions, visibleIndices[k - 1], last, minGap)) {
+            if (k > 1) {
+                k--;
+            } else if (overlaps(positions, 0, last, minGap)) {
+                /** 连第一个和最后一个都放不下时只显示第一个 */
+                visibleCount = 1;
+                return;
+            }
+        }
+        visibleIndices[k++] = last;
+        visibleCount = k;
+    }
+
+    /**
+     * 每 stride 个显示一个时是否互不重叠，最后一个可以替换前一个
+     */
+    private boolean fits(float[] positions, int n, int stride, float minGap) {
+        int last = n - 1;
+        int previous = 0;
+        for (int i = stride; i < last; i += stride) {
+            if (overlaps(positions, previous, i, minGap)) {
+                return false;
+            }
+            previous = i;
+        }
+        if (previous == last) {
+            return true;
+        }
+        if (!overlaps(positions, previous, last, minGap)) {
+            return true;
+        }
+        /** 最后一个替换掉前一个，还要和再前一个不重叠 */
+        return previous == 0 ? !overlaps(positions, 0, last, minGap) : !overlaps(positions, previous - stride, last, minGap);
+    }
+
+    private boolean overlaps(float[] positions, int a, int b, float minGap) {
+        float rightOfA = positions[a] + widths[a] / 2;
+        float leftOfB = positions[b] - widths[b] / 2;
+        return leftOfB - rightOfA < minGap;
+    }
+
+    /**
+     * 显示的文字个数
+     */
+    public int getVisibleCount() {
+        return visibleCount;
+    }
+
+    /**
+     * 显示的文字索引，递增，只有前 {@link #getVisibleCount()} 个有效
+     */
+    public int[] getVisibleIndices() {
+        return visibleIndices;
+    }
+
+    /**
+     * 选中的层级，每 stride 个节点显示一个
+     */
+    public int getStride() {
+        return stride;
+    }
+}
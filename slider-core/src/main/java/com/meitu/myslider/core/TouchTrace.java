@@ -0,0 +1,339 @@
+package com.meitu.myslider.core;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * 录制下来的触摸事件序列，用来复现卡顿和回放测耗时。
+ * <p>
+ * 一次分发的触摸事件是一个事件，包含一个或多个采样：按下、抬起和取消只有动作手指的一个采样，
+ * 移动事件按时间顺序包含所有手指的历史采样和当前位置。时间相对第一个采样，纳秒。
+ * 动作的取值和 MotionEvent 相同，本身不依赖 Android。
+ * <p>
+ * 文本格式每行一个采样：{@code 事件序号 时间(微秒) 动作 手指 x y}，
+ * 历史采样的动作写作 history，另有 {@code size 宽 高} 记录录制时控件的尺寸，# 开头的行是注释。
+ */
+public final class TouchTrace {
+
+    public static final int ACTION_DOWN = 0;
+    public static final int ACTION_UP = 1;
+    public static final int ACTION_MOVE = 2;
+    public static final int ACTION_CANCEL = 3;
+    public static final int ACTION_POINTER_DOWN = 5;
+    public static final int ACTION_POINTER_UP = 6;
+
+    /**
+     * 估算抬起速度时只看最近这段时间的采样，和 VelocityTracker 相同
+     */
+    private static final long VELOCITY_WINDOW_NANOS = 100000000L;
+
+    /**
+     * 相邻采样间隔超过这个时间认为手指已经停下，更早的采样不参与估算
+     */
+    private static final long STOPPED_NANOS = 40000000L;
+
+    private int viewWidth;
+
+    private int viewHeight;
+
+    private int size;
+
+    private int[] events = new int[16];
+
+    private int[] actions = new int[16];
+
+    private int[] pointerIds = new int[16];
+
+    private long[] times = new long[16];
+
+    private float[] xs = new float[16];
+
+    private float[] ys = new float[16];
+
+    private boolean[] historical = new boolean[16];
+
+    private int eventCount;
+
+    /**
+     * 第一个采样的原始时间，后续采样都相对它
+     */
+    private long origin;
+
+    /**
+     * 每个事件的第一个采样，长度 eventCount + 1，最后一个是 size
+     */
+    private int[] eventStarts = new int[17];
+
+    public void setViewSize(int width, int height) {
+        if (width < 0 || height < 0) {
+            throw new IllegalArgumentException("View size must be >= 0");
+        }
+        this.viewWidth = width;
+        this.viewHeight = height;
+    }
+
+    public int getViewWidth() {
+        return viewWidth;
+    }
+
+    public int getViewHeight() {
+        return viewHeight;
+    }
+
+    /**
+     * 开始一个新的事件，之后 {@link #add} 的采样都属于这个事件
+     */
+    public void beginEvent() {
+        if (eventCount > 0 && eventStarts[eventCount] == eventStarts[eventCount - 1]) {
+            // 上一个事件没有采样，直接复用
+            return;
+        }
+        eventCount++;
+        if (eventStarts.length <= eventCount) {
+            eventStarts = Arrays.copyOf(eventStarts, eventStarts.length * 2);
+        }
+        eventStarts[eventCount] = size;
+    }
+
+    /**
+     * 在当前事件里追加一个采样
+     *
+     * @param timeNanos  采样时间，任意时间基准，第一个采样的时间记为 0
+     * @param historical 是否是移动事件里的历史采样
+     */
+    public void add(int action, int pointerId, long timeNanos, float x, float y, boolean historical) {
+        if (eventCount == 0) {
+            throw new IllegalStateException("beginEvent() must be called first");
+        }
+        if (historical && action != ACTION_MOVE) {
+            throw new IllegalArgumentException("Only move samples can be historical");
+        }
+        if (size == 0) {
+            origin = timeNanos;
+        }
+        if (size == events.length) {
+            int capacity = size * 2;
+            events = Arrays.copyOf(events, capacity);
+            actions = Arrays.copyOf(actions, capacity);
+            pointerIds = Arrays.copyOf(pointerIds, capacity);
+            times = Arrays.copyOf(times, capacity);
+            xs = Arrays.copyOf(xs, capacity);
+            ys = Arrays.copyOf(ys, capacity);
+            this.historical = Arrays.copyOf(this.historical, capacity);
+        }
+        events[size] = eventCount - 1;
+        actions[size] = action;
+        pointerIds[size] = pointerId;
+        times[size] = timeNanos - origin;
+        xs[size] = x;
+        ys[size] = y;
+        this.historical[size] = historical;
+        size++;
+        eventStarts[eventCount] = size;
+    }
+
+    public void clear() {
+        size = 0;
+        eventCount = 0;
+    }
+
+    /**
+     * 采样个数
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 有采样的事件个数
+     */
+    public int getEventCount() {
+        return eventCount > 0 && eventStarts[eventCount] == eventStarts[eventCount - 1] ? eventCount - 1 : eventCount;
+    }
+
+    /**
+     * 事件的第一个采样
+     */
+    public int getEventStart(int event) {
+        return eventStarts[event];
+    }
+
+    /**
+     * 事件最后一个采样的下一个
+     */
+    public int getEventEnd(int event) {
+        return eventStarts[event + 1];
+    }
+
+    /**
+     * 事件分发的时间，即事件里最后一个采样的时间
+     */
+    public long getEventTimeNanos(int event) {
+        return times[eventStarts[event + 1] - 1];
+    }
+
+    public int getEvent(int sample) {
+        return events[sample];
+    }
+
+    public int getAction(int sample) {
+        return actions[sample];
+    }
+
+    public int getPointerId(int sample) {
+        return pointerIds[sample];
+    }
+
+    public long getTimeNanos(int sample) {
+        return times[sample];
+    }
+
+    public float getX(int sample) {
+        return xs[sample];
+    }
+
+    public float getY(int sample) {
+        return ys[sample];
+    }
+
+    public boolean isHistorical(int sample) {
+        return historical[sample];
+    }
+
+    /**
+     * 估算手指在这个采样时的水平速度：同一手指最近 100ms 内连续移动的采样做最小二乘，
+     * 中间停顿超过 40ms 时只看停顿之后的采样
+     *
+     * @return 像素/秒，采样不足两个时返回 0
+     */
+    public float estimateVelocityX(int sample) {
+        int pointerId = pointerIds[sample];
+        long end = times[sample];
+        long newer = end;
+        int n = 0;
+        double sumT = 0;
+        double sumX = 0;
+        double sumTT = 0;
+        double sumTX = 0;
+        for (int i = sample; i >= 0; i--) {
+            if (pointerIds[i] != pointerId) {
+                continue;
+            }
+            long t = times[i];
+            if (end - t > VELOCITY_WINDOW_NANOS || newer - t > STOPPED_NANOS) {
+                break;
+            }
+            double s = (t - end) / 1e9;
+            sumT += s;
+            sumX += xs[i];
+            sumTT += s * s;
+            sumTX += s * xs[i];
+            n++;
+            newer = t;
+            if (actions[i] == ACTION_DOWN || actions[i] == ACTION_POINTER_DOWN) {
+                break;
+            }
+        }
+        double denominator = n * sumTT - sumT * sumT;
+        if (n < 2 || denominator <= 0) {
+            return 0f;
+        }
+        return (float) ((n * sumTX - sumT * sumX) / denominator);
+    }
+
+    public void write(Writer out) throws IOException {
+        out.write("size " + viewWidth + " " + viewHeight + "\n");
+        for (int i = 0; i < size; i++) {
+            out.write(String.format(Locale.US, "%d %d %s %d %.2f %.2f\n", events[i], times[i] / 1000,
+                    historical[i] ? "history" : actionName(actions[i]), pointerIds[i], xs[i], ys[i]));
+        }
+        out.flush();
+    }
+
+    /**
+     * 读取 {@link #write(Writer)} 写出的轨迹，事件序号必须递增
+     *
+     * @throws IllegalArgumentException 格式错误
+     */
+    public static TouchTrace read(Reader in) throws IOException {
+        BufferedReader reader = in instanceof BufferedReader ? (BufferedReader) in : new BufferedReader(in);
+        TouchTrace trace = new TouchTrace();
+        int lastEvent = -1;
+        int lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            line = line.trim();
+            if (line.length() == 0 || line.startsWith("#")) {
+                continue;
+            }
+            String[] fields = line.split("\\s+");
+            try {
+                if (fields[0].equals("size") && fields.length == 3) {
+                    trace.setViewSize(Integer.parseInt(fields[1]), Integer.parseInt(fields[2]));
+                    continue;
+                }
+                if (fields.length != 6) {
+                    throw new IllegalArgumentException("Expected 6 fields");
+                }
+                int event = Integer.parseInt(fields[0]);
+                if (event < lastEvent) {
+                    throw new IllegalArgumentException("Event " + event + " after " + lastEvent);
+                }
+                if (event != lastEvent) {
+                    trace.beginEvent();
+                    lastEvent = event;
+                }
+                boolean historical = fields[2].equals("history");
+                int action = historical ? ACTION_MOVE : parseAction(fields[2]);
+                trace.add(action, Integer.parseInt(fields[3]), Long.parseLong(fields[1]) * 1000,
+                        Float.parseFloat(fields[4]), Float.parseFloat(fields[5]), historical);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Invalid touch trace at line " + lineNumber + ": " + line, e);
+            }
+        }
+        return trace;
+    }
+
+    static String actionName(int action) {
+        switch (action) {
+            case ACTION_DOWN:
+                return "down";
+            case ACTION_UP:
+                return "up";
+            case ACTION_MOVE:
+                return "move";
+            case ACTION_CANCEL:
+                return "cancel";
+            case ACTION_POINTER_DOWN:
+                return "pointer_down";
+            case ACTION_POINTER_UP:
+                return "pointer_up";
+            default:
+                throw new IllegalArgumentException("Unknown action " + action);
+        }
+    }
+
+    static int parseAction(String name) {
+        switch (name) {
+            case "down":
+                return ACTION_DOWN;
+            case "up":
+                return ACTION_UP;
+            case "move":
+                return ACTION_MOVE;
+            case "cancel":
+                return ACTION_CANCEL;
+            case "pointer_down":
+                return ACTION_POINTER_DOWN;
+            case "pointer_up":
+                return ACTION_POINTER_UP;
+            default:
+                throw new IllegalArgumentException("Unknown action " + name);
+        }
+    }
+}
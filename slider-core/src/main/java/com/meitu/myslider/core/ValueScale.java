@@ -0,0 +1,82 @@
+package com.meitu.myslider.core;
+
+/**
+ * 滑块比例到业务值的映射，如 20Hz~20kHz 的对数刻度。
+ * <p>
+ * 映射必须单调不减，{@link #toValue(float)} 可以很慢（pow、log、样条），
+ * 控件不会在触摸时直接调用，而是用 {@link ValueTable} 按当前宽度预先采样。
+ * 自定义曲线继承这个类即可。
+ */
+public abstract class ValueScale {
+
+    private final float min;
+
+    private final float max;
+
+    protected ValueScale(float min, float max) {
+        if (!(min < max) || Float.isInfinite(min) || Float.isInfinite(max)) {
+            throw new IllegalArgumentException("Expected min < max, got [" + min + ", " + max + "]");
+        }
+        this.min = min;
+        this.max = max;
+    }
+
+    /**
+     * @param fraction [0, 1]
+     * @return 对应的值，0 时等于 {@link #getMin()}，1 时等于 {@link #getMax()}
+     */
+    public abstract float toValue(float fraction);
+
+    public final float getMin() {
+        return min;
+    }
+
+    public final float getMax() {
+        return max;
+    }
+
+    public static ValueScale linear(float min, float max) {
+        return new ValueScale(min, max) {
+            @Override
+            public float toValue(float fraction) {
+                return getMin() + (getMax() - getMin()) * fraction;
+            }
+        };
+    }
+
+    /**
+     * 对数刻度，相同的距离对应相同的倍数，如频率
+     *
+     * @param min 必须大于 0
+     */
+    public static ValueScale log(float min, float max) {
+        if (!(min > 0)) {
+            throw new IllegalArgumentException("Log scale requires min > 0, got " + min);
+        }
+        final double ln = Math.log((double) max / min);
+        return new ValueScale(min, max) {
+            @Override
+            public float toValue(float fraction) {
+                return (float) (getMin() * Math.exp(ln * fraction));
+            }
+        };
+    }
+
+    /**
+     * 指数刻度，steepness 越大，起始段越精细
+     *
+     * @param steepness 不能为 0，负数时末段更精细
+     */
+    public static ValueScale exp(float min, float max, final float steepness) {
+        if (steepness == 0 || Float.isNaN(steepness)) {
+            throw new IllegalArgumentException("Steepness must be non-zero, got " + steepness);
+        }
+        final double denominator = Math.expm1(steepness);
+        return new ValueScale(min, max) {
+            @Override
+            public float toValue(float fraction) {
+                return (float) (getMin() + (getMax() - getMin()) * (Math.expm1(steepness * fraction) / denominator));
+            }
+        };
+    }
+}
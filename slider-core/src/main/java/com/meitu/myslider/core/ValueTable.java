@@ -0,0 +1,155 @@
+package com.meitu.myslider.core;
+
+/**
+ * {@link ValueScale} 的查找表，比例和值之间双向转换都不调用映射函数。
+ * <p>
+ * 按比例均匀采样，比例转值是一次线性插值；值转比例先按值把范围分成若干桶，
+ * 每个桶记下第一个落在其中的采样，查找时只在桶内二分，桶的个数会随采样的疏密增加，
+ * 对数这种两端疏密差很多的曲线每次也只比较几次。
+ * 只在采样数或映射变化时重建，不是线程安全的。
+ */
+public final class ValueTable {
+
+    /**
+     * 桶的个数最多是采样数的倍数
+     */
+    private static final int MAX_BUCKETS_PER_SAMPLE = 8;
+
+    private ValueScale scale;
+
+    private float[] values = new float[0];
+
+    private int size;
+
+    private int[] buckets = new int[0];
+
+    private int bucketCount;
+
+    private float bucketScale;
+
+    /**
+     * 按采样数建表
+     *
+     * @param samples 采样数，一般是滑竿的像素宽度，至少 2
+     * @return 映射和采样数都没变时返回 false
+     * @throws IllegalArgumentException 映射不是单调不减
+     */
+    public boolean build(ValueScale scale, int samples) {
+        if (scale == null) {
+            throw new IllegalArgumentException("scale == null");
+        }
+        if (samples < 2) {
+            samples = 2;
+        }
+        if (scale == this.scale && samples == size) {
+            return false;
+        }
+        if (values.length < samples) {
+            values = new float[samples];
+        }
+        float minGap = Float.MAX_VALUE;
+        float last = samples - 1;
+        for (int i = 0; i < samples; i++) {
+            float value = scale.toValue(i / last);
+            if (i > 0) {
+                float gap = value - values[i - 1];
+                if (!(gap >= 0)) {
+                    throw new IllegalArgumentException("Scale must be non-decreasing, dropped at fraction " + i / last);
+                }
+                if (gap > 0 && gap < minGap) {
+                    minGap = gap;
+                }
+            }
+            values[i] = value;
+        }
+        this.scale = scale;
+        this.size = samples;
+
+        /** 桶的宽度不超过最小采样间距，超过上限时桶内需要多比较几次 */
+        float range = values[samples - 1] - values[0];
+        int count = samples;
+        if (range > 0 && minGap < Float.MAX_VALUE) {
+            double needed = Math.ceil(range / minGap);
+            count = (int) Math.min(needed, (long) samples * MAX_BUCKETS_PER_SAMPLE);
+            count = Math.max(count, 1);
+        }
+        if (buckets.length < count + 1) {
+            buckets = new int[count + 1];
+        }
+        bucketCount = count;
+        bucketScale = range > 0 ? count / range : 0;
+        int i = 0;
+        for (int b = 0; b < count; b++) {
+            float start = values[0] + b / bucketScale;
+            while (i < samples - 2 && values[i + 1] <= start) {
+                i++;
+            }
+            buckets[b] = i;
+        }
+        buckets[count] = samples - 2;
+        return true;
+    }
+
+    public void invalidate() {
+        scale = null;
+        size = 0;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public ValueScale getScale() {
+        return scale;
+    }
+
+    /**
+     * @param fraction [0, 1]，超出时截断
+     */
+    public float toValue(float fraction) {
+        if (!(fraction > 0)) {
+            return values[0];
+        }
+        float p = fraction * (size - 1);
+        int i = (int) p;
+        if (i >= size - 1) {
+            return values[size - 1];
+        }
+        return values[i] + (values[i + 1] - values[i]) * (p - i);
+    }
+
+    /**
+     * @param value 超出范围时截断
+     * @return [0, 1]
+     */
+    public float toFraction(float value) {
+        if (!(value > values[0])) {
+            return 0f;
+        }
+        if (value >= values[size - 1]) {
+            return 1f;
+        }
+        int b = (int) ((value - values[0]) * bucketScale);
+        if (b >= bucketCount) {
+            b = bucketCount - 1;
+        }
+        /** 在桶内找最后一个 values[i] <= value 的采样 */
+        int lo = buckets[b];
+        int hi = buckets[b + 1];
+        /** 桶边界的舍入误差可能让起点多出一个采样 */
+        while (lo > 0 && values[lo] > value) {
+            lo--;
+        }
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (values[mid] <= value) {
+                lo = mid;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        float gap = values[lo + 1] - values[lo];
+        float t = gap > 0 ? (value - values[lo]) / gap : 0f;
+        return (lo + t) / (size - 1);
+    }
+}
@@ -0,0 +1,62 @@
+package com.meitu.myslider.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class AdaptiveQualityTest {
+
+    private static final long FRAME = 16_000_000L;
+
+    @Test
+    public void reducedWhileInteracting_thenOneSettleFrame() throws Exception {
+        AdaptiveQuality quality = new AdaptiveQuality();
+        assertFalse(quality.beginFrame(false, 0, 0));
+        assertFalse(quality.endFrame(100));
+        assertTrue(quality.beginFrame(true, 5, FRAME));
+        assertFalse(quality.endFrame(50));
+        assertTrue(quality.beginFrame(true, 5, 2 * FRAME));
+        assertFalse(quality.endFrame(50));
+        assertFalse(quality.beginFrame(false, 0, 3 * FRAME));
+        assertTrue("settle frame requested once", quality.endFrame(100));
+        assertFalse(quality.beginFrame(false, 0, 4 * FRAME));
+        assertFalse(quality.endFrame(100));
+    }
+
+    @Test
+    public void slowDrag_keepsFullQuality() throws Exception {
+        AdaptiveQuality quality = new AdaptiveQuality();
+        quality.setSpeedThreshold(500);
+        quality.beginFrame(true, 0, 0);
+        // 16ms 移动 5px 约 312px/s
+        assertFalse(quality.beginFrame(true, 5, FRAME));
+        // 16ms 移动 10px 约 625px/s
+        assertTrue(quality.beginFrame(true, 10, 2 * FRAME));
+    }
+
+    @Test
+    public void disabled_neverReduces() throws Exception {
+        AdaptiveQuality quality = new AdaptiveQuality();
+        quality.setEnabled(false);
+        assertFalse(quality.beginFrame(true, 100, FRAME));
+        assertFalse(quality.endFrame(1));
+    }
+
+    @Test
+    public void statsSplitByMode() throws Exception {
+        AdaptiveQuality quality = new AdaptiveQuality();
+        quality.beginFrame(false, 0, 0);
+        quality.endFrame(300);
+        quality.beginFrame(false, 0, FRAME);
+        quality.endFrame(500);
+        quality.beginFrame(true, 3, 2 * FRAME);
+        quality.endFrame(120);
+        assertEquals(2, quality.getFrameCount(false));
+        assertEquals(400, quality.getAverageDrawNanos(false));
+        assertEquals(500, quality.getMaxDrawNanos(false));
+        assertEquals(1, quality.getFrameCount(true));
+        assertEquals(120, quality.getAverageDrawNanos(true));
+        quality.resetStats();
+        assertEquals(0, quality.getAverageDrawNanos(true));
+    }
+}
@@ -0,0 +1,54 @@
+package com.meitu.myslider.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class DetentsTest {
+
+    private static final float[] SLOTS = {0, 100, 200, 300, 400};
+
+    @Test
+    public void apply_snapsOnlyWithinRadius() throws Exception {
+        Detents detents = new Detents();
+        detents.setSlots(3, 1);
+        detents.setRadius(10);
+        assertEquals(100f, detents.apply(92f, SLOTS, 5), 0);
+        assertEquals(100f, detents.apply(110f, SLOTS, 5), 0);
+        assertEquals(111f, detents.apply(111f, SLOTS, 5), 0);
+        assertEquals(300f, detents.apply(305f, SLOTS, 5), 0);
+        // 2 不是吸附点
+        assertEquals(203f, detents.apply(203f, SLOTS, 5), 0);
+        assertEquals(-5f, detents.apply(-5f, SLOTS, 5), 0);
+    }
+
+    @Test
+    public void apply_picksNearestOfTwo() throws Exception {
+        Detents detents = new Detents();
+        detents.setSlots(0, 1, 2);
+        detents.setRadius(80);
+        assertEquals(100f, detents.apply(140f, SLOTS, 5), 0);
+        assertEquals(200f, detents.apply(160f, SLOTS, 5), 0);
+    }
+
+    @Test
+    public void apply_ignoresSlotsBeyondCount() throws Exception {
+        Detents detents = new Detents();
+        detents.setSlots(4);
+        detents.setRadius(50);
+        assertEquals(395f, detents.apply(395f, SLOTS, 4), 0);
+        assertEquals(400f, detents.apply(395f, SLOTS, 5), 0);
+    }
+
+    @Test
+    public void apply_disabledWithoutRadius() throws Exception {
+        Detents detents = new Detents();
+        detents.setSlots(1);
+        assertEquals(99f, detents.apply(99f, SLOTS, 5), 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void setSlots_rejectsNegative() throws Exception {
+        new Detents().setSlots(1, -1);
+    }
+}
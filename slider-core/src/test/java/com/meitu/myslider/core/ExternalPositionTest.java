@@ -0,0 +1,83 @@
+package com.meitu.myslider.core;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class ExternalPositionTest {
+
+    @Test
+    public void poll_returnsLatestValueOnce() throws Exception {
+        final AtomicInteger wakeUps = new AtomicInteger();
+        ExternalPosition position = new ExternalPosition(new Runnable() {
+            @Override
+            public void run() {
+                wakeUps.incrementAndGet();
+            }
+        });
+        assertTrue(Float.isNaN(position.poll()));
+        position.set(0.25f);
+        position.set(0.5f);
+        position.set(2f);
+        assertEquals(1, wakeUps.get());
+        assertTrue(position.hasPending());
+        assertEquals(1f, position.poll(), 0);
+        assertTrue(Float.isNaN(position.poll()));
+        position.set(-0f);
+        assertEquals(2, wakeUps.get());
+        assertEquals(0f, position.poll(), 0);
+    }
+
+    @Test
+    public void concurrentWriters_wakeAtMostOncePerPoll() throws Exception {
+        final AtomicInteger wakeUps = new AtomicInteger();
+        final ExternalPosition position = new ExternalPosition(new Runnable() {
+            @Override
+            public void run() {
+                wakeUps.incrementAndGet();
+            }
+        });
+        final int writers = 4;
+        final int writes = 100000;
+        final CountDownLatch done = new CountDownLatch(writers);
+        for (int w = 0; w < writers; w++) {
+            final int id = w;
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < writes; i++) {
+                        position.set((id * writes + i) / (float) (writers * writes));
+                    }
+                    done.countDown();
+                }
+            }).start();
+        }
+        int polls = 0;
+        while (done.getCount() > 0) {
+            float value = position.poll();
+            if (!Float.isNaN(value)) {
+                assertTrue(value >= 0 && value <= 1);
+                polls++;
+            }
+        }
+        if (!Float.isNaN(position.poll())) {
+            polls++;
+        }
+        // 每次读取之后最多再唤醒一次
+        assertTrue("wakeUps=" + wakeUps.get() + " polls=" + polls, wakeUps.get() <= polls + 1);
+        assertTrue(wakeUps.get() >= 1);
+        assertFalse(position.hasPending());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void set_rejectsNaN() throws Exception {
+        new ExternalPosition(new Runnable() {
+            @Override
+            public void run() {
+            }
+        }).set(Float.NaN);
+    }
+}
@@ -0,0 +1,59 @@
+package com.meitu.myslider.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class IndexLruCacheTest {
+
+    private static IndexLruCache<int[]> cache(long maxSize) {
+        return new IndexLruCache<int[]>(maxSize) {
+            @Override
+            protected int sizeOf(int[] value) {
+                return value.length;
+            }
+        };
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsedBySize() throws Exception {
+        IndexLruCache<int[]> cache = cache(10);
+        cache.put(0, new int[4]);
+        cache.put(1, new int[4]);
+        assertNotNull(cache.get(0));
+        cache.put(2, new int[4]);
+        assertTrue(cache.contains(0));
+        assertFalse(cache.contains(1));
+        assertTrue(cache.contains(2));
+        assertEquals(8, cache.getSize());
+    }
+
+    @Test
+    public void replace_updatesSize() throws Exception {
+        IndexLruCache<int[]> cache = cache(10);
+        cache.put(3, new int[6]);
+        cache.put(3, new int[2]);
+        assertEquals(2, cache.getSize());
+        assertEquals(1, cache.getCount());
+    }
+
+    @Test
+    public void oversizedValue_notCached() throws Exception {
+        IndexLruCache<int[]> cache = cache(10);
+        cache.put(0, new int[3]);
+        cache.put(1, new int[11]);
+        assertFalse(cache.contains(1));
+        assertTrue(cache.contains(0));
+    }
+
+    @Test
+    public void shrinking_trims() throws Exception {
+        IndexLruCache<int[]> cache = cache(10);
+        cache.put(0, new int[3]);
+        cache.put(1, new int[3]);
+        cache.put(2, new int[3]);
+        cache.setMaxSize(4);
+        assertEquals(1, cache.getCount());
+        assertTrue(cache.contains(2));
+    }
+}
@@ -0,0 +1,90 @@
+package com.meitu.myslider.core;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class KeyedPoolTest {
+
+    private static final class CountingPool extends KeyedPool<long[]> {
+        final List<Long> destroyed = new ArrayList<>();
+        int created;
+
+        CountingPool(int maxIdle) {
+            super(maxIdle);
+        }
+
+        @Override
+        protected long[] create(long key) {
+            created++;
+            return new long[]{key};
+        }
+
+        @Override
+        protected void destroy(long[] value) {
+            destroyed.add(value[0]);
+        }
+    }
+
+    @Test
+    public void acquire_sharesOneValuePerKey() throws Exception {
+        CountingPool pool = new CountingPool(2);
+        long[] a = pool.acquire(1);
+        assertSame(a, pool.acquire(1));
+        assertNotSame(a, pool.acquire(2));
+        assertEquals(2, pool.created);
+        assertEquals(2, pool.getActiveCount());
+    }
+
+    @Test
+    public void release_keepsIdleValuesForReuse() throws Exception {
+        CountingPool pool = new CountingPool(2);
+        long[] a = pool.acquire(1);
+        pool.acquire(1);
+        pool.release(1);
+        assertEquals(0, pool.getIdleCount());
+        pool.release(1);
+        assertEquals(1, pool.getIdleCount());
+        assertSame(a, pool.acquire(1));
+        assertEquals(1, pool.created);
+        assertEquals(0, pool.getIdleCount());
+    }
+
+    @Test
+    public void release_evictsOldestIdleOverLimit() throws Exception {
+        CountingPool pool = new CountingPool(2);
+        for (long key = 1; key <= 4; key++) {
+            pool.acquire(key);
+        }
+        pool.release(3);
+        pool.release(1);
+        pool.release(4);
+        assertEquals(2, pool.getIdleCount());
+        assertEquals(1, pool.destroyed.size());
+        assertEquals(3L, (long) pool.destroyed.get(0));
+        assertEquals(1, pool.getActiveCount());
+    }
+
+    @Test
+    public void trim_destroysOnlyIdleValues() throws Exception {
+        CountingPool pool = new CountingPool(4);
+        pool.acquire(1);
+        pool.acquire(2);
+        pool.release(2);
+        pool.trim();
+        assertEquals(1, pool.destroyed.size());
+        assertEquals(0, pool.getIdleCount());
+        assertEquals(1, pool.getActiveCount());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void release_rejectsUnbalancedRelease() throws Exception {
+        CountingPool pool = new CountingPool(1);
+        pool.acquire(1);
+        pool.release(1);
+        pool.release(1);
+    }
+}
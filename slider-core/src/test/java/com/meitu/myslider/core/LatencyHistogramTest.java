@@ -0,0 +1,49 @@
+package com.meitu.myslider.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void bucketBoundsAreContiguous() throws Exception {
+        long expectedLower = 0;
+        for (int i = 0; i < 248; i++) {
+            assertEquals(i, LatencyHistogram.indexOf(expectedLower));
+            long upper = LatencyHistogram.upperBoundOf(i);
+            assertEquals(i, LatencyHistogram.indexOf(upper));
+            if (upper == Long.MAX_VALUE) {
+                break;
+            }
+            expectedLower = upper + 1;
+        }
+        assertEquals(Long.MAX_VALUE, LatencyHistogram.upperBoundOf(LatencyHistogram.indexOf(Long.MAX_VALUE)));
+    }
+
+    @Test
+    public void percentilesWithinBucketError() throws Exception {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i * 1000L);
+        }
+        assertEquals(1000, histogram.getCount());
+        assertEquals(500500, histogram.getMean());
+        assertEquals(1000000, histogram.getMax());
+        long p50 = histogram.getPercentile(50);
+        assertTrue("p50=" + p50, p50 >= 500000 && p50 <= 500000 * 1.25);
+        long p99 = histogram.getPercentile(99);
+        assertTrue("p99=" + p99, p99 >= 990000 && p99 <= 1000000);
+        assertEquals(1000000, histogram.getPercentile(100));
+    }
+
+    @Test
+    public void empty_returnsZero() throws Exception {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getPercentile(99));
+        histogram.record(-5);
+        assertEquals(0, histogram.getMax());
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+    }
+}
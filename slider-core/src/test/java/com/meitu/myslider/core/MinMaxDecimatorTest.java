@@ -0,0 +1,136 @@
+package com.meitu.myslider.core;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class MinMaxDecimatorTest {
+
+    @Test
+    public void columnsMatchBruteForce() throws Exception {
+        Random random = new Random(9);
+        float[] data = new float[100000];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (float) random.nextGaussian();
+        }
+        MinMaxDecimator decimator = new MinMaxDecimator(1000);
+        decimator.append(data, 0, data.length);
+        assertColumns(decimator, data, data.length);
+    }
+
+    @Test
+    public void incrementalAppend_sameAsBulk() throws Exception {
+        Random random = new Random(1);
+        float[] data = new float[50000];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = random.nextFloat() * 100;
+        }
+        MinMaxDecimator incremental = new MinMaxDecimator(300);
+        int offset = 0;
+        while (offset < data.length) {
+            int length = Math.min(data.length - offset, 1 + random.nextInt(997));
+            incremental.append(data, offset, length);
+            offset += length;
+            assertTrue(incremental.getColumnCount() <= 300);
+        }
+        assertColumns(incremental, data, data.length);
+        assertTrue(incremental.getColumnCount() > 150);
+    }
+
+    @Test
+    public void append_marksOnlyTailDirty() throws Exception {
+        MinMaxDecimator decimator = new MinMaxDecimator(100);
+        decimator.append(new int[160], 0, 160);
+        // 100 列放不下，每列 2 个采样
+        assertEquals(2, decimator.getSamplesPerColumn());
+        assertEquals(80, decimator.getColumnCount());
+        decimator.clearDirty();
+        assertFalse(decimator.isDirty());
+        decimator.append(new int[]{5, 6, 7}, 0, 3);
+        assertEquals(80, decimator.getDirtyFrom());
+        assertEquals(82, decimator.getColumnCount());
+        assertEquals(5f, decimator.getMin(80), 0);
+        assertEquals(7f, decimator.getMax(81), 0);
+        assertEquals(7f, decimator.getHigh(), 0);
+        assertEquals(0f, decimator.getLow(), 0);
+    }
+
+    @Test
+    public void nanChunkAfterMerge_marksNewColumnsDirty() throws Exception {
+        MinMaxDecimator decimator = new MinMaxDecimator(4);
+        decimator.append(new int[]{1, 2, 3, 4, 5}, 0, 5);
+        // 合并过一次，每列 2 个采样，3 列
+        assertEquals(2, decimator.getSamplesPerColumn());
+        assertEquals(3, decimator.getColumnCount());
+        decimator.clearDirty();
+        decimator.append(new float[]{Float.NaN, Float.NaN, Float.NaN}, 0, 3);
+        assertEquals(4, decimator.getColumnCount());
+        assertTrue(decimator.isDirty());
+        assertEquals(3, decimator.getDirtyFrom());
+        assertTrue(Float.isNaN(decimator.getMin(3)));
+    }
+
+    @Test
+    public void setMaxColumns_redecimatesFromSamples() throws Exception {
+        float[] data = new float[1000];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = i % 7;
+        }
+        MinMaxDecimator decimator = new MinMaxDecimator(10);
+        decimator.append(data, 0, data.length);
+        decimator.setMaxColumns(500);
+        assertEquals(500, decimator.getColumnCount());
+        assertColumns(decimator, data, data.length);
+    }
+
+    @Test
+    public void nanSamples_keepTheirColumns() throws Exception {
+        MinMaxDecimator decimator = new MinMaxDecimator(4);
+        decimator.append(new float[]{Float.NaN, Float.NaN, 3, Float.NaN, Float.NaN, 1}, 0, 6);
+        // 每列 2 个采样
+        assertEquals(3, decimator.getColumnCount());
+        assertTrue(Float.isNaN(decimator.getMin(0)));
+        assertEquals(3f, decimator.getMax(1), 0);
+        assertEquals(1f, decimator.getMax(2), 0);
+        decimator.append(new float[]{Float.NaN, Float.NaN, Float.NaN}, 0, 3);
+        // 合并成每列 4 个采样，NaN 不影响相邻的值
+        assertEquals(4, decimator.getSamplesPerColumn());
+        assertEquals(3, decimator.getColumnCount());
+        assertEquals(3f, decimator.getMin(0), 0);
+        assertEquals(1f, decimator.getMin(1), 0);
+        assertTrue(Float.isNaN(decimator.getMin(2)));
+        assertEquals(1f, decimator.getLow(), 0);
+    }
+
+    @Test
+    public void clear_resets() throws Exception {
+        MinMaxDecimator decimator = new MinMaxDecimator(4);
+        decimator.append(new float[]{1, 2, 3}, 0, 3);
+        decimator.clear();
+        assertEquals(0, decimator.getSampleCount());
+        assertEquals(0, decimator.getColumnCount());
+        assertTrue(Float.isNaN(decimator.getHigh()));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void append_rejectsBadRange() throws Exception {
+        new MinMaxDecimator(4).append(new float[3], 2, 2);
+    }
+
+    private static void assertColumns(MinMaxDecimator decimator, float[] data, int count) {
+        int perColumn = decimator.getSamplesPerColumn();
+        assertEquals((count + perColumn - 1) / perColumn, decimator.getColumnCount());
+        for (int c = 0; c < decimator.getColumnCount(); c++) {
+            float min = Float.POSITIVE_INFINITY;
+            float max = Float.NEGATIVE_INFINITY;
+            for (int i = c * perColumn; i < Math.min(count, (c + 1) * perColumn); i++) {
+                min = Math.min(min, data[i]);
+                max = Math.max(max, data[i]);
+            }
+            assertEquals("column " + c, min, decimator.getMin(c), 0);
+            assertEquals("column " + c, max, decimator.getMax(c), 0);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.meitu.myslider.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class MoveCoalescerTest {
+
+    @Test
+    public void keepsLatestSampleWithoutSmoothing() throws Exception {
+        MoveCoalescer coalescer = new MoveCoalescer();
+        coalescer.reset(0, 0);
+        assertFalse(coalescer.hasPending());
+        coalescer.add(10, 1);
+        coalescer.add(20, 2);
+        coalescer.add(30, 3);
+        assertTrue(coalescer.hasPending());
+        assertEquals(3, coalescer.getPendingSamples());
+        assertEquals(30f, coalescer.getX(), 0);
+        assertEquals(3f, coalescer.getY(), 0);
+        coalescer.consume();
+        assertFalse(coalescer.hasPending());
+        assertEquals(0, coalescer.getPendingSamples());
+    }
+
+    @Test
+    public void smoothsAcrossSamplesAndFrames() throws Exception {
+        MoveCoalescer coalescer = new MoveCoalescer();
+        coalescer.setSmoothing(0.5f);
+        coalescer.reset(0, 0);
+        coalescer.add(100, 0);
+        coalescer.add(100, 0);
+        assertEquals(75f, coalescer.getX(), 1e-4f);
+        coalescer.consume();
+        coalescer.add(100, 0);
+        assertEquals(87.5f, coalescer.getX(), 1e-4f);
+    }
+
+    @Test
+    public void resetDropsPendingSamples() throws Exception {
+        MoveCoalescer coalescer = new MoveCoalescer();
+        coalescer.add(10, 10);
+        coalescer.reset(5, 5);
+        assertFalse(coalescer.hasPending());
+        assertEquals(5f, coalescer.getX(), 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsFullSmoothing() throws Exception {
+        new MoveCoalescer().setSmoothing(1f);
+    }
+}
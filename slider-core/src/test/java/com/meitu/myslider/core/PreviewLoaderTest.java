@@ -0,0 +1,129 @@
+package com.meitu.myslider.core;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static org.junit.Assert.*;
+
+/**
+ * 后台和主线程都用手动执行的队列模拟
+ */
+public class PreviewLoaderTest {
+
+    private final List<Runnable> background = new ArrayList<>();
+
+    private final List<Runnable> main = new ArrayList<>();
+
+    private final List<Integer> loaded = new ArrayList<>();
+
+    private final List<Integer> delivered = new ArrayList<>();
+
+    private IndexLruCache<String> cache;
+
+    private PreviewLoader<String> loader;
+
+    @Before
+    public void setUp() throws Exception {
+        cache = new IndexLruCache<String>(100) {
+            @Override
+            protected int sizeOf(String value) {
+                return 1;
+            }
+        };
+        loader = new PreviewLoader<>(new PreviewLoader.Source<String>() {
+            @Override
+            public String load(int index) {
+                loaded.add(index);
+                return "frame" + index;
+            }
+        }, cache, queue(background), queue(main), new PreviewLoader.Listener<String>() {
+            @Override
+            public void onPreviewLoaded(int index, String value) {
+                delivered.add(index);
+            }
+        });
+    }
+
+    private static Executor queue(final List<Runnable> tasks) {
+        return new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                tasks.add(command);
+            }
+        };
+    }
+
+    private static void runAll(List<Runnable> tasks) {
+        while (!tasks.isEmpty()) {
+            tasks.remove(0).run();
+        }
+    }
+
+    @Test
+    public void firstRequest_loadsWithoutPrefetch() throws Exception {
+        assertNull(loader.request(5, 10));
+        assertEquals(1, loader.getInFlightCount());
+        runAll(background);
+        assertTrue(delivered.isEmpty());
+        runAll(main);
+        assertEquals("[5]", delivered.toString());
+        assertEquals("frame5", loader.request(5, 10));
+    }
+
+    @Test
+    public void prefetch_followsDirection() throws Exception {
+        loader.request(5, 10);
+        loader.request(4, 10);
+        assertEquals(-1, loader.getDirection());
+        // 5 已经被甩在后面，取消
+        assertFalse(loader.isInFlight(5));
+        assertTrue(loader.isInFlight(4));
+        assertTrue(loader.isInFlight(3));
+        assertTrue(loader.isInFlight(2));
+        assertFalse(loader.isInFlight(1));
+        runAll(background);
+        assertEquals("[4, 3, 2]", loaded.toString());
+    }
+
+    @Test
+    public void prefetch_stopsAtEnds() throws Exception {
+        loader.request(8, 9);
+        loader.request(9, 9);
+        assertEquals(1, loader.getInFlightCount());
+    }
+
+    @Test
+    public void staleResult_cachedButNotDelivered() throws Exception {
+        loader.setPrefetchCount(0);
+        loader.request(1, 10);
+        // 加载已经开始
+        background.remove(0).run();
+        loader.request(2, 10);
+        runAll(background);
+        runAll(main);
+        assertEquals("[2]", delivered.toString());
+        assertEquals("frame1", cache.get(1));
+    }
+
+    @Test
+    public void cachedIndex_notLoadedAgain() throws Exception {
+        cache.put(3, "cached3");
+        assertEquals("cached3", loader.request(3, 10));
+        assertEquals(0, loader.getInFlightCount());
+    }
+
+    @Test
+    public void stop_cancelsPending() throws Exception {
+        loader.request(0, 10);
+        loader.request(1, 10);
+        loader.stop();
+        runAll(background);
+        assertTrue(loaded.isEmpty());
+        assertEquals(0, loader.getDirection());
+        assertEquals(-1, loader.getCurrentIndex());
+    }
+}
@@ -0,0 +1,133 @@
+package com.meitu.myslider.core;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static org.junit.Assert.*;
+
+public class SlideDispatcherTest {
+
+    private static final long MS = 1000000L;
+
+    private final List<Float> fractions = new ArrayList<>();
+    private final List<Integer> indices = new ArrayList<>();
+
+    private final SlideDispatcher.Receiver recorder = new SlideDispatcher.Receiver() {
+        @Override
+        public void onValue(float fraction, int index) {
+            fractions.add(fraction);
+            indices.add(index);
+        }
+    };
+
+    @Test
+    public void everyFrame_deliversEachPublish() throws Exception {
+        SlideDispatcher dispatcher = new SlideDispatcher(recorder);
+        dispatcher.publish(0.1f, 0, 0);
+        dispatcher.publish(0.2f, 1, 16 * MS);
+        dispatcher.publish(0.2f, 1, 32 * MS);
+        assertEquals(3, fractions.size());
+    }
+
+    @Test
+    public void maxRate_throttlesAndFlushesLastValue() throws Exception {
+        SlideDispatcher dispatcher = new SlideDispatcher(recorder);
+        dispatcher.setMode(SlideDispatcher.MODE_MAX_RATE, 20);
+        dispatcher.publish(0.1f, 0, 0);
+        dispatcher.publish(0.2f, 1, 16 * MS);
+        dispatcher.publish(0.3f, 1, 32 * MS);
+        assertEquals(1, fractions.size());
+        assertTrue(dispatcher.hasThrottled());
+        assertTrue(dispatcher.flushThrottled(40 * MS));
+        assertFalse(dispatcher.flushThrottled(50 * MS));
+        assertEquals(2, fractions.size());
+        assertEquals(0.3f, fractions.get(1), 0);
+        dispatcher.publish(0.4f, 2, 60 * MS);
+        assertEquals(2, fractions.size());
+        dispatcher.publish(0.5f, 2, 100 * MS);
+        assertEquals(3, fractions.size());
+    }
+
+    @Test
+    public void indexChange_skipsSameIndex() throws Exception {
+        SlideDispatcher dispatcher = new SlideDispatcher(recorder);
+        dispatcher.setMode(SlideDispatcher.MODE_INDEX_CHANGE, 0);
+        dispatcher.publish(0.1f, 0, 0);
+        dispatcher.publish(0.12f, 0, MS);
+        dispatcher.publish(0.3f, 1, 2 * MS);
+        dispatcher.publish(0.31f, 1, 3 * MS);
+        dispatcher.publish(0.1f, 0, 4 * MS);
+        assertEquals(3, indices.size());
+        assertEquals(Integer.valueOf(0), indices.get(2));
+    }
+
+    @Test
+    public void executor_coalescesWhileConsumerIsBusy() throws Exception {
+        final List<Runnable> queue = new ArrayList<>();
+        Executor executor = new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                queue.add(command);
+            }
+        };
+        SlideDispatcher dispatcher = new SlideDispatcher(recorder);
+        dispatcher.setExecutor(executor);
+        for (int i = 0; i <= 100; i++) {
+            dispatcher.publish(i / 100f, i, i * MS);
+        }
+        // 只排队了一个任务，执行时只拿到最新的值
+        assertEquals(1, queue.size());
+        queue.remove(0).run();
+        assertEquals(1, fractions.size());
+        assertEquals(1f, fractions.get(0), 0);
+        assertEquals(Integer.valueOf(100), indices.get(0));
+
+        dispatcher.publish(0f, 0, 200 * MS);
+        assertEquals(1, queue.size());
+        queue.remove(0).run();
+        assertEquals(0f, fractions.get(1), 0);
+        assertEquals(Integer.valueOf(0), indices.get(1));
+    }
+
+    @Test
+    public void executor_keepsDeliveringAfterReceiverThrows() throws Exception {
+        final List<Runnable> queue = new ArrayList<>();
+        Executor executor = new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                queue.add(command);
+            }
+        };
+        SlideDispatcher dispatcher = new SlideDispatcher(new SlideDispatcher.Receiver() {
+            @Override
+            public void onValue(float fraction, int index) {
+                if (index == 0) {
+                    throw new IllegalStateException("boom");
+                }
+                recorder.onValue(fraction, index);
+            }
+        });
+        dispatcher.setExecutor(executor);
+        dispatcher.publish(0f, 0, 0);
+        try {
+            queue.remove(0).run();
+            fail();
+        } catch (IllegalStateException expected) {
+        }
+
+        dispatcher.publish(0.5f, 1, 16 * MS);
+        assertEquals(1, queue.size());
+        queue.remove(0).run();
+        assertEquals(Integer.valueOf(1), indices.get(0));
+    }
+
+    @Test
+    public void packRoundTrip() throws Exception {
+        long packed = SlideDispatcher.pack(0.75f, 123456);
+        assertEquals(0.75f, SlideDispatcher.unpackFraction(packed), 0);
+        assertEquals(123456, SlideDispatcher.unpackIndex(packed));
+    }
+}
@@ -0,0 +1,24 @@
+package com.meitu.myslider.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * 颜色拆分和单次绘制是否精确的判断。两种绘制方式的像素比较在 app 的 MySliderViewPixelTest（JVM）
+ * 和 MySliderViewRenderModeTest（设备上，包括抗锯齿边缘）里，用的都是真实的控件。
+ */
+public class SliderColorsTest {
+
+    @Test
+    public void colorHelpers() throws Exception {
+        assertEquals(0xA0, SliderColors.alpha(0xA0DDDDDD));
+        assertEquals(0xFFDDDDDD, SliderColors.noAlpha(0xA0DDDDDD));
+        assertEquals(0xA0000000, SliderColors.onlyAlpha(0xA0DDDDDD));
+        assertTrue(SliderColors.hasAlpha(0xA0DDDDDD));
+        assertFalse(SliderColors.hasAlpha(0xFFDDDDDD));
+        assertTrue(new SliderColors(0xA0DDDDDD, 0xFFD4237A).isSinglePassExact());
+        assertTrue(new SliderColors(0xFFDDDDDD, 0x80D4237A).isSinglePassExact());
+        assertFalse(new SliderColors(0xA0DDDDDD, 0x80D4237A).isSinglePassExact());
+    }
+}
@@ -0,0 +1,59 @@
+package com.meitu.myslider.core;
+
+import org.junit.Test;
+
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class SliderMetricsTest {
+
+    @Test
+    public void overBudget_countsWorkSinceLastDraw() throws Exception {
+        SliderMetrics metrics = new SliderMetrics(0);
+        metrics.setFrameBudgetNanos(10);
+        metrics.record(SliderMetrics.PHASE_TOUCH, 4);
+        metrics.record(SliderMetrics.PHASE_DRAW, 5);
+        metrics.record(SliderMetrics.PHASE_TOUCH, 4);
+        metrics.record(SliderMetrics.PHASE_TOUCH, 4);
+        metrics.record(SliderMetrics.PHASE_DRAW, 5);
+        // 回调和嵌套的布局不算进帧的工作量
+        metrics.record(SliderMetrics.PHASE_CALLBACK, 100);
+        metrics.record(SliderMetrics.PHASE_LAYOUT, 100);
+        metrics.record(SliderMetrics.PHASE_DRAW, 5);
+        SliderMetrics.Snapshot snapshot = metrics.snapshot(1);
+        assertEquals(3, snapshot.getFrames());
+        assertEquals(1, snapshot.getOverBudgetFrames());
+        assertEquals(3, snapshot.getCount(SliderMetrics.PHASE_TOUCH));
+        assertEquals(100, snapshot.getMaxNanos(SliderMetrics.PHASE_CALLBACK));
+    }
+
+    @Test
+    public void invalidatesPerSecond() throws Exception {
+        SliderMetrics metrics = new SliderMetrics(1_000_000_000L);
+        for (int i = 0; i < 120; i++) {
+            metrics.countInvalidate();
+        }
+        metrics.countRequestLayout();
+        SliderMetrics.Snapshot snapshot = metrics.snapshot(3_000_000_000L);
+        assertEquals(60.0, snapshot.getInvalidatesPerSecond(), 1e-9);
+        assertEquals(1, snapshot.getRequestLayouts());
+        metrics.reset(3_000_000_000L);
+        assertEquals(0, metrics.snapshot(4_000_000_000L).getInvalidates());
+        assertEquals(0, metrics.snapshot(4_000_000_000L).getRequestLayouts());
+    }
+
+    @Test
+    public void snapshot_isDetachedAndExportable() throws Exception {
+        SliderMetrics metrics = new SliderMetrics(0);
+        metrics.record(SliderMetrics.PHASE_DRAW, 2000);
+        SliderMetrics.Snapshot snapshot = metrics.snapshot(10);
+        metrics.record(SliderMetrics.PHASE_DRAW, 4000);
+        assertEquals(1, snapshot.getCount(SliderMetrics.PHASE_DRAW));
+        Map<String, Number> map = snapshot.toMap();
+        assertEquals(1L, map.get("draw.count"));
+        assertEquals(2000L, map.get("draw.maxNanos"));
+        assertTrue(map.containsKey("invalidates.perSecond"));
+        assertTrue(snapshot.toString().startsWith("SliderMetrics{"));
+    }
+}
@@ -0,0 +1,239 @@
+package com.meitu.myslider.core;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class SlotLayoutTest {
+
+    @Test
+    public void parse_buildsWeightsAndPrefixSums() throws Exception {
+        IntervalModel model = IntervalModel.parse("0.1, 0.2,0.4");
+        assertEquals(4, model.getSlotCount());
+        assertEquals(3, model.getIntervalCount());
+        assertEquals(0f, model.getPrefixSum(0), 1e-6f);
+        assertEquals(0.1f, model.getPrefixSum(1), 1e-6f);
+        assertEquals(0.3f, model.getPrefixSum(2), 1e-6f);
+        assertEquals(0.7f, model.getTotal(), 1e-6f);
+        assertNull(IntervalModel.parse(null));
+        assertNull(IntervalModel.parse(""));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void parse_rejectsGarbage() throws Exception {
+        IntervalModel.parse("0.1,abc");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void parse_rejectsNegative() throws Exception {
+        IntervalModel.parse("0.1,-0.2");
+    }
+
+    @Test
+    public void layout_uniform() throws Exception {
+        SlotLayout layout = new SlotLayout();
+        assertTrue(layout.layout(5, null, 10, 500, 12));
+        assertEquals(5, layout.getCount());
+        assertArrayEquals(new float[]{60, 160, 260, 360, 460}, copy(layout), 0);
+    }
+
+    @Test
+    public void layout_intervalsAreCentered() throws Exception {
+        SlotLayout layout = new SlotLayout();
+        IntervalModel model = IntervalModel.parse("0.1,0.2,0.4");
+        assertTrue(layout.layout(5, model, 0, 1020, 10));
+        // 可用宽度 1000，间隔总长 700，左右各留 150 + 半径
+        assertEquals(4, layout.getCount());
+        assertArrayEquals(new float[]{160, 260, 460, 860}, copy(layout), 0);
+    }
+
+    @Test
+    public void layout_skipsWhenInputsUnchanged() throws Exception {
+        SlotLayout layout = new SlotLayout();
+        IntervalModel model = IntervalModel.parse("0.5,0.5");
+        assertTrue(layout.layout(3, model, 0, 100, 5));
+        float[] positions = layout.getPositions();
+        assertFalse(layout.layout(3, model, 0, 100, 5));
+        assertSame(positions, layout.getPositions());
+        assertTrue(layout.layout(3, model, 0, 200, 5));
+        assertTrue(layout.layout(3, model, 0, 200, 6));
+        assertTrue(layout.layout(3, model, 4, 200, 6));
+        layout.invalidate();
+        assertTrue(layout.layout(3, model, 4, 200, 6));
+    }
+
+    @Test
+    public void layout_reusesArrayWhenCountShrinks() throws Exception {
+        SlotLayout layout = new SlotLayout();
+        layout.layout(10, null, 0, 1000, 0);
+        float[] positions = layout.getPositions();
+        layout.layout(4, null, 0, 1000, 0);
+        assertSame(positions, layout.getPositions());
+        assertEquals(4, layout.getCount());
+        assertEquals(875f, layout.getLast(), 0);
+    }
+
+    @Test
+    public void nearestIndex_matchesLinearScan() throws Exception {
+        Random random = new Random(42);
+        SlotLayout uniform = new SlotLayout();
+        uniform.layout(37, null, 5, 1000, 10);
+        SlotLayout weighted = new SlotLayout();
+        weighted.layout(0, IntervalModel.parse("0.1,0.05,0,0.2,0.3,0.01,0.1"), 5, 1000, 10);
+        for (SlotLayout layout : new SlotLayout[]{uniform, weighted}) {
+            for (int i = 0; i < 10000; i++) {
+                float x = random.nextFloat() * 1100 - 50;
+                assertEquals("x=" + x, linearNearest(layout, x), layout.nearestIndex(x));
+                assertEquals("x=" + x, linearCount(layout, x), layout.countAtOrBefore(x));
+            }
+            for (int i = 0; i < layout.getCount(); i++) {
+                float x = layout.getPosition(i);
+                assertEquals(linearNearest(layout, x), layout.nearestIndex(x));
+                assertEquals(linearCount(layout, x), layout.countAtOrBefore(x));
+            }
+        }
+    }
+
+    @Test
+    public void moreSlotsThanPixels_spreadAcrossWidth() throws Exception {
+        for (int count : new int[]{1500, 100000}) {
+            SlotLayout layout = new SlotLayout();
+            layout.layout(count, null, 0, 1080, 0);
+            assertTrue(layout.getFirst() < 1);
+            assertTrue(layout.getLast() > 1079);
+            // 中间的位置能选中中间的节点
+            int middle = layout.nearestIndex(540);
+            assertTrue("count=" + count + " middle=" + middle, Math.abs(middle - count / 2) <= count / 1080 + 1);
+            assertTrue(layout.nearestIndex(1) > 0);
+            assertTrue(layout.nearestIndex(1079) < count - 1);
+            Random random = new Random(count);
+            for (int i = 0; i < 1000; i++) {
+                float x = random.nextFloat() * 1100 - 10;
+                assertEquals("x=" + x, linearNearest(layout, x), layout.nearestIndex(x));
+                assertEquals("x=" + x, linearCount(layout, x), layout.countAtOrBefore(x));
+            }
+        }
+    }
+
+    @Test
+    public void subPixel_keepsFractionalPositions() throws Exception {
+        SlotLayout layout = new SlotLayout();
+        layout.setSubPixel(true);
+        assertTrue(layout.layout(3, null, 0, 1000, 0));
+        float spacing = 1000 / 3f;
+        assertArrayEquals(new float[]{spacing / 2, spacing * 1.5f, spacing * 2.5f}, copy(layout), 1e-3f);
+        Random random = new Random(7);
+        for (int i = 0; i < 1000; i++) {
+            float x = random.nextFloat() * 1100 - 50;
+            assertEquals("x=" + x, linearNearest(layout, x), layout.nearestIndex(x));
+        }
+        // 切换模式后重新布局
+        layout.setSubPixel(false);
+        assertTrue(layout.layout(3, null, 0, 1000, 0));
+        assertEquals(166f, layout.getFirst(), 0);
+    }
+
+    @Test
+    public void clamp() throws Exception {
+        SlotLayout layout = new SlotLayout();
+        layout.layout(5, null, 0, 500, 0);
+        assertEquals(50f, layout.clamp(-3), 0);
+        assertEquals(450f, layout.clamp(1000), 0);
+        assertEquals(123.5f, layout.clamp(123.5f), 0);
+    }
+
+    @Test
+    public void drawIndices_boundedByWidth() throws Exception {
+        SlotLayout layout = new SlotLayout();
+        layout.setMinDrawSpacing(4);
+        layout.layout(100000, null, 0, 100000, 0);
+        int n = layout.getDrawCount();
+        int[] indices = layout.getDrawIndices();
+        assertTrue("drawCount=" + n, n <= 100000 / 4 + 2);
+        assertEquals(0, indices[0]);
+        assertEquals(99999, indices[n - 1]);
+        for (int i = 1; i < n - 1; i++) {
+            assertTrue(layout.getPosition(indices[i]) - layout.getPosition(indices[i - 1]) >= 4);
+        }
+
+        layout.layout(100000, null, 0, 1000, 0);
+        assertTrue(layout.getDrawCount() <= 1000 / 4 + 2);
+    }
+
+    @Test
+    public void drawIndices_allSlotsWhenSparse() throws Exception {
+        SlotLayout layout = new SlotLayout();
+        layout.setMinDrawSpacing(1);
+        layout.layout(5, null, 0, 500, 0);
+        assertEquals(5, layout.getDrawCount());
+        assertEquals(3, layout.drawCountAtOrBefore(260));
+        layout.setMinDrawSpacing(150);
+        // 50, 250, 450 之后最后一个节点 450 已经包含
+        assertEquals(3, layout.getDrawCount());
+        assertEquals(4, layout.getDrawIndices()[2]);
+        layout.setMinDrawSpacing(0);
+        assertEquals(5, layout.getDrawCount());
+    }
+
+    @Test
+    public void drawIndices_lastSlotReplacesCloseNeighbour() throws Exception {
+        SlotLayout layout = new SlotLayout();
+        layout.setMinDrawSpacing(30);
+        layout.layout(0, IntervalModel.of(0.5f, 0.4f, 0.1f), 0, 100, 0);
+        // 0, 50, 90, 100：90 和 100 只差 10，100 替换 90
+        int[] indices = layout.getDrawIndices();
+        assertEquals(3, layout.getDrawCount());
+        assertEquals(0, indices[0]);
+        assertEquals(1, indices[1]);
+        assertEquals(3, indices[2]);
+        // 吸附不受影响
+        assertEquals(2, layout.nearestIndex(88));
+    }
+
+    @Test
+    public void drawIndices_spacingBelowFloatPrecision() throws Exception {
+        SlotLayout layout = new SlotLayout();
+        layout.setMinDrawSpacing(1e-5f);
+        layout.layout(10, null, 0, 1000, 0);
+        // 从 350 开始加 1e-5 会舍入回原来的位置，每个节点都要画
+        assertEquals(10, layout.getDrawCount());
+        int[] indices = layout.getDrawIndices();
+        for (int i = 0; i < 10; i++) {
+            assertEquals(i, indices[i]);
+        }
+    }
+
+    /**
+     * 原来 updateCurrentIndex 的线性查找
+     */
+    private static int linearNearest(SlotLayout layout, float x) {
+        float min = Float.MAX_VALUE;
+        int j = 0;
+        for (int i = 0; i < layout.getCount(); ++i) {
+            float dx = Math.abs(x - layout.getPosition(i));
+            if (dx < min) {
+                min = dx;
+                j = i;
+            }
+        }
+        return j;
+    }
+
+    private static int linearCount(SlotLayout layout, float x) {
+        int n = 0;
+        for (int i = 0; i < layout.getCount(); ++i) {
+            if (layout.getPosition(i) <= x) {
+                n++;
+            }
+        }
+        return n;
+    }
+
+    private static float[] copy(SlotLayout layout) {
+        float[] result = new float[layout.getCount()];
+        System.arraycopy(layout.getPositions(), 0, result, 0, result.length);
+        return result;
+    }
+}
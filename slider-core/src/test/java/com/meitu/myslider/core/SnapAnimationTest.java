@@ -0,0 +1,72 @@
+package com.meitu.myslider.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class SnapAnimationTest {
+
+    private static final long FRAME = 16666667L;
+
+    @Test
+    public void springTo_settlesOnTargetWithoutOvershoot() throws Exception {
+        SnapAnimation animation = new SnapAnimation();
+        animation.setMaxDurationNanos(10L * 1000000000L);
+        animation.springTo(100, 300, 0, 0);
+        long now = 0;
+        float last = 100;
+        while (animation.step(now += FRAME)) {
+            float position = animation.getPosition();
+            assertTrue("position=" + position, position >= last && position <= 300);
+            last = position;
+        }
+        assertFalse(animation.isRunning());
+        assertEquals(300f, animation.getPosition(), 0);
+        assertEquals(0f, animation.getVelocity(), 0);
+    }
+
+    @Test
+    public void step_stopsAtMaxDuration() throws Exception {
+        SnapAnimation animation = new SnapAnimation();
+        animation.setStiffness(1);
+        animation.springTo(0, 1000, 0, 0);
+        assertTrue(animation.step(SnapAnimation.DEFAULT_MAX_DURATION_NANOS - 1));
+        assertFalse(animation.step(SnapAnimation.DEFAULT_MAX_DURATION_NANOS));
+        assertEquals(1000f, animation.getPosition(), 0);
+    }
+
+    @Test
+    public void cancel_keepsCurrentPosition() throws Exception {
+        SnapAnimation animation = new SnapAnimation();
+        animation.springTo(0, 100, 0, 0);
+        animation.step(3 * FRAME);
+        float position = animation.getPosition();
+        assertTrue(position > 0 && position < 100);
+        animation.cancel();
+        assertFalse(animation.isRunning());
+        assertFalse(animation.step(4 * FRAME));
+        assertEquals(position, animation.getPosition(), 0);
+    }
+
+    @Test
+    public void springTo_interruptsRunningAnimation() throws Exception {
+        SnapAnimation animation = new SnapAnimation();
+        animation.springTo(0, 100, 0, 0);
+        animation.step(2 * FRAME);
+        float position = animation.getPosition();
+        animation.springTo(position, -50, animation.getVelocity(), 2 * FRAME);
+        assertEquals(-50f, animation.getTarget(), 0);
+        // 带着原来的速度继续向右运动一小段再折返
+        animation.step(2 * FRAME + 1000000L);
+        assertTrue(animation.getPosition() > position);
+    }
+
+    @Test
+    public void fling_keepsReleaseVelocity() throws Exception {
+        SnapAnimation animation = new SnapAnimation();
+        assertEquals(100f + 2000f / SnapAnimation.DEFAULT_FRICTION, animation.predictFlingEnd(100, 2000), 1e-3f);
+        animation.springTo(100, 300, 2000, 0);
+        animation.step(1000000L);
+        assertEquals(2000f, animation.getVelocity(), 200f);
+    }
+}
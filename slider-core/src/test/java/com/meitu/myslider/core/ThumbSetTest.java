@@ -0,0 +1,98 @@
+package com.meitu.myslider.core;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class ThumbSetTest {
+
+    @Test
+    public void setCount_spreadsThumbsOverSlots() throws Exception {
+        ThumbSet thumbs = new ThumbSet();
+        thumbs.setCount(1, 5);
+        assertEquals(0, thumbs.getIndex(0));
+        thumbs.setCount(2, 5);
+        assertEquals(0, thumbs.getIndex(0));
+        assertEquals(4, thumbs.getIndex(1));
+        thumbs.setCount(3, 5);
+        assertEquals(2, thumbs.getIndex(1));
+        assertEquals(ThumbSet.NO_POINTER, thumbs.getPointer(2));
+    }
+
+    @Test
+    public void nearest_matchesLinearScan() throws Exception {
+        Random random = new Random(7);
+        ThumbSet thumbs = new ThumbSet();
+        thumbs.setCount(9, 100);
+        float x = 0;
+        for (int i = 0; i < 9; i++) {
+            x += random.nextInt(3) == 0 ? 0 : random.nextFloat() * 100;
+            thumbs.setPosition(i, x);
+        }
+        for (int i = 0; i < 10000; i++) {
+            float touch = random.nextFloat() * (x + 100) - 50;
+            float expected = Math.abs(touch - thumbs.getPosition(linearNearest(thumbs, touch)));
+            float actual = Math.abs(touch - thumbs.getPosition(thumbs.nearest(touch)));
+            assertEquals("x=" + touch, expected, actual, 0);
+        }
+    }
+
+    @Test
+    public void nearest_overlappingThumbsPickOuterSide() throws Exception {
+        ThumbSet thumbs = new ThumbSet();
+        thumbs.setCount(4, 10);
+        thumbs.setPosition(0, 0);
+        thumbs.setPosition(1, 50);
+        thumbs.setPosition(2, 50);
+        thumbs.setPosition(3, 100);
+        assertEquals(1, thumbs.nearest(45));
+        assertEquals(2, thumbs.nearest(55));
+        assertEquals(1, thumbs.nearest(50));
+        assertEquals(0, thumbs.nearest(25));
+        assertEquals(3, thumbs.nearest(200));
+    }
+
+    @Test
+    public void resolve_handsPointerToThumbInDragDirection() throws Exception {
+        ThumbSet thumbs = new ThumbSet();
+        thumbs.setCount(2, 10);
+        thumbs.setPosition(0, 50);
+        thumbs.setPosition(1, 50);
+        thumbs.grab(0, 7);
+        assertEquals(0, thumbs.resolve(0, 0));
+        assertEquals(1, thumbs.resolve(0, 3));
+        assertEquals(1, thumbs.thumbForPointer(7));
+        assertFalse(thumbs.isGrabbed(0));
+        // 决定之后不再换滑块
+        assertEquals(1, thumbs.resolve(1, -3));
+    }
+
+    @Test
+    public void clamp_keepsThumbsOrdered() throws Exception {
+        ThumbSet thumbs = new ThumbSet();
+        thumbs.setCount(3, 10);
+        thumbs.moveToSlots(new float[]{0, 10, 20, 30, 40, 50, 60, 70, 80, 90});
+        assertEquals(90f, thumbs.clampPosition(1, 200), 0);
+        assertEquals(0f, thumbs.clampPosition(1, -5), 0);
+        assertEquals(9, thumbs.clampIndex(1, 9));
+        assertEquals(5, thumbs.clampIndex(0, 8));
+        thumbs.clampIndices(4);
+        assertEquals(3, thumbs.getIndex(1));
+        assertEquals(3, thumbs.getIndex(2));
+    }
+
+    private static int linearNearest(ThumbSet thumbs, float x) {
+        float min = Float.MAX_VALUE;
+        int j = 0;
+        for (int i = 0; i < thumbs.getCount(); ++i) {
+            float dx = Math.abs(x - thumbs.getPosition(i));
+            if (dx < min) {
+                min = dx;
+                j = i;
+            }
+        }
+        return j;
+    }
+}
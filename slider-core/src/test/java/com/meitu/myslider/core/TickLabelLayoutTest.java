@@ -0,0 +1,111 @@
+package com.meitu.myslider.core;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class TickLabelLayoutTest {
+
+    private static float[] uniform(int count, float spacing) {
+        float[] positions = new float[count];
+        for (int i = 0; i < count; i++) {
+            positions[i] = i * spacing;
+        }
+        return positions;
+    }
+
+    private static float[] widths(int count, float width) {
+        float[] widths = new float[count];
+        Arrays.fill(widths, width);
+        return widths;
+    }
+
+    private static int[] visible(TickLabelLayout layout) {
+        return Arrays.copyOf(layout.getVisibleIndices(), layout.getVisibleCount());
+    }
+
+    @Test
+    public void allFit() throws Exception {
+        TickLabelLayout layout = new TickLabelLayout();
+        layout.setWidths(widths(5, 20), 5);
+        layout.layout(uniform(5, 30), 5, 4);
+        assertEquals(1, layout.getStride());
+        assertArrayEquals(new int[]{0, 1, 2, 3, 4}, visible(layout));
+    }
+
+    @Test
+    public void thinsByPowerOfTwoLevels() throws Exception {
+        TickLabelLayout layout = new TickLabelLayout();
+        layout.setWidths(widths(9, 40), 9);
+        // 间距 30 放不下 40 宽的文字，每 2 个一个正好 60
+        layout.layout(uniform(9, 30), 9, 4);
+        assertEquals(2, layout.getStride());
+        assertArrayEquals(new int[]{0, 2, 4, 6, 8}, visible(layout));
+    }
+
+    @Test
+    public void lastReplacesCloseNeighbour() throws Exception {
+        TickLabelLayout layout = new TickLabelLayout();
+        layout.setWidths(widths(6, 40), 6);
+        layout.layout(uniform(6, 30), 6, 4);
+        // 每 2 个一个是 0,2,4，最后一个 5 和 4 重叠，替换掉 4
+        assertEquals(2, layout.getStride());
+        assertArrayEquals(new int[]{0, 2, 5}, visible(layout));
+    }
+
+    @Test
+    public void wideLabelBlocksLevel() throws Exception {
+        float[] widths = widths(5, 10);
+        widths[2] = 300;
+        TickLabelLayout layout = new TickLabelLayout();
+        layout.setWidths(widths, 5);
+        layout.layout(uniform(5, 50), 5, 0);
+        // 2 太宽，每 2 个一个时和 0、4 都重叠
+        assertEquals(4, layout.getStride());
+        assertArrayEquals(new int[]{0, 4}, visible(layout));
+    }
+
+    @Test
+    public void onlyFirstWhenEndsCollide() throws Exception {
+        TickLabelLayout layout = new TickLabelLayout();
+        layout.setWidths(widths(3, 50), 3);
+        layout.layout(uniform(3, 10), 3, 0);
+        assertArrayEquals(new int[]{0}, visible(layout));
+    }
+
+    @Test
+    public void moreLabelsThanSlots() throws Exception {
+        TickLabelLayout layout = new TickLabelLayout();
+        layout.setWidths(widths(10, 5), 10);
+        layout.layout(uniform(10, 30), 3, 0);
+        assertArrayEquals(new int[]{0, 1, 2}, visible(layout));
+    }
+
+    @Test
+    public void visibleLabelsNeverOverlap() throws Exception {
+        java.util.Random random = new java.util.Random(17);
+        for (int round = 0; round < 200; round++) {
+            int count = 2 + random.nextInt(60);
+            float[] widths = new float[count];
+            float[] positions = new float[count];
+            float x = 0;
+            for (int i = 0; i < count; i++) {
+                widths[i] = 5 + random.nextFloat() * 40;
+                positions[i] = x;
+                x += 5 + random.nextFloat() * 40;
+            }
+            TickLabelLayout layout = new TickLabelLayout();
+            layout.setWidths(widths, count);
+            layout.layout(positions, count, 2);
+            int[] visible = visible(layout);
+            assertEquals(0, visible[0]);
+            for (int k = 1; k < visible.length; k++) {
+                int a = visible[k - 1];
+                int b = visible[k];
+                assertTrue("round " + round, positions[b] - widths[b] / 2 - (positions[a] + widths[a] / 2) >= 2);
+            }
+        }
+    }
+}
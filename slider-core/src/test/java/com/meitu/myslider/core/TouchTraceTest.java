@@ -0,0 +1,131 @@
+package com.meitu.myslider.core;
+
+import org.junit.Test;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+
+import static org.junit.Assert.*;
+
+public class TouchTraceTest {
+
+    private static final long MS = 1000000L;
+
+    @Test
+    public void groupsSamplesIntoEvents() throws Exception {
+        TouchTrace trace = new TouchTrace();
+        trace.beginEvent();
+        trace.add(TouchTrace.ACTION_DOWN, 0, 5000 * MS, 10, 20, false);
+        trace.beginEvent();
+        trace.add(TouchTrace.ACTION_MOVE, 0, 5008 * MS, 12, 20, true);
+        trace.add(TouchTrace.ACTION_MOVE, 0, 5016 * MS, 14, 20, false);
+        // 空事件不计数
+        trace.beginEvent();
+        assertEquals(2, trace.getEventCount());
+        trace.beginEvent();
+        trace.add(TouchTrace.ACTION_UP, 0, 5020 * MS, 15, 20, false);
+
+        assertEquals(3, trace.getEventCount());
+        assertEquals(4, trace.size());
+        assertEquals(1, trace.getEventStart(1));
+        assertEquals(3, trace.getEventEnd(1));
+        assertEquals(0, trace.getTimeNanos(0));
+        assertEquals(16 * MS, trace.getEventTimeNanos(1));
+        assertTrue(trace.isHistorical(1));
+        assertEquals(2, trace.getEvent(3));
+    }
+
+    @Test
+    public void writeAndReadBack() throws Exception {
+        TouchTrace trace = new TouchTrace();
+        trace.setViewSize(1000, 100);
+        trace.beginEvent();
+        trace.add(TouchTrace.ACTION_DOWN, 0, 0, 10.5f, 20, false);
+        trace.beginEvent();
+        trace.add(TouchTrace.ACTION_MOVE, 0, 8 * MS, 12.25f, 20, true);
+        trace.add(TouchTrace.ACTION_MOVE, 0, 16 * MS, 14, 21, false);
+        trace.beginEvent();
+        trace.add(TouchTrace.ACTION_POINTER_DOWN, 1, 20 * MS, 500, 50, false);
+        trace.beginEvent();
+        trace.add(TouchTrace.ACTION_CANCEL, 0, 30 * MS, 14, 21, false);
+
+        StringWriter out = new StringWriter();
+        trace.write(out);
+        TouchTrace read = TouchTrace.read(new StringReader("# comment\n\n" + out));
+
+        assertEquals(1000, read.getViewWidth());
+        assertEquals(100, read.getViewHeight());
+        assertEquals(trace.getEventCount(), read.getEventCount());
+        assertEquals(trace.size(), read.size());
+        for (int i = 0; i < trace.size(); i++) {
+            assertEquals(trace.getEvent(i), read.getEvent(i));
+            assertEquals(trace.getAction(i), read.getAction(i));
+            assertEquals(trace.getPointerId(i), read.getPointerId(i));
+            assertEquals(trace.getTimeNanos(i), read.getTimeNanos(i));
+            assertEquals(trace.getX(i), read.getX(i), 0.01f);
+            assertEquals(trace.getY(i), read.getY(i), 0.01f);
+            assertEquals(trace.isHistorical(i), read.isHistorical(i));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void read_rejectsUnknownAction() throws Exception {
+        TouchTrace.read(new StringReader("0 0 press 0 1 2\n"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void read_rejectsDecreasingEvents() throws Exception {
+        TouchTrace.read(new StringReader("1 0 down 0 1 2\n0 10 up 0 1 2\n"));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void add_requiresEvent() throws Exception {
+        new TouchTrace().add(TouchTrace.ACTION_DOWN, 0, 0, 0, 0, false);
+    }
+
+    @Test
+    public void velocity_constantSpeed() throws Exception {
+        TouchTrace trace = new TouchTrace();
+        trace.beginEvent();
+        trace.add(TouchTrace.ACTION_DOWN, 0, 0, 100, 0, false);
+        for (int i = 1; i <= 20; i++) {
+            trace.beginEvent();
+            trace.add(TouchTrace.ACTION_MOVE, 0, i * 8 * MS, 100 + i * 24, 0, false);
+        }
+        trace.beginEvent();
+        trace.add(TouchTrace.ACTION_UP, 0, 168 * MS, 100 + 21 * 24, 0, false);
+        // 24px / 8ms
+        assertEquals(3000f, trace.estimateVelocityX(trace.size() - 1), 1f);
+    }
+
+    @Test
+    public void velocity_zeroAfterPause() throws Exception {
+        TouchTrace trace = new TouchTrace();
+        trace.beginEvent();
+        trace.add(TouchTrace.ACTION_DOWN, 0, 0, 100, 0, false);
+        for (int i = 1; i <= 10; i++) {
+            trace.beginEvent();
+            trace.add(TouchTrace.ACTION_MOVE, 0, i * 8 * MS, 100 + i * 24, 0, false);
+        }
+        trace.beginEvent();
+        trace.add(TouchTrace.ACTION_UP, 0, 200 * MS, 340, 0, false);
+        assertEquals(0f, trace.estimateVelocityX(trace.size() - 1), 0f);
+    }
+
+    @Test
+    public void velocity_ignoresOtherPointers() throws Exception {
+        TouchTrace trace = new TouchTrace();
+        trace.beginEvent();
+        trace.add(TouchTrace.ACTION_DOWN, 0, 0, 100, 0, false);
+        trace.beginEvent();
+        trace.add(TouchTrace.ACTION_POINTER_DOWN, 1, 0, 800, 0, false);
+        for (int i = 1; i <= 5; i++) {
+            trace.beginEvent();
+            trace.add(TouchTrace.ACTION_MOVE, 0, i * 10 * MS, 100 + i * 10, 0, false);
+            trace.add(TouchTrace.ACTION_MOVE, 1, i * 10 * MS, 800 - i * 50, 0, false);
+        }
+        trace.beginEvent();
+        trace.add(TouchTrace.ACTION_POINTER_UP, 1, 60 * MS, 500, 0, false);
+        assertEquals(-5000f, trace.estimateVelocityX(trace.size() - 1), 1f);
+    }
+}
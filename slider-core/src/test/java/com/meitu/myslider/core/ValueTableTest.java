@@ -0,0 +1,96 @@
+package com.meitu.myslider.core;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class ValueTableTest {
+
+    @Test
+    public void log_matchesExactWithinRelativeError() throws Exception {
+        ValueScale scale = ValueScale.log(20, 20000);
+        ValueTable table = new ValueTable();
+        table.build(scale, 1080);
+        assertEquals(20f, table.toValue(0), 1e-4f);
+        assertEquals(20000f, table.toValue(1), 1e-1f);
+        Random random = new Random(3);
+        for (int i = 0; i < 10000; i++) {
+            float f = random.nextFloat();
+            float exact = scale.toValue(f);
+            assertEquals("f=" + f, exact, table.toValue(f), exact * 1e-4f);
+            assertEquals("f=" + f, f, table.toFraction(exact), 1e-4f);
+        }
+    }
+
+    @Test
+    public void exp_roundTrip() throws Exception {
+        ValueScale scale = ValueScale.exp(0, 100, 4);
+        ValueTable table = new ValueTable();
+        table.build(scale, 500);
+        Random random = new Random(5);
+        for (int i = 0; i < 10000; i++) {
+            float f = random.nextFloat();
+            assertEquals("f=" + f, f, table.toFraction(table.toValue(f)), 1e-4f);
+        }
+    }
+
+    @Test
+    public void custom_flatSegments() throws Exception {
+        // 中间一段是平的
+        ValueScale steps = new ValueScale(0, 2) {
+            @Override
+            public float toValue(float fraction) {
+                return fraction < 0.4f ? fraction / 0.4f : fraction < 0.6f ? 1f : 1f + (fraction - 0.6f) / 0.4f;
+            }
+        };
+        ValueTable table = new ValueTable();
+        table.build(steps, 101);
+        assertEquals(1f, table.toValue(0.5f), 1e-5f);
+        assertEquals(0.2f, table.toFraction(0.5f), 1e-4f);
+        assertEquals(0.8f, table.toFraction(1.5f), 1e-4f);
+        float f = table.toFraction(1f);
+        assertTrue("f=" + f, f >= 0.4f - 1e-4f && f <= 0.6f + 1e-4f);
+    }
+
+    @Test
+    public void toFraction_clampsOutOfRange() throws Exception {
+        ValueTable table = new ValueTable();
+        table.build(ValueScale.linear(-1, 1), 10);
+        assertEquals(0f, table.toFraction(-5), 0);
+        assertEquals(1f, table.toFraction(5), 0);
+        assertEquals(0.5f, table.toFraction(0), 1e-6f);
+        assertEquals(-1f, table.toValue(-0.5f), 0);
+        assertEquals(1f, table.toValue(2f), 0);
+    }
+
+    @Test
+    public void build_onlyWhenChanged() throws Exception {
+        ValueScale scale = ValueScale.linear(0, 1);
+        ValueTable table = new ValueTable();
+        assertTrue(table.build(scale, 100));
+        assertFalse(table.build(scale, 100));
+        assertTrue(table.build(scale, 200));
+        ValueScale other = ValueScale.linear(0, 1);
+        assertTrue(table.build(other, 200));
+        assertFalse(table.build(other, 200));
+        table.invalidate();
+        assertTrue(table.build(other, 200));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void build_rejectsDecreasing() throws Exception {
+        new ValueTable().build(new ValueScale(0, 1) {
+            @Override
+            public float toValue(float fraction) {
+                return fraction < 0.5f ? fraction : 1 - fraction;
+            }
+        }, 50);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void log_rejectsNonPositiveMin() throws Exception {
+        ValueScale.log(0, 10);
+    }
+}